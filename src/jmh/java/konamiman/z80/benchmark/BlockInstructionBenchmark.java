@@ -0,0 +1,71 @@
+package konamiman.z80.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import konamiman.z80.Z80ProcessorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static konamiman.z80.benchmark.Programs.bytes;
+
+
+/**
+ * Repeating block instructions over 1024 bytes. The operation is one iteration of the block instruction.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockInstructionBenchmark {
+
+    private static final int BlockLength = 1024;
+
+    @Param({"LDIR", "LDDR", "CPIR", "CPDR"})
+    public String instruction;
+
+    private Z80ProcessorImpl z80;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var opcode = switch (instruction) {
+            case "LDIR" -> 0xB0;
+            case "LDDR" -> 0xB8;
+            case "CPIR" -> 0xB1;
+            case "CPDR" -> 0xB9;
+            default -> throw new IllegalArgumentException(instruction);
+        };
+        var increment = (opcode & 0x08) == 0;
+        var source = increment ? 0x8000 : 0x8000 + BlockLength - 1;
+        var destination = increment ? 0xA000 : 0xA000 + BlockLength - 1;
+
+        z80 = Programs.newProcessor();
+        z80.getMemory().setContents(0, bytes(
+                0x21, source & 0xFF, source >> 8,               // LD HL,source
+                0x11, destination & 0xFF, destination >> 8,     // LD DE,destination
+                0x01, BlockLength & 0xFF, BlockLength >> 8,     // LD BC,BlockLength
+                0x3E, 0xAA,                                     // LD A,AAh (not found by CPIR/CPDR)
+                0xED, opcode,
+                Programs.RET), 0, null);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BlockLength)
+    public long blockInstruction(EmulatedClock clock) {
+        var tStates = Programs.run(z80, 0);
+        clock.tStates += tStates;
+        return tStates;
+    }
+}
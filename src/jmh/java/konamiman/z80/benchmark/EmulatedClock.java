@@ -0,0 +1,25 @@
+package konamiman.z80.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * Secondary benchmark result with the number of T states executed.
+ * In throughput mode it is reported as T states per second, that is, the emulated clock frequency in Hz
+ * (divide by 10^6 for MHz).
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class EmulatedClock {
+
+    public long tStates;
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        tStates = 0;
+    }
+}
@@ -0,0 +1,84 @@
+package konamiman.z80.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import konamiman.z80.Z80ProcessorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static konamiman.z80.benchmark.Programs.bytes;
+
+
+/**
+ * Cost of memory accesses and of the event dispatch, with and without listeners.
+ * Each invocation runs 1000 instructions that access memory plus a RET.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatchBenchmark {
+
+    private static final int Repetitions = 200;
+
+    /**
+     * <ul>
+     * <li>None: no listeners at all</li>
+     * <li>MemoryAccess: one memoryAccess listener</li>
+     * <li>InstructionFetch: one beforeInstructionFetch listener</li>
+     * <li>InstructionExecution: one beforeInstructionExecution and one afterInstructionExecution listener</li>
+     * <li>All: all of the above</li>
+     * </ul>
+     */
+    @Param({"None", "MemoryAccess", "InstructionFetch", "InstructionExecution", "All"})
+    public String listeners;
+
+    private Z80ProcessorImpl z80;
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole blackhole) {
+        var body = bytes(
+                0x7E,       // LD A,(HL)
+                0x77,       // LD (HL),A
+                0x34,       // INC (HL)
+                0x46,       // LD B,(HL)
+                0x70);      // LD (HL),B
+
+        z80 = Programs.newProcessor();
+        z80.getMemory().setContents(0, Programs.repeat(body, Repetitions), 0, null);
+
+        var all = listeners.equals("All");
+        if (all || listeners.equals("MemoryAccess"))
+            z80.memoryAccess().addListener(e -> blackhole.consume(e.getValue()));
+        if (all || listeners.equals("InstructionFetch"))
+            z80.beforeInstructionFetch().addListener(blackhole::consume);
+        if (all || listeners.equals("InstructionExecution")) {
+            z80.beforeInstructionExecution().addListener(blackhole::consume);
+            z80.afterInstructionExecution().addListener(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Repetitions * 5 + 1)
+    public long memoryAccess(EmulatedClock clock) {
+        z80.getRegisters().setHL((short) 0xC000);
+
+        var tStates = Programs.run(z80, 0);
+        clock.tStates += tStates;
+        return tStates;
+    }
+}
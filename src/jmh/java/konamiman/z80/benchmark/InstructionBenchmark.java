@@ -0,0 +1,93 @@
+package konamiman.z80.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import konamiman.z80.Z80ProcessorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static konamiman.z80.benchmark.Programs.bytes;
+
+
+/**
+ * Single opcode throughput per prefix group. Each invocation runs 1000 instructions
+ * (a body of five instructions of the group repeated 200 times) plus a RET.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstructionBenchmark {
+
+    private static final int Repetitions = 200;
+
+    @Param({"Unprefixed", "CB", "ED", "DD_FD", "DDCB_FDCB"})
+    public String group;
+
+    private Z80ProcessorImpl z80;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var body = switch (group) {
+            case "Unprefixed" -> bytes(
+                    0x78,             // LD A,B
+                    0x81,             // ADD A,C
+                    0x23,             // INC HL
+                    0x2B,             // DEC HL
+                    0xA8);            // XOR B
+            case "CB" -> bytes(
+                    0xCB, 0x00,       // RLC B
+                    0xCB, 0x11,       // RL C
+                    0xCB, 0x47,       // BIT 0,A
+                    0xCB, 0xD8,       // SET 3,B
+                    0xCB, 0x3F);      // SRL A
+            case "ED" -> bytes(
+                    0xED, 0x44,       // NEG
+                    0xED, 0x4A,       // ADC HL,BC
+                    0xED, 0x42,       // SBC HL,BC
+                    0xED, 0x57,       // LD A,I
+                    0xED, 0x56);      // IM 1
+            case "DD_FD" -> bytes(
+                    0xDD, 0x21, 0x00, 0xC0, // LD IX,C000h
+                    0xDD, 0x23,             // INC IX
+                    0xDD, 0x7E, 0x05,       // LD A,(IX+5)
+                    0xFD, 0x09,             // ADD IY,BC
+                    0xFD, 0x84);            // ADD A,IYH
+            case "DDCB_FDCB" -> bytes(
+                    0xDD, 0xCB, 0x05, 0x46, // BIT 0,(IX+5)
+                    0xDD, 0xCB, 0x05, 0x06, // RLC (IX+5)
+                    0xFD, 0xCB, 0x05, 0xC6, // SET 0,(IY+5)
+                    0xFD, 0xCB, 0x05, 0x4E, // BIT 1,(IY+5)
+                    0xDD, 0xCB, 0x05, 0x0E);// RRC (IX+5)
+            default -> throw new IllegalArgumentException(group);
+        };
+
+        z80 = Programs.newProcessor();
+        z80.getMemory().setContents(0, Programs.repeat(body, Repetitions), 0, null);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Repetitions * 5 + 1)
+    public long instructions(EmulatedClock clock) {
+        // keep the indexed accesses away from the program
+        z80.getRegisters().setIX((short) 0xC000);
+        z80.getRegisters().setIY((short) 0xC000);
+
+        var tStates = Programs.run(z80, 0);
+        clock.tStates += tStates;
+        return tStates;
+    }
+}
@@ -0,0 +1,102 @@
+package konamiman.z80.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import dotnet4j.util.compat.EventHandler;
+import konamiman.z80.Z80ProcessorImpl;
+import konamiman.z80.interfaces.Z80InterruptSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static konamiman.z80.benchmark.Programs.bytes;
+
+
+/**
+ * Maskable interrupt acceptance. The interrupt source requests an interrupt on every other check,
+ * so every NOP of the main program is followed by an interrupt whose service routine is just EI + RET.
+ * Each invocation accepts 1000 interrupts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterruptBenchmark {
+
+    private static final int Interrupts = 1000;
+
+    @Param({"1", "2"})
+    public int interruptMode;
+
+    private Z80ProcessorImpl z80;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        z80 = Programs.newProcessor();
+        z80.registerInterruptSource(new PulsingInterruptSource());
+
+        var memory = z80.getMemory();
+        memory.setContents(0x0038, bytes(0xFB, 0xC9), 0, null);     // EI, RET
+        memory.setContents(0x80FF, bytes(0x38, 0x00), 0, null);     // IM 2 vector: 0038h
+        memory.setContents(0x0100, bytes(
+                0x3E, 0x80,                                         // LD A,80h
+                0xED, 0x47,                                         // LD I,A
+                0xED, interruptMode == 1 ? 0x56 : 0x5E,             // IM 1 / IM 2
+                0xFB), 0, null);                                    // EI
+        for (int i = 0; i < Interrupts; i++)
+            memory.set(0x0107 + i, Programs.NOP);
+        memory.setContents(0x0107 + Interrupts, bytes(0xF3, 0xC9), 0, null); // DI, RET
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Interrupts)
+    public long interrupts(EmulatedClock clock) {
+        // one level deep in the stack, so that only the final RET empties it
+        var tStates = Programs.run(z80, 0x0100, 0xFFFD);
+        clock.tStates += tStates;
+        return tStates;
+    }
+
+    /**
+     * The processor asks for the INT line state only when it can accept the interrupt,
+     * so alternating the state makes every accepted interrupt be followed by one instruction
+     * of the interrupted program.
+     */
+    private static class PulsingInterruptSource implements Z80InterruptSource {
+
+        private static final Optional<Byte> DataBus = Optional.of((byte) 0xFF);
+
+        private final EventHandler<?> nmiInterruptPulse = new EventHandler<>();
+
+        private boolean active;
+
+        @Override
+        public EventHandler<?> nmiInterruptPulse() {
+            return nmiInterruptPulse;
+        }
+
+        @Override
+        public boolean isIntLineIsActive() {
+            active = !active;
+            return active;
+        }
+
+        @Override
+        public Optional<Byte> getValueOnDataBus() {
+            return DataBus;
+        }
+    }
+}
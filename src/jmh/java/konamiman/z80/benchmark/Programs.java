@@ -0,0 +1,81 @@
+package konamiman.z80.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import konamiman.z80.Z80ProcessorImpl;
+
+
+/**
+ * Helpers to build the processors and programs used by the benchmarks.
+ */
+final class Programs {
+
+    private Programs() {
+    }
+
+    static final byte RET = (byte) 0xC9;
+    static final byte NOP = 0x00;
+
+    /**
+     * A processor without clock synchronization that stops on RET with the stack empty.
+     */
+    static Z80ProcessorImpl newProcessor() {
+        var z80 = new Z80ProcessorImpl();
+        z80.setClockSynchronizer(null);
+        z80.setAutoStopOnRetWithStackEmpty(true);
+        z80.reset();
+        return z80;
+    }
+
+    /**
+     * Builds a program made of the body repeated the specified number of times and a final RET.
+     */
+    static byte[] repeat(byte[] body, int times) {
+        var program = new byte[body.length * times + 1];
+        for (int i = 0; i < times; i++)
+            System.arraycopy(body, 0, program, i * body.length, body.length);
+        program[program.length - 1] = RET;
+        return program;
+    }
+
+    static byte[] bytes(int... values) {
+        var result = new byte[values.length];
+        for (int i = 0; i < values.length; i++)
+            result[i] = (byte) values[i];
+        return result;
+    }
+
+    /**
+     * Runs the program that starts at the specified address until it stops,
+     * and returns the T states elapsed.
+     */
+    static long run(Z80ProcessorImpl z80, int address) {
+        return run(z80, address, 0xFFFF);
+    }
+
+    /**
+     * Same as {@link #run(Z80ProcessorImpl, int)}, with the specified initial stack pointer.
+     */
+    static long run(Z80ProcessorImpl z80, int address, int stackPointer) {
+        var before = z80.getTStatesElapsedSinceStart();
+        z80.getRegisters().setPC((short) address);
+        z80.getRegisters().setSP((short) stackPointer);
+        z80.continue_();
+        return z80.getTStatesElapsedSinceStart() - before;
+    }
+
+    static byte[] resource(String name) {
+        try (InputStream is = Programs.class.getResourceAsStream(name)) {
+            if (is == null)
+                throw new IllegalArgumentException("resource not found: " + name);
+            var baos = new ByteArrayOutputStream();
+            is.transferTo(baos);
+            return baos.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
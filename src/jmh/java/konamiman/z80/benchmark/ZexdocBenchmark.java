@@ -0,0 +1,101 @@
+package konamiman.z80.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import konamiman.z80.Z80ProcessorImpl;
+import konamiman.z80.enums.TrapAction;
+import konamiman.z80.traps.Traps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static konamiman.z80.utils.NumberUtils.getHighByte;
+import static konamiman.z80.utils.NumberUtils.getLowByte;
+
+
+/**
+ * Whole program runs of a single ZEXDOC test. The test is selected by its index
+ * in the ZEXDOC tests table (0 is "&lt;adc,sbc&gt; hl,&lt;bc,de,hl,sp&gt;", see zexdoc.src for the rest).
+ * The defaults are 13 "&lt;inc,dec&gt; a", 42 "ld a,&lt;(bc),(de)&gt;" and 56 "neg".
+ * <p>
+ * Every test takes from tens of milliseconds to several seconds,
+ * so this uses single shot measurements, and the emulated clock frequency is printed
+ * at the end of each iteration since auxiliary counters are not available in this mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ZexdocBenchmark {
+
+    private static final int ProgramAddress = 0x100;
+    private static final int LoadTestsAddress = 0x120;
+    private static final int TestsTableAddress = 0x13A;
+
+    @Param({"13", "42", "56"})
+    public int test;
+
+    private Z80ProcessorImpl z80;
+
+    private byte[] program;
+
+    private long tStates;
+    private long nanos;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        program = Programs.resource("/zexdoc.com");
+
+        // just enough CP/M for ZEXDOC: exit on warm boot, output is discarded
+        z80 = Programs.newProcessor();
+        var traps = new Traps();
+        traps.set((short) 0x0000, processor -> TrapAction.Stop);
+        traps.set((short) 0x0005, processor -> TrapAction.Return);
+        z80.setTraps(traps);
+    }
+
+    @Setup(Level.Invocation)
+    public void load() {
+        var memory = z80.getMemory();
+        memory.setContents(ProgramAddress, program, 0, null);
+        memory.set(6, (byte) 0xff);
+        memory.set(7, (byte) 0xff);
+
+        // start at the selected test and end the table right after it
+        var testAddress = TestsTableAddress + test * 2;
+        memory.set(LoadTestsAddress, getLowByte((short) testAddress));
+        memory.set(LoadTestsAddress + 1, getHighByte((short) testAddress));
+        memory.set(testAddress + 2, (byte) 0);
+        memory.set(testAddress + 3, (byte) 0);
+
+        z80.reset();
+    }
+
+    @Benchmark
+    public long zexdoc() {
+        var start = System.nanoTime();
+        var runTStates = Programs.run(z80, ProgramAddress);
+        nanos += System.nanoTime() - start;
+        tStates += runTStates;
+        return runTStates;
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        System.out.printf("emulated clock: %.2f MHz%n", tStates * 1000.0 / nanos);
+        tStates = 0;
+        nanos = 0;
+    }
+}
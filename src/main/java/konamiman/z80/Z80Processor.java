@@ -2,14 +2,14 @@ package konamiman.z80;
 
 import java.util.EventObject;
 import java.util.List;
-
-import konamiman.z80.impls.ClockSynchronizerImpl;
-import konamiman.z80.impls.Z80RegistersImpl;
-import konamiman.z80.interfaces.ClockSynchronizer;
-import konamiman.z80.interfaces.Memory;
-import konamiman.z80.interfaces.Z80InstructionExecutor;
-import konamiman.z80.interfaces.Z80InterruptSource;
-import konamiman.z80.interfaces.Z80Registers;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import konamiman.z80.debugging.Breakpoints;
+import konamiman.z80.debugging.Watchpoints;
+import konamiman.z80.devices.MemoryMap;
+import konamiman.z80.devices.PortHandlers;
+import konamiman.z80.enums.MemoryAccessEventType;
 import konamiman.z80.enums.MemoryAccessMode;
 import konamiman.z80.enums.ProcessorState;
 import konamiman.z80.enums.StopReason;
@@ -17,7 +17,25 @@ import konamiman.z80.events.AfterInstructionExecutionEvent;
 import konamiman.z80.events.BeforeInstructionExecutionEvent;
 import konamiman.z80.events.BeforeInstructionFetchEvent;
 import konamiman.z80.events.MemoryAccessEvent;
+import konamiman.z80.impls.ClockSynchronizerImpl;
+import konamiman.z80.impls.Z80RegistersImpl;
 import konamiman.z80.instructions.core.Z80InstructionExecutorImpl;
+import konamiman.z80.interfaces.ClockSynchronizer;
+import konamiman.z80.interfaces.Memory;
+import konamiman.z80.interfaces.Z80InstructionExecutor;
+import konamiman.z80.interfaces.Z80InterruptSource;
+import konamiman.z80.interfaces.Z80Registers;
+import konamiman.z80.jfr.Z80FlightRecorder;
+import konamiman.z80.management.ListenerProfile;
+import konamiman.z80.management.Z80ProcessorMetrics;
+import konamiman.z80.profiling.CallGraphProfiler;
+import konamiman.z80.profiling.CodeCoverage;
+import konamiman.z80.profiling.ExecutionHeatmap;
+import konamiman.z80.replay.InputRecorder;
+import konamiman.z80.replay.InputReplayer;
+import konamiman.z80.trace.TraceRecorder;
+import konamiman.z80.traps.Traps;
+import konamiman.z80.utils.RunResult;
 import dotnet4j.util.compat.EventHandler;
 
 
@@ -129,6 +147,57 @@ public interface Z80Processor {
      */
     int executeNextInstruction();
 
+    /**
+     * Requests the processor to stop. Unlike {@link konamiman.z80.interfaces.ExecutionStopper#stop(boolean)},
+     * this method can be invoked from any thread at any time, not only from within an event handler.
+     *
+     * <remarks>
+     * <para>
+     * The request is checked before each instruction fetch, so the processor will stop after at most one
+     * more instruction (plus the servicing of a pending interrupt, and the current clock synchronization wait
+     * if a {@link #getClockSynchronizer()} is in use) has been executed.
+     * {@link #getStopReason()} will then return {@link StopReason#StopInvoked}.
+     * </para>
+     * <para>
+     * If the processor is not running, the request is kept and honored as soon as the next execution starts.
+     * A request that arrives while the processor is stopping for another reason is discarded.
+     * {@link #executeNextInstruction()} always executes its instruction and leaves pending requests untouched.
+     * </para>
+     */
+    void requestStop();
+
+    /**
+     * Same as {@link #requestStop()}, but {@link #getStopReason()} will return {@link StopReason#PauseInvoked}
+     * and {@link #getState()} will return {@link ProcessorState#Paused}.
+     * If both a stop and a pause are requested before the processor checks them, the stop wins.
+     */
+    void requestPause();
+
+    /**
+     * Asynchronous version of {@link #start(Object)}: the run is performed by a task submitted to the
+     * supplied executor, so no thread needs to be blocked waiting for the processor to stop.
+     *
+     * <remarks>
+     * The returned future completes with the value of {@link #getStopReason()} when the run finishes,
+     * or exceptionally if the run throws. Cancelling the future stops the processor cooperatively
+     * as {@link #requestStop()} does, but only that run: if the task has not started yet the run does not happen at all,
+     * and if it has already finished the cancellation has no effect on later runs.
+     * The statistics of the run are available through {@link #getLastRunResult()} once the future completes.
+     *
+     * @param userState If this value is not null, it will be copied to the {@link #getUserState()} property.
+     * @param executor The executor that will perform the run.
+     * @return A future that completes when the processor stops.
+     */
+    CompletableFuture<StopReason> startAsync(Object userState, Executor executor);
+
+    /**
+     * Asynchronous version of {@link #continue_()}, see {@link #startAsync(Object, Executor)}.
+     *
+     * @param executor The executor that will perform the run.
+     * @return A future that completes when the processor stops.
+     */
+    CompletableFuture<StopReason> continueAsync(Executor executor);
+
 //#endregion
 
 //#region Information and state
@@ -161,6 +230,35 @@ public interface Z80Processor {
      */
     long getTStatesElapsedSinceReset();
 
+    /**
+     * Obtains the count of instructions executed since the processor execution started.
+     *
+     * <remarks>
+     * This property is set to zero when the processor object is created, and when the
+     * {@link #start(Object)} method is invoked. It is not affected by the
+     * {@link #continue_()} and {@link #reset()} methods.
+     */
+    long getInstructionsExecutedSinceStart();
+
+    /**
+     * Obtains the statistics of the last run started with {@link #start(Object)} or {@link #continue_()}
+     * (or their asynchronous counterparts), or null if the processor has never run.
+     * Single instruction executions ({@link #executeNextInstruction()}) are not runs and don't update this value.
+     */
+    RunResult getLastRunResult();
+
+    /**
+     * Obtains the address of the instruction being executed and the value of SP when it started,
+     * packed as (PC &lt;&lt; 16) | SP, so that both can be read at once from another thread.
+     *
+     * <remarks>
+     * The value is published once per instruction with a single memory write and no synchronization,
+     * it is intended for sampling profilers: readers in other threads see a recent value,
+     * but not necessarily the one of the instruction being executed right now.
+     * Before the first instruction is executed the value is -1.
+     */
+    int getPcAndSpSnapshot();
+
     /**
      * Obtains the reason for the processor not being in the running state,
      * that is, what triggered the last stop.
@@ -409,6 +507,145 @@ public interface Z80Processor {
      */
     ClockSynchronizer getClockSynchronizer(); void setClockSynchronizer(ClockSynchronizer value);
 
+    /**
+     * Gets or sets the number of T states that are accumulated before {@link ClockSynchronizer#tryWait(int)} is invoked.
+     *
+     * <remarks>
+     * <para>
+     * With the default value of 0 the clock synchronizer is invoked after every instruction.
+     * Frontends that only need to keep pace at frame or scanline boundaries can set this to the length
+     * of a frame or scanline in T states, so that the synchronizer is invoked once per quantum
+     * (with the exact number of T states elapsed, which may exceed the quantum by at most one instruction)
+     * instead of once per instruction.
+     * </para>
+     * <para>
+     * T states still pending when the processor stops are discarded, since the synchronizer
+     * is restarted anyway when the execution is resumed.
+     * </para>
+     *
+     * @throws IllegalArgumentException The value is negative.
+     */
+    int getClockSynchronizationQuantum(); void setClockSynchronizationQuantum(int value);
+
+    /**
+     * Gets or sets the collector of execution metrics (instructions and T states executed,
+     * interrupts accepted, time spent in listeners and in the clock synchronizer, opcode histogram).
+     *
+     * <remarks>
+     * This property can be set to _null_ (the default), in this case no metrics are collected.
+     * See {@link Z80ProcessorMetrics#register(String)} to expose the metrics as a JMX MBean.
+     */
+    Z80ProcessorMetrics getMetrics(); void setMetrics(Z80ProcessorMetrics value);
+
+    /**
+     * Gets or sets a value that indicates whether the processor emits Java Flight Recorder events
+     * (runs, interrupts, clock synchronizer waits, block instructions and periodic PC samples),
+     * see {@link Z80FlightRecorder}. The default is false, in this case no events are emitted
+     * and the processor is not sampled.
+     */
+    boolean getFlightRecorderEnabled(); void setFlightRecorderEnabled(boolean value);
+
+    /**
+     * Gets or sets the exact per-address profile of executions, T states, reads and writes.
+     *
+     * <remarks>
+     * This property can be set to _null_ (the default), in this case no profile is collected.
+     * The same instance can be attached to several processors (not running at the same time)
+     * to get an aggregated profile, or separate instances can be merged later.
+     */
+    ExecutionHeatmap getHeatmap(); void setHeatmap(ExecutionHeatmap value);
+
+    /**
+     * Gets or sets the profiler of T states per Z80 routine and per call stack.
+     *
+     * <remarks>
+     * This property can be set to _null_ (the default), in this case no call graph is collected.
+     * The profiler should be attached before the code to profile starts running,
+     * routines entered before that are accounted to the top level.
+     */
+    CallGraphProfiler getCallGraphProfiler(); void setCallGraphProfiler(CallGraphProfiler value);
+
+    /**
+     * Gets or sets the collector of instruction and branch coverage.
+     *
+     * <remarks>
+     * This property can be set to _null_ (the default), in this case no coverage is collected.
+     */
+    CodeCoverage getCodeCoverage(); void setCodeCoverage(CodeCoverage value);
+
+    /**
+     * Gets or sets the recorder that writes every instruction executed, with the registers
+     * and the memory and port accesses, to a binary trace file.
+     *
+     * <remarks>
+     * This property can be set to _null_ (the default), in this case no trace is recorded.
+     * Set it back to _null_ before closing the recorder.
+     */
+    TraceRecorder getTraceRecorder(); void setTraceRecorder(TraceRecorder value);
+
+    /**
+     * Gets or sets the recorder of the values that the processor receives from the outside
+     * (port reads and interrupts), to replay the execution later with {@link #setInputReplayer(InputReplayer)}.
+     *
+     * <remarks>
+     * This property can be set to _null_ (the default), in this case no inputs are recorded.
+     */
+    InputRecorder getInputRecorder(); void setInputRecorder(InputRecorder value);
+
+    /**
+     * Gets or sets the source of recorded inputs that replaces the ports and the interrupt sources.
+     *
+     * <remarks>
+     * This property can be set to _null_ (the default), in this case the inputs come from the ports space
+     * and the registered interrupt sources. While it is set, the clock is not synchronized.
+     */
+    InputReplayer getInputReplayer(); void setInputReplayer(InputReplayer value);
+
+    /**
+     * Gets or sets the execution breakpoints, that stop the processor before executing the instructions
+     * at the given addresses with {@link StopReason#BreakpointHit}.
+     *
+     * <remarks>
+     * This property can be set to _null_ (the default), in this case the execution loop doesn't check for breakpoints.
+     */
+    Breakpoints getBreakpoints(); void setBreakpoints(Breakpoints value);
+
+    /**
+     * Gets or sets the watchpoints, that pass the accesses to the given memory addresses and ports to handlers
+     * without firing {@link #memoryAccess()} listeners for every other access.
+     *
+     * <remarks>
+     * This property can be set to _null_ (the default), in this case memory and port accesses are not checked.
+     */
+    Watchpoints getWatchpoints(); void setWatchpoints(Watchpoints value);
+
+    /**
+     * Gets or sets the Java handlers that run when the execution reaches given addresses,
+     * for example to emulate the calls to an operating system.
+     *
+     * <remarks>
+     * This property can be set to _null_ (the default), in this case the execution loop doesn't look for traps.
+     */
+    Traps getTraps(); void setTraps(Traps value);
+
+    /**
+     * Gets or sets the devices that handle the reads from and writes to given ports,
+     * instead of the ports space and the memory access events.
+     *
+     * <remarks>
+     * This property can be set to _null_ (the default), in this case all the ports are accessed in the ports space.
+     */
+    PortHandlers getPortHandlers(); void setPortHandlers(PortHandlers value);
+
+    /**
+     * Gets or sets the memory mapped devices that handle the reads from and writes to given address ranges,
+     * instead of the memory and the memory access events.
+     *
+     * <remarks>
+     * This property can be set to _null_ (the default), in this case all the addresses are accessed in the memory.
+     */
+    MemoryMap getMemoryMap(); void setMemoryMap(MemoryMap value);
+
 //#endregion
 
 //#region Events
@@ -418,6 +655,16 @@ public interface Z80Processor {
      */
     EventHandler<MemoryAccessEvent> memoryAccess();
 
+    /**
+     * Memory access event restricted to one type of access. Is triggered before or after each memory or port
+     * read or write as given by the type, after the listeners of {@link #memoryAccess()}.
+     *
+     * <remarks>
+     * The event object of an access is created only if there are listeners for its type here or in {@link #memoryAccess()},
+     * so a listener of e.g. {@link MemoryAccessEventType#BeforePortWrite} doesn't slow down the memory accesses.
+     */
+    EventHandler<MemoryAccessEvent> memoryAccess(MemoryAccessEventType eventType);
+
     /**
      * Pre-instruction fetch event. It is triggered before the next instruction is fetched.
      */
@@ -433,6 +680,22 @@ public interface Z80Processor {
      */
     EventHandler<AfterInstructionExecutionEvent> afterInstructionExecution();
 
+    /**
+     * Obtains the number of invocations and the time spent in every listener of the processor events,
+     * the most expensive first, to find out which device or debugger hook slows down the emulation.
+     *
+     * <remarks>
+     * Listeners are only measured while {@link Z80ProcessorMetrics#isListenerTimingEnabled()} is true
+     * for the metrics attached to the processor, since measuring takes two clock readings per listener invocation.
+     * The profiles of removed listeners are discarded.
+     */
+    List<ListenerProfile> getListenerProfiles();
+
+    /**
+     * Sets the counters returned by {@link #getListenerProfiles()} to zero.
+     */
+    void resetListenerProfiles();
+
 //#endregion
 
 //#region Utils
@@ -2,17 +2,28 @@ package konamiman.z80;
 
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.EventObject;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import dotnet4j.util.compat.EventHandler;
+import konamiman.z80.debugging.Breakpoints;
+import konamiman.z80.debugging.Watchpoints;
+import konamiman.z80.devices.MemoryMap;
+import konamiman.z80.devices.PortHandlers;
 import konamiman.z80.enums.InterruptType;
 import konamiman.z80.enums.MemoryAccessEventType;
 import konamiman.z80.enums.MemoryAccessMode;
 import konamiman.z80.enums.ProcessorState;
 import konamiman.z80.enums.StopReason;
+import konamiman.z80.enums.TrapAction;
+import konamiman.z80.enums.WatchpointAccess;
 import konamiman.z80.events.AfterInstructionExecutionEvent;
 import konamiman.z80.events.BeforeInstructionExecutionEvent;
 import konamiman.z80.events.BeforeInstructionFetchEvent;
@@ -31,9 +42,23 @@ import konamiman.z80.interfaces.Z80InterruptSource;
 import konamiman.z80.interfaces.Z80ProcessorAgent;
 import konamiman.z80.interfaces.Z80ProcessorAgentExtendedPorts;
 import konamiman.z80.interfaces.Z80Registers;
+import konamiman.z80.jfr.BlockInstructionEvent;
+import konamiman.z80.jfr.Z80FlightRecorder;
+import konamiman.z80.management.ListenerProfile;
+import konamiman.z80.management.ProfiledEventHandler;
+import konamiman.z80.management.Z80ProcessorMetrics;
+import konamiman.z80.profiling.CallGraphProfiler;
+import konamiman.z80.profiling.CodeCoverage;
+import konamiman.z80.profiling.ExecutionHeatmap;
+import konamiman.z80.replay.InputRecorder;
+import konamiman.z80.replay.InputReplayer;
+import konamiman.z80.trace.TraceRecorder;
+import konamiman.z80.traps.TrapHandler;
+import konamiman.z80.traps.Traps;
 import konamiman.z80.utils.Bit;
 import konamiman.z80.utils.InstructionExecutionContext;
 import konamiman.z80.utils.NumberUtils;
+import konamiman.z80.utils.RunResult;
 
 import static java.lang.System.getLogger;
 import static konamiman.z80.utils.NumberUtils.createShort;
@@ -61,6 +86,24 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
     private static final byte RETI_RETN_prefix = (byte) 0xed;
     private static final byte RETI_opcode = 0x4D;
     private static final byte RETN_opcode = 0x45;
+    private static final byte DD_prefix = (byte) 0xdd;
+    private static final byte FD_prefix = (byte) 0xfd;
+
+    private static final int StopRequestedSignal = 1;
+    private static final int PauseRequestedSignal = 2;
+    private static final int CancelRequestedSignal = 4;
+
+    private static final VarHandle SIGNAL;
+    private static final VarHandle PC_AND_SP_SNAPSHOT;
+
+    static {
+        try {
+            SIGNAL = MethodHandles.lookup().findVarHandle(Z80ProcessorImpl.class, "signal", int.class);
+            PC_AND_SP_SNAPSHOT = MethodHandles.lookup().findVarHandle(Z80ProcessorImpl.class, "pcAndSpSnapshot", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     public Z80ProcessorImpl() {
         clockSynchronizer = new ClockSynchronizerImpl();
@@ -74,15 +117,8 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
 
         memory = new PlainMemory(MemorySpaceSize);
         portsSpace = new PlainMemory(portSpaceSize);
-        portsAccessModes = new MemoryAccessMode[portSpaceSize];
-        portWaitStates = new byte[portSpaceSize];
-
-        setMemoryWaitStatesForM1((short) 0, MemorySpaceSize, (byte) 0);
-        setMemoryWaitStatesForNonM1((short) 0, MemorySpaceSize, (byte) 0);
-        setPortWaitStates((short) 0, portSpaceSize, (byte) 0);
 
-        setMemoryAccessMode((short) 0, MemorySpaceSize, MemoryAccessMode.ReadAndWrite);
-        setPortsSpaceAccessMode((byte) 0, portSpaceSize, MemoryAccessMode.ReadAndWrite);
+        // access modes and wait states arrays are allocated on first non-default setting
 
         registers = new Z80RegistersImpl();
         interruptSources = new ArrayList<>();
@@ -103,6 +139,7 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
 
         reset();
         tStatesElapsedSinceStart = 0;
+        instructionsExecutedSinceStart = 0;
 
         instructionExecutionLoop(false);
     }
@@ -112,6 +149,46 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
         instructionExecutionLoop(false);
     }
 
+    @Override
+    public CompletableFuture<StopReason> startAsync(Object userState, Executor executor) {
+        return runAsync(() -> start(userState), executor);
+    }
+
+    @Override
+    public CompletableFuture<StopReason> continueAsync(Executor executor) {
+        return runAsync(this::continue_, executor);
+    }
+
+    private CompletableFuture<StopReason> runAsync(Runnable run, Executor executor) {
+        var future = new CompletableFuture<StopReason>();
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled() && asyncRun == future) {
+                cancelledRun = future;
+                SIGNAL.getAndBitwiseOr(this, CancelRequestedSignal);
+            }
+        });
+
+        try {
+            executor.execute(() -> {
+                asyncRun = future;
+                try {
+                    if (future.isDone())
+                        return; // cancelled before starting
+                    run.run();
+                    future.complete(stopReason);
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    asyncRun = null;
+                }
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
     private int instructionExecutionLoop(boolean isSingleInstruction /* = false */) {
         try {
             return instructionExecutionLoopCore(isSingleInstruction);
@@ -129,20 +206,70 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
         stopReason = StopReason.NotApplicable;
         state = ProcessorState.Running;
         var totalTStates = 0;
+        var pendingSyncTStates = 0;
+        var runStartNanos = System.nanoTime();
+        var runStartTStates = tStatesElapsedSinceStart;
+        var runStartInstructions = instructionsExecutedSinceStart;
+        if (metrics != null) metrics.runStarted();
+        var flightRecorderEnabled = this.flightRecorderEnabled;
+        var runEvent = isSingleInstruction || !flightRecorderEnabled ? null : Z80FlightRecorder.beginRun();
+        BlockInstructionEvent blockInstructionEvent = null;
+        var ignoredBreakpoint = resumedBreakpoint;
+        resumedBreakpoint = -1;
+        var ignoredTrap = resumedTrap;
+        resumedTrap = -1;
 
         while (!executionContext.getMustStop()) {
+            if (signal != 0 && !isSingleInstruction) {
+                var requested = (int) SIGNAL.getAndSet(this, 0);
+                if ((requested & CancelRequestedSignal) != 0 && asyncRun != null && cancelledRun == asyncRun)
+                    requested |= StopRequestedSignal;
+                if ((requested & (StopRequestedSignal | PauseRequestedSignal)) != 0) {
+                    executionContext.setStopReason((requested & StopRequestedSignal) != 0 ? StopReason.StopInvoked : StopReason.PauseInvoked);
+                    break;
+                }
+            }
+
             executionContext.startNewInstruction();
 
             fireBeforeInstructionFetchEvent();
             if (executionContext.getMustStop())
                 break;
 
+            var instructionAddress = registers.getPC();
+            var instructionSp = registers.getSP();
+            if (breakpoints != null && !isSingleInstruction && breakpoints.isSet(instructionAddress)
+                    && (instructionAddress & 0xffff) != ignoredBreakpoint && breakpoints.hit(instructionAddress, this) != null) {
+                resumedBreakpoint = instructionAddress & 0xffff;
+                executionContext.setStopReason(StopReason.BreakpointHit);
+                break;
+            }
+            ignoredBreakpoint = -1;
+            if (traps != null && (instructionAddress & 0xffff) != ignoredTrap) {
+                var trapHandler = traps.get(instructionAddress);
+                if (trapHandler != null && runTrap(trapHandler, instructionAddress))
+                    continue;
+            }
+            ignoredTrap = -1;
+            PC_AND_SP_SNAPSHOT.setOpaque(this, instructionAddress << 16 | instructionSp & 0xffff);
             var executionTStates = executeNextOpcode();
 
             totalTStates = executionTStates + executionContext.getAccumulatedMemoryWaitStates();
+            instructionsExecutedSinceStart++;
             tStatesElapsedSinceStart += totalTStates;
             tStatesElapsedSinceReset += totalTStates;
 
+            if (heatmap != null)
+                heatmap.instructionExecuted(instructionAddress, totalTStates);
+            if (callGraphProfiler != null)
+                updateCallGraph(instructionSp, totalTStates);
+            if (codeCoverage != null)
+                updateCodeCoverage(instructionAddress);
+
+            if (flightRecorderEnabled && Z80FlightRecorder.isBlockInstructionRelevant(blockInstructionEvent, executionContext.getOpcodeBytes()))
+                blockInstructionEvent = Z80FlightRecorder.blockInstructionExecuted(
+                        blockInstructionEvent, executionContext.getOpcodeBytes(), instructionAddress, registers.getPC(), totalTStates);
+
             throwIfNoFetchFinishedEventFired();
 
             if (!isSingleInstruction) {
@@ -157,29 +284,149 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
                 isHalted = executionContext.isHaltInstruction();
 
             var interruptTStates = acceptPendingInterrupt();
+            if (callGraphProfiler != null && interruptTStates != 0)
+                callGraphProfiler.instructionExecuted(interruptTStates);
             totalTStates += interruptTStates;
             tStatesElapsedSinceStart += interruptTStates;
             tStatesElapsedSinceReset += interruptTStates;
 
+            if (traceRecorder != null)
+                traceRecorder.instructionExecuted(this, instructionAddress, executionContext.getOpcodeBytes(),
+                        tStatesElapsedSinceStart - totalTStates, totalTStates, interruptTStates != 0);
+
+            if (metrics != null)
+                metrics.instructionExecuted(executionContext.getOpcodeBytes(), totalTStates);
+
             if (isSingleInstruction)
                 executionContext.setStopReason(StopReason.ExecuteNextInstructionInvoked);
-            else if (clockSynchronizer != null)
-                clockSynchronizer.tryWait(totalTStates);
+            else if (clockSynchronizer != null && inputReplayer == null) {
+                pendingSyncTStates += totalTStates;
+                if (pendingSyncTStates >= clockSynchronizationQuantum) {
+                    synchronizeClock(pendingSyncTStates);
+                    pendingSyncTStates = 0;
+                }
+            }
         }
 
         if (clockSynchronizer != null)
             clockSynchronizer.stop();
+        if (metrics != null) metrics.runStopped();
+        if (blockInstructionEvent != null) Z80FlightRecorder.endBlockInstruction(blockInstructionEvent, false);
+        if (!isSingleInstruction)
+            signal = 0;
         this.stopReason = executionContext.getStopReason();
         this.state =
                 stopReason == StopReason.PauseInvoked
                         ? ProcessorState.Paused
                         : ProcessorState.Stopped;
 
+        if (!isSingleInstruction) {
+            lastRunResult = new RunResult(
+                    stopReason,
+                    tStatesElapsedSinceStart - runStartTStates,
+                    instructionsExecutedSinceStart - runStartInstructions,
+                    System.nanoTime() - runStartNanos);
+            if (runEvent != null)
+                Z80FlightRecorder.endRun(runEvent, stopReason,
+                        lastRunResult.getTStates(), lastRunResult.getInstructions(), lastRunResult.getWallTimeNanos());
+        }
+
         executionContext = null;
 
         return totalTStates;
     }
 
+    /**
+     * Runs the handler of a trap, returns true if the instruction at the address of the trap must not be executed.
+     */
+    private boolean runTrap(TrapHandler handler, short address) {
+        var action = handler.trap(this);
+        if (action == TrapAction.Stop) {
+            executionContext.setStopReason(StopReason.StopInvoked);
+            if (registers.getPC() == address)
+                resumedTrap = address & 0xffff;
+        } else if (action == TrapAction.Return) {
+            if (autoStopOnRetWithStackEmpty && registers.getSP() == startOfStack)
+                executionContext.setStopReason(StopReason.RetWithStackEmpty);
+            executeRet();
+        }
+
+        return executionContext.getMustStop() || registers.getPC() != address;
+    }
+
+    /**
+     * Updates the shadow call stack of the call graph profiler after an instruction has been executed.
+     * CALL and RST are recognized by the opcode and by the return address having been pushed,
+     * so that untaken conditional calls are ignored.
+     */
+    private void updateCallGraph(short instructionSp, int tStates) {
+        callGraphProfiler.instructionExecuted(tStates);
+
+        if (executionContext.isRetInstruction()) {
+            callGraphProfiler.routineReturned(instructionSp);
+        } else if (executionContext.isLdSpInstruction()) {
+            callGraphProfiler.stackPointerLoaded(registers.getSP());
+        } else if (registers.getSP() == (short) (instructionSp - 2)) {
+            var opcodeBytes = executionContext.getOpcodeBytes();
+            var index = 0;
+            while (index < opcodeBytes.size() - 1 && (opcodeBytes.get(index) == DD_prefix || opcodeBytes.get(index) == FD_prefix))
+                index++;
+            var opcode = opcodeBytes.get(index) & 0xff;
+            if (opcode == 0xCD || (opcode & 0xC7) == 0xC4 || (opcode & 0xC7) == 0xC7) // CALL nn, CALL cc,nn, RST
+                callGraphProfiler.routineCalled(registers.getPC(), registers.getSP());
+        }
+    }
+
+    /**
+     * Records the instruction just executed in the code coverage, with the outcome if it is a conditional branch.
+     * The outcome is given by the condition, which none of these instructions changes, and not by the new PC,
+     * so that a jump to the next instruction (as JR Z,$+2) counts as taken.
+     */
+    private void updateCodeCoverage(short instructionAddress) {
+        codeCoverage.instructionExecuted(instructionAddress);
+
+        byte opcode = executionContext.getOpcodeBytes().get(0);
+        if (!CodeCoverage.isConditionalBranch(opcode))
+            return;
+
+        boolean taken;
+        if (opcode == 0x10) // DJNZ d
+            taken = registers.getB() != 0;
+        else if ((opcode & 0xC0) == 0) // JR cc,d
+            taken = isConditionMet((opcode >> 3) & 3);
+        else // RET cc, JP cc,nn and CALL cc,nn
+            taken = isConditionMet((opcode >> 3) & 7);
+        codeCoverage.branchExecuted(instructionAddress, taken);
+    }
+
+    /**
+     * Evaluates a condition with its encoding in the opcodes: NZ, Z, NC, C, PO, PE, P, M.
+     */
+    private boolean isConditionMet(int condition) {
+        return switch (condition) {
+            case 0 -> !registers.getZF().booleanValue();
+            case 1 -> registers.getZF().booleanValue();
+            case 2 -> !registers.getCF().booleanValue();
+            case 3 -> registers.getCF().booleanValue();
+            case 4 -> !registers.getPF().booleanValue();
+            case 5 -> registers.getPF().booleanValue();
+            case 6 -> !registers.getSF().booleanValue();
+            default -> registers.getSF().booleanValue();
+        };
+    }
+
+    private void synchronizeClock(int tStates) {
+        var event = flightRecorderEnabled ? Z80FlightRecorder.beginClockSyncWait() : null;
+        if (metrics == null) {
+            clockSynchronizer.tryWait(tStates);
+        } else {
+            var start = System.nanoTime();
+            clockSynchronizer.tryWait(tStates);
+            metrics.clockSyncWaited(System.nanoTime() - start);
+        }
+        if (event != null) Z80FlightRecorder.endClockSyncWait(event, tStates);
+    }
+
     private int executeNextOpcode() {
         if (isHalted) {
             executionContext.getOpcodeBytes().add(NOP_opcode);
@@ -193,20 +440,36 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
         if (executionContext.isEiOrDiInstruction())
             return 0;
 
-        if (isNmiInterruptPending()) {
+        var tStates = tStatesElapsedSinceStart;
+        if (inputReplayer != null ? inputReplayer.takeNmi(tStates) : isNmiInterruptPending()) {
+            if (inputRecorder != null) inputRecorder.nmiAccepted(tStates);
             isHalted = false;
             registers.setIFF1(Bit.of(0));
             executeCall(NmiServiceRoutine);
             triggerInterruptEvent(InterruptType.NonMaskable);
+            if (flightRecorderEnabled) Z80FlightRecorder.interruptAccepted(this, InterruptType.NonMaskable, true);
             return 11;
         }
 
         if (!isInterruptsEnabled())
             return 0;
 
-        var activeIntSource = interruptSources.stream().filter(Z80InterruptSource::isIntLineIsActive).findFirst().orElse(null);
-        if (activeIntSource == null)
-            return 0;
+        byte dataBusValue;
+        if (inputReplayer != null) {
+            if (!inputReplayer.takeInterrupt(tStates))
+                return 0;
+            dataBusValue = inputReplayer.getDataBusValue();
+        } else {
+            Z80InterruptSource activeIntSource = null;
+            for (int i = 0; i < interruptSources.size() && activeIntSource == null; i++) {
+                if (interruptSources.get(i).isIntLineIsActive())
+                    activeIntSource = interruptSources.get(i);
+            }
+            if (activeIntSource == null)
+                return 0;
+            dataBusValue = interruptMode == 1 ? (byte) 0xFF : activeIntSource.getValueOnDataBus().orElse((byte) 0xFF);
+        }
+        if (inputRecorder != null) inputRecorder.interruptAccepted(tStates, dataBusValue);
 
         registers.setIFF1(Bit.of(0));
         registers.setIFF2(Bit.of(0));
@@ -214,23 +477,31 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
 
         switch (interruptMode) {
         case 0:
-            var opcode = activeIntSource.getValueOnDataBus().orElse((byte) 0xFF);
+            var opcode = dataBusValue;
             triggerInterruptEvent(InterruptType.Maskable);
+            var sp = registers.getSP();
             instructionExecutor.execute(opcode);
+            if (callGraphProfiler != null && registers.getSP() == (short) (sp - 2))
+                callGraphProfiler.routineCalled(registers.getPC(), registers.getSP());
+            if (flightRecorderEnabled) Z80FlightRecorder.interruptAccepted(this, InterruptType.Maskable, (opcode & 0xC7) == 0xC7);
             return 13;
         case 1:
             instructionExecutor.execute(RST38h_opcode);
+            if (callGraphProfiler != null)
+                callGraphProfiler.routineCalled(registers.getPC(), registers.getSP());
             triggerInterruptEvent(InterruptType.Maskable);
+            if (flightRecorderEnabled) Z80FlightRecorder.interruptAccepted(this, InterruptType.Maskable, true);
             return 13;
         case 2:
             var pointerAddress = createShort(
-                    /* lowByte: */ activeIntSource.getValueOnDataBus().orElse((byte) 0xFF),
+                    /* lowByte: */ dataBusValue,
                     /* highByte: */ registers.getI());
             var callAddress = createShort(
                     /* lowByte: */ readFromMemoryInternal(pointerAddress),
                     /* highByte: */ readFromMemoryInternal((short) (pointerAddress + 1)));
             executeCall(callAddress);
             triggerInterruptEvent(InterruptType.Maskable);
+            if (flightRecorderEnabled) Z80FlightRecorder.interruptAccepted(this, InterruptType.Maskable, true);
             return 19;
         }
 
@@ -247,16 +518,20 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
 
         registers.setSP(sp);
         registers.setPC(address);
+        if (callGraphProfiler != null)
+            callGraphProfiler.routineCalled(address, sp);
     }
 
     private void triggerInterruptEvent(InterruptType interruptType) {
+        if (metrics != null) metrics.interruptAccepted(interruptType);
+
         switch (interruptType) {
             case Maskable:
-                maskableInterruptServicingStart.fireEvent(new EventObject(this));
+                fireEvent(maskableInterruptServicingStart, new EventObject(this));
                 break;
 
             case NonMaskable:
-                nonMaskableInterruptServicingStart.fireEvent(new EventObject(this));
+                fireEvent(nonMaskableInterruptServicingStart, new EventObject(this));
                 break;
 
             default:
@@ -267,6 +542,8 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
     @Override
     public void executeRet() {
         var sp = registers.getSP();
+        if (callGraphProfiler != null)
+            callGraphProfiler.routineReturned(sp);
         var newPC = createShort(readFromMemoryInternal(sp), readFromMemoryInternal((short) (sp + 1)));
 
         registers.setPC(newPC);
@@ -306,22 +583,52 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
     }
 
     void fireAfterInstructionExecutionEvent(int tStates) {
-        var opcodeBytes = toByteArray(executionContext.getOpcodeBytes());
-
-        afterInstructionExecution.fireEvent(new AfterInstructionExecutionEvent(
-                this,
-                opcodeBytes,
-                /* stopper: */ this,
-                /* localUserState: */ executionContext.getLocalUserStateFromPreviousEvent(),
-                /* tStates: */ tStates));
-
-        if (opcodeBytes[0] == RETI_RETN_prefix) {
-            opcodeBytes[1] &= (byte) 0xcf; // To account for mirrored variants
-            if (opcodeBytes[1] == RETI_opcode) {
-                afterRetiInstructionExecution.fireEvent(new EventObject(this));
-            } else if (opcodeBytes[1] == RETN_opcode) {
-                afterRetnInstructionExecution.fireEvent(new EventObject(this));
-            }
+        if (afterInstructionExecution.hasListeners()) {
+            fireEvent(afterInstructionExecution, new AfterInstructionExecutionEvent(
+                    this,
+                    toByteArray(executionContext.getOpcodeBytes()),
+                    /* stopper: */ this,
+                    /* localUserState: */ executionContext.getLocalUserStateFromPreviousEvent(),
+                    /* tStates: */ tStates));
+        }
+
+        fireRetiOrRetnEvent(afterRetiInstructionExecution, afterRetnInstructionExecution);
+    }
+
+    /**
+     * Fires one of the events if the instruction is a RETI or a RETN (or one of their mirrored variants).
+     * The event objects are only created when there are listeners, so that nothing is allocated per instruction otherwise.
+     */
+    private void fireRetiOrRetnEvent(ProfiledEventHandler<EventObject> retiEvent, ProfiledEventHandler<EventObject> retnEvent) {
+        if (!retiEvent.hasListeners() && !retnEvent.hasListeners())
+            return;
+
+        var opcodeBytes = executionContext.getOpcodeBytes();
+        if (opcodeBytes.get(0) != RETI_RETN_prefix)
+            return;
+
+        var opcode = (byte) (opcodeBytes.get(1) & 0xcf); // To account for mirrored variants
+        if (opcode == RETI_opcode) {
+            fireEvent(retiEvent, new EventObject(this));
+        } else if (opcode == RETN_opcode) {
+            fireEvent(retnEvent, new EventObject(this));
+        }
+    }
+
+    /**
+     * Fires the event, measuring the time spent in the listeners (in total and per listener) if the metrics ask for it.
+     */
+    private <T extends EventObject> void fireEvent(ProfiledEventHandler<T> handler, T eventArgs) {
+        if (metrics == null || !metrics.isListenerTimingEnabled()) {
+            handler.fireEvent(eventArgs);
+            return;
+        }
+
+        var start = System.nanoTime();
+        try {
+            handler.fireEventProfiled(eventArgs);
+        } finally {
+            metrics.listenersExecuted(System.nanoTime() - start);
         }
     }
 
@@ -338,16 +645,18 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
 
         executionContext.setSpAfterInstructionFetch(registers.getSP());
 
-        var eventArgs = fireBeforeInstructionExecutionEvent();
-        executionContext.setLocalUserStateFromPreviousEvent(eventArgs.getLocalUserState());
+        fireBeforeInstructionExecutionEvent();
     }
 
     void fireBeforeInstructionFetchEvent() {
+        if (!beforeInstructionFetch.hasListeners())
+            return;
+
         var eventArgs = new BeforeInstructionFetchEvent(this, /* stopper: */ this);
 
         executionContext.setExecutingBeforeInstructionEvent(true);
         try {
-            beforeInstructionFetch.fireEvent(eventArgs);
+            fireEvent(beforeInstructionFetch, eventArgs);
         } finally {
             executionContext.setExecutingBeforeInstructionEvent(false);
         }
@@ -355,26 +664,19 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
         executionContext.setLocalUserStateFromPreviousEvent(eventArgs.getLocalUserState());
     }
 
-    BeforeInstructionExecutionEvent fireBeforeInstructionExecutionEvent() {
-        var opcodeBytes = toByteArray(executionContext.getOpcodeBytes());
-
-        var eventArgs = new BeforeInstructionExecutionEvent(
-                this,
-                opcodeBytes,
-                executionContext.getLocalUserStateFromPreviousEvent());
+    void fireBeforeInstructionExecutionEvent() {
+        if (beforeInstructionExecution.hasListeners()) {
+            var eventArgs = new BeforeInstructionExecutionEvent(
+                    this,
+                    toByteArray(executionContext.getOpcodeBytes()),
+                    executionContext.getLocalUserStateFromPreviousEvent());
 
-        beforeInstructionExecution.fireEvent(eventArgs);
+            fireEvent(beforeInstructionExecution, eventArgs);
 
-        if (opcodeBytes[0] == RETI_RETN_prefix) {
-            opcodeBytes[1] &= (byte) 0xcf; // To account for mirrored variants
-            if (opcodeBytes[1] == RETI_opcode) {
-                beforeRetiInstructionExecution.fireEvent(new EventObject(this));
-            } else if (opcodeBytes[1] == RETN_opcode) {
-                beforeRetnInstructionExecution.fireEvent(new EventObject(this));
-            }
+            executionContext.setLocalUserStateFromPreviousEvent(eventArgs.getLocalUserState());
         }
 
-        return eventArgs;
+        fireRetiOrRetnEvent(beforeRetiInstructionExecution, beforeRetnInstructionExecution);
     }
 
     @Override
@@ -388,9 +690,13 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
 
         nmiInterruptPending = false;
         isHalted = false;
+        resumedBreakpoint = -1;
+        resumedTrap = -1;
 
         tStatesElapsedSinceReset = 0;
         startOfStack = registers.getSP();
+        if (callGraphProfiler != null)
+            callGraphProfiler.processorReset();
     }
 
     @Override
@@ -398,6 +704,32 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
         return instructionExecutionLoop(/* isSingleInstruction: */ true);
     }
 
+    /**
+     * Pending external stop/pause requests, see {@link #requestStop()}.
+     * Written by any thread, consumed by the instruction execution loop.
+     */
+    private volatile int signal;
+
+    /**
+     * Future of the run being executed by {@link #runAsync(Runnable, Executor)}, null for synchronous runs.
+     * A cancellation only stops the run of its own future, so one that arrives
+     * after its run has finished is ignored by the next run.
+     */
+    private volatile CompletableFuture<StopReason> asyncRun;
+
+    /** future of the last run cancelled while executing, see {@link #asyncRun} */
+    private volatile CompletableFuture<StopReason> cancelledRun;
+
+    @Override
+    public void requestStop() {
+        SIGNAL.getAndBitwiseOr(this, StopRequestedSignal);
+    }
+
+    @Override
+    public void requestPause() {
+        SIGNAL.getAndBitwiseOr(this, PauseRequestedSignal);
+    }
+
 //#endregion
 
 //#region Information and state
@@ -408,10 +740,20 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
     private long tStatesElapsedSinceReset;
     @Override public long getTStatesElapsedSinceReset() { return tStatesElapsedSinceReset; }
 
-    private StopReason stopReason;
+    private long instructionsExecutedSinceStart;
+    @Override public long getInstructionsExecutedSinceStart() { return instructionsExecutedSinceStart; }
+
+    private volatile RunResult lastRunResult;
+    @Override public RunResult getLastRunResult() { return lastRunResult; }
+
+    /** see {@link #getPcAndSpSnapshot()}, written with opaque mode: no fences on the execution thread */
+    private int pcAndSpSnapshot = -1;
+    @Override public int getPcAndSpSnapshot() { return (int) PC_AND_SP_SNAPSHOT.getOpaque(this); }
+
+    private volatile StopReason stopReason;
     @Override public StopReason getStopReason() { return stopReason; }
 
-    private ProcessorState state;
+    private volatile ProcessorState state;
     @Override public ProcessorState getState() { return state; }
 
     private Object userState;
@@ -480,27 +822,37 @@ public class Z80ProcessorImpl implements Z80Processor, Z80ProcessorInterruptEven
         memory = value;
     }
 
-    private final MemoryAccessMode[] memoryAccessModes = new MemoryAccessMode[MemorySpaceSize];
+    /** null means all {@link MemoryAccessMode#ReadAndWrite} */
+    private MemoryAccessMode[] memoryAccessModes;
 
     @Override
     public void setMemoryAccessMode(short startAddress, int length, MemoryAccessMode mode) {
-        setArrayContents(memoryAccessModes, startAddress, length, mode);
+        memoryAccessModes = setAccessModes(memoryAccessModes, MemorySpaceSize, startAddress, length, mode);
     }
 
-    private static <T> void setArrayContents(T[] array, short startIndex, int length, T value) {
+    private static MemoryAccessMode[] setAccessModes(MemoryAccessMode[] array, int size, short startIndex, int length, MemoryAccessMode value) {
         if (length < 0)
             throw new IllegalArgumentException("length can't be negative");
-        if (startIndex + length > array.length)
-            throw new IllegalArgumentException("start + length go beyond " + (array.length - 1));
+        if (startIndex + length > size)
+            throw new IllegalArgumentException("start + length go beyond " + (size - 1));
+        if ((startIndex & 0xffff) + length > size)
+            throw new ArrayIndexOutOfBoundsException("start + length go beyond " + (size - 1));
+
+        if (array == null) {
+            if (value == MemoryAccessMode.ReadAndWrite)
+                return null;
+            array = new MemoryAccessMode[size];
+            Arrays.fill(array, MemoryAccessMode.ReadAndWrite);
+        }
 
-        var data = new Object[length];
-        Arrays.fill(data, value);
-        System.arraycopy(data, 0, array, startIndex & 0xffff, length);
+        Arrays.fill(array, startIndex & 0xffff, (startIndex & 0xffff) + length, value);
+        return array;
     }
 
     @Override
     public MemoryAccessMode getMemoryAccessMode(short address) {
-        return memoryAccessModes[address & 0xffff];
+        var modes = memoryAccessModes;
+        return modes == null ? MemoryAccessMode.ReadAndWrite : modes[address & 0xffff];
     }
 
     private Memory portsSpace;
@@ -523,6 +875,7 @@ logger.log(Level.DEBUG, "value.getSize(): %d, portSpaceSize: %d".formatted(value
         portsSpace = value;
     }
 
+    /** null means all {@link MemoryAccessMode#ReadAndWrite} */
     private MemoryAccessMode[] portsAccessModes;
 
     @Override
@@ -532,7 +885,7 @@ logger.log(Level.DEBUG, "value.getSize(): %d, portSpaceSize: %d".formatted(value
 
     @Override
     public void setExtendedPortsSpaceAccessMode(short startPort, int length, MemoryAccessMode mode) {
-        setArrayContents(portsAccessModes, startPort, length, mode);
+        portsAccessModes = setAccessModes(portsAccessModes, portSpaceSize, startPort, length, mode);
     }
 
     @Override
@@ -542,7 +895,8 @@ logger.log(Level.DEBUG, "value.getSize(): %d, portSpaceSize: %d".formatted(value
 
     @Override
     public MemoryAccessMode getExtendedPortAccessMode(short portNumber) {
-        return portsAccessModes[portNumber & 0xffff];
+        var modes = portsAccessModes;
+        return modes == null ? MemoryAccessMode.ReadAndWrite : modes[portNumber & 0xffff];
     }
 
     private final List<Z80InterruptSource> interruptSources;
@@ -655,32 +1009,54 @@ logger.log(Level.DEBUG, "already contains source");
     @Override
     public void setAutoStopOnRetWithStackEmpty(boolean value) { autoStopOnRetWithStackEmpty = value; }
 
-    private final byte[] memoryWaitStatesForM1 = new byte[MemorySpaceSize];
+    /** null means all zeros */
+    private byte[] memoryWaitStatesForM1;
 
     @Override
     public void setMemoryWaitStatesForM1(short startAddress, int length, byte waitStates) {
-//        SetArrayContents(memoryWaitStatesForM1, startAddress, length, waitStates);
-        Arrays.fill(memoryWaitStatesForM1, startAddress & 0xffff, (startAddress & 0xffff) + length, waitStates);
+        memoryWaitStatesForM1 = setWaitStates(memoryWaitStatesForM1, MemorySpaceSize, startAddress, length, waitStates);
     }
 
     @Override
     public byte getMemoryWaitStatesForM1(short address) {
-        return memoryWaitStatesForM1[address & 0xffff];
+        var waitStates = memoryWaitStatesForM1;
+        return waitStates == null ? 0 : waitStates[address & 0xffff];
     }
 
-    private final byte[] memoryWaitStatesForNonM1 = new byte[MemorySpaceSize];
+    /** null means all zeros */
+    private byte[] memoryWaitStatesForNonM1;
 
     @Override
     public void setMemoryWaitStatesForNonM1(short startAddress, int length, byte waitStates) {
-//        SetArrayContents(memoryWaitStatesForNonM1, startAddress, length, waitStates);
-        Arrays.fill(memoryWaitStatesForNonM1, startAddress & 0xffff, (startAddress & 0xffff) + length, waitStates);
+        memoryWaitStatesForNonM1 = setWaitStates(memoryWaitStatesForNonM1, MemorySpaceSize, startAddress, length, waitStates);
     }
 
     @Override
     public byte getMemoryWaitStatesForNonM1(short address) {
-        return memoryWaitStatesForNonM1[address & 0xffff];
+        var waitStates = memoryWaitStatesForNonM1;
+        return waitStates == null ? 0 : waitStates[address & 0xffff];
+    }
+
+    /** same checks and exceptions as {@link Arrays#fill(byte[], int, int, byte)} */
+    private static byte[] setWaitStates(byte[] array, int size, short startIndex, int length, byte value) {
+        var from = startIndex & 0xffff;
+        var to = from + length;
+
+        if (array == null) {
+            if (from > to)
+                throw new IllegalArgumentException("fromIndex(" + from + ") > toIndex(" + to + ")");
+            if (to > size)
+                throw new ArrayIndexOutOfBoundsException("Array index out of range: " + to);
+            if (value == 0)
+                return null;
+            array = new byte[size];
+        }
+
+        Arrays.fill(array, from, to, value);
+        return array;
     }
 
+    /** null means all zeros */
     private byte[] portWaitStates;
 
     @Override
@@ -690,8 +1066,7 @@ logger.log(Level.DEBUG, "already contains source");
 
     @Override
     public void setExtendedPortWaitStates(short startPort, int length, byte waitStates) {
-//        SetArrayContents(portWaitStates, startPort, length, waitStates);
-        Arrays.fill(portWaitStates, startPort & 0xffff, (startPort & 0xffff) + length, waitStates);
+        portWaitStates = setWaitStates(portWaitStates, portSpaceSize, startPort, length, waitStates);
     }
 
     @Override
@@ -701,7 +1076,8 @@ logger.log(Level.DEBUG, "already contains source");
 
     @Override
     public byte getExtendedPortWaitStates(short portNumber) {
-        return portWaitStates[portNumber & 0xffff];
+        var waitStates = portWaitStates;
+        return waitStates == null ? 0 : waitStates[portNumber & 0xffff];
     }
 
     /** don't set directory, use setter */
@@ -755,11 +1131,200 @@ logger.log(Level.DEBUG, "already contains source");
         clockSynchronizer.setEffectiveClockFrequencyInMHz(effectiveClockFrequency);
     }
 
+    private int clockSynchronizationQuantum;
+
+    @Override
+    public int getClockSynchronizationQuantum() {
+        return clockSynchronizationQuantum;
+    }
+
+    @Override
+    public void setClockSynchronizationQuantum(int value) {
+        if (value < 0)
+            throw new IllegalArgumentException("Clock synchronization quantum can't be negative");
+        clockSynchronizationQuantum = value;
+    }
+
+    private Z80ProcessorMetrics metrics;
+
+    @Override
+    public Z80ProcessorMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void setMetrics(Z80ProcessorMetrics value) {
+        metrics = value;
+        if (value == null)
+            return;
+
+        metrics.setProcessor(this);
+    }
+
+    private boolean flightRecorderEnabled;
+
+    @Override
+    public boolean getFlightRecorderEnabled() {
+        return flightRecorderEnabled;
+    }
+
+    @Override
+    public void setFlightRecorderEnabled(boolean value) {
+        if (value)
+            Z80FlightRecorder.register(this);
+        else
+            Z80FlightRecorder.unregister(this);
+        flightRecorderEnabled = value;
+    }
+
+    private ExecutionHeatmap heatmap;
+
+    @Override
+    public ExecutionHeatmap getHeatmap() {
+        return heatmap;
+    }
+
+    @Override
+    public void setHeatmap(ExecutionHeatmap value) {
+        heatmap = value;
+    }
+
+    private CodeCoverage codeCoverage;
+
+    @Override
+    public CodeCoverage getCodeCoverage() {
+        return codeCoverage;
+    }
+
+    @Override
+    public void setCodeCoverage(CodeCoverage value) {
+        codeCoverage = value;
+    }
+
+    private CallGraphProfiler callGraphProfiler;
+
+    @Override
+    public CallGraphProfiler getCallGraphProfiler() {
+        return callGraphProfiler;
+    }
+
+    @Override
+    public void setCallGraphProfiler(CallGraphProfiler value) {
+        callGraphProfiler = value;
+    }
+
+    private Breakpoints breakpoints;
+
+    /** address of the breakpoint that stopped the last run, it's not hit again when the execution continues */
+    private int resumedBreakpoint = -1;
+
+    @Override
+    public Breakpoints getBreakpoints() {
+        return breakpoints;
+    }
+
+    @Override
+    public void setBreakpoints(Breakpoints value) {
+        breakpoints = value;
+    }
+
+    private MemoryMap memoryMap;
+
+    @Override
+    public MemoryMap getMemoryMap() {
+        return memoryMap;
+    }
+
+    @Override
+    public void setMemoryMap(MemoryMap value) {
+        memoryMap = value;
+    }
+
+    private PortHandlers portHandlers;
+
+    @Override
+    public PortHandlers getPortHandlers() {
+        return portHandlers;
+    }
+
+    @Override
+    public void setPortHandlers(PortHandlers value) {
+        portHandlers = value;
+    }
+
+    private Traps traps;
+
+    /** address of the trap that stopped the last run, its handler isn't invoked again when the execution continues */
+    private int resumedTrap = -1;
+
+    @Override
+    public Traps getTraps() {
+        return traps;
+    }
+
+    @Override
+    public void setTraps(Traps value) {
+        traps = value;
+    }
+
+    private Watchpoints watchpoints;
+
+    @Override
+    public Watchpoints getWatchpoints() {
+        return watchpoints;
+    }
+
+    @Override
+    public void setWatchpoints(Watchpoints value) {
+        watchpoints = value;
+    }
+
+    private TraceRecorder traceRecorder;
+
+    @Override
+    public TraceRecorder getTraceRecorder() {
+        return traceRecorder;
+    }
+
+    @Override
+    public void setTraceRecorder(TraceRecorder value) {
+        traceRecorder = value;
+    }
+
+    private InputRecorder inputRecorder;
+
+    @Override
+    public InputRecorder getInputRecorder() {
+        return inputRecorder;
+    }
+
+    @Override
+    public void setInputRecorder(InputRecorder value) {
+        inputRecorder = value;
+    }
+
+    private InputReplayer inputReplayer;
+
+    @Override
+    public InputReplayer getInputReplayer() {
+        return inputReplayer;
+    }
+
+    @Override
+    public void setInputReplayer(InputReplayer value) {
+        inputReplayer = value;
+    }
+
     @Override
     public EventHandler<MemoryAccessEvent> memoryAccess() {
         return memoryAccess;
     }
 
+    @Override
+    public EventHandler<MemoryAccessEvent> memoryAccess(MemoryAccessEventType eventType) {
+        return memoryAccessByType[eventType.ordinal()];
+    }
+
     @Override
     public EventHandler<BeforeInstructionFetchEvent> beforeInstructionFetch() {
         return beforeInstructionFetch;
@@ -836,43 +1401,79 @@ logger.log(Level.DEBUG, "already contains source");
         useExtendedPortsSpace = value;
         portSpaceSize = newPortsSpaceSize;
 
-        var newPortsAccessModes = new MemoryAccessMode[portSpaceSize];
-        System.arraycopy(portsAccessModes, 0, newPortsAccessModes, 0, 256);
-        portsAccessModes = newPortsAccessModes;
-        for (int i = 0; i < portsAccessModes.length; i++)
-            if (portsAccessModes[i] == null) {
-//logger.log(Level.DEBUG, "portsAccessModes[%d] is null".formatted(i));
-                portsAccessModes[i] = MemoryAccessMode.values()[0];
-            }
+        if (portsAccessModes != null) {
+            var newPortsAccessModes = new MemoryAccessMode[portSpaceSize];
+            Arrays.fill(newPortsAccessModes, MemoryAccessMode.ReadAndWrite);
+            System.arraycopy(portsAccessModes, 0, newPortsAccessModes, 0, 256);
+            portsAccessModes = newPortsAccessModes;
+        }
 
-        var newPortWaitStates = new byte[portSpaceSize];
-        System.arraycopy(portWaitStates, 0, newPortWaitStates, 0, 256);
-        portWaitStates = newPortWaitStates;
+        if (portWaitStates != null) {
+            var newPortWaitStates = new byte[portSpaceSize];
+            System.arraycopy(portWaitStates, 0, newPortWaitStates, 0, 256);
+            portWaitStates = newPortWaitStates;
+        }
     }
 
 //#endregion
 
 //#region Events
 
-    private final EventHandler<MemoryAccessEvent> memoryAccess = new EventHandler<>();
+    private final ProfiledEventHandler<MemoryAccessEvent> memoryAccess = new ProfiledEventHandler<>("memoryAccess");
+
+    @SuppressWarnings("unchecked")
+    private final ProfiledEventHandler<MemoryAccessEvent>[] memoryAccessByType = Arrays.stream(MemoryAccessEventType.values())
+            .map(type -> new ProfiledEventHandler<MemoryAccessEvent>("memoryAccess(" + type + ")"))
+            .toArray(ProfiledEventHandler[]::new);
+
+    private final ProfiledEventHandler<BeforeInstructionFetchEvent> beforeInstructionFetch = new ProfiledEventHandler<>("beforeInstructionFetch");
 
-    private final EventHandler<BeforeInstructionFetchEvent> beforeInstructionFetch = new EventHandler<>();
+    private final ProfiledEventHandler<BeforeInstructionExecutionEvent> beforeInstructionExecution = new ProfiledEventHandler<>("beforeInstructionExecution");
 
-    private final EventHandler<BeforeInstructionExecutionEvent> beforeInstructionExecution = new EventHandler<>();
+    private final ProfiledEventHandler<AfterInstructionExecutionEvent> afterInstructionExecution = new ProfiledEventHandler<>("afterInstructionExecution");
 
-    private final EventHandler<AfterInstructionExecutionEvent> afterInstructionExecution = new EventHandler<>();
+    private final ProfiledEventHandler<EventObject> maskableInterruptServicingStart = new ProfiledEventHandler<>("maskableInterruptServicingStart");
 
-    private final EventHandler<EventObject> maskableInterruptServicingStart = new EventHandler<>();
+    private final ProfiledEventHandler<EventObject> nonMaskableInterruptServicingStart = new ProfiledEventHandler<>("nonMaskableInterruptServicingStart");
 
-    private final EventHandler<EventObject> nonMaskableInterruptServicingStart = new EventHandler<>();
+    private final ProfiledEventHandler<EventObject> beforeRetiInstructionExecution = new ProfiledEventHandler<>("beforeRetiInstructionExecution");
 
-    private final EventHandler<EventObject> beforeRetiInstructionExecution = new EventHandler<>();
+    private final ProfiledEventHandler<EventObject> afterRetiInstructionExecution = new ProfiledEventHandler<>("afterRetiInstructionExecution");
 
-    private final EventHandler<EventObject> afterRetiInstructionExecution = new EventHandler<>();
+    private final ProfiledEventHandler<EventObject> beforeRetnInstructionExecution = new ProfiledEventHandler<>("beforeRetnInstructionExecution");
+
+    private final ProfiledEventHandler<EventObject> afterRetnInstructionExecution = new ProfiledEventHandler<>("afterRetnInstructionExecution");
+
+    @Override
+    public List<ListenerProfile> getListenerProfiles() {
+        var profiles = new ArrayList<ListenerProfile>();
+        for (var handler : profiledEventHandlers())
+            profiles.addAll(handler.getListenerProfiles());
+        profiles.sort(Comparator.comparingLong(ListenerProfile::nanos).reversed());
+        return profiles;
+    }
 
-    private final EventHandler<EventObject> beforeRetnInstructionExecution = new EventHandler<>();
+    @Override
+    public void resetListenerProfiles() {
+        for (var handler : profiledEventHandlers())
+            handler.resetListenerProfiles();
+    }
 
-    private final EventHandler<EventObject> afterRetnInstructionExecution = new EventHandler<>();
+    private List<ProfiledEventHandler<?>> profiledEventHandlers() {
+        var handlers = new ArrayList<ProfiledEventHandler<?>>(List.of(
+                memoryAccess,
+                beforeInstructionFetch,
+                beforeInstructionExecution,
+                afterInstructionExecution,
+                maskableInterruptServicingStart,
+                nonMaskableInterruptServicingStart,
+                beforeRetiInstructionExecution,
+                afterRetiInstructionExecution,
+                beforeRetnInstructionExecution,
+                afterRetnInstructionExecution));
+        handlers.addAll(Arrays.asList(memoryAccessByType));
+        return handlers;
+    }
 
 //#endregion
 
@@ -888,13 +1489,7 @@ logger.log(Level.DEBUG, "already contains source");
         byte opcode;
         if (executionContext.getPeekedOpcode() == null) {
             var address = registers.getPC();
-            opcode = readFromMemoryOrPort(
-                    address,
-                    memory,
-                    getMemoryAccessMode(address),
-                    MemoryAccessEventType.BeforeMemoryRead,
-                    MemoryAccessEventType.AfterMemoryRead,
-                    getMemoryWaitStatesForM1(address));
+            opcode = readFromMemorySpace(address, WatchpointAccess.Fetch, getMemoryWaitStatesForM1(address));
         } else {
             executionContext.setAccumulatedMemoryWaitStates(executionContext.getAccumulatedMemoryWaitStates() +
                     getMemoryWaitStatesForM1(executionContext.getAddressOfPeekedOpcode()));
@@ -916,13 +1511,7 @@ logger.log(Level.DEBUG, "already contains source");
 
         if (executionContext.getPeekedOpcode() == null) {
             var address = registers.getPC();
-            var opcode = readFromMemoryOrPort(
-                    address,
-                    memory,
-                    getMemoryAccessMode(address),
-                    MemoryAccessEventType.BeforeMemoryRead,
-                    MemoryAccessEventType.AfterMemoryRead,
-                    /*waitStates:*/ (byte) 0);
+            var opcode = readFromMemorySpace(address, WatchpointAccess.Fetch, /*waitStates:*/ (byte) 0);
 
             executionContext.setPeekedOpcode(opcode);
             executionContext.setAddressOfPeekedOpcode(registers.getPC());
@@ -946,13 +1535,38 @@ logger.log(Level.DEBUG, "already contains source");
     }
 
     private byte readFromMemoryInternal(short address) {
-        return readFromMemoryOrPort(
-                address,
-                memory,
-                getMemoryAccessMode(address),
-                MemoryAccessEventType.BeforeMemoryRead,
-                MemoryAccessEventType.AfterMemoryRead,
-                getMemoryWaitStatesForNonM1(address));
+        if (heatmap != null) heatmap.memoryRead(address);
+
+        var value = readFromMemorySpace(address, WatchpointAccess.MemoryRead, getMemoryWaitStatesForNonM1(address));
+
+        if (traceRecorder != null) traceRecorder.memoryRead(address, value);
+        return value;
+    }
+
+    /**
+     * Reads from a memory mapped device if the address is mapped, or from the memory otherwise.
+     * Reads of memory mapped devices are inputs: they are recorded, and replayed without invoking the handler.
+     */
+    private byte readFromMemorySpace(short address, WatchpointAccess watchpointAccess, byte waitStates) {
+        var handler = memoryMap == null ? null : memoryMap.getReadHandler(address);
+        if (handler == null) {
+            return readFromMemoryOrPort(
+                    address,
+                    memory,
+                    getMemoryAccessMode(address),
+                    MemoryAccessEventType.BeforeMemoryRead,
+                    MemoryAccessEventType.AfterMemoryRead,
+                    watchpointAccess,
+                    waitStates);
+        }
+
+        var value = inputReplayer != null ? inputReplayer.memoryRead(tStatesElapsedSinceStart, address) : handler.read(address);
+        if (inputRecorder != null) inputRecorder.memoryRead(tStatesElapsedSinceStart, address, value);
+        if (executionContext != null)
+            executionContext.setAccumulatedMemoryWaitStates(executionContext.getAccumulatedMemoryWaitStates() + waitStates);
+        if (watchpoints != null && watchpoints.isWatched(watchpointAccess, address))
+            watchpoints.hit(watchpointAccess, address, value);
+        return value;
     }
 
     protected void failIfNoInstructionFetchComplete() {
@@ -966,26 +1580,42 @@ logger.log(Level.DEBUG, "already contains source");
             MemoryAccessMode accessMode,
             MemoryAccessEventType beforeEventType,
             MemoryAccessEventType afterEventType,
+            WatchpointAccess watchpointAccess,
             byte waitStates) {
-        var beforeEventArgs = fireMemoryAccessEvent(beforeEventType, address, (byte) 0xFF, null, false);
+        var beforeEventArgs = hasMemoryAccessListeners(beforeEventType) ?
+                fireMemoryAccessEvent(beforeEventType, address, (byte) 0xFF, null, false) : null;
+        var cancelMemoryAccess = beforeEventArgs != null && beforeEventArgs.getCancelMemoryAccess();
 
         byte value;
-        if (!beforeEventArgs.getCancelMemoryAccess() &&
+        if (!cancelMemoryAccess &&
                 (accessMode == MemoryAccessMode.ReadAndWrite || accessMode == MemoryAccessMode.ReadOnly))
             value = memory.get(address & 0xffff);
         else
-            value = beforeEventArgs.getValue();
+            value = beforeEventArgs != null ? beforeEventArgs.getValue() : (byte) 0xFF;
 
         if (executionContext != null)
             executionContext.setAccumulatedMemoryWaitStates(executionContext.getAccumulatedMemoryWaitStates() + waitStates);
 
-        var afterEventArgs = fireMemoryAccessEvent(
-                afterEventType,
-                address,
-                value,
-                beforeEventArgs.getLocalUserState(),
-                beforeEventArgs.getCancelMemoryAccess());
-        return afterEventArgs.getValue();
+        if (hasMemoryAccessListeners(afterEventType)) {
+            value = fireMemoryAccessEvent(
+                    afterEventType,
+                    address,
+                    value,
+                    beforeEventArgs != null ? beforeEventArgs.getLocalUserState() : null,
+                    cancelMemoryAccess).getValue();
+        }
+
+        if (watchpoints != null && watchpoints.isWatched(watchpointAccess, address))
+            watchpoints.hit(watchpointAccess, address, value);
+        return value;
+    }
+
+    /**
+     * Tells whether any listener will receive a memory access event of the given type;
+     * if not, the event object isn't created.
+     */
+    private boolean hasMemoryAccessListeners(MemoryAccessEventType eventType) {
+        return memoryAccess.hasListeners() || memoryAccessByType[eventType.ordinal()].hasListeners();
     }
 
     MemoryAccessEvent fireMemoryAccessEvent(
@@ -995,7 +1625,10 @@ logger.log(Level.DEBUG, "already contains source");
             Object localUserState /* = null */,
             boolean cancelMemoryAccess /* = false */) {
         var eventArgs = new MemoryAccessEvent(this, eventType, address, value, localUserState, cancelMemoryAccess);
-        memoryAccess.fireEvent(eventArgs);
+        fireEvent(memoryAccess, eventArgs);
+        var handler = memoryAccessByType[eventType.ordinal()];
+        if (handler.hasListeners())
+            fireEvent(handler, eventArgs);
         return eventArgs;
     }
 
@@ -1008,6 +1641,22 @@ logger.log(Level.DEBUG, "already contains source");
     }
 
     private void writeToMemoryInternal(short address, byte value) {
+        if (heatmap != null) heatmap.memoryWritten(address);
+        if (traceRecorder != null) traceRecorder.memoryWritten(address, value);
+
+        var waitStates = getMemoryWaitStatesForNonM1(address);
+        var handler = memoryMap == null ? null : memoryMap.getWriteHandler(address);
+        if (handler != null) {
+            // while replaying devices aren't emulated, the write goes nowhere
+            if (inputReplayer == null)
+                handler.write(address, value);
+            if (executionContext != null)
+                executionContext.setAccumulatedMemoryWaitStates(executionContext.getAccumulatedMemoryWaitStates() + waitStates);
+            if (watchpoints != null && watchpoints.isWatched(WatchpointAccess.MemoryWrite, address))
+                watchpoints.hit(WatchpointAccess.MemoryWrite, address, value);
+            return;
+        }
+
         writeToMemoryOrPort(
                 address,
                 value,
@@ -1015,7 +1664,8 @@ logger.log(Level.DEBUG, "already contains source");
                 getMemoryAccessMode(address),
                 MemoryAccessEventType.BeforeMemoryWrite,
                 MemoryAccessEventType.AfterMemoryWrite,
-                getMemoryWaitStatesForNonM1(address));
+                WatchpointAccess.MemoryWrite,
+                waitStates);
     }
 
     private void writeToMemoryOrPort(
@@ -1025,22 +1675,32 @@ logger.log(Level.DEBUG, "already contains source");
             MemoryAccessMode accessMode,
             MemoryAccessEventType beforeEventType,
             MemoryAccessEventType afterEventType,
+            WatchpointAccess watchpointAccess,
             byte waitStates) {
-        var beforeEventArgs = fireMemoryAccessEvent(beforeEventType, address, value, null, false);
+        var beforeEventArgs = hasMemoryAccessListeners(beforeEventType) ?
+                fireMemoryAccessEvent(beforeEventType, address, value, null, false) : null;
+        var cancelMemoryAccess = beforeEventArgs != null && beforeEventArgs.getCancelMemoryAccess();
+        if (beforeEventArgs != null)
+            value = beforeEventArgs.getValue();
 
-        if (!beforeEventArgs.getCancelMemoryAccess() &&
+        if (!cancelMemoryAccess &&
                 (accessMode == MemoryAccessMode.ReadAndWrite || accessMode == MemoryAccessMode.WriteOnly))
-            memory.set(address & 0xffff, beforeEventArgs.getValue());
+            memory.set(address & 0xffff, value);
 
         if (executionContext != null)
             executionContext.setAccumulatedMemoryWaitStates(executionContext.getAccumulatedMemoryWaitStates() + waitStates);
 
-        fireMemoryAccessEvent(
-                afterEventType,
-                address,
-                beforeEventArgs.getValue(),
-                beforeEventArgs.getLocalUserState(),
-                beforeEventArgs.getCancelMemoryAccess());
+        if (hasMemoryAccessListeners(afterEventType)) {
+            fireMemoryAccessEvent(
+                    afterEventType,
+                    address,
+                    value,
+                    beforeEventArgs != null ? beforeEventArgs.getLocalUserState() : null,
+                    cancelMemoryAccess);
+        }
+
+        if (watchpoints != null && watchpoints.isWatched(watchpointAccess, address))
+            watchpoints.hit(watchpointAccess, address, value);
     }
 
     @Override
@@ -1055,13 +1715,28 @@ logger.log(Level.DEBUG, "already contains source");
 
         short portNumber = useExtendedPortsSpace ? NumberUtils.createShort(portNumberLow, portNumberHigh) : (short) (portNumberLow & 0xff);
 
-        return readFromMemoryOrPort(
-                portNumber,
-                portsSpace,
-                useExtendedPortsSpace ? getExtendedPortAccessMode(portNumber) : getPortAccessMode((byte) portNumber),
-                MemoryAccessEventType.BeforePortRead,
-                MemoryAccessEventType.AfterPortRead,
-                useExtendedPortsSpace ? getExtendedPortWaitStates(portNumber): getPortWaitStates((byte) portNumber));
+        var waitStates = useExtendedPortsSpace ? getExtendedPortWaitStates(portNumber): getPortWaitStates((byte) portNumber);
+        byte value;
+        var handler = inputReplayer == null && portHandlers != null ? portHandlers.getReadHandler(portNumber) : null;
+        if (inputReplayer != null || handler != null) {
+            value = handler != null ? handler.read(portNumber) : inputReplayer.portRead(tStatesElapsedSinceStart, portNumber);
+            executionContext.setAccumulatedMemoryWaitStates(executionContext.getAccumulatedMemoryWaitStates() + waitStates);
+            if (watchpoints != null && watchpoints.isWatched(WatchpointAccess.PortRead, portNumber))
+                watchpoints.hit(WatchpointAccess.PortRead, portNumber, value);
+        } else {
+            value = readFromMemoryOrPort(
+                    portNumber,
+                    portsSpace,
+                    useExtendedPortsSpace ? getExtendedPortAccessMode(portNumber) : getPortAccessMode((byte) portNumber),
+                    MemoryAccessEventType.BeforePortRead,
+                    MemoryAccessEventType.AfterPortRead,
+                    WatchpointAccess.PortRead,
+                    waitStates);
+        }
+
+        if (inputRecorder != null) inputRecorder.portRead(tStatesElapsedSinceStart, portNumber, value);
+        if (traceRecorder != null) traceRecorder.portRead(portNumber, value);
+        return value;
     }
 
     @Override
@@ -1076,6 +1751,20 @@ logger.log(Level.DEBUG, "already contains source");
 
         short portNumber = useExtendedPortsSpace ? NumberUtils.createShort(portNumberLow, portNumberHigh) : (short) (portNumberLow & 0xff);
 
+        if (traceRecorder != null) traceRecorder.portWritten(portNumber, value);
+
+        var waitStates = useExtendedPortsSpace ? getExtendedPortWaitStates(portNumber) : getPortWaitStates((byte) portNumber);
+        // while replaying devices aren't emulated: no handler, no port write events, no ports space
+        var handler = inputReplayer == null && portHandlers != null ? portHandlers.getWriteHandler(portNumber) : null;
+        if (inputReplayer != null || handler != null) {
+            if (handler != null)
+                handler.write(portNumber, value);
+            executionContext.setAccumulatedMemoryWaitStates(executionContext.getAccumulatedMemoryWaitStates() + waitStates);
+            if (watchpoints != null && watchpoints.isWatched(WatchpointAccess.PortWrite, portNumber))
+                watchpoints.hit(WatchpointAccess.PortWrite, portNumber, value);
+            return;
+        }
+
         writeToMemoryOrPort(
                 portNumber,
                 value,
@@ -1083,7 +1772,8 @@ logger.log(Level.DEBUG, "already contains source");
                 useExtendedPortsSpace ? getExtendedPortAccessMode(portNumber) : getPortAccessMode((byte) portNumber),
                 MemoryAccessEventType.BeforePortWrite,
                 MemoryAccessEventType.AfterPortWrite,
-                useExtendedPortsSpace ? getExtendedPortWaitStates(portNumber) : getPortWaitStates((byte) portNumber));
+                WatchpointAccess.PortWrite,
+                waitStates);
     }
 
     @Override
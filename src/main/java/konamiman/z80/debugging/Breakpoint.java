@@ -0,0 +1,83 @@
+package konamiman.z80.debugging;
+
+import konamiman.z80.Z80Processor;
+
+/**
+ * An execution breakpoint, see {@link Breakpoints}.
+ */
+public class Breakpoint {
+
+    private final int address;
+
+    private final boolean temporary;
+
+    private final Condition condition;
+
+    private final BreakpointHandler handler;
+
+    private long hitCount;
+
+    Breakpoint(int address, boolean temporary, Condition condition, BreakpointHandler handler) {
+        this.address = address;
+        this.temporary = temporary;
+        this.condition = condition;
+        this.handler = handler;
+    }
+
+    /**
+     * Gets the address of the instruction that stops the processor.
+     */
+    public int getAddress() {
+        return address;
+    }
+
+    /**
+     * Tells whether the breakpoint is removed the first time it is hit.
+     */
+    public boolean isTemporary() {
+        return temporary;
+    }
+
+    /**
+     * Gets the condition that must be true for the breakpoint to be hit, or null if it's always hit.
+     */
+    public Condition getCondition() {
+        return condition;
+    }
+
+    /**
+     * Gets the handler invoked when the breakpoint is hit if it's a logpoint, or null if it stops the processor.
+     */
+    public BreakpointHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Gets the number of times the breakpoint has been hit.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void resetHitCount() {
+        hitCount = 0;
+    }
+
+    boolean conditionHolds(Z80Processor processor) {
+        return condition == null || condition.test(processor);
+    }
+
+    void hit() {
+        hitCount++;
+    }
+
+    @Override
+    public String toString() {
+        return "%04X%s%s%s (%d hits)".formatted(
+                address,
+                temporary ? " temporary" : "",
+                handler != null ? " logpoint" : "",
+                condition != null ? " if " + condition : "",
+                hitCount);
+    }
+}
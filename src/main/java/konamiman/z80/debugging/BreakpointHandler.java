@@ -0,0 +1,20 @@
+package konamiman.z80.debugging;
+
+import konamiman.z80.Z80Processor;
+
+
+/**
+ * Receives the hits of a logpoint, see {@link Breakpoints#addLogpoint(short, String, BreakpointHandler)}.
+ */
+@FunctionalInterface
+public interface BreakpointHandler {
+
+    /**
+     * Invoked before the instruction at the address of the logpoint is executed,
+     * from the thread that runs the processor.
+     *
+     * @param breakpoint The logpoint hit
+     * @param processor The processor, to get the registers or the memory contents
+     */
+    void hit(Breakpoint breakpoint, Z80Processor processor);
+}
@@ -0,0 +1,184 @@
+package konamiman.z80.debugging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import konamiman.z80.Z80Processor;
+import konamiman.z80.exceptions.ConditionSyntaxException;
+
+
+/**
+ * The execution breakpoints of a processor.
+ *
+ * <remarks>
+ * <para>
+ * Attach an instance with {@link konamiman.z80.Z80Processor#setBreakpoints(Breakpoints)}.
+ * Before executing every instruction the processor tests the bit of its address in a 64K bitset,
+ * without firing any event; when the bit is set the breakpoint is hit: its hit count is incremented,
+ * it is removed if it's temporary, and the processor stops before executing the instruction
+ * with {@link konamiman.z80.enums.StopReason#BreakpointHit}.
+ * </para>
+ * <para>
+ * A breakpoint can have a {@link Condition}, that is evaluated only when the address matches;
+ * if it's false the breakpoint is not hit. A logpoint is a breakpoint that invokes a handler
+ * instead of stopping the processor.
+ * </para>
+ * <para>
+ * When the execution is resumed with {@link konamiman.z80.Z80Processor#continue_()} the instruction
+ * of the breakpoint that stopped the processor is executed without hitting the breakpoint again.
+ * Breakpoints are not hit by {@link konamiman.z80.Z80Processor#executeNextInstruction()}.
+ * </para>
+ * <para>
+ * Breakpoints can be added and removed from other threads while the processor is running,
+ * the processor will see the change after a short while.
+ * </para>
+ */
+public class Breakpoints {
+
+    private final long[] table = new long[65536 / 64];
+
+    private final Map<Integer, Breakpoint> breakpoints = new TreeMap<>();
+
+    private Breakpoint lastHit;
+
+    /**
+     * Adds a breakpoint, replacing the existing breakpoint at the same address if any.
+     *
+     * @return The breakpoint added
+     */
+    public Breakpoint add(short address) {
+        return add(address, false, null, null);
+    }
+
+    /**
+     * Adds a conditional breakpoint, replacing the existing breakpoint at the same address if any.
+     *
+     * @param condition The condition, see {@link Condition}; null for an unconditional breakpoint
+     * @return The breakpoint added
+     * @throws ConditionSyntaxException The condition is not valid
+     */
+    public Breakpoint add(short address, String condition) {
+        return add(address, false, compile(condition), null);
+    }
+
+    /**
+     * Adds a breakpoint that is removed the first time it is hit (for example, to run until a routine returns),
+     * replacing the existing breakpoint at the same address if any.
+     *
+     * @return The breakpoint added
+     */
+    public Breakpoint addTemporary(short address) {
+        return add(address, true, null, null);
+    }
+
+    /**
+     * Adds a logpoint, a breakpoint that doesn't stop the processor but invokes a handler,
+     * replacing the existing breakpoint at the same address if any.
+     *
+     * @param condition The condition, see {@link Condition}; null to invoke the handler every time
+     * @return The logpoint added
+     * @throws ConditionSyntaxException The condition is not valid
+     */
+    public Breakpoint addLogpoint(short address, String condition, BreakpointHandler handler) {
+        if (handler == null)
+            throw new IllegalArgumentException("A logpoint needs a handler");
+
+        return add(address, false, compile(condition), handler);
+    }
+
+    private static Condition compile(String condition) {
+        return condition == null ? null : Condition.compile(condition);
+    }
+
+    private synchronized Breakpoint add(short address, boolean temporary, Condition condition, BreakpointHandler handler) {
+        var breakpoint = new Breakpoint(address & 0xffff, temporary, condition, handler);
+        breakpoints.put(address & 0xffff, breakpoint);
+        table[(address & 0xffff) >>> 6] |= 1L << address;
+        return breakpoint;
+    }
+
+    /**
+     * Removes a breakpoint.
+     *
+     * @return true if there was a breakpoint at the address
+     */
+    public synchronized boolean remove(short address) {
+        table[(address & 0xffff) >>> 6] &= ~(1L << address);
+        return breakpoints.remove(address & 0xffff) != null;
+    }
+
+    /**
+     * Removes all the breakpoints.
+     */
+    public synchronized void clear() {
+        for (var address : breakpoints.keySet())
+            table[address >>> 6] = 0;
+        breakpoints.clear();
+    }
+
+    /**
+     * Gets the breakpoint at an address, or null if there isn't any.
+     */
+    public synchronized Breakpoint get(short address) {
+        return breakpoints.get(address & 0xffff);
+    }
+
+    /**
+     * Gets all the breakpoints, sorted by address.
+     */
+    public synchronized List<Breakpoint> getAll() {
+        return new ArrayList<>(breakpoints.values());
+    }
+
+    /**
+     * Gets the breakpoint that stopped the processor most recently, or null if none did.
+     * A temporary breakpoint is still returned after having been removed.
+     */
+    public synchronized Breakpoint getLastHit() {
+        return lastHit;
+    }
+
+//#region Checks, invoked by the processor
+
+    /**
+     * Tells whether there is a breakpoint at an address. This is the test done for every instruction.
+     */
+    public boolean isSet(short address) {
+        return (table[(address & 0xffff) >>> 6] & 1L << address) != 0;
+    }
+
+    /**
+     * Evaluates the breakpoint at an address, invoked when {@link #isSet(short)} is true.
+     * If the condition holds the hit is recorded, and the handler is invoked for a logpoint.
+     *
+     * @return The breakpoint hit if the processor must stop, null otherwise
+     */
+    public Breakpoint hit(short address, Z80Processor processor) {
+        Breakpoint breakpoint;
+        synchronized (this) {
+            breakpoint = breakpoints.get(address & 0xffff);
+        }
+        if (breakpoint == null || !breakpoint.conditionHolds(processor))
+            return null;
+
+        synchronized (this) {
+            breakpoint.hit();
+            if (breakpoint.isTemporary() && breakpoints.get(address & 0xffff) == breakpoint)
+                remove(address);
+        }
+
+        if (breakpoint.getHandler() != null) {
+            breakpoint.getHandler().hit(breakpoint, processor);
+            return null;
+        }
+
+        synchronized (this) {
+            lastHit = breakpoint;
+        }
+        return breakpoint;
+    }
+
+//#endregion
+}
@@ -0,0 +1,289 @@
+package konamiman.z80.debugging;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import konamiman.z80.Z80Processor;
+import konamiman.z80.exceptions.ConditionSyntaxException;
+
+
+/**
+ * A condition over the state of the processor, for conditional breakpoints and logpoints.
+ *
+ * <remarks>
+ * <para>
+ * The expression is compiled once into a tree of lambdas, so evaluating it doesn't parse nor
+ * interpret anything and constant subexpressions are folded. Values are unsigned integers;
+ * an expression is true when its value is not zero, comparisons and logical operators give 1 or 0.
+ * </para>
+ * <para>
+ * Operands: numbers (decimal, hexadecimal as 0x5C or 5Ch, binary as 0b101 or 101b), 8 bit registers
+ * (A, F, B, C, D, E, H, L, I, R, IXH, IXL, IYH, IYL), 16 bit registers (AF, BC, DE, HL, IX, IY, SP, PC,
+ * and the alternate AF', BC', DE', HL'), flags (CF, NF, PF, HF, ZF, SF), IFF1, IFF2, IM, and T
+ * (the T states elapsed since the processor was started). As in Z80 assembler (expr) is the byte in memory
+ * at that address, read without firing memory access events; use square brackets for grouping.
+ * Names are case insensitive.
+ * </para>
+ * <para>
+ * Operators, from lower to higher precedence: ||, &amp;&amp;, == != &lt; &lt;= &gt; &gt;=, |, ^, &amp;,
+ * &lt;&lt; &gt;&gt;, + -, *, and the unary - ~ !. Example: <c>PC==5 &amp;&amp; C==15 &amp;&amp; (DE)==5Ch</c>.
+ * </para>
+ */
+public class Condition {
+
+    /** the compiled expression */
+    @FunctionalInterface
+    private interface Operand {
+        long get(Z80Processor z80);
+    }
+
+    private record Constant(long value) implements Operand {
+        @Override
+        public long get(Z80Processor z80) {
+            return value;
+        }
+    }
+
+    private static final Map<String, Operand> Names = Map.ofEntries(
+            Map.entry("A", z80 -> z80.getRegisters().getA() & 0xff), Map.entry("F", z80 -> z80.getRegisters().getF() & 0xff),
+            Map.entry("B", z80 -> z80.getRegisters().getB() & 0xff), Map.entry("C", z80 -> z80.getRegisters().getC() & 0xff),
+            Map.entry("D", z80 -> z80.getRegisters().getD() & 0xff), Map.entry("E", z80 -> z80.getRegisters().getE() & 0xff),
+            Map.entry("H", z80 -> z80.getRegisters().getH() & 0xff), Map.entry("L", z80 -> z80.getRegisters().getL() & 0xff),
+            Map.entry("I", z80 -> z80.getRegisters().getI() & 0xff), Map.entry("R", z80 -> z80.getRegisters().getR() & 0xff),
+            Map.entry("IXH", z80 -> z80.getRegisters().getIXH() & 0xff), Map.entry("IXL", z80 -> z80.getRegisters().getIXL() & 0xff),
+            Map.entry("IYH", z80 -> z80.getRegisters().getIYH() & 0xff), Map.entry("IYL", z80 -> z80.getRegisters().getIYL() & 0xff),
+            Map.entry("AF", z80 -> z80.getRegisters().getAF() & 0xffff), Map.entry("BC", z80 -> z80.getRegisters().getBC() & 0xffff),
+            Map.entry("DE", z80 -> z80.getRegisters().getDE() & 0xffff), Map.entry("HL", z80 -> z80.getRegisters().getHL() & 0xffff),
+            Map.entry("IX", z80 -> z80.getRegisters().getIX() & 0xffff), Map.entry("IY", z80 -> z80.getRegisters().getIY() & 0xffff),
+            Map.entry("SP", z80 -> z80.getRegisters().getSP() & 0xffff), Map.entry("PC", z80 -> z80.getRegisters().getPC() & 0xffff),
+            Map.entry("AF'", z80 -> z80.getRegisters().getAlternate().getAF() & 0xffff), Map.entry("BC'", z80 -> z80.getRegisters().getAlternate().getBC() & 0xffff),
+            Map.entry("DE'", z80 -> z80.getRegisters().getAlternate().getDE() & 0xffff), Map.entry("HL'", z80 -> z80.getRegisters().getAlternate().getHL() & 0xffff),
+            Map.entry("CF", z80 -> z80.getRegisters().getCF().intValue()), Map.entry("NF", z80 -> z80.getRegisters().getNF().intValue()),
+            Map.entry("PF", z80 -> z80.getRegisters().getPF().intValue()), Map.entry("HF", z80 -> z80.getRegisters().getHF().intValue()),
+            Map.entry("ZF", z80 -> z80.getRegisters().getZF().intValue()), Map.entry("SF", z80 -> z80.getRegisters().getSF().intValue()),
+            Map.entry("IFF1", z80 -> z80.getRegisters().getIFF1().intValue()), Map.entry("IFF2", z80 -> z80.getRegisters().getIFF2().intValue()),
+            Map.entry("IM", z80 -> z80.getInterruptMode()), Map.entry("T", Z80Processor::getTStatesElapsedSinceStart));
+
+    private final String source;
+
+    private final Operand operand;
+
+    private Condition(String source, Operand operand) {
+        this.source = source;
+        this.operand = operand;
+    }
+
+    /**
+     * Compiles a condition.
+     *
+     * @throws ConditionSyntaxException The expression is not valid
+     */
+    public static Condition compile(String expression) {
+        return new Condition(expression, new Parser(expression).parse());
+    }
+
+    /**
+     * Evaluates the condition with the current state of a processor.
+     */
+    public boolean test(Z80Processor z80) {
+        return operand.get(z80) != 0;
+    }
+
+    /**
+     * Evaluates the expression with the current state of a processor.
+     */
+    public long evaluate(Z80Processor z80) {
+        return operand.get(z80);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+//#region Parser
+
+    /** recursive descent parser that builds the lambdas as it goes */
+    private static class Parser {
+
+        private static final String[][] BinaryOperators = {
+                {"||"}, {"&&"}, {"==", "!=", "<=", ">=", "<", ">"}, {"|"}, {"^"}, {"&"}, {"<<", ">>"}, {"+", "-"}, {"*"}
+        };
+
+        private static final Set<String> TwoCharOperators = Set.of("||", "&&", "==", "!=", "<=", ">=", "<<", ">>");
+
+        private final String text;
+        private int position;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Operand parse() {
+            var result = binary(0);
+            skipSpaces();
+            if (position < text.length())
+                throw error("Unexpected '%c'".formatted(text.charAt(position)));
+            return result;
+        }
+
+        private Operand binary(int level) {
+            if (level == BinaryOperators.length)
+                return unary();
+
+            var left = binary(level + 1);
+            while (true) {
+                var operator = operator(BinaryOperators[level]);
+                if (operator == null)
+                    return left;
+                left = combine(operator, left, binary(level + 1));
+            }
+        }
+
+        private String operator(String[] operators) {
+            skipSpaces();
+            for (var operator : operators) {
+                if (!text.startsWith(operator, position))
+                    continue;
+                // don't take | from ||, < from <= or <<...
+                if (operator.length() == 1 && position + 2 <= text.length() && TwoCharOperators.contains(text.substring(position, position + 2)))
+                    continue;
+
+                position += operator.length();
+                return operator;
+            }
+            return null;
+        }
+
+        private static Operand combine(String operator, Operand left, Operand right) {
+            Operand result = switch (operator) {
+                case "||" -> z80 -> left.get(z80) != 0 || right.get(z80) != 0 ? 1 : 0;
+                case "&&" -> z80 -> left.get(z80) != 0 && right.get(z80) != 0 ? 1 : 0;
+                case "==" -> z80 -> left.get(z80) == right.get(z80) ? 1 : 0;
+                case "!=" -> z80 -> left.get(z80) != right.get(z80) ? 1 : 0;
+                case "<=" -> z80 -> left.get(z80) <= right.get(z80) ? 1 : 0;
+                case ">=" -> z80 -> left.get(z80) >= right.get(z80) ? 1 : 0;
+                case "<" -> z80 -> left.get(z80) < right.get(z80) ? 1 : 0;
+                case ">" -> z80 -> left.get(z80) > right.get(z80) ? 1 : 0;
+                case "|" -> z80 -> left.get(z80) | right.get(z80);
+                case "^" -> z80 -> left.get(z80) ^ right.get(z80);
+                case "&" -> z80 -> left.get(z80) & right.get(z80);
+                case "<<" -> z80 -> left.get(z80) << right.get(z80);
+                case ">>" -> z80 -> left.get(z80) >>> right.get(z80);
+                case "+" -> z80 -> left.get(z80) + right.get(z80);
+                case "-" -> z80 -> left.get(z80) - right.get(z80);
+                default -> z80 -> left.get(z80) * right.get(z80);
+            };
+            return fold(result, left, right);
+        }
+
+        private static Operand fold(Operand result, Operand... operands) {
+            for (var operand : operands) {
+                if (!(operand instanceof Constant))
+                    return result;
+            }
+            return new Constant(result.get(null));
+        }
+
+        private Operand unary() {
+            skipSpaces();
+            if (position == text.length())
+                throw error("Operand expected");
+
+            var c = text.charAt(position);
+            if (c == '-' || c == '~' || (c == '!' && !text.startsWith("!=", position))) {
+                position++;
+                var operand = unary();
+                Operand result = switch (c) {
+                    case '-' -> z80 -> -operand.get(z80);
+                    case '~' -> z80 -> ~operand.get(z80);
+                    default -> z80 -> operand.get(z80) == 0 ? 1 : 0;
+                };
+                return fold(result, operand);
+            }
+            if (c == '[') {
+                position++;
+                var operand = binary(0);
+                expect(']');
+                return operand;
+            }
+            if (c == '(') {
+                position++;
+                var address = binary(0);
+                expect(')');
+                return z80 -> z80.getMemory().get((int) address.get(z80) & 0xffff) & 0xff;
+            }
+            if (Character.isDigit(c))
+                return number();
+            if (Character.isLetter(c))
+                return name();
+
+            throw error("Unexpected '%c'".formatted(c));
+        }
+
+        private Operand number() {
+            var start = position;
+            while (position < text.length() && Character.isLetterOrDigit(text.charAt(position)))
+                position++;
+
+            var token = text.substring(start, position).toLowerCase(Locale.ROOT);
+            try {
+                long value;
+                // the h suffix goes first: 0BEh is hexadecimal, not a malformed 0b prefix
+                if (token.endsWith("h"))
+                    value = Long.parseLong(token.substring(0, token.length() - 1), 16);
+                else if (token.startsWith("0x"))
+                    value = Long.parseLong(token.substring(2), 16);
+                else if (token.startsWith("0b"))
+                    value = Long.parseLong(token.substring(2), 2);
+                else if (token.endsWith("b"))
+                    value = Long.parseLong(token.substring(0, token.length() - 1), 2);
+                else
+                    value = Long.parseLong(token);
+                return new Constant(value);
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error("Invalid number '%s'".formatted(token));
+            }
+        }
+
+        private Operand name() {
+            var start = position;
+            while (position < text.length() && Character.isLetterOrDigit(text.charAt(position)))
+                position++;
+            if (position < text.length() && text.charAt(position) == '\'')
+                position++;
+
+            var name = text.substring(start, position).toUpperCase(Locale.ROOT);
+            var operand = Names.get(name);
+            if (operand == null) {
+                position = start;
+                throw error("Unknown name '%s'".formatted(name));
+            }
+            return operand;
+        }
+
+        private void expect(char c) {
+            skipSpaces();
+            if (position == text.length() || text.charAt(position) != c)
+                throw error("'%c' expected".formatted(c));
+            position++;
+        }
+
+        private void skipSpaces() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position)))
+                position++;
+        }
+
+        private ConditionSyntaxException error(String message) {
+            return new ConditionSyntaxException(position, "%s at position %d of condition: %s".formatted(message, position, text));
+        }
+    }
+
+//#endregion
+}
@@ -0,0 +1,80 @@
+package konamiman.z80.debugging;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import konamiman.z80.enums.WatchpointAccess;
+
+
+/**
+ * A watchpoint on a range of memory addresses or ports, see {@link Watchpoints}.
+ */
+public class Watchpoint {
+
+    private final int firstAddress;
+
+    private final int lastAddress;
+
+    private final EnumSet<WatchpointAccess> accesses;
+
+    private final WatchpointHandler handler;
+
+    private long hitCount;
+
+    Watchpoint(int firstAddress, int lastAddress, EnumSet<WatchpointAccess> accesses, WatchpointHandler handler) {
+        this.firstAddress = firstAddress;
+        this.lastAddress = lastAddress;
+        this.accesses = accesses;
+        this.handler = handler;
+    }
+
+    /**
+     * Gets the first address or port of the range watched.
+     */
+    public int getFirstAddress() {
+        return firstAddress;
+    }
+
+    /**
+     * Gets the last address or port of the range watched (inclusive).
+     */
+    public int getLastAddress() {
+        return lastAddress;
+    }
+
+    /**
+     * Gets the kinds of access watched.
+     */
+    public Set<WatchpointAccess> getAccesses() {
+        return EnumSet.copyOf(accesses);
+    }
+
+    public WatchpointHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Gets the number of accesses that have matched the watchpoint.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void resetHitCount() {
+        hitCount = 0;
+    }
+
+    boolean matches(WatchpointAccess access, int address) {
+        return address >= firstAddress && address <= lastAddress && accesses.contains(access);
+    }
+
+    void hit(WatchpointAccess access, short address, byte value) {
+        hitCount++;
+        handler.accessed(this, access, address, value);
+    }
+
+    @Override
+    public String toString() {
+        return "%04X-%04X %s (%d hits)".formatted(firstAddress, lastAddress, accesses, hitCount);
+    }
+}
@@ -0,0 +1,21 @@
+package konamiman.z80.debugging;
+
+import konamiman.z80.enums.WatchpointAccess;
+
+
+/**
+ * Receives the accesses that match a {@link Watchpoint}.
+ */
+@FunctionalInterface
+public interface WatchpointHandler {
+
+    /**
+     * Invoked after the access, from the thread that runs the processor.
+     *
+     * @param watchpoint The watchpoint that matched the access
+     * @param access The kind of access
+     * @param address The memory address or port number accessed
+     * @param value The value read or written
+     */
+    void accessed(Watchpoint watchpoint, WatchpointAccess access, short address, byte value);
+}
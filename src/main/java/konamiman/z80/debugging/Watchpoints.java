@@ -0,0 +1,144 @@
+package konamiman.z80.debugging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import konamiman.z80.enums.WatchpointAccess;
+
+
+/**
+ * The memory and port watchpoints of a processor.
+ *
+ * <remarks>
+ * <para>
+ * Attach an instance with {@link konamiman.z80.Z80Processor#setWatchpoints(Watchpoints)}.
+ * A watchpoint is a range of addresses (or ports) and a set of access kinds; every access of one of those
+ * kinds to an address of the range is passed to the handler of the watchpoint after it has been done.
+ * Unlike a listener of {@link konamiman.z80.Z80Processor#memoryAccess()}, the handler is not invoked
+ * for any other access: for every access the processor tests one bit of a bitmap of 256 byte pages
+ * and, only if the page has watched addresses, one bit of a bitmap of addresses; there's a pair of bitmaps
+ * per access kind. The handler can stop the execution after the current instruction with
+ * {@link konamiman.z80.Z80Processor#requestPause()}.
+ * </para>
+ * <para>
+ * All the bytes of the instructions, opcodes and operands alike, are seen as {@link WatchpointAccess#Fetch}, port reads are seen even while an input log
+ * is being replayed. Watchpoints can be added and removed from other threads while the processor is running,
+ * the processor will see the change after a short while.
+ * </para>
+ */
+public class Watchpoints {
+
+    private static final int AccessKinds = WatchpointAccess.values().length;
+    private static final int PageWords = 256 / 64;
+    private static final int AddressWords = 65536 / 64;
+
+    private final long[] pages = new long[AccessKinds * PageWords];
+
+    private final long[] addresses = new long[AccessKinds * AddressWords];
+
+    private final List<Watchpoint> watchpoints = new ArrayList<>();
+
+    private volatile Watchpoint[] watchpointsSnapshot = new Watchpoint[0];
+
+    /**
+     * Adds a watchpoint for one address or port.
+     *
+     * @return The watchpoint added
+     */
+    public Watchpoint add(short address, WatchpointHandler handler, WatchpointAccess... accesses) {
+        return add(address, address, handler, accesses);
+    }
+
+    /**
+     * Adds a watchpoint for a range of addresses or ports.
+     *
+     * @param firstAddress First address of the range
+     * @param lastAddress Last address of the range (inclusive)
+     * @param handler Receives the accesses that match the watchpoint
+     * @param accesses The kinds of access watched
+     * @return The watchpoint added
+     */
+    public synchronized Watchpoint add(short firstAddress, short lastAddress, WatchpointHandler handler, WatchpointAccess... accesses) {
+        if (handler == null)
+            throw new IllegalArgumentException("A watchpoint needs a handler");
+        if ((lastAddress & 0xffff) < (firstAddress & 0xffff))
+            throw new IllegalArgumentException("The last address of a watchpoint can't be lower than the first address");
+        if (accesses.length == 0)
+            throw new IllegalArgumentException("A watchpoint needs at least one access kind");
+
+        var watchpoint = new Watchpoint(firstAddress & 0xffff, lastAddress & 0xffff, EnumSet.copyOf(Arrays.asList(accesses)), handler);
+        watchpoints.add(watchpoint);
+        mark(watchpoint);
+        watchpointsSnapshot = watchpoints.toArray(new Watchpoint[0]);
+        return watchpoint;
+    }
+
+    /**
+     * Removes a watchpoint.
+     *
+     * @return true if the watchpoint was registered
+     */
+    public synchronized boolean remove(Watchpoint watchpoint) {
+        if (!watchpoints.remove(watchpoint))
+            return false;
+
+        Arrays.fill(pages, 0);
+        Arrays.fill(addresses, 0);
+        for (var remaining : watchpoints)
+            mark(remaining);
+        watchpointsSnapshot = watchpoints.toArray(new Watchpoint[0]);
+        return true;
+    }
+
+    /**
+     * Removes all the watchpoints.
+     */
+    public synchronized void clear() {
+        watchpoints.clear();
+        Arrays.fill(pages, 0);
+        Arrays.fill(addresses, 0);
+        watchpointsSnapshot = new Watchpoint[0];
+    }
+
+    /**
+     * Gets all the watchpoints, in the order in which they were added.
+     */
+    public synchronized List<Watchpoint> getAll() {
+        return new ArrayList<>(watchpoints);
+    }
+
+    private void mark(Watchpoint watchpoint) {
+        for (var access : watchpoint.getAccesses()) {
+            var kind = access.ordinal();
+            for (int address = watchpoint.getFirstAddress(); address <= watchpoint.getLastAddress(); address++) {
+                pages[kind * PageWords + (address >>> 14)] |= 1L << (address >>> 8);
+                addresses[kind * AddressWords + (address >>> 6)] |= 1L << address;
+            }
+        }
+    }
+
+//#region Checks, invoked by the processor
+
+    /**
+     * Tells whether an access is watched. This is the test done for every access.
+     */
+    public boolean isWatched(WatchpointAccess access, short address) {
+        var kind = access.ordinal();
+        return (pages[kind * PageWords + ((address & 0xffff) >>> 14)] & 1L << ((address & 0xffff) >>> 8)) != 0
+                && (addresses[kind * AddressWords + ((address & 0xffff) >>> 6)] & 1L << address) != 0;
+    }
+
+    /**
+     * Passes a watched access to the handlers of the watchpoints that match it.
+     */
+    public void hit(WatchpointAccess access, short address, byte value) {
+        for (var watchpoint : watchpointsSnapshot) {
+            if (watchpoint.matches(access, address & 0xffff))
+                watchpoint.hit(access, address, value);
+        }
+    }
+
+//#endregion
+}
@@ -0,0 +1,61 @@
+package konamiman.z80.devices;
+
+
+/**
+ * A range of addresses handled by a memory mapped device, see {@link MemoryMap}.
+ */
+public class MappedRegion {
+
+    private final int firstAddress;
+
+    private final int lastAddress;
+
+    private final MemoryReadHandler readHandler;
+
+    private final MemoryWriteHandler writeHandler;
+
+    MappedRegion(int firstAddress, int lastAddress, MemoryReadHandler readHandler, MemoryWriteHandler writeHandler) {
+        this.firstAddress = firstAddress;
+        this.lastAddress = lastAddress;
+        this.readHandler = readHandler;
+        this.writeHandler = writeHandler;
+    }
+
+    public int getFirstAddress() {
+        return firstAddress;
+    }
+
+    /**
+     * Gets the last address of the region (inclusive).
+     */
+    public int getLastAddress() {
+        return lastAddress;
+    }
+
+    /**
+     * Gets the handler for the reads, or null if the reads go to the memory.
+     */
+    public MemoryReadHandler getReadHandler() {
+        return readHandler;
+    }
+
+    /**
+     * Gets the handler for the writes, or null if the writes go to the memory.
+     */
+    public MemoryWriteHandler getWriteHandler() {
+        return writeHandler;
+    }
+
+    boolean contains(int address) {
+        return address >= firstAddress && address <= lastAddress;
+    }
+
+    boolean overlaps(int firstAddress, int lastAddress) {
+        return firstAddress <= this.lastAddress && lastAddress >= this.firstAddress;
+    }
+
+    @Override
+    public String toString() {
+        return "%04X-%04X%s%s".formatted(firstAddress, lastAddress, readHandler != null ? " R" : "", writeHandler != null ? " W" : "");
+    }
+}
@@ -0,0 +1,135 @@
+package konamiman.z80.devices;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * The memory mapped devices of a processor, such as video RAM windows, mapper registers or sound chips.
+ *
+ * <remarks>
+ * <para>
+ * Attach an instance with {@link konamiman.z80.Z80Processor#setMemoryMap(MemoryMap)}. A device handles the reads
+ * from and/or the writes to a range of addresses; the processor finds it through a table of 256 byte pages,
+ * so accesses to pages without devices pay one array read and go to the memory as usual.
+ * Accesses handled by a device invoke its handler directly with the address and the value:
+ * the memory is not accessed, the access mode of the address is ignored and no memory access events are fired.
+ * Wait states and watchpoints apply to all the addresses.
+ * </para>
+ * <para>
+ * Regions can't overlap. A region with only a read handler (or only a write handler) lets
+ * the other kind of access go to the memory, for example to trap the writes to mapper registers over a ROM.
+ * </para>
+ * <para>
+ * The values returned by read handlers are inputs of the processor: they are recorded by
+ * {@link konamiman.z80.replay.InputRecorder}, and while an {@link konamiman.z80.replay.InputReplayer}
+ * is attached the recorded values are returned without invoking the read handlers;
+ * writes to the regions are dropped without invoking the write handlers either.
+ * </para>
+ */
+public class MemoryMap {
+
+    private static final MappedRegion[] NoRegions = new MappedRegion[0];
+
+    /** the regions that overlap each page, null for the pages without regions */
+    private final MappedRegion[][] pages = new MappedRegion[256][];
+
+    private final List<MappedRegion> regions = new ArrayList<>();
+
+    /**
+     * Maps a device to a range of addresses.
+     *
+     * @param firstAddress First address of the range
+     * @param lastAddress Last address of the range (inclusive)
+     * @param readHandler Handler for the reads, null to read from the memory
+     * @param writeHandler Handler for the writes, null to write to the memory
+     * @return The region mapped
+     * @throws IllegalArgumentException The range overlaps with a region already mapped
+     */
+    public synchronized MappedRegion map(short firstAddress, short lastAddress, MemoryReadHandler readHandler, MemoryWriteHandler writeHandler) {
+        var first = firstAddress & 0xffff;
+        var last = lastAddress & 0xffff;
+        if (last < first)
+            throw new IllegalArgumentException("The last address of a region can't be lower than the first address");
+        if (readHandler == null && writeHandler == null)
+            throw new IllegalArgumentException("A region needs a read handler, a write handler or both");
+        for (var region : regions) {
+            if (region.overlaps(first, last))
+                throw new IllegalArgumentException("The range %04X-%04X overlaps with the region %s".formatted(first, last, region));
+        }
+
+        var region = new MappedRegion(first, last, readHandler, writeHandler);
+        regions.add(region);
+        for (int page = first >>> 8; page <= last >>> 8; page++) {
+            var pageRegions = pages[page] == null ? NoRegions : pages[page];
+            pageRegions = Arrays.copyOf(pageRegions, pageRegions.length + 1);
+            pageRegions[pageRegions.length - 1] = region;
+            pages[page] = pageRegions;
+        }
+        return region;
+    }
+
+    /**
+     * Unmaps a region.
+     *
+     * @return true if the region was mapped
+     */
+    public synchronized boolean unmap(MappedRegion region) {
+        if (!regions.remove(region))
+            return false;
+
+        for (int page = region.getFirstAddress() >>> 8; page <= region.getLastAddress() >>> 8; page++) {
+            var pageRegions = Arrays.stream(pages[page]).filter(r -> r != region).toArray(MappedRegion[]::new);
+            pages[page] = pageRegions.length == 0 ? null : pageRegions;
+        }
+        return true;
+    }
+
+    /**
+     * Unmaps all the regions.
+     */
+    public synchronized void clear() {
+        regions.clear();
+        Arrays.fill(pages, null);
+    }
+
+    /**
+     * Gets all the regions, in the order in which they were mapped.
+     */
+    public synchronized List<MappedRegion> getAll() {
+        return new ArrayList<>(regions);
+    }
+
+//#region Lookups, invoked by the processor
+
+    /**
+     * Gets the handler for the reads from an address, or null if the address is read from the memory.
+     */
+    public MemoryReadHandler getReadHandler(short address) {
+        var region = find(address);
+        return region == null ? null : region.getReadHandler();
+    }
+
+    /**
+     * Gets the handler for the writes to an address, or null if the address is written to the memory.
+     */
+    public MemoryWriteHandler getWriteHandler(short address) {
+        var region = find(address);
+        return region == null ? null : region.getWriteHandler();
+    }
+
+    private MappedRegion find(short address) {
+        var pageRegions = pages[(address & 0xffff) >>> 8];
+        if (pageRegions == null)
+            return null;
+
+        for (var region : pageRegions) {
+            if (region.contains(address & 0xffff))
+                return region;
+        }
+        return null;
+    }
+
+//#endregion
+}
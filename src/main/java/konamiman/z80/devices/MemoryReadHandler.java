@@ -0,0 +1,18 @@
+package konamiman.z80.devices;
+
+
+/**
+ * A memory mapped device that answers the reads from a range of addresses, see {@link MemoryMap}.
+ */
+@FunctionalInterface
+public interface MemoryReadHandler {
+
+    /**
+     * Invoked when the processor reads from a mapped address (including opcode fetches),
+     * from the thread that runs the processor.
+     *
+     * @param address The memory address
+     * @return The value read
+     */
+    byte read(short address);
+}
@@ -0,0 +1,17 @@
+package konamiman.z80.devices;
+
+
+/**
+ * A memory mapped device that receives the writes to a range of addresses, see {@link MemoryMap}.
+ */
+@FunctionalInterface
+public interface MemoryWriteHandler {
+
+    /**
+     * Invoked when the processor writes to a mapped address, from the thread that runs the processor.
+     *
+     * @param address The memory address
+     * @param value The value written
+     */
+    void write(short address, byte value);
+}
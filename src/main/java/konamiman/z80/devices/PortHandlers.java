@@ -0,0 +1,112 @@
+package konamiman.z80.devices;
+
+import java.util.Arrays;
+
+
+/**
+ * The devices connected to the ports of a processor, indexed by port number.
+ *
+ * <remarks>
+ * <para>
+ * Attach an instance with {@link konamiman.z80.Z80Processor#setPortHandlers(PortHandlers)}.
+ * When the processor reads from or writes to a port that has a handler, it invokes the handler directly
+ * with the port number and the value: the ports space is not accessed, the access mode of the port is ignored
+ * and no memory access events are fired. Ports without a handler are accessed as usual. Wait states,
+ * watchpoints and input recording apply to all the ports. While an {@link konamiman.z80.replay.InputReplayer}
+ * is attached no handler is invoked: reads return the recorded values, and writes don't reach
+ * the handlers, the ports space nor the port write events.
+ * </para>
+ * <para>
+ * An instance created with {@link #PortHandlers()} has 256 entries: when the processor uses the extended ports space
+ * only the low byte of the port number selects the handler, as with devices that decode 8 address lines.
+ * An instance created with <c>PortHandlers(true)</c> has 65536 entries, one per 16 bit port number.
+ * </para>
+ */
+public class PortHandlers {
+
+    private final PortReadHandler[] readHandlers;
+
+    private final PortWriteHandler[] writeHandlers;
+
+    private final int mask;
+
+    /**
+     * Creates a table of handlers for 256 ports.
+     */
+    public PortHandlers() {
+        this(false);
+    }
+
+    /**
+     * Creates a table of handlers.
+     *
+     * @param extended true for 65536 ports, false for 256 ports
+     */
+    public PortHandlers(boolean extended) {
+        var size = extended ? 65536 : 256;
+        readHandlers = new PortReadHandler[size];
+        writeHandlers = new PortWriteHandler[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Gets the number of ports of the table, 256 or 65536.
+     */
+    public int getSize() {
+        return mask + 1;
+    }
+
+    /**
+     * Sets the handler for the reads from a port, null to remove it.
+     */
+    public void setReadHandler(short port, PortReadHandler handler) {
+        readHandlers[port & mask] = handler;
+    }
+
+    /**
+     * Sets the handler for the writes to a port, null to remove it.
+     */
+    public void setWriteHandler(short port, PortWriteHandler handler) {
+        writeHandlers[port & mask] = handler;
+    }
+
+    /**
+     * Sets the handlers for the reads from and the writes to a range of ports.
+     *
+     * @param firstPort First port of the range
+     * @param lastPort Last port of the range (inclusive)
+     * @param readHandler Handler for the reads, null for none
+     * @param writeHandler Handler for the writes, null for none
+     */
+    public void set(short firstPort, short lastPort, PortReadHandler readHandler, PortWriteHandler writeHandler) {
+        if ((lastPort & mask) < (firstPort & mask))
+            throw new IllegalArgumentException("The last port of the range can't be lower than the first port");
+
+        for (int port = firstPort & mask; port <= (lastPort & mask); port++) {
+            readHandlers[port] = readHandler;
+            writeHandlers[port] = writeHandler;
+        }
+    }
+
+    /**
+     * Removes all the handlers.
+     */
+    public void clear() {
+        Arrays.fill(readHandlers, null);
+        Arrays.fill(writeHandlers, null);
+    }
+
+    /**
+     * Gets the handler for the reads from a port, or null if there isn't any.
+     */
+    public PortReadHandler getReadHandler(short port) {
+        return readHandlers[port & mask];
+    }
+
+    /**
+     * Gets the handler for the writes to a port, or null if there isn't any.
+     */
+    public PortWriteHandler getWriteHandler(short port) {
+        return writeHandlers[port & mask];
+    }
+}
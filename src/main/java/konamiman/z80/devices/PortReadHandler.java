@@ -0,0 +1,17 @@
+package konamiman.z80.devices;
+
+
+/**
+ * A device that answers the reads from a port, see {@link PortHandlers}.
+ */
+@FunctionalInterface
+public interface PortReadHandler {
+
+    /**
+     * Invoked when the processor reads from a port, from the thread that runs the processor.
+     *
+     * @param port The port number (16 bit when the extended ports space is used)
+     * @return The value read
+     */
+    byte read(short port);
+}
@@ -0,0 +1,17 @@
+package konamiman.z80.devices;
+
+
+/**
+ * A device that receives the writes to a port, see {@link PortHandlers}.
+ */
+@FunctionalInterface
+public interface PortWriteHandler {
+
+    /**
+     * Invoked when the processor writes to a port, from the thread that runs the processor.
+     *
+     * @param port The port number (16 bit when the extended ports space is used)
+     * @param value The value written
+     */
+    void write(short port, byte value);
+}
@@ -0,0 +1,22 @@
+package konamiman.z80.enums;
+
+import konamiman.z80.trace.TraceRecorder;
+
+
+/**
+ * Represents what a {@link TraceRecorder} does when its buffer is full because the records
+ * are produced faster than they can be written to the file.
+ */
+public enum BackpressurePolicy {
+    /**
+     * The processor waits until the buffer has room for the record,
+     * so the trace is complete but the simulation is slowed down to the speed of the file.
+     */
+    Block,
+
+    /**
+     * The record is discarded and the processor goes on. The records lost are counted,
+     * and the gaps can be found when the trace is read because records have sequence numbers.
+     */
+    DropNewest
+}
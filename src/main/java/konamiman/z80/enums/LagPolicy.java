@@ -0,0 +1,30 @@
+package konamiman.z80.enums;
+
+import konamiman.z80.impls.NanoClockSynchronizerImpl;
+
+
+/**
+ * Represents what a {@link NanoClockSynchronizerImpl} does when the host falls behind the schedule
+ * of the simulated clock.
+ */
+public enum LagPolicy {
+    /**
+     * The lost time is caught up by not waiting until the schedule is met again,
+     * so the simulation runs at full host speed for a while.
+     * If the lag exceeds the maximum lag the schedule is resynchronized instead.
+     */
+    CatchUp,
+
+    /**
+     * The lost time is dropped as soon as it is detected: the schedule is resynchronized
+     * on every late period, so the simulation never runs faster than real time.
+     */
+    Drop,
+
+    /**
+     * Same as {@link #CatchUp}, but while the host is behind the schedule frame skipping is recommended
+     * (see {@link NanoClockSynchronizerImpl#shouldSkipFrame()}) so that the frontend
+     * can save the rendering time and catch up faster.
+     */
+    SkipFrames
+}
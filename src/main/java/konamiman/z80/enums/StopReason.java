@@ -45,6 +45,12 @@ public enum StopReason {
      */
     RetWithStackEmpty,
 
+    /**
+     * The next instruction to execute is at the address of a breakpoint in
+     * {@link konamiman.z80.Z80Processor#getBreakpoints()}; the instruction has not been executed.
+     */
+    BreakpointHit,
+
     /**
      * An exception was thrown and not handled during the execution of the
      * {@link konamiman.z80.Z80Processor#start(Object)} method, the {@link konamiman.z80.Z80Processor#continue_()} method
@@ -0,0 +1,28 @@
+package konamiman.z80.enums;
+
+import konamiman.z80.traps.Traps;
+
+
+/**
+ * Represents what the processor does after invoking the handler of a trap, see {@link Traps}.
+ */
+public enum TrapAction {
+    /**
+     * The execution goes on at the address in the PC register: if the handler didn't change it,
+     * the instruction at the address of the trap is executed.
+     */
+    Execute,
+
+    /**
+     * A RET instruction is simulated (see {@link konamiman.z80.Z80Processor#executeRet()}) and the execution
+     * goes on at the return address, as if the routine at the address of the trap had been executed.
+     */
+    Return,
+
+    /**
+     * The processor stops without executing the instruction at the address of the trap,
+     * with {@link StopReason#StopInvoked}. When the execution is continued the handler isn't invoked again
+     * and the instruction is executed, unless the handler changed the PC register.
+     */
+    Stop
+}
@@ -0,0 +1,35 @@
+package konamiman.z80.enums;
+
+import konamiman.z80.debugging.Watchpoints;
+
+
+/**
+ * Represents the kind of access that triggers a watchpoint, see {@link Watchpoints}.
+ */
+public enum WatchpointAccess {
+    /**
+     * Read of an instruction byte from memory: opcodes and prefixes, and also the operands
+     * of the instruction (immediate values, addresses and displacements) that follow them.
+     */
+    Fetch,
+
+    /**
+     * Read of data from memory by the instruction, for example the byte at (HL) or the word popped from the stack.
+     */
+    MemoryRead,
+
+    /**
+     * Write to memory.
+     */
+    MemoryWrite,
+
+    /**
+     * Read from a port.
+     */
+    PortRead,
+
+    /**
+     * Write to a port.
+     */
+    PortWrite
+}
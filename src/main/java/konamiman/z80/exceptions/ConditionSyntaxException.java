@@ -0,0 +1,30 @@
+package konamiman.z80.exceptions;
+
+import konamiman.z80.debugging.Condition;
+
+
+/**
+ * Exception that is thrown by {@link Condition#compile(String)} when the expression is not valid.
+ */
+public class ConditionSyntaxException extends RuntimeException {
+    /**
+     * The position in the expression (starting at 0) where the error was found.
+     */
+    private final int position;
+
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Initializes a new instance of the class.
+     *
+     * @param position The position in the expression (starting at 0) where the error was found.
+     * @param message Message for the exception.
+     */
+    public ConditionSyntaxException(int position, String message) {
+        super(message);
+
+        this.position = position;
+    }
+}
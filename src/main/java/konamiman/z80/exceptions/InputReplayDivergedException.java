@@ -0,0 +1,32 @@
+package konamiman.z80.exceptions;
+
+import konamiman.z80.replay.InputReplayer;
+
+
+/**
+ * Exception that is thrown by {@link InputReplayer} when the execution being replayed
+ * doesn't request the inputs in the same order and at the same time as the execution that was recorded,
+ * usually because the program, the memory contents or the configuration of the processor are not the same.
+ */
+public class InputReplayDivergedException extends RuntimeException {
+    /**
+     * The T states elapsed since the processor was started when the divergence was detected.
+     */
+    private final long tStates;
+
+    public long getTStates() {
+        return tStates;
+    }
+
+    /**
+     * Initializes a new instance of the class.
+     *
+     * @param tStates The T states elapsed since the processor was started when the divergence was detected.
+     * @param message Message for the exception.
+     */
+    public InputReplayDivergedException(long tStates, String message) {
+        super(message);
+
+        this.tStates = tStates;
+    }
+}
@@ -0,0 +1,330 @@
+package konamiman.z80.impls;
+
+import java.util.concurrent.locks.LockSupport;
+
+import konamiman.z80.enums.LagPolicy;
+import konamiman.z80.interfaces.ClockSynchronizer;
+
+
+/**
+ * High precision implementation of {@link ClockSynchronizer}.
+ *
+ * <remarks>
+ * <para>
+ * Time is measured with {@link System#nanoTime()} against an absolute schedule that starts when
+ * {@link #start()} is invoked, so rounding errors and oversleeps of one period are compensated
+ * in the next ones instead of accumulating as drift.
+ * </para>
+ * <para>
+ * Waits are performed with {@link LockSupport#parkNanos(long)}, except for the last few microseconds
+ * that are spun. The spin length is calibrated continuously from the observed park overshoot of the host,
+ * so the final deadline is hit precisely without burning a core for the whole wait.
+ * </para>
+ * <para>
+ * What happens when the host falls behind the schedule depends on {@link #getLagPolicy()}, but in any case
+ * if the lag exceeds {@link #getMaxLagNanos()} (for example after a long GC pause)
+ * the schedule is resynchronized to the current time, that is, the lost time is not caught up,
+ * and an overrun is counted.
+ * </para>
+ * <para>
+ * This class is intended to be combined with {@link konamiman.z80.Z80Processor#setClockSynchronizationQuantum(int)}
+ * so that it is invoked once per frame or scanline, the per-period overhead being then negligible.
+ * </para>
+ */
+public class NanoClockSynchronizerImpl implements ClockSynchronizer {
+
+    /** Waits shorter than this are postponed, parking for less is not worth it. */
+    private static final long MinNanosToWait = 50_000;
+
+    private static final long MinSpinNanos = 10_000;
+    private static final long MaxSpinNanos = 2_000_000;
+
+    private double effectiveClockFrequencyInMHz = 4;
+
+    private double nanosPerCycle = 1000 / effectiveClockFrequencyInMHz;
+
+    @Override
+    public double getEffectiveClockFrequencyInMHz() {
+        return effectiveClockFrequencyInMHz;
+    }
+
+    @Override
+    public void setEffectiveClockFrequencyInMHz(double value) {
+        effectiveClockFrequencyInMHz = value;
+        updateNanosPerCycle();
+    }
+
+    /** the factor requested by {@link #setFastForwardFactor(double)}, possibly from another thread */
+    private volatile double fastForwardFactor = 1;
+
+    /** the factor {@link #nanosPerCycle} was computed with, only accessed in the emulation thread */
+    private double appliedFastForwardFactor = 1;
+
+    /**
+     * Gets or sets how many times faster than real time the simulated clock runs, default is 1.
+     * {@link Double#POSITIVE_INFINITY} disables the waits altogether.
+     *
+     * <remarks>
+     * Unlike {@link konamiman.z80.Z80Processor#setClockSpeedFactor(float)} this can be toggled
+     * from any thread while the processor is running. The new value is applied by the next
+     * {@link #tryWait(int)}, in the emulation thread, and the schedule is resynchronized then
+     * so that the time elapsed at the old speed is neither caught up nor waited for.
+     *
+     * @throws IllegalArgumentException The value is not greater than zero.
+     */
+    public double getFastForwardFactor() { return fastForwardFactor; }
+
+    public void setFastForwardFactor(double value) {
+        if (!(value > 0))
+            throw new IllegalArgumentException("Fast forward factor must be greater than zero");
+        fastForwardFactor = value;
+    }
+
+    private void updateNanosPerCycle() {
+        nanosPerCycle = 1000 / (effectiveClockFrequencyInMHz * appliedFastForwardFactor);
+    }
+
+    private LagPolicy lagPolicy = LagPolicy.CatchUp;
+
+    /**
+     * Gets or sets what to do when the host falls behind the schedule, default is {@link LagPolicy#CatchUp}.
+     */
+    public LagPolicy getLagPolicy() { return lagPolicy; }
+
+    public void setLagPolicy(LagPolicy value) {
+        if (value == null)
+            throw new NullPointerException("lagPolicy");
+        lagPolicy = value;
+    }
+
+    private int maxConsecutiveFrameSkips = 5;
+
+    /**
+     * Gets or sets how many consecutive times {@link #shouldSkipFrame()} can return true,
+     * so that the display is still refreshed from time to time while catching up. Default is 5.
+     */
+    public int getMaxConsecutiveFrameSkips() { return maxConsecutiveFrameSkips; }
+
+    public void setMaxConsecutiveFrameSkips(int value) {
+        if (value < 0)
+            throw new IllegalArgumentException("maxConsecutiveFrameSkips can't be negative");
+        maxConsecutiveFrameSkips = value;
+    }
+
+    private long maxLagNanos = 100_000_000;
+
+    /**
+     * Gets or sets the maximum time, in nanoseconds, that the host can be behind the schedule
+     * before the schedule is resynchronized. Default is 100 ms.
+     */
+    public long getMaxLagNanos() { return maxLagNanos; }
+
+    public void setMaxLagNanos(long value) {
+        if (value < 0)
+            throw new IllegalArgumentException("maxLagNanos can't be negative");
+        maxLagNanos = value;
+    }
+
+    /** host time at which the schedule started */
+    private long originNanos;
+
+    /** host time at which the cycles signalled so far should have elapsed, relative to {@link #originNanos} */
+    private double scheduledNanos;
+
+    /** expected park overshoot, exponentially averaged */
+    private long spinNanos = 100_000;
+
+    /** the last period finished behind the schedule and the lost time is being caught up */
+    private boolean behind;
+
+    private int consecutiveFrameSkips;
+
+    @Override
+    public void start() {
+        resync(System.nanoTime());
+    }
+
+    private void resync(long now) {
+        originNanos = now;
+        scheduledNanos = 0;
+        behind = false;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public void tryWait(int periodLengthInCycles) {
+        var factor = fastForwardFactor;
+        if (factor != appliedFastForwardFactor) {
+            appliedFastForwardFactor = factor;
+            updateNanosPerCycle();
+            resync(System.nanoTime());
+        }
+
+        if (nanosPerCycle == 0)
+            return;
+
+        scheduledNanos += periodLengthInCycles * nanosPerCycle;
+
+        var now = System.nanoTime();
+        var deadline = originNanos + (long) scheduledNanos;
+        var ahead = deadline - now;
+
+        if (ahead < 0) {
+            var lag = -ahead;
+            currentLagNanos = lag;
+            if (lag > maxLagNanosObserved)
+                maxLagNanosObserved = lag;
+            if (lag > maxLagNanos || lagPolicy == LagPolicy.Drop) {
+                overrunCount++;
+                lostNanos += lag;
+                resync(now);
+            } else {
+                behind = true;
+            }
+            return;
+        }
+
+        currentLagNanos = 0;
+        behind = false;
+        if (ahead < MinNanosToWait)
+            return;
+
+        waitCount++;
+        var parkUntil = deadline - spinNanos;
+        while (now < parkUntil) {
+            var requested = parkUntil - now;
+            LockSupport.parkNanos(requested);
+            var after = System.nanoTime();
+            calibrate(after - now - requested);
+            parkedNanos += after - now;
+            now = after;
+            if (Thread.currentThread().isInterrupted())
+                return;
+        }
+
+        var spinStart = now;
+        while (now < deadline) {
+            Thread.onSpinWait();
+            now = System.nanoTime();
+        }
+        spunNanos += now - spinStart;
+        if (now - deadline > 0)
+            oversleptNanos += now - deadline;
+    }
+
+    /**
+     * Tells whether the frontend should skip rendering the current frame in order to catch up with the schedule.
+     * To be invoked once per frame.
+     *
+     * <remarks>
+     * This only returns true when {@link #getLagPolicy()} is {@link LagPolicy#SkipFrames}, the last period
+     * finished behind the schedule, and less than {@link #getMaxConsecutiveFrameSkips()} frames
+     * have been skipped in a row.
+     */
+    public boolean shouldSkipFrame() {
+        if (lagPolicy == LagPolicy.SkipFrames && behind && consecutiveFrameSkips < maxConsecutiveFrameSkips) {
+            consecutiveFrameSkips++;
+            skippedFrames++;
+            return true;
+        }
+
+        consecutiveFrameSkips = 0;
+        return false;
+    }
+
+    private void calibrate(long overshoot) {
+        spinNanos += (Math.max(overshoot, 0) * 2 - spinNanos) / 8;
+        spinNanos = Math.max(MinSpinNanos, Math.min(MaxSpinNanos, spinNanos));
+    }
+
+//#region Statistics
+
+    private long waitCount;
+
+    /**
+     * The number of times {@link #tryWait(int)} has actually waited.
+     */
+    public long getWaitCount() { return waitCount; }
+
+    private long parkedNanos;
+
+    /**
+     * The total time spent parked, in nanoseconds.
+     */
+    public long getParkedNanos() { return parkedNanos; }
+
+    private long spunNanos;
+
+    /**
+     * The total time spent spinning for the final microseconds of the waits, in nanoseconds.
+     */
+    public long getSpunNanos() { return spunNanos; }
+
+    private long oversleptNanos;
+
+    /**
+     * The total time by which the waits missed their deadline, in nanoseconds.
+     */
+    public long getOversleptNanos() { return oversleptNanos; }
+
+    private long currentLagNanos;
+
+    /**
+     * How much the host was behind the schedule on the last {@link #tryWait(int)}, in nanoseconds.
+     */
+    public long getCurrentLagNanos() { return currentLagNanos; }
+
+    private long maxLagNanosObserved;
+
+    /**
+     * The maximum lag behind the schedule that has been observed, in nanoseconds.
+     */
+    public long getMaxObservedLagNanos() { return maxLagNanosObserved; }
+
+    private long overrunCount;
+
+    /**
+     * The number of times the schedule was resynchronized because the lag exceeded {@link #getMaxLagNanos()}
+     * or because the {@link LagPolicy#Drop} policy is in use.
+     */
+    public long getOverrunCount() { return overrunCount; }
+
+    private long lostNanos;
+
+    /**
+     * The total time, in nanoseconds, that has been dropped from the schedule because of overruns.
+     */
+    public long getLostNanos() { return lostNanos; }
+
+    private long skippedFrames;
+
+    /**
+     * The number of times {@link #shouldSkipFrame()} has returned true.
+     */
+    public long getSkippedFrames() { return skippedFrames; }
+
+    /**
+     * The spin length currently used for the final part of the waits, in nanoseconds.
+     */
+    public long getCalibratedSpinNanos() { return spinNanos; }
+
+    /**
+     * Sets all the statistics counters to zero.
+     */
+    public void resetStatistics() {
+        waitCount = 0;
+        parkedNanos = 0;
+        spunNanos = 0;
+        oversleptNanos = 0;
+        currentLagNanos = 0;
+        maxLagNanosObserved = 0;
+        overrunCount = 0;
+        lostNanos = 0;
+        skippedFrames = 0;
+    }
+
+//#endregion
+}
@@ -2,9 +2,6 @@ package konamiman.z80.instructions.core;
 
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
-import java.util.Arrays;
-import java.util.function.Function;
-import java.util.function.Supplier;
 
 import konamiman.z80.events.InstructionFetchFinishedEvent;
 import konamiman.z80.interfaces.Z80InstructionExecutor;
@@ -52,15 +49,6 @@ public class Z80InstructionExecutorImpl implements Z80InstructionExecutor, Z80In
     @Override public Z80ProcessorAgentExtendedPorts getProcessorAgentExtendedPorts() { return processorAgentExtendedPorts; }
     @Override public void setProcessorAgentExtendedPorts(Z80ProcessorAgentExtendedPorts value) { processorAgentExtendedPorts = value; }
 
-    public Z80InstructionExecutorImpl() {
-        initialize_CB_InstructionsTable();
-        initialize_DDCB_InstructionsTable();
-        initialize_ED_InstructionsTable();
-        initialize_FDCB_InstructionsTable();
-        initialize_SingleByte_InstructionsTable();
-        generateParityTable();
-    }
-
     @Override
     public int execute(byte firstOpcodeByte) {
         registers = processorAgent.getRegisters();
@@ -77,7 +65,7 @@ public class Z80InstructionExecutorImpl implements Z80InstructionExecutor, Z80In
     private int execute_CB_Instruction() {
         incR();
         incR();
-        return CB_InstructionExecutors[processorAgent.fetchNextOpcode() & 0xff].get();
+        return CB_InstructionExecutors[processorAgent.fetchNextOpcode() & 0xff].execute(this);
     }
 
     private int execute_ED_Instruction() {
@@ -87,9 +75,9 @@ public class Z80InstructionExecutorImpl implements Z80InstructionExecutor, Z80In
         if (isUnsupportedInstruction(secondOpcodeByte))
             return executeUnsupported_ED_Instruction(secondOpcodeByte);
         else if((secondOpcodeByte & 0xff) >= 0xA0)
-            return ED_Block_InstructionExecutors[(secondOpcodeByte & 0xff) - 0xA0].get();
+            return ED_Block_InstructionExecutors[(secondOpcodeByte & 0xff) - 0xA0].execute(this);
         else
-            return ED_InstructionExecutors[(secondOpcodeByte & 0xff) - 0x40].get();
+            return ED_InstructionExecutors[(secondOpcodeByte & 0xff) - 0x40].execute(this);
     }
 
     private static boolean isUnsupportedInstruction(byte secondOpcodeByte) {
@@ -120,7 +108,7 @@ public class Z80InstructionExecutorImpl implements Z80InstructionExecutor, Z80In
 
     private int execute_SingleByte_Instruction(byte firstOpcodeByte) {
         incR();
-        return SingleByte_InstructionExecutors[firstOpcodeByte & 0xff].get();
+        return SingleByte_InstructionExecutors[firstOpcodeByte & 0xff].execute(this);
     }
 
     private final EventHandler<InstructionFetchFinishedEvent> instructionFetchFinished = new EventHandler<>();
@@ -182,7 +170,7 @@ public class Z80InstructionExecutorImpl implements Z80InstructionExecutor, Z80In
             incR();
             processorAgent.fetchNextOpcode();
             var offset = processorAgent.fetchNextOpcode();
-            return DDCB_InstructionExecutors[processorAgent.fetchNextOpcode() & 0xff].apply(offset);
+            return DDCB_InstructionExecutors[processorAgent.fetchNextOpcode() & 0xff].execute(this, offset);
         }
 
         incR();
@@ -198,7 +186,7 @@ public class Z80InstructionExecutorImpl implements Z80InstructionExecutor, Z80In
             incR();
             processorAgent.fetchNextOpcode();
             var offset = processorAgent.fetchNextOpcode();
-            return FDCB_InstructionExecutors[processorAgent.fetchNextOpcode() & 0xff].apply(offset);
+            return FDCB_InstructionExecutors[processorAgent.fetchNextOpcode() & 0xff].execute(this, offset);
         }
 
         incR();
@@ -208,269 +196,289 @@ public class Z80InstructionExecutorImpl implements Z80InstructionExecutor, Z80In
 
 //#endregion
 
+//#region InstructionsTable
+
+    /**
+     * An entry of the opcode tables. The tables are shared by all the instances,
+     * so the instance that executes the instruction is passed explicitly.
+     */
+    @FunctionalInterface
+    private interface InstructionExecutor {
+        byte execute(Z80InstructionExecutorImpl instance);
+    }
+
+    /**
+     * Same as {@link InstructionExecutor}, for the DDCB and FDCB instructions that receive the offset as a parameter.
+     */
+    @FunctionalInterface
+    private interface IndexedInstructionExecutor {
+        byte execute(Z80InstructionExecutorImpl instance, byte offset);
+    }
+
+//#endregion
+
 //#region InstructionsTable.CB
 
-    private Supplier<Byte>[] CB_InstructionExecutors;
-
-    @SuppressWarnings("unchecked")
-    private void initialize_CB_InstructionsTable() {
-        CB_InstructionExecutors = new Supplier[] {
-                this::RLC_B,    // 00
-                this::RLC_C,    // 01
-                this::RLC_D,    // 02
-                this::RLC_E,    // 03
-                this::RLC_H,    // 04
-                this::RLC_L,    // 05
-                this::RLC_aHL,    // 06
-                this::RLC_A,    // 07
-                this::RRC_B,    // 08
-                this::RRC_C,    // 09
-                this::RRC_D,    // 0A
-                this::RRC_E,    // 0B
-                this::RRC_H,    // 0C
-                this::RRC_L,    // 0D
-                this::RRC_aHL,    // 0E
-                this::RRC_A,    // 0F
-                this::RL_B,    // 10
-                this::RL_C,    // 11
-                this::RL_D,    // 12
-                this::RL_E,    // 13
-                this::RL_H,    // 14
-                this::RL_L,    // 15
-                this::RL_aHL,    // 16
-                this::RL_A,    // 17
-                this::RR_B,    // 18
-                this::RR_C,    // 19
-                this::RR_D,    // 1A
-                this::RR_E,    // 1B
-                this::RR_H,    // 1C
-                this::RR_L,    // 1D
-                this::RR_aHL,    // 1E
-                this::RR_A,    // 1F
-                this::SLA_B,    // 20
-                this::SLA_C,    // 21
-                this::SLA_D,    // 22
-                this::SLA_E,    // 23
-                this::SLA_H,    // 24
-                this::SLA_L,    // 25
-                this::SLA_aHL,    // 26
-                this::SLA_A,    // 27
-                this::SRA_B,    // 28
-                this::SRA_C,    // 29
-                this::SRA_D,    // 2A
-                this::SRA_E,    // 2B
-                this::SRA_H,    // 2C
-                this::SRA_L,    // 2D
-                this::SRA_aHL,    // 2E
-                this::SRA_A,    // 2F
-                this::SLL_B,    // 30
-                this::SLL_C,    // 31
-                this::SLL_D,    // 32
-                this::SLL_E,    // 33
-                this::SLL_H,    // 34
-                this::SLL_L,    // 35
-                this::SLL_aHL,    // 36
-                this::SLL_A,    // 37
-                this::SRL_B,    // 38
-                this::SRL_C,    // 39
-                this::SRL_D,    // 3A
-                this::SRL_E,    // 3B
-                this::SRL_H,    // 3C
-                this::SRL_L,    // 3D
-                this::SRL_aHL,    // 3E
-                this::SRL_A,    // 3F
-                this::BIT_0_B,    // 40
-                this::BIT_0_C,    // 41
-                this::BIT_0_D,    // 42
-                this::BIT_0_E,    // 43
-                this::BIT_0_H,    // 44
-                this::BIT_0_L,    // 45
-                this::BIT_0_aHL,    // 46
-                this::BIT_0_A,    // 47
-                this::BIT_1_B,    // 48
-                this::BIT_1_C,    // 49
-                this::BIT_1_D,    // 4A
-                this::BIT_1_E,    // 4B
-                this::BIT_1_H,    // 4C
-                this::BIT_1_L,    // 4D
-                this::BIT_1_aHL,    // 4E
-                this::BIT_1_A,    // 4F
-                this::BIT_2_B,    // 50
-                this::BIT_2_C,    // 51
-                this::BIT_2_D,    // 52
-                this::BIT_2_E,    // 53
-                this::BIT_2_H,    // 54
-                this::BIT_2_L,    // 55
-                this::BIT_2_aHL,    // 56
-                this::BIT_2_A,    // 57
-                this::BIT_3_B,    // 58
-                this::BIT_3_C,    // 59
-                this::BIT_3_D,    // 5A
-                this::BIT_3_E,    // 5B
-                this::BIT_3_H,    // 5C
-                this::BIT_3_L,    // 5D
-                this::BIT_3_aHL,    // 5E
-                this::BIT_3_A,    // 5F
-                this::BIT_4_B,    // 60
-                this::BIT_4_C,    // 61
-                this::BIT_4_D,    // 62
-                this::BIT_4_E,    // 63
-                this::BIT_4_H,    // 64
-                this::BIT_4_L,    // 65
-                this::BIT_4_aHL,    // 66
-                this::BIT_4_A,    // 67
-                this::BIT_5_B,    // 68
-                this::BIT_5_C,    // 69
-                this::BIT_5_D,    // 6A
-                this::BIT_5_E,    // 6B
-                this::BIT_5_H,    // 6C
-                this::BIT_5_L,    // 6D
-                this::BIT_5_aHL,    // 6E
-                this::BIT_5_A,    // 6F
-                this::BIT_6_B,    // 70
-                this::BIT_6_C,    // 71
-                this::BIT_6_D,    // 72
-                this::BIT_6_E,    // 73
-                this::BIT_6_H,    // 74
-                this::BIT_6_L,    // 75
-                this::BIT_6_aHL,    // 76
-                this::BIT_6_A,    // 77
-                this::BIT_7_B,    // 78
-                this::BIT_7_C,    // 79
-                this::BIT_7_D,    // 7A
-                this::BIT_7_E,    // 7B
-                this::BIT_7_H,    // 7C
-                this::BIT_7_L,    // 7D
-                this::BIT_7_aHL,    // 7E
-                this::BIT_7_A,    // 7F
-                this::RES_0_B,    // 80
-                this::RES_0_C,    // 81
-                this::RES_0_D,    // 82
-                this::RES_0_E,    // 83
-                this::RES_0_H,    // 84
-                this::RES_0_L,    // 85
-                this::RES_0_aHL,    // 86
-                this::RES_0_A,    // 87
-                this::RES_1_B,    // 88
-                this::RES_1_C,    // 89
-                this::RES_1_D,    // 8A
-                this::RES_1_E,    // 8B
-                this::RES_1_H,    // 8C
-                this::RES_1_L,    // 8D
-                this::RES_1_aHL,    // 8E
-                this::RES_1_A,    // 8F
-                this::RES_2_B,    // 90
-                this::RES_2_C,    // 91
-                this::RES_2_D,    // 92
-                this::RES_2_E,    // 93
-                this::RES_2_H,    // 94
-                this::RES_2_L,    // 95
-                this::RES_2_aHL,    // 96
-                this::RES_2_A,    // 97
-                this::RES_3_B,    // 98
-                this::RES_3_C,    // 99
-                this::RES_3_D,    // 9A
-                this::RES_3_E,    // 9B
-                this::RES_3_H,    // 9C
-                this::RES_3_L,    // 9D
-                this::RES_3_aHL,    // 9E
-                this::RES_3_A,    // 9F
-                this::RES_4_B,    // A0
-                this::RES_4_C,    // A1
-                this::RES_4_D,    // A2
-                this::RES_4_E,    // A3
-                this::RES_4_H,    // A4
-                this::RES_4_L,    // A5
-                this::RES_4_aHL,    // A6
-                this::RES_4_A,    // A7
-                this::RES_5_B,    // A8
-                this::RES_5_C,    // A9
-                this::RES_5_D,    // AA
-                this::RES_5_E,    // AB
-                this::RES_5_H,    // AC
-                this::RES_5_L,    // AD
-                this::RES_5_aHL,    // AE
-                this::RES_5_A,    // AF
-                this::RES_6_B,    // B0
-                this::RES_6_C,    // B1
-                this::RES_6_D,    // B2
-                this::RES_6_E,    // B3
-                this::RES_6_H,    // B4
-                this::RES_6_L,    // B5
-                this::RES_6_aHL,    // B6
-                this::RES_6_A,    // B7
-                this::RES_7_B,    // B8
-                this::RES_7_C,    // B9
-                this::RES_7_D,    // BA
-                this::RES_7_E,    // BB
-                this::RES_7_H,    // BC
-                this::RES_7_L,    // BD
-                this::RES_7_aHL,    // BE
-                this::RES_7_A,    // BF
-                this::SET_0_B,    // C0
-                this::SET_0_C,    // C1
-                this::SET_0_D,    // C2
-                this::SET_0_E,    // C3
-                this::SET_0_H,    // C4
-                this::SET_0_L,    // C5
-                this::SET_0_aHL,    // C6
-                this::SET_0_A,    // C7
-                this::SET_1_B,    // C8
-                this::SET_1_C,    // C9
-                this::SET_1_D,    // CA
-                this::SET_1_E,    // CB
-                this::SET_1_H,    // CC
-                this::SET_1_L,    // CD
-                this::SET_1_aHL,    // CE
-                this::SET_1_A,    // CF
-                this::SET_2_B,    // D0
-                this::SET_2_C,    // D1
-                this::SET_2_D,    // D2
-                this::SET_2_E,    // D3
-                this::SET_2_H,    // D4
-                this::SET_2_L,    // D5
-                this::SET_2_aHL,    // D6
-                this::SET_2_A,    // D7
-                this::SET_3_B,    // D8
-                this::SET_3_C,    // D9
-                this::SET_3_D,    // DA
-                this::SET_3_E,    // DB
-                this::SET_3_H,    // DC
-                this::SET_3_L,    // DD
-                this::SET_3_aHL,    // DE
-                this::SET_3_A,    // DF
-                this::SET_4_B,    // E0
-                this::SET_4_C,    // E1
-                this::SET_4_D,    // E2
-                this::SET_4_E,    // E3
-                this::SET_4_H,    // E4
-                this::SET_4_L,    // E5
-                this::SET_4_aHL,    // E6
-                this::SET_4_A,    // E7
-                this::SET_5_B,    // E8
-                this::SET_5_C,    // E9
-                this::SET_5_D,    // EA
-                this::SET_5_E,    // EB
-                this::SET_5_H,    // EC
-                this::SET_5_L,    // ED
-                this::SET_5_aHL,    // EE
-                this::SET_5_A,    // EF
-                this::SET_6_B,    // F0
-                this::SET_6_C,    // F1
-                this::SET_6_D,    // F2
-                this::SET_6_E,    // F3
-                this::SET_6_H,    // F4
-                this::SET_6_L,    // F5
-                this::SET_6_aHL,    // F6
-                this::SET_6_A,    // F7
-                this::SET_7_B,    // F8
-                this::SET_7_C,    // F9
-                this::SET_7_D,    // FA
-                this::SET_7_E,    // FB
-                this::SET_7_H,    // FC
-                this::SET_7_L,    // FD
-                this::SET_7_aHL,    // FE
-                this::SET_7_A    // FF
+    private static final InstructionExecutor[] CB_InstructionExecutors = initialize_CB_InstructionsTable();
+
+    private static InstructionExecutor[] initialize_CB_InstructionsTable() {
+        return new InstructionExecutor[] {
+                Z80InstructionExecutorImpl::RLC_B,    // 00
+                Z80InstructionExecutorImpl::RLC_C,    // 01
+                Z80InstructionExecutorImpl::RLC_D,    // 02
+                Z80InstructionExecutorImpl::RLC_E,    // 03
+                Z80InstructionExecutorImpl::RLC_H,    // 04
+                Z80InstructionExecutorImpl::RLC_L,    // 05
+                Z80InstructionExecutorImpl::RLC_aHL,    // 06
+                Z80InstructionExecutorImpl::RLC_A,    // 07
+                Z80InstructionExecutorImpl::RRC_B,    // 08
+                Z80InstructionExecutorImpl::RRC_C,    // 09
+                Z80InstructionExecutorImpl::RRC_D,    // 0A
+                Z80InstructionExecutorImpl::RRC_E,    // 0B
+                Z80InstructionExecutorImpl::RRC_H,    // 0C
+                Z80InstructionExecutorImpl::RRC_L,    // 0D
+                Z80InstructionExecutorImpl::RRC_aHL,    // 0E
+                Z80InstructionExecutorImpl::RRC_A,    // 0F
+                Z80InstructionExecutorImpl::RL_B,    // 10
+                Z80InstructionExecutorImpl::RL_C,    // 11
+                Z80InstructionExecutorImpl::RL_D,    // 12
+                Z80InstructionExecutorImpl::RL_E,    // 13
+                Z80InstructionExecutorImpl::RL_H,    // 14
+                Z80InstructionExecutorImpl::RL_L,    // 15
+                Z80InstructionExecutorImpl::RL_aHL,    // 16
+                Z80InstructionExecutorImpl::RL_A,    // 17
+                Z80InstructionExecutorImpl::RR_B,    // 18
+                Z80InstructionExecutorImpl::RR_C,    // 19
+                Z80InstructionExecutorImpl::RR_D,    // 1A
+                Z80InstructionExecutorImpl::RR_E,    // 1B
+                Z80InstructionExecutorImpl::RR_H,    // 1C
+                Z80InstructionExecutorImpl::RR_L,    // 1D
+                Z80InstructionExecutorImpl::RR_aHL,    // 1E
+                Z80InstructionExecutorImpl::RR_A,    // 1F
+                Z80InstructionExecutorImpl::SLA_B,    // 20
+                Z80InstructionExecutorImpl::SLA_C,    // 21
+                Z80InstructionExecutorImpl::SLA_D,    // 22
+                Z80InstructionExecutorImpl::SLA_E,    // 23
+                Z80InstructionExecutorImpl::SLA_H,    // 24
+                Z80InstructionExecutorImpl::SLA_L,    // 25
+                Z80InstructionExecutorImpl::SLA_aHL,    // 26
+                Z80InstructionExecutorImpl::SLA_A,    // 27
+                Z80InstructionExecutorImpl::SRA_B,    // 28
+                Z80InstructionExecutorImpl::SRA_C,    // 29
+                Z80InstructionExecutorImpl::SRA_D,    // 2A
+                Z80InstructionExecutorImpl::SRA_E,    // 2B
+                Z80InstructionExecutorImpl::SRA_H,    // 2C
+                Z80InstructionExecutorImpl::SRA_L,    // 2D
+                Z80InstructionExecutorImpl::SRA_aHL,    // 2E
+                Z80InstructionExecutorImpl::SRA_A,    // 2F
+                Z80InstructionExecutorImpl::SLL_B,    // 30
+                Z80InstructionExecutorImpl::SLL_C,    // 31
+                Z80InstructionExecutorImpl::SLL_D,    // 32
+                Z80InstructionExecutorImpl::SLL_E,    // 33
+                Z80InstructionExecutorImpl::SLL_H,    // 34
+                Z80InstructionExecutorImpl::SLL_L,    // 35
+                Z80InstructionExecutorImpl::SLL_aHL,    // 36
+                Z80InstructionExecutorImpl::SLL_A,    // 37
+                Z80InstructionExecutorImpl::SRL_B,    // 38
+                Z80InstructionExecutorImpl::SRL_C,    // 39
+                Z80InstructionExecutorImpl::SRL_D,    // 3A
+                Z80InstructionExecutorImpl::SRL_E,    // 3B
+                Z80InstructionExecutorImpl::SRL_H,    // 3C
+                Z80InstructionExecutorImpl::SRL_L,    // 3D
+                Z80InstructionExecutorImpl::SRL_aHL,    // 3E
+                Z80InstructionExecutorImpl::SRL_A,    // 3F
+                Z80InstructionExecutorImpl::BIT_0_B,    // 40
+                Z80InstructionExecutorImpl::BIT_0_C,    // 41
+                Z80InstructionExecutorImpl::BIT_0_D,    // 42
+                Z80InstructionExecutorImpl::BIT_0_E,    // 43
+                Z80InstructionExecutorImpl::BIT_0_H,    // 44
+                Z80InstructionExecutorImpl::BIT_0_L,    // 45
+                Z80InstructionExecutorImpl::BIT_0_aHL,    // 46
+                Z80InstructionExecutorImpl::BIT_0_A,    // 47
+                Z80InstructionExecutorImpl::BIT_1_B,    // 48
+                Z80InstructionExecutorImpl::BIT_1_C,    // 49
+                Z80InstructionExecutorImpl::BIT_1_D,    // 4A
+                Z80InstructionExecutorImpl::BIT_1_E,    // 4B
+                Z80InstructionExecutorImpl::BIT_1_H,    // 4C
+                Z80InstructionExecutorImpl::BIT_1_L,    // 4D
+                Z80InstructionExecutorImpl::BIT_1_aHL,    // 4E
+                Z80InstructionExecutorImpl::BIT_1_A,    // 4F
+                Z80InstructionExecutorImpl::BIT_2_B,    // 50
+                Z80InstructionExecutorImpl::BIT_2_C,    // 51
+                Z80InstructionExecutorImpl::BIT_2_D,    // 52
+                Z80InstructionExecutorImpl::BIT_2_E,    // 53
+                Z80InstructionExecutorImpl::BIT_2_H,    // 54
+                Z80InstructionExecutorImpl::BIT_2_L,    // 55
+                Z80InstructionExecutorImpl::BIT_2_aHL,    // 56
+                Z80InstructionExecutorImpl::BIT_2_A,    // 57
+                Z80InstructionExecutorImpl::BIT_3_B,    // 58
+                Z80InstructionExecutorImpl::BIT_3_C,    // 59
+                Z80InstructionExecutorImpl::BIT_3_D,    // 5A
+                Z80InstructionExecutorImpl::BIT_3_E,    // 5B
+                Z80InstructionExecutorImpl::BIT_3_H,    // 5C
+                Z80InstructionExecutorImpl::BIT_3_L,    // 5D
+                Z80InstructionExecutorImpl::BIT_3_aHL,    // 5E
+                Z80InstructionExecutorImpl::BIT_3_A,    // 5F
+                Z80InstructionExecutorImpl::BIT_4_B,    // 60
+                Z80InstructionExecutorImpl::BIT_4_C,    // 61
+                Z80InstructionExecutorImpl::BIT_4_D,    // 62
+                Z80InstructionExecutorImpl::BIT_4_E,    // 63
+                Z80InstructionExecutorImpl::BIT_4_H,    // 64
+                Z80InstructionExecutorImpl::BIT_4_L,    // 65
+                Z80InstructionExecutorImpl::BIT_4_aHL,    // 66
+                Z80InstructionExecutorImpl::BIT_4_A,    // 67
+                Z80InstructionExecutorImpl::BIT_5_B,    // 68
+                Z80InstructionExecutorImpl::BIT_5_C,    // 69
+                Z80InstructionExecutorImpl::BIT_5_D,    // 6A
+                Z80InstructionExecutorImpl::BIT_5_E,    // 6B
+                Z80InstructionExecutorImpl::BIT_5_H,    // 6C
+                Z80InstructionExecutorImpl::BIT_5_L,    // 6D
+                Z80InstructionExecutorImpl::BIT_5_aHL,    // 6E
+                Z80InstructionExecutorImpl::BIT_5_A,    // 6F
+                Z80InstructionExecutorImpl::BIT_6_B,    // 70
+                Z80InstructionExecutorImpl::BIT_6_C,    // 71
+                Z80InstructionExecutorImpl::BIT_6_D,    // 72
+                Z80InstructionExecutorImpl::BIT_6_E,    // 73
+                Z80InstructionExecutorImpl::BIT_6_H,    // 74
+                Z80InstructionExecutorImpl::BIT_6_L,    // 75
+                Z80InstructionExecutorImpl::BIT_6_aHL,    // 76
+                Z80InstructionExecutorImpl::BIT_6_A,    // 77
+                Z80InstructionExecutorImpl::BIT_7_B,    // 78
+                Z80InstructionExecutorImpl::BIT_7_C,    // 79
+                Z80InstructionExecutorImpl::BIT_7_D,    // 7A
+                Z80InstructionExecutorImpl::BIT_7_E,    // 7B
+                Z80InstructionExecutorImpl::BIT_7_H,    // 7C
+                Z80InstructionExecutorImpl::BIT_7_L,    // 7D
+                Z80InstructionExecutorImpl::BIT_7_aHL,    // 7E
+                Z80InstructionExecutorImpl::BIT_7_A,    // 7F
+                Z80InstructionExecutorImpl::RES_0_B,    // 80
+                Z80InstructionExecutorImpl::RES_0_C,    // 81
+                Z80InstructionExecutorImpl::RES_0_D,    // 82
+                Z80InstructionExecutorImpl::RES_0_E,    // 83
+                Z80InstructionExecutorImpl::RES_0_H,    // 84
+                Z80InstructionExecutorImpl::RES_0_L,    // 85
+                Z80InstructionExecutorImpl::RES_0_aHL,    // 86
+                Z80InstructionExecutorImpl::RES_0_A,    // 87
+                Z80InstructionExecutorImpl::RES_1_B,    // 88
+                Z80InstructionExecutorImpl::RES_1_C,    // 89
+                Z80InstructionExecutorImpl::RES_1_D,    // 8A
+                Z80InstructionExecutorImpl::RES_1_E,    // 8B
+                Z80InstructionExecutorImpl::RES_1_H,    // 8C
+                Z80InstructionExecutorImpl::RES_1_L,    // 8D
+                Z80InstructionExecutorImpl::RES_1_aHL,    // 8E
+                Z80InstructionExecutorImpl::RES_1_A,    // 8F
+                Z80InstructionExecutorImpl::RES_2_B,    // 90
+                Z80InstructionExecutorImpl::RES_2_C,    // 91
+                Z80InstructionExecutorImpl::RES_2_D,    // 92
+                Z80InstructionExecutorImpl::RES_2_E,    // 93
+                Z80InstructionExecutorImpl::RES_2_H,    // 94
+                Z80InstructionExecutorImpl::RES_2_L,    // 95
+                Z80InstructionExecutorImpl::RES_2_aHL,    // 96
+                Z80InstructionExecutorImpl::RES_2_A,    // 97
+                Z80InstructionExecutorImpl::RES_3_B,    // 98
+                Z80InstructionExecutorImpl::RES_3_C,    // 99
+                Z80InstructionExecutorImpl::RES_3_D,    // 9A
+                Z80InstructionExecutorImpl::RES_3_E,    // 9B
+                Z80InstructionExecutorImpl::RES_3_H,    // 9C
+                Z80InstructionExecutorImpl::RES_3_L,    // 9D
+                Z80InstructionExecutorImpl::RES_3_aHL,    // 9E
+                Z80InstructionExecutorImpl::RES_3_A,    // 9F
+                Z80InstructionExecutorImpl::RES_4_B,    // A0
+                Z80InstructionExecutorImpl::RES_4_C,    // A1
+                Z80InstructionExecutorImpl::RES_4_D,    // A2
+                Z80InstructionExecutorImpl::RES_4_E,    // A3
+                Z80InstructionExecutorImpl::RES_4_H,    // A4
+                Z80InstructionExecutorImpl::RES_4_L,    // A5
+                Z80InstructionExecutorImpl::RES_4_aHL,    // A6
+                Z80InstructionExecutorImpl::RES_4_A,    // A7
+                Z80InstructionExecutorImpl::RES_5_B,    // A8
+                Z80InstructionExecutorImpl::RES_5_C,    // A9
+                Z80InstructionExecutorImpl::RES_5_D,    // AA
+                Z80InstructionExecutorImpl::RES_5_E,    // AB
+                Z80InstructionExecutorImpl::RES_5_H,    // AC
+                Z80InstructionExecutorImpl::RES_5_L,    // AD
+                Z80InstructionExecutorImpl::RES_5_aHL,    // AE
+                Z80InstructionExecutorImpl::RES_5_A,    // AF
+                Z80InstructionExecutorImpl::RES_6_B,    // B0
+                Z80InstructionExecutorImpl::RES_6_C,    // B1
+                Z80InstructionExecutorImpl::RES_6_D,    // B2
+                Z80InstructionExecutorImpl::RES_6_E,    // B3
+                Z80InstructionExecutorImpl::RES_6_H,    // B4
+                Z80InstructionExecutorImpl::RES_6_L,    // B5
+                Z80InstructionExecutorImpl::RES_6_aHL,    // B6
+                Z80InstructionExecutorImpl::RES_6_A,    // B7
+                Z80InstructionExecutorImpl::RES_7_B,    // B8
+                Z80InstructionExecutorImpl::RES_7_C,    // B9
+                Z80InstructionExecutorImpl::RES_7_D,    // BA
+                Z80InstructionExecutorImpl::RES_7_E,    // BB
+                Z80InstructionExecutorImpl::RES_7_H,    // BC
+                Z80InstructionExecutorImpl::RES_7_L,    // BD
+                Z80InstructionExecutorImpl::RES_7_aHL,    // BE
+                Z80InstructionExecutorImpl::RES_7_A,    // BF
+                Z80InstructionExecutorImpl::SET_0_B,    // C0
+                Z80InstructionExecutorImpl::SET_0_C,    // C1
+                Z80InstructionExecutorImpl::SET_0_D,    // C2
+                Z80InstructionExecutorImpl::SET_0_E,    // C3
+                Z80InstructionExecutorImpl::SET_0_H,    // C4
+                Z80InstructionExecutorImpl::SET_0_L,    // C5
+                Z80InstructionExecutorImpl::SET_0_aHL,    // C6
+                Z80InstructionExecutorImpl::SET_0_A,    // C7
+                Z80InstructionExecutorImpl::SET_1_B,    // C8
+                Z80InstructionExecutorImpl::SET_1_C,    // C9
+                Z80InstructionExecutorImpl::SET_1_D,    // CA
+                Z80InstructionExecutorImpl::SET_1_E,    // CB
+                Z80InstructionExecutorImpl::SET_1_H,    // CC
+                Z80InstructionExecutorImpl::SET_1_L,    // CD
+                Z80InstructionExecutorImpl::SET_1_aHL,    // CE
+                Z80InstructionExecutorImpl::SET_1_A,    // CF
+                Z80InstructionExecutorImpl::SET_2_B,    // D0
+                Z80InstructionExecutorImpl::SET_2_C,    // D1
+                Z80InstructionExecutorImpl::SET_2_D,    // D2
+                Z80InstructionExecutorImpl::SET_2_E,    // D3
+                Z80InstructionExecutorImpl::SET_2_H,    // D4
+                Z80InstructionExecutorImpl::SET_2_L,    // D5
+                Z80InstructionExecutorImpl::SET_2_aHL,    // D6
+                Z80InstructionExecutorImpl::SET_2_A,    // D7
+                Z80InstructionExecutorImpl::SET_3_B,    // D8
+                Z80InstructionExecutorImpl::SET_3_C,    // D9
+                Z80InstructionExecutorImpl::SET_3_D,    // DA
+                Z80InstructionExecutorImpl::SET_3_E,    // DB
+                Z80InstructionExecutorImpl::SET_3_H,    // DC
+                Z80InstructionExecutorImpl::SET_3_L,    // DD
+                Z80InstructionExecutorImpl::SET_3_aHL,    // DE
+                Z80InstructionExecutorImpl::SET_3_A,    // DF
+                Z80InstructionExecutorImpl::SET_4_B,    // E0
+                Z80InstructionExecutorImpl::SET_4_C,    // E1
+                Z80InstructionExecutorImpl::SET_4_D,    // E2
+                Z80InstructionExecutorImpl::SET_4_E,    // E3
+                Z80InstructionExecutorImpl::SET_4_H,    // E4
+                Z80InstructionExecutorImpl::SET_4_L,    // E5
+                Z80InstructionExecutorImpl::SET_4_aHL,    // E6
+                Z80InstructionExecutorImpl::SET_4_A,    // E7
+                Z80InstructionExecutorImpl::SET_5_B,    // E8
+                Z80InstructionExecutorImpl::SET_5_C,    // E9
+                Z80InstructionExecutorImpl::SET_5_D,    // EA
+                Z80InstructionExecutorImpl::SET_5_E,    // EB
+                Z80InstructionExecutorImpl::SET_5_H,    // EC
+                Z80InstructionExecutorImpl::SET_5_L,    // ED
+                Z80InstructionExecutorImpl::SET_5_aHL,    // EE
+                Z80InstructionExecutorImpl::SET_5_A,    // EF
+                Z80InstructionExecutorImpl::SET_6_B,    // F0
+                Z80InstructionExecutorImpl::SET_6_C,    // F1
+                Z80InstructionExecutorImpl::SET_6_D,    // F2
+                Z80InstructionExecutorImpl::SET_6_E,    // F3
+                Z80InstructionExecutorImpl::SET_6_H,    // F4
+                Z80InstructionExecutorImpl::SET_6_L,    // F5
+                Z80InstructionExecutorImpl::SET_6_aHL,    // F6
+                Z80InstructionExecutorImpl::SET_6_A,    // F7
+                Z80InstructionExecutorImpl::SET_7_B,    // F8
+                Z80InstructionExecutorImpl::SET_7_C,    // F9
+                Z80InstructionExecutorImpl::SET_7_D,    // FA
+                Z80InstructionExecutorImpl::SET_7_E,    // FB
+                Z80InstructionExecutorImpl::SET_7_H,    // FC
+                Z80InstructionExecutorImpl::SET_7_L,    // FD
+                Z80InstructionExecutorImpl::SET_7_aHL,    // FE
+                Z80InstructionExecutorImpl::SET_7_A    // FF
         };
     }
 
@@ -574,366 +582,366 @@ public class Z80InstructionExecutorImpl implements Z80InstructionExecutor, Z80In
 
 //#region InstructionsTable.DDCB
 
-    private Function<Byte, Byte>[] DDCB_InstructionExecutors;
-
-    @SuppressWarnings("unchecked")
-    private void initialize_DDCB_InstructionsTable() {
-        DDCB_InstructionExecutors = Arrays.<Function<Byte, Byte>>asList(
-                this::RLC_aIX_plus_n_and_load_B,    // 00
-                this::RLC_aIX_plus_n_and_load_C,    // 01
-                this::RLC_aIX_plus_n_and_load_D,    // 02
-                this::RLC_aIX_plus_n_and_load_E,    // 03
-                this::RLC_aIX_plus_n_and_load_H,    // 04
-                this::RLC_aIX_plus_n_and_load_L,    // 05
-                this::RLC_aIX_plus_n,    // 06
-                this::RLC_aIX_plus_n_and_load_A,    // 07
-                this::RRC_aIX_plus_n_and_load_B,    // 08
-                this::RRC_aIX_plus_n_and_load_C,    // 09
-                this::RRC_aIX_plus_n_and_load_D,    // 0A
-                this::RRC_aIX_plus_n_and_load_E,    // 0B
-                this::RRC_aIX_plus_n_and_load_H,    // 0C
-                this::RRC_aIX_plus_n_and_load_L,    // 0D
-                this::RRC_aIX_plus_n,    // 0E
-                this::RRC_aIX_plus_n_and_load_A,    // 0F
-                this::RL_aIX_plus_n_and_load_B,    // 10
-                this::RL_aIX_plus_n_and_load_C,    // 11
-                this::RL_aIX_plus_n_and_load_D,    // 12
-                this::RL_aIX_plus_n_and_load_E,    // 13
-                this::RL_aIX_plus_n_and_load_H,    // 14
-                this::RL_aIX_plus_n_and_load_L,    // 15
-                this::RL_aIX_plus_n,    // 16
-                this::RL_aIX_plus_n_and_load_A,    // 17
-                this::RR_aIX_plus_n_and_load_B,    // 18
-                this::RR_aIX_plus_n_and_load_C,    // 19
-                this::RR_aIX_plus_n_and_load_D,    // 1A
-                this::RR_aIX_plus_n_and_load_E,    // 1B
-                this::RR_aIX_plus_n_and_load_H,    // 1C
-                this::RR_aIX_plus_n_and_load_L,    // 1D
-                this::RR_aIX_plus_n,    // 1E
-                this::RR_aIX_plus_n_and_load_A,    // 1F
-                this::SLA_aIX_plus_n_and_load_B,    // 20
-                this::SLA_aIX_plus_n_and_load_C,    // 21
-                this::SLA_aIX_plus_n_and_load_D,    // 22
-                this::SLA_aIX_plus_n_and_load_E,    // 23
-                this::SLA_aIX_plus_n_and_load_H,    // 24
-                this::SLA_aIX_plus_n_and_load_L,    // 25
-                this::SLA_aIX_plus_n,    // 26
-                this::SLA_aIX_plus_n_and_load_A,    // 27
-                this::SRA_aIX_plus_n_and_load_B,    // 28
-                this::SRA_aIX_plus_n_and_load_C,    // 29
-                this::SRA_aIX_plus_n_and_load_D,    // 2A
-                this::SRA_aIX_plus_n_and_load_E,    // 2B
-                this::SRA_aIX_plus_n_and_load_H,    // 2C
-                this::SRA_aIX_plus_n_and_load_L,    // 2D
-                this::SRA_aIX_plus_n,    // 2E
-                this::SRA_aIX_plus_n_and_load_A,    // 2F
-                this::SLL_aIX_plus_n_and_load_B,    // 30
-                this::SLL_aIX_plus_n_and_load_C,    // 31
-                this::SLL_aIX_plus_n_and_load_D,    // 32
-                this::SLL_aIX_plus_n_and_load_E,    // 33
-                this::SLL_aIX_plus_n_and_load_H,    // 34
-                this::SLL_aIX_plus_n_and_load_L,    // 35
-                this::SLL_aIX_plus_n,    // 36
-                this::SLL_aIX_plus_n_and_load_A,    // 37
-                this::SRL_aIX_plus_n_and_load_B,    // 38
-                this::SRL_aIX_plus_n_and_load_C,    // 39
-                this::SRL_aIX_plus_n_and_load_D,    // 3A
-                this::SRL_aIX_plus_n_and_load_E,    // 3B
-                this::SRL_aIX_plus_n_and_load_H,    // 3C
-                this::SRL_aIX_plus_n_and_load_L,    // 3D
-                this::SRL_aIX_plus_n,    // 3E
-                this::SRL_aIX_plus_n_and_load_A,    // 3F
-                this::BIT_0_aIX_plus_n,    // 40
-                this::BIT_0_aIX_plus_n,    // 41
-                this::BIT_0_aIX_plus_n,    // 42
-                this::BIT_0_aIX_plus_n,    // 43
-                this::BIT_0_aIX_plus_n,    // 44
-                this::BIT_0_aIX_plus_n,    // 45
-                this::BIT_0_aIX_plus_n,    // 46
-                this::BIT_0_aIX_plus_n,    // 47
-                this::BIT_1_aIX_plus_n,    // 48
-                this::BIT_1_aIX_plus_n,    // 49
-                this::BIT_1_aIX_plus_n,    // 4A
-                this::BIT_1_aIX_plus_n,    // 4B
-                this::BIT_1_aIX_plus_n,    // 4C
-                this::BIT_1_aIX_plus_n,    // 4D
-                this::BIT_1_aIX_plus_n,    // 4E
-                this::BIT_1_aIX_plus_n,    // 4F
-                this::BIT_2_aIX_plus_n,    // 50
-                this::BIT_2_aIX_plus_n,    // 51
-                this::BIT_2_aIX_plus_n,    // 52
-                this::BIT_2_aIX_plus_n,    // 53
-                this::BIT_2_aIX_plus_n,    // 54
-                this::BIT_2_aIX_plus_n,    // 55
-                this::BIT_2_aIX_plus_n,    // 56
-                this::BIT_2_aIX_plus_n,    // 57
-                this::BIT_3_aIX_plus_n,    // 58
-                this::BIT_3_aIX_plus_n,    // 59
-                this::BIT_3_aIX_plus_n,    // 5A
-                this::BIT_3_aIX_plus_n,    // 5B
-                this::BIT_3_aIX_plus_n,    // 5C
-                this::BIT_3_aIX_plus_n,    // 5D
-                this::BIT_3_aIX_plus_n,    // 5E
-                this::BIT_3_aIX_plus_n,    // 5F
-                this::BIT_4_aIX_plus_n,    // 60
-                this::BIT_4_aIX_plus_n,    // 61
-                this::BIT_4_aIX_plus_n,    // 62
-                this::BIT_4_aIX_plus_n,    // 63
-                this::BIT_4_aIX_plus_n,    // 64
-                this::BIT_4_aIX_plus_n,    // 65
-                this::BIT_4_aIX_plus_n,    // 66
-                this::BIT_4_aIX_plus_n,    // 67
-                this::BIT_5_aIX_plus_n,    // 68
-                this::BIT_5_aIX_plus_n,    // 69
-                this::BIT_5_aIX_plus_n,    // 6A
-                this::BIT_5_aIX_plus_n,    // 6B
-                this::BIT_5_aIX_plus_n,    // 6C
-                this::BIT_5_aIX_plus_n,    // 6D
-                this::BIT_5_aIX_plus_n,    // 6E
-                this::BIT_5_aIX_plus_n,    // 6F
-                this::BIT_6_aIX_plus_n,    // 70
-                this::BIT_6_aIX_plus_n,    // 71
-                this::BIT_6_aIX_plus_n,    // 72
-                this::BIT_6_aIX_plus_n,    // 73
-                this::BIT_6_aIX_plus_n,    // 74
-                this::BIT_6_aIX_plus_n,    // 75
-                this::BIT_6_aIX_plus_n,    // 76
-                this::BIT_6_aIX_plus_n,    // 77
-                this::BIT_7_aIX_plus_n,    // 78
-                this::BIT_7_aIX_plus_n,    // 79
-                this::BIT_7_aIX_plus_n,    // 7A
-                this::BIT_7_aIX_plus_n,    // 7B
-                this::BIT_7_aIX_plus_n,    // 7C
-                this::BIT_7_aIX_plus_n,    // 7D
-                this::BIT_7_aIX_plus_n,    // 7E
-                this::BIT_7_aIX_plus_n,    // 7F
-                this::RES_0_aIX_plus_n_and_load_B,    // 80
-                this::RES_0_aIX_plus_n_and_load_C,    // 81
-                this::RES_0_aIX_plus_n_and_load_D,    // 82
-                this::RES_0_aIX_plus_n_and_load_E,    // 83
-                this::RES_0_aIX_plus_n_and_load_H,    // 84
-                this::RES_0_aIX_plus_n_and_load_L,    // 85
-                this::RES_0_aIX_plus_n,    // 86
-                this::RES_0_aIX_plus_n_and_load_A,    // 87
-                this::RES_1_aIX_plus_n_and_load_B,    // 88
-                this::RES_1_aIX_plus_n_and_load_C,    // 89
-                this::RES_1_aIX_plus_n_and_load_D,    // 8A
-                this::RES_1_aIX_plus_n_and_load_E,    // 8B
-                this::RES_1_aIX_plus_n_and_load_H,    // 8C
-                this::RES_1_aIX_plus_n_and_load_L,    // 8D
-                this::RES_1_aIX_plus_n,    // 8E
-                this::RES_1_aIX_plus_n_and_load_A,    // 8F
-                this::RES_2_aIX_plus_n_and_load_B,    // 90
-                this::RES_2_aIX_plus_n_and_load_C,    // 91
-                this::RES_2_aIX_plus_n_and_load_D,    // 92
-                this::RES_2_aIX_plus_n_and_load_E,    // 93
-                this::RES_2_aIX_plus_n_and_load_H,    // 94
-                this::RES_2_aIX_plus_n_and_load_L,    // 95
-                this::RES_2_aIX_plus_n,    // 96
-                this::RES_2_aIX_plus_n_and_load_A,    // 97
-                this::RES_3_aIX_plus_n_and_load_B,    // 98
-                this::RES_3_aIX_plus_n_and_load_C,    // 99
-                this::RES_3_aIX_plus_n_and_load_D,    // 9A
-                this::RES_3_aIX_plus_n_and_load_E,    // 9B
-                this::RES_3_aIX_plus_n_and_load_H,    // 9C
-                this::RES_3_aIX_plus_n_and_load_L,    // 9D
-                this::RES_3_aIX_plus_n,    // 9E
-                this::RES_3_aIX_plus_n_and_load_A,    // 9F
-                this::RES_4_aIX_plus_n_and_load_B,    // A0
-                this::RES_4_aIX_plus_n_and_load_C,    // A1
-                this::RES_4_aIX_plus_n_and_load_D,    // A2
-                this::RES_4_aIX_plus_n_and_load_E,    // A3
-                this::RES_4_aIX_plus_n_and_load_H,    // A4
-                this::RES_4_aIX_plus_n_and_load_L,    // A5
-                this::RES_4_aIX_plus_n,    // A6
-                this::RES_4_aIX_plus_n_and_load_A,    // A7
-                this::RES_5_aIX_plus_n_and_load_B,    // A8
-                this::RES_5_aIX_plus_n_and_load_C,    // A9
-                this::RES_5_aIX_plus_n_and_load_D,    // AA
-                this::RES_5_aIX_plus_n_and_load_E,    // AB
-                this::RES_5_aIX_plus_n_and_load_H,    // AC
-                this::RES_5_aIX_plus_n_and_load_L,    // AD
-                this::RES_5_aIX_plus_n,    // AE
-                this::RES_5_aIX_plus_n_and_load_A,    // AF
-                this::RES_6_aIX_plus_n_and_load_B,    // B0
-                this::RES_6_aIX_plus_n_and_load_C,    // B1
-                this::RES_6_aIX_plus_n_and_load_D,    // B2
-                this::RES_6_aIX_plus_n_and_load_E,    // B3
-                this::RES_6_aIX_plus_n_and_load_H,    // B4
-                this::RES_6_aIX_plus_n_and_load_L,    // B5
-                this::RES_6_aIX_plus_n,    // B6
-                this::RES_6_aIX_plus_n_and_load_A,    // B7
-                this::RES_7_aIX_plus_n_and_load_B,    // B8
-                this::RES_7_aIX_plus_n_and_load_C,    // B9
-                this::RES_7_aIX_plus_n_and_load_D,    // BA
-                this::RES_7_aIX_plus_n_and_load_E,    // BB
-                this::RES_7_aIX_plus_n_and_load_H,    // BC
-                this::RES_7_aIX_plus_n_and_load_L,    // BD
-                this::RES_7_aIX_plus_n,    // BE
-                this::RES_7_aIX_plus_n_and_load_A,    // BF
-                this::SET_0_aIX_plus_n_and_load_B,    // C0
-                this::SET_0_aIX_plus_n_and_load_C,    // C1
-                this::SET_0_aIX_plus_n_and_load_D,    // C2
-                this::SET_0_aIX_plus_n_and_load_E,    // C3
-                this::SET_0_aIX_plus_n_and_load_H,    // C4
-                this::SET_0_aIX_plus_n_and_load_L,    // C5
-                this::SET_0_aIX_plus_n,    // C6
-                this::SET_0_aIX_plus_n_and_load_A,    // C7
-                this::SET_1_aIX_plus_n_and_load_B,    // C8
-                this::SET_1_aIX_plus_n_and_load_C,    // C9
-                this::SET_1_aIX_plus_n_and_load_D,    // CA
-                this::SET_1_aIX_plus_n_and_load_E,    // CB
-                this::SET_1_aIX_plus_n_and_load_H,    // CC
-                this::SET_1_aIX_plus_n_and_load_L,    // CD
-                this::SET_1_aIX_plus_n,    // CE
-                this::SET_1_aIX_plus_n_and_load_A,    // CF
-                this::SET_2_aIX_plus_n_and_load_B,    // D0
-                this::SET_2_aIX_plus_n_and_load_C,    // D1
-                this::SET_2_aIX_plus_n_and_load_D,    // D2
-                this::SET_2_aIX_plus_n_and_load_E,    // D3
-                this::SET_2_aIX_plus_n_and_load_H,    // D4
-                this::SET_2_aIX_plus_n_and_load_L,    // D5
-                this::SET_2_aIX_plus_n,    // D6
-                this::SET_2_aIX_plus_n_and_load_A,    // D7
-                this::SET_3_aIX_plus_n_and_load_B,    // D8
-                this::SET_3_aIX_plus_n_and_load_C,    // D9
-                this::SET_3_aIX_plus_n_and_load_D,    // DA
-                this::SET_3_aIX_plus_n_and_load_E,    // DB
-                this::SET_3_aIX_plus_n_and_load_H,    // DC
-                this::SET_3_aIX_plus_n_and_load_L,    // DD
-                this::SET_3_aIX_plus_n,    // DE
-                this::SET_3_aIX_plus_n_and_load_A,    // DF
-                this::SET_4_aIX_plus_n_and_load_B,    // E0
-                this::SET_4_aIX_plus_n_and_load_C,    // E1
-                this::SET_4_aIX_plus_n_and_load_D,    // E2
-                this::SET_4_aIX_plus_n_and_load_E,    // E3
-                this::SET_4_aIX_plus_n_and_load_H,    // E4
-                this::SET_4_aIX_plus_n_and_load_L,    // E5
-                this::SET_4_aIX_plus_n,    // E6
-                this::SET_4_aIX_plus_n_and_load_A,    // E7
-                this::SET_5_aIX_plus_n_and_load_B,    // E8
-                this::SET_5_aIX_plus_n_and_load_C,    // E9
-                this::SET_5_aIX_plus_n_and_load_D,    // EA
-                this::SET_5_aIX_plus_n_and_load_E,    // EB
-                this::SET_5_aIX_plus_n_and_load_H,    // EC
-                this::SET_5_aIX_plus_n_and_load_L,    // ED
-                this::SET_5_aIX_plus_n,    // EE
-                this::SET_5_aIX_plus_n_and_load_A,    // EF
-                this::SET_6_aIX_plus_n_and_load_B,    // F0
-                this::SET_6_aIX_plus_n_and_load_C,    // F1
-                this::SET_6_aIX_plus_n_and_load_D,    // F2
-                this::SET_6_aIX_plus_n_and_load_E,    // F3
-                this::SET_6_aIX_plus_n_and_load_H,    // F4
-                this::SET_6_aIX_plus_n_and_load_L,    // F5
-                this::SET_6_aIX_plus_n,    // F6
-                this::SET_6_aIX_plus_n_and_load_A,    // F7
-                this::SET_7_aIX_plus_n_and_load_B,    // F8
-                this::SET_7_aIX_plus_n_and_load_C,    // F9
-                this::SET_7_aIX_plus_n_and_load_D,    // FA
-                this::SET_7_aIX_plus_n_and_load_E,    // FB
-                this::SET_7_aIX_plus_n_and_load_H,    // FC
-                this::SET_7_aIX_plus_n_and_load_L,    // FD
-                this::SET_7_aIX_plus_n,    // FE
-                this::SET_7_aIX_plus_n_and_load_A    // FF
-        ).toArray(Function[]::new);
+    private static final IndexedInstructionExecutor[] DDCB_InstructionExecutors = initialize_DDCB_InstructionsTable();
+
+    private static IndexedInstructionExecutor[] initialize_DDCB_InstructionsTable() {
+        return new IndexedInstructionExecutor[] {
+                Z80InstructionExecutorImpl::RLC_aIX_plus_n_and_load_B,    // 00
+                Z80InstructionExecutorImpl::RLC_aIX_plus_n_and_load_C,    // 01
+                Z80InstructionExecutorImpl::RLC_aIX_plus_n_and_load_D,    // 02
+                Z80InstructionExecutorImpl::RLC_aIX_plus_n_and_load_E,    // 03
+                Z80InstructionExecutorImpl::RLC_aIX_plus_n_and_load_H,    // 04
+                Z80InstructionExecutorImpl::RLC_aIX_plus_n_and_load_L,    // 05
+                Z80InstructionExecutorImpl::RLC_aIX_plus_n,    // 06
+                Z80InstructionExecutorImpl::RLC_aIX_plus_n_and_load_A,    // 07
+                Z80InstructionExecutorImpl::RRC_aIX_plus_n_and_load_B,    // 08
+                Z80InstructionExecutorImpl::RRC_aIX_plus_n_and_load_C,    // 09
+                Z80InstructionExecutorImpl::RRC_aIX_plus_n_and_load_D,    // 0A
+                Z80InstructionExecutorImpl::RRC_aIX_plus_n_and_load_E,    // 0B
+                Z80InstructionExecutorImpl::RRC_aIX_plus_n_and_load_H,    // 0C
+                Z80InstructionExecutorImpl::RRC_aIX_plus_n_and_load_L,    // 0D
+                Z80InstructionExecutorImpl::RRC_aIX_plus_n,    // 0E
+                Z80InstructionExecutorImpl::RRC_aIX_plus_n_and_load_A,    // 0F
+                Z80InstructionExecutorImpl::RL_aIX_plus_n_and_load_B,    // 10
+                Z80InstructionExecutorImpl::RL_aIX_plus_n_and_load_C,    // 11
+                Z80InstructionExecutorImpl::RL_aIX_plus_n_and_load_D,    // 12
+                Z80InstructionExecutorImpl::RL_aIX_plus_n_and_load_E,    // 13
+                Z80InstructionExecutorImpl::RL_aIX_plus_n_and_load_H,    // 14
+                Z80InstructionExecutorImpl::RL_aIX_plus_n_and_load_L,    // 15
+                Z80InstructionExecutorImpl::RL_aIX_plus_n,    // 16
+                Z80InstructionExecutorImpl::RL_aIX_plus_n_and_load_A,    // 17
+                Z80InstructionExecutorImpl::RR_aIX_plus_n_and_load_B,    // 18
+                Z80InstructionExecutorImpl::RR_aIX_plus_n_and_load_C,    // 19
+                Z80InstructionExecutorImpl::RR_aIX_plus_n_and_load_D,    // 1A
+                Z80InstructionExecutorImpl::RR_aIX_plus_n_and_load_E,    // 1B
+                Z80InstructionExecutorImpl::RR_aIX_plus_n_and_load_H,    // 1C
+                Z80InstructionExecutorImpl::RR_aIX_plus_n_and_load_L,    // 1D
+                Z80InstructionExecutorImpl::RR_aIX_plus_n,    // 1E
+                Z80InstructionExecutorImpl::RR_aIX_plus_n_and_load_A,    // 1F
+                Z80InstructionExecutorImpl::SLA_aIX_plus_n_and_load_B,    // 20
+                Z80InstructionExecutorImpl::SLA_aIX_plus_n_and_load_C,    // 21
+                Z80InstructionExecutorImpl::SLA_aIX_plus_n_and_load_D,    // 22
+                Z80InstructionExecutorImpl::SLA_aIX_plus_n_and_load_E,    // 23
+                Z80InstructionExecutorImpl::SLA_aIX_plus_n_and_load_H,    // 24
+                Z80InstructionExecutorImpl::SLA_aIX_plus_n_and_load_L,    // 25
+                Z80InstructionExecutorImpl::SLA_aIX_plus_n,    // 26
+                Z80InstructionExecutorImpl::SLA_aIX_plus_n_and_load_A,    // 27
+                Z80InstructionExecutorImpl::SRA_aIX_plus_n_and_load_B,    // 28
+                Z80InstructionExecutorImpl::SRA_aIX_plus_n_and_load_C,    // 29
+                Z80InstructionExecutorImpl::SRA_aIX_plus_n_and_load_D,    // 2A
+                Z80InstructionExecutorImpl::SRA_aIX_plus_n_and_load_E,    // 2B
+                Z80InstructionExecutorImpl::SRA_aIX_plus_n_and_load_H,    // 2C
+                Z80InstructionExecutorImpl::SRA_aIX_plus_n_and_load_L,    // 2D
+                Z80InstructionExecutorImpl::SRA_aIX_plus_n,    // 2E
+                Z80InstructionExecutorImpl::SRA_aIX_plus_n_and_load_A,    // 2F
+                Z80InstructionExecutorImpl::SLL_aIX_plus_n_and_load_B,    // 30
+                Z80InstructionExecutorImpl::SLL_aIX_plus_n_and_load_C,    // 31
+                Z80InstructionExecutorImpl::SLL_aIX_plus_n_and_load_D,    // 32
+                Z80InstructionExecutorImpl::SLL_aIX_plus_n_and_load_E,    // 33
+                Z80InstructionExecutorImpl::SLL_aIX_plus_n_and_load_H,    // 34
+                Z80InstructionExecutorImpl::SLL_aIX_plus_n_and_load_L,    // 35
+                Z80InstructionExecutorImpl::SLL_aIX_plus_n,    // 36
+                Z80InstructionExecutorImpl::SLL_aIX_plus_n_and_load_A,    // 37
+                Z80InstructionExecutorImpl::SRL_aIX_plus_n_and_load_B,    // 38
+                Z80InstructionExecutorImpl::SRL_aIX_plus_n_and_load_C,    // 39
+                Z80InstructionExecutorImpl::SRL_aIX_plus_n_and_load_D,    // 3A
+                Z80InstructionExecutorImpl::SRL_aIX_plus_n_and_load_E,    // 3B
+                Z80InstructionExecutorImpl::SRL_aIX_plus_n_and_load_H,    // 3C
+                Z80InstructionExecutorImpl::SRL_aIX_plus_n_and_load_L,    // 3D
+                Z80InstructionExecutorImpl::SRL_aIX_plus_n,    // 3E
+                Z80InstructionExecutorImpl::SRL_aIX_plus_n_and_load_A,    // 3F
+                Z80InstructionExecutorImpl::BIT_0_aIX_plus_n,    // 40
+                Z80InstructionExecutorImpl::BIT_0_aIX_plus_n,    // 41
+                Z80InstructionExecutorImpl::BIT_0_aIX_plus_n,    // 42
+                Z80InstructionExecutorImpl::BIT_0_aIX_plus_n,    // 43
+                Z80InstructionExecutorImpl::BIT_0_aIX_plus_n,    // 44
+                Z80InstructionExecutorImpl::BIT_0_aIX_plus_n,    // 45
+                Z80InstructionExecutorImpl::BIT_0_aIX_plus_n,    // 46
+                Z80InstructionExecutorImpl::BIT_0_aIX_plus_n,    // 47
+                Z80InstructionExecutorImpl::BIT_1_aIX_plus_n,    // 48
+                Z80InstructionExecutorImpl::BIT_1_aIX_plus_n,    // 49
+                Z80InstructionExecutorImpl::BIT_1_aIX_plus_n,    // 4A
+                Z80InstructionExecutorImpl::BIT_1_aIX_plus_n,    // 4B
+                Z80InstructionExecutorImpl::BIT_1_aIX_plus_n,    // 4C
+                Z80InstructionExecutorImpl::BIT_1_aIX_plus_n,    // 4D
+                Z80InstructionExecutorImpl::BIT_1_aIX_plus_n,    // 4E
+                Z80InstructionExecutorImpl::BIT_1_aIX_plus_n,    // 4F
+                Z80InstructionExecutorImpl::BIT_2_aIX_plus_n,    // 50
+                Z80InstructionExecutorImpl::BIT_2_aIX_plus_n,    // 51
+                Z80InstructionExecutorImpl::BIT_2_aIX_plus_n,    // 52
+                Z80InstructionExecutorImpl::BIT_2_aIX_plus_n,    // 53
+                Z80InstructionExecutorImpl::BIT_2_aIX_plus_n,    // 54
+                Z80InstructionExecutorImpl::BIT_2_aIX_plus_n,    // 55
+                Z80InstructionExecutorImpl::BIT_2_aIX_plus_n,    // 56
+                Z80InstructionExecutorImpl::BIT_2_aIX_plus_n,    // 57
+                Z80InstructionExecutorImpl::BIT_3_aIX_plus_n,    // 58
+                Z80InstructionExecutorImpl::BIT_3_aIX_plus_n,    // 59
+                Z80InstructionExecutorImpl::BIT_3_aIX_plus_n,    // 5A
+                Z80InstructionExecutorImpl::BIT_3_aIX_plus_n,    // 5B
+                Z80InstructionExecutorImpl::BIT_3_aIX_plus_n,    // 5C
+                Z80InstructionExecutorImpl::BIT_3_aIX_plus_n,    // 5D
+                Z80InstructionExecutorImpl::BIT_3_aIX_plus_n,    // 5E
+                Z80InstructionExecutorImpl::BIT_3_aIX_plus_n,    // 5F
+                Z80InstructionExecutorImpl::BIT_4_aIX_plus_n,    // 60
+                Z80InstructionExecutorImpl::BIT_4_aIX_plus_n,    // 61
+                Z80InstructionExecutorImpl::BIT_4_aIX_plus_n,    // 62
+                Z80InstructionExecutorImpl::BIT_4_aIX_plus_n,    // 63
+                Z80InstructionExecutorImpl::BIT_4_aIX_plus_n,    // 64
+                Z80InstructionExecutorImpl::BIT_4_aIX_plus_n,    // 65
+                Z80InstructionExecutorImpl::BIT_4_aIX_plus_n,    // 66
+                Z80InstructionExecutorImpl::BIT_4_aIX_plus_n,    // 67
+                Z80InstructionExecutorImpl::BIT_5_aIX_plus_n,    // 68
+                Z80InstructionExecutorImpl::BIT_5_aIX_plus_n,    // 69
+                Z80InstructionExecutorImpl::BIT_5_aIX_plus_n,    // 6A
+                Z80InstructionExecutorImpl::BIT_5_aIX_plus_n,    // 6B
+                Z80InstructionExecutorImpl::BIT_5_aIX_plus_n,    // 6C
+                Z80InstructionExecutorImpl::BIT_5_aIX_plus_n,    // 6D
+                Z80InstructionExecutorImpl::BIT_5_aIX_plus_n,    // 6E
+                Z80InstructionExecutorImpl::BIT_5_aIX_plus_n,    // 6F
+                Z80InstructionExecutorImpl::BIT_6_aIX_plus_n,    // 70
+                Z80InstructionExecutorImpl::BIT_6_aIX_plus_n,    // 71
+                Z80InstructionExecutorImpl::BIT_6_aIX_plus_n,    // 72
+                Z80InstructionExecutorImpl::BIT_6_aIX_plus_n,    // 73
+                Z80InstructionExecutorImpl::BIT_6_aIX_plus_n,    // 74
+                Z80InstructionExecutorImpl::BIT_6_aIX_plus_n,    // 75
+                Z80InstructionExecutorImpl::BIT_6_aIX_plus_n,    // 76
+                Z80InstructionExecutorImpl::BIT_6_aIX_plus_n,    // 77
+                Z80InstructionExecutorImpl::BIT_7_aIX_plus_n,    // 78
+                Z80InstructionExecutorImpl::BIT_7_aIX_plus_n,    // 79
+                Z80InstructionExecutorImpl::BIT_7_aIX_plus_n,    // 7A
+                Z80InstructionExecutorImpl::BIT_7_aIX_plus_n,    // 7B
+                Z80InstructionExecutorImpl::BIT_7_aIX_plus_n,    // 7C
+                Z80InstructionExecutorImpl::BIT_7_aIX_plus_n,    // 7D
+                Z80InstructionExecutorImpl::BIT_7_aIX_plus_n,    // 7E
+                Z80InstructionExecutorImpl::BIT_7_aIX_plus_n,    // 7F
+                Z80InstructionExecutorImpl::RES_0_aIX_plus_n_and_load_B,    // 80
+                Z80InstructionExecutorImpl::RES_0_aIX_plus_n_and_load_C,    // 81
+                Z80InstructionExecutorImpl::RES_0_aIX_plus_n_and_load_D,    // 82
+                Z80InstructionExecutorImpl::RES_0_aIX_plus_n_and_load_E,    // 83
+                Z80InstructionExecutorImpl::RES_0_aIX_plus_n_and_load_H,    // 84
+                Z80InstructionExecutorImpl::RES_0_aIX_plus_n_and_load_L,    // 85
+                Z80InstructionExecutorImpl::RES_0_aIX_plus_n,    // 86
+                Z80InstructionExecutorImpl::RES_0_aIX_plus_n_and_load_A,    // 87
+                Z80InstructionExecutorImpl::RES_1_aIX_plus_n_and_load_B,    // 88
+                Z80InstructionExecutorImpl::RES_1_aIX_plus_n_and_load_C,    // 89
+                Z80InstructionExecutorImpl::RES_1_aIX_plus_n_and_load_D,    // 8A
+                Z80InstructionExecutorImpl::RES_1_aIX_plus_n_and_load_E,    // 8B
+                Z80InstructionExecutorImpl::RES_1_aIX_plus_n_and_load_H,    // 8C
+                Z80InstructionExecutorImpl::RES_1_aIX_plus_n_and_load_L,    // 8D
+                Z80InstructionExecutorImpl::RES_1_aIX_plus_n,    // 8E
+                Z80InstructionExecutorImpl::RES_1_aIX_plus_n_and_load_A,    // 8F
+                Z80InstructionExecutorImpl::RES_2_aIX_plus_n_and_load_B,    // 90
+                Z80InstructionExecutorImpl::RES_2_aIX_plus_n_and_load_C,    // 91
+                Z80InstructionExecutorImpl::RES_2_aIX_plus_n_and_load_D,    // 92
+                Z80InstructionExecutorImpl::RES_2_aIX_plus_n_and_load_E,    // 93
+                Z80InstructionExecutorImpl::RES_2_aIX_plus_n_and_load_H,    // 94
+                Z80InstructionExecutorImpl::RES_2_aIX_plus_n_and_load_L,    // 95
+                Z80InstructionExecutorImpl::RES_2_aIX_plus_n,    // 96
+                Z80InstructionExecutorImpl::RES_2_aIX_plus_n_and_load_A,    // 97
+                Z80InstructionExecutorImpl::RES_3_aIX_plus_n_and_load_B,    // 98
+                Z80InstructionExecutorImpl::RES_3_aIX_plus_n_and_load_C,    // 99
+                Z80InstructionExecutorImpl::RES_3_aIX_plus_n_and_load_D,    // 9A
+                Z80InstructionExecutorImpl::RES_3_aIX_plus_n_and_load_E,    // 9B
+                Z80InstructionExecutorImpl::RES_3_aIX_plus_n_and_load_H,    // 9C
+                Z80InstructionExecutorImpl::RES_3_aIX_plus_n_and_load_L,    // 9D
+                Z80InstructionExecutorImpl::RES_3_aIX_plus_n,    // 9E
+                Z80InstructionExecutorImpl::RES_3_aIX_plus_n_and_load_A,    // 9F
+                Z80InstructionExecutorImpl::RES_4_aIX_plus_n_and_load_B,    // A0
+                Z80InstructionExecutorImpl::RES_4_aIX_plus_n_and_load_C,    // A1
+                Z80InstructionExecutorImpl::RES_4_aIX_plus_n_and_load_D,    // A2
+                Z80InstructionExecutorImpl::RES_4_aIX_plus_n_and_load_E,    // A3
+                Z80InstructionExecutorImpl::RES_4_aIX_plus_n_and_load_H,    // A4
+                Z80InstructionExecutorImpl::RES_4_aIX_plus_n_and_load_L,    // A5
+                Z80InstructionExecutorImpl::RES_4_aIX_plus_n,    // A6
+                Z80InstructionExecutorImpl::RES_4_aIX_plus_n_and_load_A,    // A7
+                Z80InstructionExecutorImpl::RES_5_aIX_plus_n_and_load_B,    // A8
+                Z80InstructionExecutorImpl::RES_5_aIX_plus_n_and_load_C,    // A9
+                Z80InstructionExecutorImpl::RES_5_aIX_plus_n_and_load_D,    // AA
+                Z80InstructionExecutorImpl::RES_5_aIX_plus_n_and_load_E,    // AB
+                Z80InstructionExecutorImpl::RES_5_aIX_plus_n_and_load_H,    // AC
+                Z80InstructionExecutorImpl::RES_5_aIX_plus_n_and_load_L,    // AD
+                Z80InstructionExecutorImpl::RES_5_aIX_plus_n,    // AE
+                Z80InstructionExecutorImpl::RES_5_aIX_plus_n_and_load_A,    // AF
+                Z80InstructionExecutorImpl::RES_6_aIX_plus_n_and_load_B,    // B0
+                Z80InstructionExecutorImpl::RES_6_aIX_plus_n_and_load_C,    // B1
+                Z80InstructionExecutorImpl::RES_6_aIX_plus_n_and_load_D,    // B2
+                Z80InstructionExecutorImpl::RES_6_aIX_plus_n_and_load_E,    // B3
+                Z80InstructionExecutorImpl::RES_6_aIX_plus_n_and_load_H,    // B4
+                Z80InstructionExecutorImpl::RES_6_aIX_plus_n_and_load_L,    // B5
+                Z80InstructionExecutorImpl::RES_6_aIX_plus_n,    // B6
+                Z80InstructionExecutorImpl::RES_6_aIX_plus_n_and_load_A,    // B7
+                Z80InstructionExecutorImpl::RES_7_aIX_plus_n_and_load_B,    // B8
+                Z80InstructionExecutorImpl::RES_7_aIX_plus_n_and_load_C,    // B9
+                Z80InstructionExecutorImpl::RES_7_aIX_plus_n_and_load_D,    // BA
+                Z80InstructionExecutorImpl::RES_7_aIX_plus_n_and_load_E,    // BB
+                Z80InstructionExecutorImpl::RES_7_aIX_plus_n_and_load_H,    // BC
+                Z80InstructionExecutorImpl::RES_7_aIX_plus_n_and_load_L,    // BD
+                Z80InstructionExecutorImpl::RES_7_aIX_plus_n,    // BE
+                Z80InstructionExecutorImpl::RES_7_aIX_plus_n_and_load_A,    // BF
+                Z80InstructionExecutorImpl::SET_0_aIX_plus_n_and_load_B,    // C0
+                Z80InstructionExecutorImpl::SET_0_aIX_plus_n_and_load_C,    // C1
+                Z80InstructionExecutorImpl::SET_0_aIX_plus_n_and_load_D,    // C2
+                Z80InstructionExecutorImpl::SET_0_aIX_plus_n_and_load_E,    // C3
+                Z80InstructionExecutorImpl::SET_0_aIX_plus_n_and_load_H,    // C4
+                Z80InstructionExecutorImpl::SET_0_aIX_plus_n_and_load_L,    // C5
+                Z80InstructionExecutorImpl::SET_0_aIX_plus_n,    // C6
+                Z80InstructionExecutorImpl::SET_0_aIX_plus_n_and_load_A,    // C7
+                Z80InstructionExecutorImpl::SET_1_aIX_plus_n_and_load_B,    // C8
+                Z80InstructionExecutorImpl::SET_1_aIX_plus_n_and_load_C,    // C9
+                Z80InstructionExecutorImpl::SET_1_aIX_plus_n_and_load_D,    // CA
+                Z80InstructionExecutorImpl::SET_1_aIX_plus_n_and_load_E,    // CB
+                Z80InstructionExecutorImpl::SET_1_aIX_plus_n_and_load_H,    // CC
+                Z80InstructionExecutorImpl::SET_1_aIX_plus_n_and_load_L,    // CD
+                Z80InstructionExecutorImpl::SET_1_aIX_plus_n,    // CE
+                Z80InstructionExecutorImpl::SET_1_aIX_plus_n_and_load_A,    // CF
+                Z80InstructionExecutorImpl::SET_2_aIX_plus_n_and_load_B,    // D0
+                Z80InstructionExecutorImpl::SET_2_aIX_plus_n_and_load_C,    // D1
+                Z80InstructionExecutorImpl::SET_2_aIX_plus_n_and_load_D,    // D2
+                Z80InstructionExecutorImpl::SET_2_aIX_plus_n_and_load_E,    // D3
+                Z80InstructionExecutorImpl::SET_2_aIX_plus_n_and_load_H,    // D4
+                Z80InstructionExecutorImpl::SET_2_aIX_plus_n_and_load_L,    // D5
+                Z80InstructionExecutorImpl::SET_2_aIX_plus_n,    // D6
+                Z80InstructionExecutorImpl::SET_2_aIX_plus_n_and_load_A,    // D7
+                Z80InstructionExecutorImpl::SET_3_aIX_plus_n_and_load_B,    // D8
+                Z80InstructionExecutorImpl::SET_3_aIX_plus_n_and_load_C,    // D9
+                Z80InstructionExecutorImpl::SET_3_aIX_plus_n_and_load_D,    // DA
+                Z80InstructionExecutorImpl::SET_3_aIX_plus_n_and_load_E,    // DB
+                Z80InstructionExecutorImpl::SET_3_aIX_plus_n_and_load_H,    // DC
+                Z80InstructionExecutorImpl::SET_3_aIX_plus_n_and_load_L,    // DD
+                Z80InstructionExecutorImpl::SET_3_aIX_plus_n,    // DE
+                Z80InstructionExecutorImpl::SET_3_aIX_plus_n_and_load_A,    // DF
+                Z80InstructionExecutorImpl::SET_4_aIX_plus_n_and_load_B,    // E0
+                Z80InstructionExecutorImpl::SET_4_aIX_plus_n_and_load_C,    // E1
+                Z80InstructionExecutorImpl::SET_4_aIX_plus_n_and_load_D,    // E2
+                Z80InstructionExecutorImpl::SET_4_aIX_plus_n_and_load_E,    // E3
+                Z80InstructionExecutorImpl::SET_4_aIX_plus_n_and_load_H,    // E4
+                Z80InstructionExecutorImpl::SET_4_aIX_plus_n_and_load_L,    // E5
+                Z80InstructionExecutorImpl::SET_4_aIX_plus_n,    // E6
+                Z80InstructionExecutorImpl::SET_4_aIX_plus_n_and_load_A,    // E7
+                Z80InstructionExecutorImpl::SET_5_aIX_plus_n_and_load_B,    // E8
+                Z80InstructionExecutorImpl::SET_5_aIX_plus_n_and_load_C,    // E9
+                Z80InstructionExecutorImpl::SET_5_aIX_plus_n_and_load_D,    // EA
+                Z80InstructionExecutorImpl::SET_5_aIX_plus_n_and_load_E,    // EB
+                Z80InstructionExecutorImpl::SET_5_aIX_plus_n_and_load_H,    // EC
+                Z80InstructionExecutorImpl::SET_5_aIX_plus_n_and_load_L,    // ED
+                Z80InstructionExecutorImpl::SET_5_aIX_plus_n,    // EE
+                Z80InstructionExecutorImpl::SET_5_aIX_plus_n_and_load_A,    // EF
+                Z80InstructionExecutorImpl::SET_6_aIX_plus_n_and_load_B,    // F0
+                Z80InstructionExecutorImpl::SET_6_aIX_plus_n_and_load_C,    // F1
+                Z80InstructionExecutorImpl::SET_6_aIX_plus_n_and_load_D,    // F2
+                Z80InstructionExecutorImpl::SET_6_aIX_plus_n_and_load_E,    // F3
+                Z80InstructionExecutorImpl::SET_6_aIX_plus_n_and_load_H,    // F4
+                Z80InstructionExecutorImpl::SET_6_aIX_plus_n_and_load_L,    // F5
+                Z80InstructionExecutorImpl::SET_6_aIX_plus_n,    // F6
+                Z80InstructionExecutorImpl::SET_6_aIX_plus_n_and_load_A,    // F7
+                Z80InstructionExecutorImpl::SET_7_aIX_plus_n_and_load_B,    // F8
+                Z80InstructionExecutorImpl::SET_7_aIX_plus_n_and_load_C,    // F9
+                Z80InstructionExecutorImpl::SET_7_aIX_plus_n_and_load_D,    // FA
+                Z80InstructionExecutorImpl::SET_7_aIX_plus_n_and_load_E,    // FB
+                Z80InstructionExecutorImpl::SET_7_aIX_plus_n_and_load_H,    // FC
+                Z80InstructionExecutorImpl::SET_7_aIX_plus_n_and_load_L,    // FD
+                Z80InstructionExecutorImpl::SET_7_aIX_plus_n,    // FE
+                Z80InstructionExecutorImpl::SET_7_aIX_plus_n_and_load_A    // FF
+        };
     }
 
 //#endregion
 
 //#region InstructionsTable.ED
 
-    private Supplier<Byte>[] ED_InstructionExecutors;
-    private Supplier<Byte>[] ED_Block_InstructionExecutors;
-
-    @SuppressWarnings("unchecked")
-    private void initialize_ED_InstructionsTable() {
-        ED_InstructionExecutors = Arrays.<Supplier<Byte>>asList(
-                this::IN_B_C,    // 40
-                this::OUT_C_B,    // 41
-                this::SBC_HL_BC,    // 42
-                this::LD_aa_BC,    // 43
-                this::NEG,    // 44
-                this::RETN,    // 45
-                this::IM_0,    // 46
-                this::LD_I_A,    // 47
-                this::IN_C_C,    // 48
-                this::OUT_C_C,    // 49
-                this::ADC_HL_BC,    // 4A
-                this::LD_BC_aa,    // 4B
-                this::NEG,    // 4C
-                this::RETI,    // 4D
-                this::IM_0,    // 4E
-                this::LD_R_A,    // 4F
-                this::IN_D_C,    // 50
-                this::OUT_C_D,    // 51
-                this::SBC_HL_DE,    // 52
-                this::LD_aa_DE,    // 53
-                this::NEG,    // 54
-                this::RETN,    // 55
-                this::IM_1,    // 56
-                this::LD_A_I,    // 57
-                this::IN_E_C,    // 58
-                this::OUT_C_E,    // 59
-                this::ADC_HL_DE,    // 5A
-                this::LD_DE_aa,    // 5B
-                this::NEG,    // 5C
-                this::RETI,    // 5D
-                this::IM_2,    // 5E
-                this::LD_A_R,    // 5F
-                this::IN_H_C,    // 60
-                this::OUT_C_H,    // 61
-                this::SBC_HL_HL,    // 62
-                this::LD_aa_HL,    // 63
-                this::NEG,    // 64
-                this::RETN,    // 65
-                this::IM_0,    // 66
-                this::RRD,    // 67
-                this::IN_L_C,    // 68
-                this::OUT_C_L,    // 69
-                this::ADC_HL_HL,    // 6A
-                this::LD_HL_aa,    // 6B
-                this::NEG,    // 6C
-                this::RETI,    // 6D
-                this::IM_0,    // 6E
-                this::RLD,    // 6F
-                this::IN_F_C,    // 70
-                this::OUT_C_0,    // 71
-                this::SBC_HL_SP,    // 72
-                this::LD_aa_SP,    // 73
-                this::NEG,    // 74
-                this::RETN,    // 75
-                this::IM_1,    // 76
-                this::NOP2,    // 77
-                this::IN_A_C,    // 78
-                this::OUT_C_A,    // 79
-                this::ADC_HL_SP,    // 7A
-                this::LD_SP_aa,    // 7B
-                this::NEG,    // 7C
-                this::RETI,    // 7D
-                this::IM_2,    // 7E
-                this::NOP2    // 7F
-        ).toArray(Supplier[]::new);
-
-        ED_Block_InstructionExecutors = new Supplier[] {
-                this::LDI,         // A0
-                this::CPI,         // A1
-                this::INI,         // A2
-                this::OUTI,        // A3
+    private static final InstructionExecutor[] ED_InstructionExecutors = initialize_ED_InstructionsTable();
+    private static final InstructionExecutor[] ED_Block_InstructionExecutors = initialize_ED_Block_InstructionsTable();
+
+    private static InstructionExecutor[] initialize_ED_InstructionsTable() {
+        return new InstructionExecutor[] {
+                Z80InstructionExecutorImpl::IN_B_C,    // 40
+                Z80InstructionExecutorImpl::OUT_C_B,    // 41
+                Z80InstructionExecutorImpl::SBC_HL_BC,    // 42
+                Z80InstructionExecutorImpl::LD_aa_BC,    // 43
+                Z80InstructionExecutorImpl::NEG,    // 44
+                Z80InstructionExecutorImpl::RETN,    // 45
+                Z80InstructionExecutorImpl::IM_0,    // 46
+                Z80InstructionExecutorImpl::LD_I_A,    // 47
+                Z80InstructionExecutorImpl::IN_C_C,    // 48
+                Z80InstructionExecutorImpl::OUT_C_C,    // 49
+                Z80InstructionExecutorImpl::ADC_HL_BC,    // 4A
+                Z80InstructionExecutorImpl::LD_BC_aa,    // 4B
+                Z80InstructionExecutorImpl::NEG,    // 4C
+                Z80InstructionExecutorImpl::RETI,    // 4D
+                Z80InstructionExecutorImpl::IM_0,    // 4E
+                Z80InstructionExecutorImpl::LD_R_A,    // 4F
+                Z80InstructionExecutorImpl::IN_D_C,    // 50
+                Z80InstructionExecutorImpl::OUT_C_D,    // 51
+                Z80InstructionExecutorImpl::SBC_HL_DE,    // 52
+                Z80InstructionExecutorImpl::LD_aa_DE,    // 53
+                Z80InstructionExecutorImpl::NEG,    // 54
+                Z80InstructionExecutorImpl::RETN,    // 55
+                Z80InstructionExecutorImpl::IM_1,    // 56
+                Z80InstructionExecutorImpl::LD_A_I,    // 57
+                Z80InstructionExecutorImpl::IN_E_C,    // 58
+                Z80InstructionExecutorImpl::OUT_C_E,    // 59
+                Z80InstructionExecutorImpl::ADC_HL_DE,    // 5A
+                Z80InstructionExecutorImpl::LD_DE_aa,    // 5B
+                Z80InstructionExecutorImpl::NEG,    // 5C
+                Z80InstructionExecutorImpl::RETI,    // 5D
+                Z80InstructionExecutorImpl::IM_2,    // 5E
+                Z80InstructionExecutorImpl::LD_A_R,    // 5F
+                Z80InstructionExecutorImpl::IN_H_C,    // 60
+                Z80InstructionExecutorImpl::OUT_C_H,    // 61
+                Z80InstructionExecutorImpl::SBC_HL_HL,    // 62
+                Z80InstructionExecutorImpl::LD_aa_HL,    // 63
+                Z80InstructionExecutorImpl::NEG,    // 64
+                Z80InstructionExecutorImpl::RETN,    // 65
+                Z80InstructionExecutorImpl::IM_0,    // 66
+                Z80InstructionExecutorImpl::RRD,    // 67
+                Z80InstructionExecutorImpl::IN_L_C,    // 68
+                Z80InstructionExecutorImpl::OUT_C_L,    // 69
+                Z80InstructionExecutorImpl::ADC_HL_HL,    // 6A
+                Z80InstructionExecutorImpl::LD_HL_aa,    // 6B
+                Z80InstructionExecutorImpl::NEG,    // 6C
+                Z80InstructionExecutorImpl::RETI,    // 6D
+                Z80InstructionExecutorImpl::IM_0,    // 6E
+                Z80InstructionExecutorImpl::RLD,    // 6F
+                Z80InstructionExecutorImpl::IN_F_C,    // 70
+                Z80InstructionExecutorImpl::OUT_C_0,    // 71
+                Z80InstructionExecutorImpl::SBC_HL_SP,    // 72
+                Z80InstructionExecutorImpl::LD_aa_SP,    // 73
+                Z80InstructionExecutorImpl::NEG,    // 74
+                Z80InstructionExecutorImpl::RETN,    // 75
+                Z80InstructionExecutorImpl::IM_1,    // 76
+                Z80InstructionExecutorImpl::NOP2,    // 77
+                Z80InstructionExecutorImpl::IN_A_C,    // 78
+                Z80InstructionExecutorImpl::OUT_C_A,    // 79
+                Z80InstructionExecutorImpl::ADC_HL_SP,    // 7A
+                Z80InstructionExecutorImpl::LD_SP_aa,    // 7B
+                Z80InstructionExecutorImpl::NEG,    // 7C
+                Z80InstructionExecutorImpl::RETI,    // 7D
+                Z80InstructionExecutorImpl::IM_2,    // 7E
+                Z80InstructionExecutorImpl::NOP2    // 7F
+        };
+    }
+
+    private static InstructionExecutor[] initialize_ED_Block_InstructionsTable() {
+        return new InstructionExecutor[] {
+                Z80InstructionExecutorImpl::LDI,         // A0
+                Z80InstructionExecutorImpl::CPI,         // A1
+                Z80InstructionExecutorImpl::INI,         // A2
+                Z80InstructionExecutorImpl::OUTI,        // A3
                 null, null, null, null,
-                this::LDD,         // A8
-                this::CPD,         // A9
-                this::IND,         // AA
-                this::OUTD,        // AB
+                Z80InstructionExecutorImpl::LDD,         // A8
+                Z80InstructionExecutorImpl::CPD,         // A9
+                Z80InstructionExecutorImpl::IND,         // AA
+                Z80InstructionExecutorImpl::OUTD,        // AB
                 null, null, null, null,
-                this::LDIR,        // B0
-                this::CPIR,        // B1
-                this::INIR,        // B2
-                this::OTIR,        // B3
+                Z80InstructionExecutorImpl::LDIR,        // B0
+                Z80InstructionExecutorImpl::CPIR,        // B1
+                Z80InstructionExecutorImpl::INIR,        // B2
+                Z80InstructionExecutorImpl::OTIR,        // B3
                 null, null, null, null,
-                this::LDDR,        // B8
-                this::CPDR,        // B9
-                this::INDR,        // BA
-                this::OTDR,        // BB
+                Z80InstructionExecutorImpl::LDDR,        // B8
+                Z80InstructionExecutorImpl::CPDR,        // B9
+                Z80InstructionExecutorImpl::INDR,        // BA
+                Z80InstructionExecutorImpl::OTDR,        // BB
         };
     }
 
@@ -1037,535 +1045,533 @@ public class Z80InstructionExecutorImpl implements Z80InstructionExecutor, Z80In
 
 //#region InstructionsTable.FDCB
 
-    private Function<Byte, Byte>[] FDCB_InstructionExecutors;
-
-    @SuppressWarnings("unchecked")
-    private void initialize_FDCB_InstructionsTable() {
-        FDCB_InstructionExecutors = Arrays.<Function<Byte, Byte>>asList(
-                this::RLC_aIY_plus_n_and_load_B,    // 00
-                this::RLC_aIY_plus_n_and_load_C,    // 01
-                this::RLC_aIY_plus_n_and_load_D,    // 02
-                this::RLC_aIY_plus_n_and_load_E,    // 03
-                this::RLC_aIY_plus_n_and_load_H,    // 04
-                this::RLC_aIY_plus_n_and_load_L,    // 05
-                this::RLC_aIY_plus_n,    // 06
-                this::RLC_aIY_plus_n_and_load_A,    // 07
-                this::RRC_aIY_plus_n_and_load_B,    // 08
-                this::RRC_aIY_plus_n_and_load_C,    // 09
-                this::RRC_aIY_plus_n_and_load_D,    // 0A
-                this::RRC_aIY_plus_n_and_load_E,    // 0B
-                this::RRC_aIY_plus_n_and_load_H,    // 0C
-                this::RRC_aIY_plus_n_and_load_L,    // 0D
-                this::RRC_aIY_plus_n,    // 0E
-                this::RRC_aIY_plus_n_and_load_A,    // 0F
-                this::RL_aIY_plus_n_and_load_B,    // 10
-                this::RL_aIY_plus_n_and_load_C,    // 11
-                this::RL_aIY_plus_n_and_load_D,    // 12
-                this::RL_aIY_plus_n_and_load_E,    // 13
-                this::RL_aIY_plus_n_and_load_H,    // 14
-                this::RL_aIY_plus_n_and_load_L,    // 15
-                this::RL_aIY_plus_n,    // 16
-                this::RL_aIY_plus_n_and_load_A,    // 17
-                this::RR_aIY_plus_n_and_load_B,    // 18
-                this::RR_aIY_plus_n_and_load_C,    // 19
-                this::RR_aIY_plus_n_and_load_D,    // 1A
-                this::RR_aIY_plus_n_and_load_E,    // 1B
-                this::RR_aIY_plus_n_and_load_H,    // 1C
-                this::RR_aIY_plus_n_and_load_L,    // 1D
-                this::RR_aIY_plus_n,    // 1E
-                this::RR_aIY_plus_n_and_load_A,    // 1F
-                this::SLA_aIY_plus_n_and_load_B,    // 20
-                this::SLA_aIY_plus_n_and_load_C,    // 21
-                this::SLA_aIY_plus_n_and_load_D,    // 22
-                this::SLA_aIY_plus_n_and_load_E,    // 23
-                this::SLA_aIY_plus_n_and_load_H,    // 24
-                this::SLA_aIY_plus_n_and_load_L,    // 25
-                this::SLA_aIY_plus_n,    // 26
-                this::SLA_aIY_plus_n_and_load_A,    // 27
-                this::SRA_aIY_plus_n_and_load_B,    // 28
-                this::SRA_aIY_plus_n_and_load_C,    // 29
-                this::SRA_aIY_plus_n_and_load_D,    // 2A
-                this::SRA_aIY_plus_n_and_load_E,    // 2B
-                this::SRA_aIY_plus_n_and_load_H,    // 2C
-                this::SRA_aIY_plus_n_and_load_L,    // 2D
-                this::SRA_aIY_plus_n,    // 2E
-                this::SRA_aIY_plus_n_and_load_A,    // 2F
-                this::SLL_aIY_plus_n_and_load_B,    // 30
-                this::SLL_aIY_plus_n_and_load_C,    // 31
-                this::SLL_aIY_plus_n_and_load_D,    // 32
-                this::SLL_aIY_plus_n_and_load_E,    // 33
-                this::SLL_aIY_plus_n_and_load_H,    // 34
-                this::SLL_aIY_plus_n_and_load_L,    // 35
-                this::SLL_aIY_plus_n,    // 36
-                this::SLL_aIY_plus_n_and_load_A,    // 37
-                this::SRL_aIY_plus_n_and_load_B,    // 38
-                this::SRL_aIY_plus_n_and_load_C,    // 39
-                this::SRL_aIY_plus_n_and_load_D,    // 3A
-                this::SRL_aIY_plus_n_and_load_E,    // 3B
-                this::SRL_aIY_plus_n_and_load_H,    // 3C
-                this::SRL_aIY_plus_n_and_load_L,    // 3D
-                this::SRL_aIY_plus_n,    // 3E
-                this::SRL_aIY_plus_n_and_load_A,    // 3F
-                this::BIT_0_aIY_plus_n,    // 40
-                this::BIT_0_aIY_plus_n,    // 41
-                this::BIT_0_aIY_plus_n,    // 42
-                this::BIT_0_aIY_plus_n,    // 43
-                this::BIT_0_aIY_plus_n,    // 44
-                this::BIT_0_aIY_plus_n,    // 45
-                this::BIT_0_aIY_plus_n,    // 46
-                this::BIT_0_aIY_plus_n,    // 47
-                this::BIT_1_aIY_plus_n,    // 48
-                this::BIT_1_aIY_plus_n,    // 49
-                this::BIT_1_aIY_plus_n,    // 4A
-                this::BIT_1_aIY_plus_n,    // 4B
-                this::BIT_1_aIY_plus_n,    // 4C
-                this::BIT_1_aIY_plus_n,    // 4D
-                this::BIT_1_aIY_plus_n,    // 4E
-                this::BIT_1_aIY_plus_n,    // 4F
-                this::BIT_2_aIY_plus_n,    // 50
-                this::BIT_2_aIY_plus_n,    // 51
-                this::BIT_2_aIY_plus_n,    // 52
-                this::BIT_2_aIY_plus_n,    // 53
-                this::BIT_2_aIY_plus_n,    // 54
-                this::BIT_2_aIY_plus_n,    // 55
-                this::BIT_2_aIY_plus_n,    // 56
-                this::BIT_2_aIY_plus_n,    // 57
-                this::BIT_3_aIY_plus_n,    // 58
-                this::BIT_3_aIY_plus_n,    // 59
-                this::BIT_3_aIY_plus_n,    // 5A
-                this::BIT_3_aIY_plus_n,    // 5B
-                this::BIT_3_aIY_plus_n,    // 5C
-                this::BIT_3_aIY_plus_n,    // 5D
-                this::BIT_3_aIY_plus_n,    // 5E
-                this::BIT_3_aIY_plus_n,    // 5F
-                this::BIT_4_aIY_plus_n,    // 60
-                this::BIT_4_aIY_plus_n,    // 61
-                this::BIT_4_aIY_plus_n,    // 62
-                this::BIT_4_aIY_plus_n,    // 63
-                this::BIT_4_aIY_plus_n,    // 64
-                this::BIT_4_aIY_plus_n,    // 65
-                this::BIT_4_aIY_plus_n,    // 66
-                this::BIT_4_aIY_plus_n,    // 67
-                this::BIT_5_aIY_plus_n,    // 68
-                this::BIT_5_aIY_plus_n,    // 69
-                this::BIT_5_aIY_plus_n,    // 6A
-                this::BIT_5_aIY_plus_n,    // 6B
-                this::BIT_5_aIY_plus_n,    // 6C
-                this::BIT_5_aIY_plus_n,    // 6D
-                this::BIT_5_aIY_plus_n,    // 6E
-                this::BIT_5_aIY_plus_n,    // 6F
-                this::BIT_6_aIY_plus_n,    // 70
-                this::BIT_6_aIY_plus_n,    // 71
-                this::BIT_6_aIY_plus_n,    // 72
-                this::BIT_6_aIY_plus_n,    // 73
-                this::BIT_6_aIY_plus_n,    // 74
-                this::BIT_6_aIY_plus_n,    // 75
-                this::BIT_6_aIY_plus_n,    // 76
-                this::BIT_6_aIY_plus_n,    // 77
-                this::BIT_7_aIY_plus_n,    // 78
-                this::BIT_7_aIY_plus_n,    // 79
-                this::BIT_7_aIY_plus_n,    // 7A
-                this::BIT_7_aIY_plus_n,    // 7B
-                this::BIT_7_aIY_plus_n,    // 7C
-                this::BIT_7_aIY_plus_n,    // 7D
-                this::BIT_7_aIY_plus_n,    // 7E
-                this::BIT_7_aIY_plus_n,    // 7F
-                this::RES_0_aIY_plus_n_and_load_B,    // 80
-                this::RES_0_aIY_plus_n_and_load_C,    // 81
-                this::RES_0_aIY_plus_n_and_load_D,    // 82
-                this::RES_0_aIY_plus_n_and_load_E,    // 83
-                this::RES_0_aIY_plus_n_and_load_H,    // 84
-                this::RES_0_aIY_plus_n_and_load_L,    // 85
-                this::RES_0_aIY_plus_n,    // 86
-                this::RES_0_aIY_plus_n_and_load_A,    // 87
-                this::RES_1_aIY_plus_n_and_load_B,    // 88
-                this::RES_1_aIY_plus_n_and_load_C,    // 89
-                this::RES_1_aIY_plus_n_and_load_D,    // 8A
-                this::RES_1_aIY_plus_n_and_load_E,    // 8B
-                this::RES_1_aIY_plus_n_and_load_H,    // 8C
-                this::RES_1_aIY_plus_n_and_load_L,    // 8D
-                this::RES_1_aIY_plus_n,    // 8E
-                this::RES_1_aIY_plus_n_and_load_A,    // 8F
-                this::RES_2_aIY_plus_n_and_load_B,    // 90
-                this::RES_2_aIY_plus_n_and_load_C,    // 91
-                this::RES_2_aIY_plus_n_and_load_D,    // 92
-                this::RES_2_aIY_plus_n_and_load_E,    // 93
-                this::RES_2_aIY_plus_n_and_load_H,    // 94
-                this::RES_2_aIY_plus_n_and_load_L,    // 95
-                this::RES_2_aIY_plus_n,    // 96
-                this::RES_2_aIY_plus_n_and_load_A,    // 97
-                this::RES_3_aIY_plus_n_and_load_B,    // 98
-                this::RES_3_aIY_plus_n_and_load_C,    // 99
-                this::RES_3_aIY_plus_n_and_load_D,    // 9A
-                this::RES_3_aIY_plus_n_and_load_E,    // 9B
-                this::RES_3_aIY_plus_n_and_load_H,    // 9C
-                this::RES_3_aIY_plus_n_and_load_L,    // 9D
-                this::RES_3_aIY_plus_n,    // 9E
-                this::RES_3_aIY_plus_n_and_load_A,    // 9F
-                this::RES_4_aIY_plus_n_and_load_B,    // A0
-                this::RES_4_aIY_plus_n_and_load_C,    // A1
-                this::RES_4_aIY_plus_n_and_load_D,    // A2
-                this::RES_4_aIY_plus_n_and_load_E,    // A3
-                this::RES_4_aIY_plus_n_and_load_H,    // A4
-                this::RES_4_aIY_plus_n_and_load_L,    // A5
-                this::RES_4_aIY_plus_n,    // A6
-                this::RES_4_aIY_plus_n_and_load_A,    // A7
-                this::RES_5_aIY_plus_n_and_load_B,    // A8
-                this::RES_5_aIY_plus_n_and_load_C,    // A9
-                this::RES_5_aIY_plus_n_and_load_D,    // AA
-                this::RES_5_aIY_plus_n_and_load_E,    // AB
-                this::RES_5_aIY_plus_n_and_load_H,    // AC
-                this::RES_5_aIY_plus_n_and_load_L,    // AD
-                this::RES_5_aIY_plus_n,    // AE
-                this::RES_5_aIY_plus_n_and_load_A,    // AF
-                this::RES_6_aIY_plus_n_and_load_B,    // B0
-                this::RES_6_aIY_plus_n_and_load_C,    // B1
-                this::RES_6_aIY_plus_n_and_load_D,    // B2
-                this::RES_6_aIY_plus_n_and_load_E,    // B3
-                this::RES_6_aIY_plus_n_and_load_H,    // B4
-                this::RES_6_aIY_plus_n_and_load_L,    // B5
-                this::RES_6_aIY_plus_n,    // B6
-                this::RES_6_aIY_plus_n_and_load_A,    // B7
-                this::RES_7_aIY_plus_n_and_load_B,    // B8
-                this::RES_7_aIY_plus_n_and_load_C,    // B9
-                this::RES_7_aIY_plus_n_and_load_D,    // BA
-                this::RES_7_aIY_plus_n_and_load_E,    // BB
-                this::RES_7_aIY_plus_n_and_load_H,    // BC
-                this::RES_7_aIY_plus_n_and_load_L,    // BD
-                this::RES_7_aIY_plus_n,    // BE
-                this::RES_7_aIY_plus_n_and_load_A,    // BF
-                this::SET_0_aIY_plus_n_and_load_B,    // C0
-                this::SET_0_aIY_plus_n_and_load_C,    // C1
-                this::SET_0_aIY_plus_n_and_load_D,    // C2
-                this::SET_0_aIY_plus_n_and_load_E,    // C3
-                this::SET_0_aIY_plus_n_and_load_H,    // C4
-                this::SET_0_aIY_plus_n_and_load_L,    // C5
-                this::SET_0_aIY_plus_n,    // C6
-                this::SET_0_aIY_plus_n_and_load_A,    // C7
-                this::SET_1_aIY_plus_n_and_load_B,    // C8
-                this::SET_1_aIY_plus_n_and_load_C,    // C9
-                this::SET_1_aIY_plus_n_and_load_D,    // CA
-                this::SET_1_aIY_plus_n_and_load_E,    // CB
-                this::SET_1_aIY_plus_n_and_load_H,    // CC
-                this::SET_1_aIY_plus_n_and_load_L,    // CD
-                this::SET_1_aIY_plus_n,    // CE
-                this::SET_1_aIY_plus_n_and_load_A,    // CF
-                this::SET_2_aIY_plus_n_and_load_B,    // D0
-                this::SET_2_aIY_plus_n_and_load_C,    // D1
-                this::SET_2_aIY_plus_n_and_load_D,    // D2
-                this::SET_2_aIY_plus_n_and_load_E,    // D3
-                this::SET_2_aIY_plus_n_and_load_H,    // D4
-                this::SET_2_aIY_plus_n_and_load_L,    // D5
-                this::SET_2_aIY_plus_n,    // D6
-                this::SET_2_aIY_plus_n_and_load_A,    // D7
-                this::SET_3_aIY_plus_n_and_load_B,    // D8
-                this::SET_3_aIY_plus_n_and_load_C,    // D9
-                this::SET_3_aIY_plus_n_and_load_D,    // DA
-                this::SET_3_aIY_plus_n_and_load_E,    // DB
-                this::SET_3_aIY_plus_n_and_load_H,    // DC
-                this::SET_3_aIY_plus_n_and_load_L,    // DD
-                this::SET_3_aIY_plus_n,    // DE
-                this::SET_3_aIY_plus_n_and_load_A,    // DF
-                this::SET_4_aIY_plus_n_and_load_B,    // E0
-                this::SET_4_aIY_plus_n_and_load_C,    // E1
-                this::SET_4_aIY_plus_n_and_load_D,    // E2
-                this::SET_4_aIY_plus_n_and_load_E,    // E3
-                this::SET_4_aIY_plus_n_and_load_H,    // E4
-                this::SET_4_aIY_plus_n_and_load_L,    // E5
-                this::SET_4_aIY_plus_n,    // E6
-                this::SET_4_aIY_plus_n_and_load_A,    // E7
-                this::SET_5_aIY_plus_n_and_load_B,    // E8
-                this::SET_5_aIY_plus_n_and_load_C,    // E9
-                this::SET_5_aIY_plus_n_and_load_D,    // EA
-                this::SET_5_aIY_plus_n_and_load_E,    // EB
-                this::SET_5_aIY_plus_n_and_load_H,    // EC
-                this::SET_5_aIY_plus_n_and_load_L,    // ED
-                this::SET_5_aIY_plus_n,    // EE
-                this::SET_5_aIY_plus_n_and_load_A,    // EF
-                this::SET_6_aIY_plus_n_and_load_B,    // F0
-                this::SET_6_aIY_plus_n_and_load_C,    // F1
-                this::SET_6_aIY_plus_n_and_load_D,    // F2
-                this::SET_6_aIY_plus_n_and_load_E,    // F3
-                this::SET_6_aIY_plus_n_and_load_H,    // F4
-                this::SET_6_aIY_plus_n_and_load_L,    // F5
-                this::SET_6_aIY_plus_n,    // F6
-                this::SET_6_aIY_plus_n_and_load_A,    // F7
-                this::SET_7_aIY_plus_n_and_load_B,    // F8
-                this::SET_7_aIY_plus_n_and_load_C,    // F9
-                this::SET_7_aIY_plus_n_and_load_D,    // FA
-                this::SET_7_aIY_plus_n_and_load_E,    // FB
-                this::SET_7_aIY_plus_n_and_load_H,    // FC
-                this::SET_7_aIY_plus_n_and_load_L,    // FD
-                this::SET_7_aIY_plus_n,    // FE
-                this::SET_7_aIY_plus_n_and_load_A    // FF
-        ).toArray(Function[]::new);
+    private static final IndexedInstructionExecutor[] FDCB_InstructionExecutors = initialize_FDCB_InstructionsTable();
+
+    private static IndexedInstructionExecutor[] initialize_FDCB_InstructionsTable() {
+        return new IndexedInstructionExecutor[] {
+                Z80InstructionExecutorImpl::RLC_aIY_plus_n_and_load_B,    // 00
+                Z80InstructionExecutorImpl::RLC_aIY_plus_n_and_load_C,    // 01
+                Z80InstructionExecutorImpl::RLC_aIY_plus_n_and_load_D,    // 02
+                Z80InstructionExecutorImpl::RLC_aIY_plus_n_and_load_E,    // 03
+                Z80InstructionExecutorImpl::RLC_aIY_plus_n_and_load_H,    // 04
+                Z80InstructionExecutorImpl::RLC_aIY_plus_n_and_load_L,    // 05
+                Z80InstructionExecutorImpl::RLC_aIY_plus_n,    // 06
+                Z80InstructionExecutorImpl::RLC_aIY_plus_n_and_load_A,    // 07
+                Z80InstructionExecutorImpl::RRC_aIY_plus_n_and_load_B,    // 08
+                Z80InstructionExecutorImpl::RRC_aIY_plus_n_and_load_C,    // 09
+                Z80InstructionExecutorImpl::RRC_aIY_plus_n_and_load_D,    // 0A
+                Z80InstructionExecutorImpl::RRC_aIY_plus_n_and_load_E,    // 0B
+                Z80InstructionExecutorImpl::RRC_aIY_plus_n_and_load_H,    // 0C
+                Z80InstructionExecutorImpl::RRC_aIY_plus_n_and_load_L,    // 0D
+                Z80InstructionExecutorImpl::RRC_aIY_plus_n,    // 0E
+                Z80InstructionExecutorImpl::RRC_aIY_plus_n_and_load_A,    // 0F
+                Z80InstructionExecutorImpl::RL_aIY_plus_n_and_load_B,    // 10
+                Z80InstructionExecutorImpl::RL_aIY_plus_n_and_load_C,    // 11
+                Z80InstructionExecutorImpl::RL_aIY_plus_n_and_load_D,    // 12
+                Z80InstructionExecutorImpl::RL_aIY_plus_n_and_load_E,    // 13
+                Z80InstructionExecutorImpl::RL_aIY_plus_n_and_load_H,    // 14
+                Z80InstructionExecutorImpl::RL_aIY_plus_n_and_load_L,    // 15
+                Z80InstructionExecutorImpl::RL_aIY_plus_n,    // 16
+                Z80InstructionExecutorImpl::RL_aIY_plus_n_and_load_A,    // 17
+                Z80InstructionExecutorImpl::RR_aIY_plus_n_and_load_B,    // 18
+                Z80InstructionExecutorImpl::RR_aIY_plus_n_and_load_C,    // 19
+                Z80InstructionExecutorImpl::RR_aIY_plus_n_and_load_D,    // 1A
+                Z80InstructionExecutorImpl::RR_aIY_plus_n_and_load_E,    // 1B
+                Z80InstructionExecutorImpl::RR_aIY_plus_n_and_load_H,    // 1C
+                Z80InstructionExecutorImpl::RR_aIY_plus_n_and_load_L,    // 1D
+                Z80InstructionExecutorImpl::RR_aIY_plus_n,    // 1E
+                Z80InstructionExecutorImpl::RR_aIY_plus_n_and_load_A,    // 1F
+                Z80InstructionExecutorImpl::SLA_aIY_plus_n_and_load_B,    // 20
+                Z80InstructionExecutorImpl::SLA_aIY_plus_n_and_load_C,    // 21
+                Z80InstructionExecutorImpl::SLA_aIY_plus_n_and_load_D,    // 22
+                Z80InstructionExecutorImpl::SLA_aIY_plus_n_and_load_E,    // 23
+                Z80InstructionExecutorImpl::SLA_aIY_plus_n_and_load_H,    // 24
+                Z80InstructionExecutorImpl::SLA_aIY_plus_n_and_load_L,    // 25
+                Z80InstructionExecutorImpl::SLA_aIY_plus_n,    // 26
+                Z80InstructionExecutorImpl::SLA_aIY_plus_n_and_load_A,    // 27
+                Z80InstructionExecutorImpl::SRA_aIY_plus_n_and_load_B,    // 28
+                Z80InstructionExecutorImpl::SRA_aIY_plus_n_and_load_C,    // 29
+                Z80InstructionExecutorImpl::SRA_aIY_plus_n_and_load_D,    // 2A
+                Z80InstructionExecutorImpl::SRA_aIY_plus_n_and_load_E,    // 2B
+                Z80InstructionExecutorImpl::SRA_aIY_plus_n_and_load_H,    // 2C
+                Z80InstructionExecutorImpl::SRA_aIY_plus_n_and_load_L,    // 2D
+                Z80InstructionExecutorImpl::SRA_aIY_plus_n,    // 2E
+                Z80InstructionExecutorImpl::SRA_aIY_plus_n_and_load_A,    // 2F
+                Z80InstructionExecutorImpl::SLL_aIY_plus_n_and_load_B,    // 30
+                Z80InstructionExecutorImpl::SLL_aIY_plus_n_and_load_C,    // 31
+                Z80InstructionExecutorImpl::SLL_aIY_plus_n_and_load_D,    // 32
+                Z80InstructionExecutorImpl::SLL_aIY_plus_n_and_load_E,    // 33
+                Z80InstructionExecutorImpl::SLL_aIY_plus_n_and_load_H,    // 34
+                Z80InstructionExecutorImpl::SLL_aIY_plus_n_and_load_L,    // 35
+                Z80InstructionExecutorImpl::SLL_aIY_plus_n,    // 36
+                Z80InstructionExecutorImpl::SLL_aIY_plus_n_and_load_A,    // 37
+                Z80InstructionExecutorImpl::SRL_aIY_plus_n_and_load_B,    // 38
+                Z80InstructionExecutorImpl::SRL_aIY_plus_n_and_load_C,    // 39
+                Z80InstructionExecutorImpl::SRL_aIY_plus_n_and_load_D,    // 3A
+                Z80InstructionExecutorImpl::SRL_aIY_plus_n_and_load_E,    // 3B
+                Z80InstructionExecutorImpl::SRL_aIY_plus_n_and_load_H,    // 3C
+                Z80InstructionExecutorImpl::SRL_aIY_plus_n_and_load_L,    // 3D
+                Z80InstructionExecutorImpl::SRL_aIY_plus_n,    // 3E
+                Z80InstructionExecutorImpl::SRL_aIY_plus_n_and_load_A,    // 3F
+                Z80InstructionExecutorImpl::BIT_0_aIY_plus_n,    // 40
+                Z80InstructionExecutorImpl::BIT_0_aIY_plus_n,    // 41
+                Z80InstructionExecutorImpl::BIT_0_aIY_plus_n,    // 42
+                Z80InstructionExecutorImpl::BIT_0_aIY_plus_n,    // 43
+                Z80InstructionExecutorImpl::BIT_0_aIY_plus_n,    // 44
+                Z80InstructionExecutorImpl::BIT_0_aIY_plus_n,    // 45
+                Z80InstructionExecutorImpl::BIT_0_aIY_plus_n,    // 46
+                Z80InstructionExecutorImpl::BIT_0_aIY_plus_n,    // 47
+                Z80InstructionExecutorImpl::BIT_1_aIY_plus_n,    // 48
+                Z80InstructionExecutorImpl::BIT_1_aIY_plus_n,    // 49
+                Z80InstructionExecutorImpl::BIT_1_aIY_plus_n,    // 4A
+                Z80InstructionExecutorImpl::BIT_1_aIY_plus_n,    // 4B
+                Z80InstructionExecutorImpl::BIT_1_aIY_plus_n,    // 4C
+                Z80InstructionExecutorImpl::BIT_1_aIY_plus_n,    // 4D
+                Z80InstructionExecutorImpl::BIT_1_aIY_plus_n,    // 4E
+                Z80InstructionExecutorImpl::BIT_1_aIY_plus_n,    // 4F
+                Z80InstructionExecutorImpl::BIT_2_aIY_plus_n,    // 50
+                Z80InstructionExecutorImpl::BIT_2_aIY_plus_n,    // 51
+                Z80InstructionExecutorImpl::BIT_2_aIY_plus_n,    // 52
+                Z80InstructionExecutorImpl::BIT_2_aIY_plus_n,    // 53
+                Z80InstructionExecutorImpl::BIT_2_aIY_plus_n,    // 54
+                Z80InstructionExecutorImpl::BIT_2_aIY_plus_n,    // 55
+                Z80InstructionExecutorImpl::BIT_2_aIY_plus_n,    // 56
+                Z80InstructionExecutorImpl::BIT_2_aIY_plus_n,    // 57
+                Z80InstructionExecutorImpl::BIT_3_aIY_plus_n,    // 58
+                Z80InstructionExecutorImpl::BIT_3_aIY_plus_n,    // 59
+                Z80InstructionExecutorImpl::BIT_3_aIY_plus_n,    // 5A
+                Z80InstructionExecutorImpl::BIT_3_aIY_plus_n,    // 5B
+                Z80InstructionExecutorImpl::BIT_3_aIY_plus_n,    // 5C
+                Z80InstructionExecutorImpl::BIT_3_aIY_plus_n,    // 5D
+                Z80InstructionExecutorImpl::BIT_3_aIY_plus_n,    // 5E
+                Z80InstructionExecutorImpl::BIT_3_aIY_plus_n,    // 5F
+                Z80InstructionExecutorImpl::BIT_4_aIY_plus_n,    // 60
+                Z80InstructionExecutorImpl::BIT_4_aIY_plus_n,    // 61
+                Z80InstructionExecutorImpl::BIT_4_aIY_plus_n,    // 62
+                Z80InstructionExecutorImpl::BIT_4_aIY_plus_n,    // 63
+                Z80InstructionExecutorImpl::BIT_4_aIY_plus_n,    // 64
+                Z80InstructionExecutorImpl::BIT_4_aIY_plus_n,    // 65
+                Z80InstructionExecutorImpl::BIT_4_aIY_plus_n,    // 66
+                Z80InstructionExecutorImpl::BIT_4_aIY_plus_n,    // 67
+                Z80InstructionExecutorImpl::BIT_5_aIY_plus_n,    // 68
+                Z80InstructionExecutorImpl::BIT_5_aIY_plus_n,    // 69
+                Z80InstructionExecutorImpl::BIT_5_aIY_plus_n,    // 6A
+                Z80InstructionExecutorImpl::BIT_5_aIY_plus_n,    // 6B
+                Z80InstructionExecutorImpl::BIT_5_aIY_plus_n,    // 6C
+                Z80InstructionExecutorImpl::BIT_5_aIY_plus_n,    // 6D
+                Z80InstructionExecutorImpl::BIT_5_aIY_plus_n,    // 6E
+                Z80InstructionExecutorImpl::BIT_5_aIY_plus_n,    // 6F
+                Z80InstructionExecutorImpl::BIT_6_aIY_plus_n,    // 70
+                Z80InstructionExecutorImpl::BIT_6_aIY_plus_n,    // 71
+                Z80InstructionExecutorImpl::BIT_6_aIY_plus_n,    // 72
+                Z80InstructionExecutorImpl::BIT_6_aIY_plus_n,    // 73
+                Z80InstructionExecutorImpl::BIT_6_aIY_plus_n,    // 74
+                Z80InstructionExecutorImpl::BIT_6_aIY_plus_n,    // 75
+                Z80InstructionExecutorImpl::BIT_6_aIY_plus_n,    // 76
+                Z80InstructionExecutorImpl::BIT_6_aIY_plus_n,    // 77
+                Z80InstructionExecutorImpl::BIT_7_aIY_plus_n,    // 78
+                Z80InstructionExecutorImpl::BIT_7_aIY_plus_n,    // 79
+                Z80InstructionExecutorImpl::BIT_7_aIY_plus_n,    // 7A
+                Z80InstructionExecutorImpl::BIT_7_aIY_plus_n,    // 7B
+                Z80InstructionExecutorImpl::BIT_7_aIY_plus_n,    // 7C
+                Z80InstructionExecutorImpl::BIT_7_aIY_plus_n,    // 7D
+                Z80InstructionExecutorImpl::BIT_7_aIY_plus_n,    // 7E
+                Z80InstructionExecutorImpl::BIT_7_aIY_plus_n,    // 7F
+                Z80InstructionExecutorImpl::RES_0_aIY_plus_n_and_load_B,    // 80
+                Z80InstructionExecutorImpl::RES_0_aIY_plus_n_and_load_C,    // 81
+                Z80InstructionExecutorImpl::RES_0_aIY_plus_n_and_load_D,    // 82
+                Z80InstructionExecutorImpl::RES_0_aIY_plus_n_and_load_E,    // 83
+                Z80InstructionExecutorImpl::RES_0_aIY_plus_n_and_load_H,    // 84
+                Z80InstructionExecutorImpl::RES_0_aIY_plus_n_and_load_L,    // 85
+                Z80InstructionExecutorImpl::RES_0_aIY_plus_n,    // 86
+                Z80InstructionExecutorImpl::RES_0_aIY_plus_n_and_load_A,    // 87
+                Z80InstructionExecutorImpl::RES_1_aIY_plus_n_and_load_B,    // 88
+                Z80InstructionExecutorImpl::RES_1_aIY_plus_n_and_load_C,    // 89
+                Z80InstructionExecutorImpl::RES_1_aIY_plus_n_and_load_D,    // 8A
+                Z80InstructionExecutorImpl::RES_1_aIY_plus_n_and_load_E,    // 8B
+                Z80InstructionExecutorImpl::RES_1_aIY_plus_n_and_load_H,    // 8C
+                Z80InstructionExecutorImpl::RES_1_aIY_plus_n_and_load_L,    // 8D
+                Z80InstructionExecutorImpl::RES_1_aIY_plus_n,    // 8E
+                Z80InstructionExecutorImpl::RES_1_aIY_plus_n_and_load_A,    // 8F
+                Z80InstructionExecutorImpl::RES_2_aIY_plus_n_and_load_B,    // 90
+                Z80InstructionExecutorImpl::RES_2_aIY_plus_n_and_load_C,    // 91
+                Z80InstructionExecutorImpl::RES_2_aIY_plus_n_and_load_D,    // 92
+                Z80InstructionExecutorImpl::RES_2_aIY_plus_n_and_load_E,    // 93
+                Z80InstructionExecutorImpl::RES_2_aIY_plus_n_and_load_H,    // 94
+                Z80InstructionExecutorImpl::RES_2_aIY_plus_n_and_load_L,    // 95
+                Z80InstructionExecutorImpl::RES_2_aIY_plus_n,    // 96
+                Z80InstructionExecutorImpl::RES_2_aIY_plus_n_and_load_A,    // 97
+                Z80InstructionExecutorImpl::RES_3_aIY_plus_n_and_load_B,    // 98
+                Z80InstructionExecutorImpl::RES_3_aIY_plus_n_and_load_C,    // 99
+                Z80InstructionExecutorImpl::RES_3_aIY_plus_n_and_load_D,    // 9A
+                Z80InstructionExecutorImpl::RES_3_aIY_plus_n_and_load_E,    // 9B
+                Z80InstructionExecutorImpl::RES_3_aIY_plus_n_and_load_H,    // 9C
+                Z80InstructionExecutorImpl::RES_3_aIY_plus_n_and_load_L,    // 9D
+                Z80InstructionExecutorImpl::RES_3_aIY_plus_n,    // 9E
+                Z80InstructionExecutorImpl::RES_3_aIY_plus_n_and_load_A,    // 9F
+                Z80InstructionExecutorImpl::RES_4_aIY_plus_n_and_load_B,    // A0
+                Z80InstructionExecutorImpl::RES_4_aIY_plus_n_and_load_C,    // A1
+                Z80InstructionExecutorImpl::RES_4_aIY_plus_n_and_load_D,    // A2
+                Z80InstructionExecutorImpl::RES_4_aIY_plus_n_and_load_E,    // A3
+                Z80InstructionExecutorImpl::RES_4_aIY_plus_n_and_load_H,    // A4
+                Z80InstructionExecutorImpl::RES_4_aIY_plus_n_and_load_L,    // A5
+                Z80InstructionExecutorImpl::RES_4_aIY_plus_n,    // A6
+                Z80InstructionExecutorImpl::RES_4_aIY_plus_n_and_load_A,    // A7
+                Z80InstructionExecutorImpl::RES_5_aIY_plus_n_and_load_B,    // A8
+                Z80InstructionExecutorImpl::RES_5_aIY_plus_n_and_load_C,    // A9
+                Z80InstructionExecutorImpl::RES_5_aIY_plus_n_and_load_D,    // AA
+                Z80InstructionExecutorImpl::RES_5_aIY_plus_n_and_load_E,    // AB
+                Z80InstructionExecutorImpl::RES_5_aIY_plus_n_and_load_H,    // AC
+                Z80InstructionExecutorImpl::RES_5_aIY_plus_n_and_load_L,    // AD
+                Z80InstructionExecutorImpl::RES_5_aIY_plus_n,    // AE
+                Z80InstructionExecutorImpl::RES_5_aIY_plus_n_and_load_A,    // AF
+                Z80InstructionExecutorImpl::RES_6_aIY_plus_n_and_load_B,    // B0
+                Z80InstructionExecutorImpl::RES_6_aIY_plus_n_and_load_C,    // B1
+                Z80InstructionExecutorImpl::RES_6_aIY_plus_n_and_load_D,    // B2
+                Z80InstructionExecutorImpl::RES_6_aIY_plus_n_and_load_E,    // B3
+                Z80InstructionExecutorImpl::RES_6_aIY_plus_n_and_load_H,    // B4
+                Z80InstructionExecutorImpl::RES_6_aIY_plus_n_and_load_L,    // B5
+                Z80InstructionExecutorImpl::RES_6_aIY_plus_n,    // B6
+                Z80InstructionExecutorImpl::RES_6_aIY_plus_n_and_load_A,    // B7
+                Z80InstructionExecutorImpl::RES_7_aIY_plus_n_and_load_B,    // B8
+                Z80InstructionExecutorImpl::RES_7_aIY_plus_n_and_load_C,    // B9
+                Z80InstructionExecutorImpl::RES_7_aIY_plus_n_and_load_D,    // BA
+                Z80InstructionExecutorImpl::RES_7_aIY_plus_n_and_load_E,    // BB
+                Z80InstructionExecutorImpl::RES_7_aIY_plus_n_and_load_H,    // BC
+                Z80InstructionExecutorImpl::RES_7_aIY_plus_n_and_load_L,    // BD
+                Z80InstructionExecutorImpl::RES_7_aIY_plus_n,    // BE
+                Z80InstructionExecutorImpl::RES_7_aIY_plus_n_and_load_A,    // BF
+                Z80InstructionExecutorImpl::SET_0_aIY_plus_n_and_load_B,    // C0
+                Z80InstructionExecutorImpl::SET_0_aIY_plus_n_and_load_C,    // C1
+                Z80InstructionExecutorImpl::SET_0_aIY_plus_n_and_load_D,    // C2
+                Z80InstructionExecutorImpl::SET_0_aIY_plus_n_and_load_E,    // C3
+                Z80InstructionExecutorImpl::SET_0_aIY_plus_n_and_load_H,    // C4
+                Z80InstructionExecutorImpl::SET_0_aIY_plus_n_and_load_L,    // C5
+                Z80InstructionExecutorImpl::SET_0_aIY_plus_n,    // C6
+                Z80InstructionExecutorImpl::SET_0_aIY_plus_n_and_load_A,    // C7
+                Z80InstructionExecutorImpl::SET_1_aIY_plus_n_and_load_B,    // C8
+                Z80InstructionExecutorImpl::SET_1_aIY_plus_n_and_load_C,    // C9
+                Z80InstructionExecutorImpl::SET_1_aIY_plus_n_and_load_D,    // CA
+                Z80InstructionExecutorImpl::SET_1_aIY_plus_n_and_load_E,    // CB
+                Z80InstructionExecutorImpl::SET_1_aIY_plus_n_and_load_H,    // CC
+                Z80InstructionExecutorImpl::SET_1_aIY_plus_n_and_load_L,    // CD
+                Z80InstructionExecutorImpl::SET_1_aIY_plus_n,    // CE
+                Z80InstructionExecutorImpl::SET_1_aIY_plus_n_and_load_A,    // CF
+                Z80InstructionExecutorImpl::SET_2_aIY_plus_n_and_load_B,    // D0
+                Z80InstructionExecutorImpl::SET_2_aIY_plus_n_and_load_C,    // D1
+                Z80InstructionExecutorImpl::SET_2_aIY_plus_n_and_load_D,    // D2
+                Z80InstructionExecutorImpl::SET_2_aIY_plus_n_and_load_E,    // D3
+                Z80InstructionExecutorImpl::SET_2_aIY_plus_n_and_load_H,    // D4
+                Z80InstructionExecutorImpl::SET_2_aIY_plus_n_and_load_L,    // D5
+                Z80InstructionExecutorImpl::SET_2_aIY_plus_n,    // D6
+                Z80InstructionExecutorImpl::SET_2_aIY_plus_n_and_load_A,    // D7
+                Z80InstructionExecutorImpl::SET_3_aIY_plus_n_and_load_B,    // D8
+                Z80InstructionExecutorImpl::SET_3_aIY_plus_n_and_load_C,    // D9
+                Z80InstructionExecutorImpl::SET_3_aIY_plus_n_and_load_D,    // DA
+                Z80InstructionExecutorImpl::SET_3_aIY_plus_n_and_load_E,    // DB
+                Z80InstructionExecutorImpl::SET_3_aIY_plus_n_and_load_H,    // DC
+                Z80InstructionExecutorImpl::SET_3_aIY_plus_n_and_load_L,    // DD
+                Z80InstructionExecutorImpl::SET_3_aIY_plus_n,    // DE
+                Z80InstructionExecutorImpl::SET_3_aIY_plus_n_and_load_A,    // DF
+                Z80InstructionExecutorImpl::SET_4_aIY_plus_n_and_load_B,    // E0
+                Z80InstructionExecutorImpl::SET_4_aIY_plus_n_and_load_C,    // E1
+                Z80InstructionExecutorImpl::SET_4_aIY_plus_n_and_load_D,    // E2
+                Z80InstructionExecutorImpl::SET_4_aIY_plus_n_and_load_E,    // E3
+                Z80InstructionExecutorImpl::SET_4_aIY_plus_n_and_load_H,    // E4
+                Z80InstructionExecutorImpl::SET_4_aIY_plus_n_and_load_L,    // E5
+                Z80InstructionExecutorImpl::SET_4_aIY_plus_n,    // E6
+                Z80InstructionExecutorImpl::SET_4_aIY_plus_n_and_load_A,    // E7
+                Z80InstructionExecutorImpl::SET_5_aIY_plus_n_and_load_B,    // E8
+                Z80InstructionExecutorImpl::SET_5_aIY_plus_n_and_load_C,    // E9
+                Z80InstructionExecutorImpl::SET_5_aIY_plus_n_and_load_D,    // EA
+                Z80InstructionExecutorImpl::SET_5_aIY_plus_n_and_load_E,    // EB
+                Z80InstructionExecutorImpl::SET_5_aIY_plus_n_and_load_H,    // EC
+                Z80InstructionExecutorImpl::SET_5_aIY_plus_n_and_load_L,    // ED
+                Z80InstructionExecutorImpl::SET_5_aIY_plus_n,    // EE
+                Z80InstructionExecutorImpl::SET_5_aIY_plus_n_and_load_A,    // EF
+                Z80InstructionExecutorImpl::SET_6_aIY_plus_n_and_load_B,    // F0
+                Z80InstructionExecutorImpl::SET_6_aIY_plus_n_and_load_C,    // F1
+                Z80InstructionExecutorImpl::SET_6_aIY_plus_n_and_load_D,    // F2
+                Z80InstructionExecutorImpl::SET_6_aIY_plus_n_and_load_E,    // F3
+                Z80InstructionExecutorImpl::SET_6_aIY_plus_n_and_load_H,    // F4
+                Z80InstructionExecutorImpl::SET_6_aIY_plus_n_and_load_L,    // F5
+                Z80InstructionExecutorImpl::SET_6_aIY_plus_n,    // F6
+                Z80InstructionExecutorImpl::SET_6_aIY_plus_n_and_load_A,    // F7
+                Z80InstructionExecutorImpl::SET_7_aIY_plus_n_and_load_B,    // F8
+                Z80InstructionExecutorImpl::SET_7_aIY_plus_n_and_load_C,    // F9
+                Z80InstructionExecutorImpl::SET_7_aIY_plus_n_and_load_D,    // FA
+                Z80InstructionExecutorImpl::SET_7_aIY_plus_n_and_load_E,    // FB
+                Z80InstructionExecutorImpl::SET_7_aIY_plus_n_and_load_H,    // FC
+                Z80InstructionExecutorImpl::SET_7_aIY_plus_n_and_load_L,    // FD
+                Z80InstructionExecutorImpl::SET_7_aIY_plus_n,    // FE
+                Z80InstructionExecutorImpl::SET_7_aIY_plus_n_and_load_A    // FF
+        };
     }
 
 //#endregion
 
 //#region InstructionsTable.SingleByte
 
-    private Supplier<Byte>[] SingleByte_InstructionExecutors;
-
-    @SuppressWarnings("unchecked")
-    private void initialize_SingleByte_InstructionsTable() {
-        SingleByte_InstructionExecutors = new Supplier[] {
-                this::NOP,    // 00
-                this::LD_BC_nn,    // 01
-                this::LD_aBC_A,    // 02
-                this::INC_BC,    // 03
-                this::INC_B,    // 04
-                this::DEC_B,    // 05
-                this::LD_B_n,    // 06
-                this::RLCA,    // 7
-                this::EX_AF_AF,    // 08
-                this::ADD_HL_BC,    // 09
-                this::LD_A_aBC,    // 0A
-                this::DEC_BC,    // 0B
-                this::INC_C,    // 0C
-                this::DEC_C,    // 0D
-                this::LD_C_n,    // 0E
-                this::RRCA,    // 0F
-                this::DJNZ_d,    // 10
-                this::LD_DE_nn,    // 11
-                this::LD_aDE_A,    // 12
-                this::INC_DE,    // 13
-                this::INC_D,    // 14
-                this::DEC_D,    // 15
-                this::LD_D_n,    // 16
-                this::RLA,    // 17
-                this::JR_d,    // 18
-                this::ADD_HL_DE,    // 19
-                this::LD_A_aDE,    // 1A
-                this::DEC_DE,    // 1B
-                this::INC_E,    // 1C
-                this::DEC_E,    // 1D
-                this::LD_E_n,    // 1E
-                this::RRA,    // 1F
-                this::JR_NZ_d,    // 20
-                this::LD_HL_nn,    // 21
-                this::LD_aa_HL,    // 22
-                this::INC_HL,    // 23
-                this::INC_H,    // 24
-                this::DEC_H,    // 25
-                this::LD_H_n,    // 26
-                this::DAA,    // 27
-                this::JR_Z_d,    // 28
-                this::ADD_HL_HL,    // 29
-                this::LD_HL_aa,    // 2A
-                this::DEC_HL,    // 2B
-                this::INC_L,    // 2C
-                this::DEC_L,    // 2D
-                this::LD_L_n,    // 2E
-                this::CPL,    // 2F
-                this::JR_NC_d,    // 30
-                this::LD_SP_nn,    // 31
-                this::LD_aa_A,    // 32
-                this::INC_SP,    // 33
-                this::INC_aHL,    // 34
-                this::DEC_aHL,    // 35
-                this::LD_aHL_N,    // 36
-                this::SCF,    // 37
-                this::JR_C_d,    // 38
-                this::ADD_HL_SP,    // 39
-                this::LD_A_aa,    // 3A
-                this::DEC_SP,    // 3B
-                this::INC_A,    // 3C
-                this::DEC_A,    // 3D
-                this::LD_A_n,    // 3E
-                this::CCF,    // 3F
-                this::LD_B_B,    // 40
-                this::LD_B_C,    // 41
-                this::LD_B_D,    // 42
-                this::LD_B_E,    // 43
-                this::LD_B_H,    // 44
-                this::LD_B_L,    // 45
-                this::LD_B_aHL,    // 46
-                this::LD_B_A,    // 47
-                this::LD_C_B,    // 48
-                this::LD_C_C,    // 49
-                this::LD_C_D,    // 4A
-                this::LD_C_E,    // 4B
-                this::LD_C_H,    // 4C
-                this::LD_C_L,    // 4D
-                this::LD_C_aHL,    // 4E
-                this::LD_C_A,    // 4F
-                this::LD_D_B,    // 50
-                this::LD_D_C,    // 51
-                this::LD_D_D,    // 52
-                this::LD_D_E,    // 53
-                this::LD_D_H,    // 54
-                this::LD_D_L,    // 55
-                this::LD_D_aHL,    // 56
-                this::LD_D_A,    // 57
-                this::LD_E_B,    // 58
-                this::LD_E_C,    // 59
-                this::LD_E_D,    // 5A
-                this::LD_E_E,    // 5B
-                this::LD_E_H,    // 5C
-                this::LD_E_L,    // 5D
-                this::LD_E_aHL,    // 5E
-                this::LD_E_A,    // 5F
-                this::LD_H_B,    // 60
-                this::LD_H_C,    // 61
-                this::LD_H_D,    // 62
-                this::LD_H_E,    // 63
-                this::LD_H_H,    // 64
-                this::LD_H_L,    // 65
-                this::LD_H_aHL,    // 66
-                this::LD_H_A,    // 67
-                this::LD_L_B,    // 68
-                this::LD_L_C,    // 69
-                this::LD_L_D,    // 6A
-                this::LD_L_E,    // 6B
-                this::LD_L_H,    // 6C
-                this::LD_L_L,    // 6D
-                this::LD_L_aHL,    // 6E
-                this::LD_L_A,    // 6F
-                this::LD_aHL_B,    // 70
-                this::LD_aHL_C,    // 71
-                this::LD_aHL_D,    // 72
-                this::LD_aHL_E,    // 73
-                this::LD_aHL_H,    // 74
-                this::LD_aHL_L,    // 75
-                this::HALT,    // 76
-                this::LD_aHL_A,    // 77
-                this::LD_A_B,    // 78
-                this::LD_A_C,    // 79
-                this::LD_A_D,    // 7A
-                this::LD_A_E,    // 7B
-                this::LD_A_H,    // 7C
-                this::LD_A_L,    // 7D
-                this::LD_A_aHL,    // 7E
-                this::LD_A_A,    // 7F
-                this::ADD_A_B,    // 80
-                this::ADD_A_C,    // 81
-                this::ADD_A_D,    // 82
-                this::ADD_A_E,    // 83
-                this::ADD_A_H,    // 84
-                this::ADD_A_L,    // 85
-                this::ADD_A_aHL,    // 86
-                this::ADD_A_A,    // 87
-                this::ADC_A_B,    // 88
-                this::ADC_A_C,    // 89
-                this::ADC_A_D,    // 8A
-                this::ADC_A_E,    // 8B
-                this::ADC_A_H,    // 8C
-                this::ADC_A_L,    // 8D
-                this::ADC_A_aHL,    // 8E
-                this::ADC_A_A,    // 8F
-                this::SUB_B,    // 90
-                this::SUB_C,    // 91
-                this::SUB_D,    // 92
-                this::SUB_E,    // 93
-                this::SUB_H,    // 94
-                this::SUB_L,    // 95
-                this::SUB_aHL,    // 96
-                this::SUB_A,    // 97
-                this::SBC_A_B,    // 98
-                this::SBC_A_C,    // 99
-                this::SBC_A_D,    // 9A
-                this::SBC_A_E,    // 9B
-                this::SBC_A_H,    // 9C
-                this::SBC_A_L,    // 9D
-                this::SBC_A_aHL,    // 9E
-                this::SBC_A_A,    // 9F
-                this::AND_B,    // A0
-                this::AND_C,    // A1
-                this::AND_D,    // A2
-                this::AND_E,    // A3
-                this::AND_H,    // A4
-                this::AND_L,    // A5
-                this::AND_aHL,    // A6
-                this::AND_A,    // A7
-                this::XOR_B,    // A8
-                this::XOR_C,    // A9
-                this::XOR_D,    // AA
-                this::XOR_E,    // AB
-                this::XOR_H,    // AC
-                this::XOR_L,    // AD
-                this::XOR_aHL,    // AE
-                this::XOR_A,    // AF
-                this::OR_B,    // B0
-                this::OR_C,    // B1
-                this::OR_D,    // B2
-                this::OR_E,    // B3
-                this::OR_H,    // B4
-                this::OR_L,    // B5
-                this::OR_aHL,    // B6
-                this::OR_A,    // B7
-                this::CP_B,    // B8
-                this::CP_C,    // B9
-                this::CP_D,    // BA
-                this::CP_E,    // BB
-                this::CP_H,    // BC
-                this::CP_L,    // BD
-                this::CP_aHL,    // BE
-                this::CP_A,    // BF
-                this::RET_NZ,    // C0
-                this::POP_BC,    // C1
-                this::JP_NZ_nn,    // C2
-                this::JP_nn,    // C3
-                this::CALL_NZ_nn,    // C4
-                this::PUSH_BC,    // C5
-                this::ADD_A_n,    // C6
-                this::RST_00,    // C7
-                this::RET_Z,    // C8
-                this::RET,    // C9
-                this::JP_Z_nn,    // CA
+    private static final InstructionExecutor[] SingleByte_InstructionExecutors = initialize_SingleByte_InstructionsTable();
+
+    private static InstructionExecutor[] initialize_SingleByte_InstructionsTable() {
+        return new InstructionExecutor[] {
+                Z80InstructionExecutorImpl::NOP,    // 00
+                Z80InstructionExecutorImpl::LD_BC_nn,    // 01
+                Z80InstructionExecutorImpl::LD_aBC_A,    // 02
+                Z80InstructionExecutorImpl::INC_BC,    // 03
+                Z80InstructionExecutorImpl::INC_B,    // 04
+                Z80InstructionExecutorImpl::DEC_B,    // 05
+                Z80InstructionExecutorImpl::LD_B_n,    // 06
+                Z80InstructionExecutorImpl::RLCA,    // 7
+                Z80InstructionExecutorImpl::EX_AF_AF,    // 08
+                Z80InstructionExecutorImpl::ADD_HL_BC,    // 09
+                Z80InstructionExecutorImpl::LD_A_aBC,    // 0A
+                Z80InstructionExecutorImpl::DEC_BC,    // 0B
+                Z80InstructionExecutorImpl::INC_C,    // 0C
+                Z80InstructionExecutorImpl::DEC_C,    // 0D
+                Z80InstructionExecutorImpl::LD_C_n,    // 0E
+                Z80InstructionExecutorImpl::RRCA,    // 0F
+                Z80InstructionExecutorImpl::DJNZ_d,    // 10
+                Z80InstructionExecutorImpl::LD_DE_nn,    // 11
+                Z80InstructionExecutorImpl::LD_aDE_A,    // 12
+                Z80InstructionExecutorImpl::INC_DE,    // 13
+                Z80InstructionExecutorImpl::INC_D,    // 14
+                Z80InstructionExecutorImpl::DEC_D,    // 15
+                Z80InstructionExecutorImpl::LD_D_n,    // 16
+                Z80InstructionExecutorImpl::RLA,    // 17
+                Z80InstructionExecutorImpl::JR_d,    // 18
+                Z80InstructionExecutorImpl::ADD_HL_DE,    // 19
+                Z80InstructionExecutorImpl::LD_A_aDE,    // 1A
+                Z80InstructionExecutorImpl::DEC_DE,    // 1B
+                Z80InstructionExecutorImpl::INC_E,    // 1C
+                Z80InstructionExecutorImpl::DEC_E,    // 1D
+                Z80InstructionExecutorImpl::LD_E_n,    // 1E
+                Z80InstructionExecutorImpl::RRA,    // 1F
+                Z80InstructionExecutorImpl::JR_NZ_d,    // 20
+                Z80InstructionExecutorImpl::LD_HL_nn,    // 21
+                Z80InstructionExecutorImpl::LD_aa_HL,    // 22
+                Z80InstructionExecutorImpl::INC_HL,    // 23
+                Z80InstructionExecutorImpl::INC_H,    // 24
+                Z80InstructionExecutorImpl::DEC_H,    // 25
+                Z80InstructionExecutorImpl::LD_H_n,    // 26
+                Z80InstructionExecutorImpl::DAA,    // 27
+                Z80InstructionExecutorImpl::JR_Z_d,    // 28
+                Z80InstructionExecutorImpl::ADD_HL_HL,    // 29
+                Z80InstructionExecutorImpl::LD_HL_aa,    // 2A
+                Z80InstructionExecutorImpl::DEC_HL,    // 2B
+                Z80InstructionExecutorImpl::INC_L,    // 2C
+                Z80InstructionExecutorImpl::DEC_L,    // 2D
+                Z80InstructionExecutorImpl::LD_L_n,    // 2E
+                Z80InstructionExecutorImpl::CPL,    // 2F
+                Z80InstructionExecutorImpl::JR_NC_d,    // 30
+                Z80InstructionExecutorImpl::LD_SP_nn,    // 31
+                Z80InstructionExecutorImpl::LD_aa_A,    // 32
+                Z80InstructionExecutorImpl::INC_SP,    // 33
+                Z80InstructionExecutorImpl::INC_aHL,    // 34
+                Z80InstructionExecutorImpl::DEC_aHL,    // 35
+                Z80InstructionExecutorImpl::LD_aHL_N,    // 36
+                Z80InstructionExecutorImpl::SCF,    // 37
+                Z80InstructionExecutorImpl::JR_C_d,    // 38
+                Z80InstructionExecutorImpl::ADD_HL_SP,    // 39
+                Z80InstructionExecutorImpl::LD_A_aa,    // 3A
+                Z80InstructionExecutorImpl::DEC_SP,    // 3B
+                Z80InstructionExecutorImpl::INC_A,    // 3C
+                Z80InstructionExecutorImpl::DEC_A,    // 3D
+                Z80InstructionExecutorImpl::LD_A_n,    // 3E
+                Z80InstructionExecutorImpl::CCF,    // 3F
+                Z80InstructionExecutorImpl::LD_B_B,    // 40
+                Z80InstructionExecutorImpl::LD_B_C,    // 41
+                Z80InstructionExecutorImpl::LD_B_D,    // 42
+                Z80InstructionExecutorImpl::LD_B_E,    // 43
+                Z80InstructionExecutorImpl::LD_B_H,    // 44
+                Z80InstructionExecutorImpl::LD_B_L,    // 45
+                Z80InstructionExecutorImpl::LD_B_aHL,    // 46
+                Z80InstructionExecutorImpl::LD_B_A,    // 47
+                Z80InstructionExecutorImpl::LD_C_B,    // 48
+                Z80InstructionExecutorImpl::LD_C_C,    // 49
+                Z80InstructionExecutorImpl::LD_C_D,    // 4A
+                Z80InstructionExecutorImpl::LD_C_E,    // 4B
+                Z80InstructionExecutorImpl::LD_C_H,    // 4C
+                Z80InstructionExecutorImpl::LD_C_L,    // 4D
+                Z80InstructionExecutorImpl::LD_C_aHL,    // 4E
+                Z80InstructionExecutorImpl::LD_C_A,    // 4F
+                Z80InstructionExecutorImpl::LD_D_B,    // 50
+                Z80InstructionExecutorImpl::LD_D_C,    // 51
+                Z80InstructionExecutorImpl::LD_D_D,    // 52
+                Z80InstructionExecutorImpl::LD_D_E,    // 53
+                Z80InstructionExecutorImpl::LD_D_H,    // 54
+                Z80InstructionExecutorImpl::LD_D_L,    // 55
+                Z80InstructionExecutorImpl::LD_D_aHL,    // 56
+                Z80InstructionExecutorImpl::LD_D_A,    // 57
+                Z80InstructionExecutorImpl::LD_E_B,    // 58
+                Z80InstructionExecutorImpl::LD_E_C,    // 59
+                Z80InstructionExecutorImpl::LD_E_D,    // 5A
+                Z80InstructionExecutorImpl::LD_E_E,    // 5B
+                Z80InstructionExecutorImpl::LD_E_H,    // 5C
+                Z80InstructionExecutorImpl::LD_E_L,    // 5D
+                Z80InstructionExecutorImpl::LD_E_aHL,    // 5E
+                Z80InstructionExecutorImpl::LD_E_A,    // 5F
+                Z80InstructionExecutorImpl::LD_H_B,    // 60
+                Z80InstructionExecutorImpl::LD_H_C,    // 61
+                Z80InstructionExecutorImpl::LD_H_D,    // 62
+                Z80InstructionExecutorImpl::LD_H_E,    // 63
+                Z80InstructionExecutorImpl::LD_H_H,    // 64
+                Z80InstructionExecutorImpl::LD_H_L,    // 65
+                Z80InstructionExecutorImpl::LD_H_aHL,    // 66
+                Z80InstructionExecutorImpl::LD_H_A,    // 67
+                Z80InstructionExecutorImpl::LD_L_B,    // 68
+                Z80InstructionExecutorImpl::LD_L_C,    // 69
+                Z80InstructionExecutorImpl::LD_L_D,    // 6A
+                Z80InstructionExecutorImpl::LD_L_E,    // 6B
+                Z80InstructionExecutorImpl::LD_L_H,    // 6C
+                Z80InstructionExecutorImpl::LD_L_L,    // 6D
+                Z80InstructionExecutorImpl::LD_L_aHL,    // 6E
+                Z80InstructionExecutorImpl::LD_L_A,    // 6F
+                Z80InstructionExecutorImpl::LD_aHL_B,    // 70
+                Z80InstructionExecutorImpl::LD_aHL_C,    // 71
+                Z80InstructionExecutorImpl::LD_aHL_D,    // 72
+                Z80InstructionExecutorImpl::LD_aHL_E,    // 73
+                Z80InstructionExecutorImpl::LD_aHL_H,    // 74
+                Z80InstructionExecutorImpl::LD_aHL_L,    // 75
+                Z80InstructionExecutorImpl::HALT,    // 76
+                Z80InstructionExecutorImpl::LD_aHL_A,    // 77
+                Z80InstructionExecutorImpl::LD_A_B,    // 78
+                Z80InstructionExecutorImpl::LD_A_C,    // 79
+                Z80InstructionExecutorImpl::LD_A_D,    // 7A
+                Z80InstructionExecutorImpl::LD_A_E,    // 7B
+                Z80InstructionExecutorImpl::LD_A_H,    // 7C
+                Z80InstructionExecutorImpl::LD_A_L,    // 7D
+                Z80InstructionExecutorImpl::LD_A_aHL,    // 7E
+                Z80InstructionExecutorImpl::LD_A_A,    // 7F
+                Z80InstructionExecutorImpl::ADD_A_B,    // 80
+                Z80InstructionExecutorImpl::ADD_A_C,    // 81
+                Z80InstructionExecutorImpl::ADD_A_D,    // 82
+                Z80InstructionExecutorImpl::ADD_A_E,    // 83
+                Z80InstructionExecutorImpl::ADD_A_H,    // 84
+                Z80InstructionExecutorImpl::ADD_A_L,    // 85
+                Z80InstructionExecutorImpl::ADD_A_aHL,    // 86
+                Z80InstructionExecutorImpl::ADD_A_A,    // 87
+                Z80InstructionExecutorImpl::ADC_A_B,    // 88
+                Z80InstructionExecutorImpl::ADC_A_C,    // 89
+                Z80InstructionExecutorImpl::ADC_A_D,    // 8A
+                Z80InstructionExecutorImpl::ADC_A_E,    // 8B
+                Z80InstructionExecutorImpl::ADC_A_H,    // 8C
+                Z80InstructionExecutorImpl::ADC_A_L,    // 8D
+                Z80InstructionExecutorImpl::ADC_A_aHL,    // 8E
+                Z80InstructionExecutorImpl::ADC_A_A,    // 8F
+                Z80InstructionExecutorImpl::SUB_B,    // 90
+                Z80InstructionExecutorImpl::SUB_C,    // 91
+                Z80InstructionExecutorImpl::SUB_D,    // 92
+                Z80InstructionExecutorImpl::SUB_E,    // 93
+                Z80InstructionExecutorImpl::SUB_H,    // 94
+                Z80InstructionExecutorImpl::SUB_L,    // 95
+                Z80InstructionExecutorImpl::SUB_aHL,    // 96
+                Z80InstructionExecutorImpl::SUB_A,    // 97
+                Z80InstructionExecutorImpl::SBC_A_B,    // 98
+                Z80InstructionExecutorImpl::SBC_A_C,    // 99
+                Z80InstructionExecutorImpl::SBC_A_D,    // 9A
+                Z80InstructionExecutorImpl::SBC_A_E,    // 9B
+                Z80InstructionExecutorImpl::SBC_A_H,    // 9C
+                Z80InstructionExecutorImpl::SBC_A_L,    // 9D
+                Z80InstructionExecutorImpl::SBC_A_aHL,    // 9E
+                Z80InstructionExecutorImpl::SBC_A_A,    // 9F
+                Z80InstructionExecutorImpl::AND_B,    // A0
+                Z80InstructionExecutorImpl::AND_C,    // A1
+                Z80InstructionExecutorImpl::AND_D,    // A2
+                Z80InstructionExecutorImpl::AND_E,    // A3
+                Z80InstructionExecutorImpl::AND_H,    // A4
+                Z80InstructionExecutorImpl::AND_L,    // A5
+                Z80InstructionExecutorImpl::AND_aHL,    // A6
+                Z80InstructionExecutorImpl::AND_A,    // A7
+                Z80InstructionExecutorImpl::XOR_B,    // A8
+                Z80InstructionExecutorImpl::XOR_C,    // A9
+                Z80InstructionExecutorImpl::XOR_D,    // AA
+                Z80InstructionExecutorImpl::XOR_E,    // AB
+                Z80InstructionExecutorImpl::XOR_H,    // AC
+                Z80InstructionExecutorImpl::XOR_L,    // AD
+                Z80InstructionExecutorImpl::XOR_aHL,    // AE
+                Z80InstructionExecutorImpl::XOR_A,    // AF
+                Z80InstructionExecutorImpl::OR_B,    // B0
+                Z80InstructionExecutorImpl::OR_C,    // B1
+                Z80InstructionExecutorImpl::OR_D,    // B2
+                Z80InstructionExecutorImpl::OR_E,    // B3
+                Z80InstructionExecutorImpl::OR_H,    // B4
+                Z80InstructionExecutorImpl::OR_L,    // B5
+                Z80InstructionExecutorImpl::OR_aHL,    // B6
+                Z80InstructionExecutorImpl::OR_A,    // B7
+                Z80InstructionExecutorImpl::CP_B,    // B8
+                Z80InstructionExecutorImpl::CP_C,    // B9
+                Z80InstructionExecutorImpl::CP_D,    // BA
+                Z80InstructionExecutorImpl::CP_E,    // BB
+                Z80InstructionExecutorImpl::CP_H,    // BC
+                Z80InstructionExecutorImpl::CP_L,    // BD
+                Z80InstructionExecutorImpl::CP_aHL,    // BE
+                Z80InstructionExecutorImpl::CP_A,    // BF
+                Z80InstructionExecutorImpl::RET_NZ,    // C0
+                Z80InstructionExecutorImpl::POP_BC,    // C1
+                Z80InstructionExecutorImpl::JP_NZ_nn,    // C2
+                Z80InstructionExecutorImpl::JP_nn,    // C3
+                Z80InstructionExecutorImpl::CALL_NZ_nn,    // C4
+                Z80InstructionExecutorImpl::PUSH_BC,    // C5
+                Z80InstructionExecutorImpl::ADD_A_n,    // C6
+                Z80InstructionExecutorImpl::RST_00,    // C7
+                Z80InstructionExecutorImpl::RET_Z,    // C8
+                Z80InstructionExecutorImpl::RET,    // C9
+                Z80InstructionExecutorImpl::JP_Z_nn,    // CA
                 null,    // CB
-                this::CALL_Z_nn,    // CC
-                this::CALL_nn,    // CD
-                this::ADC_A_n,    // CE
-                this::RST_08,    // CF
-                this::RET_NC,    // D0
-                this::POP_DE,    // D1
-                this::JP_NC_nn,    // D2
-                this::OUT_n_A,    // D3
-                this::CALL_NC_nn,    // D4
-                this::PUSH_DE,    // D5
-                this::SUB_n,    // D6
-                this::RST_10,    // D7
-                this::RET_C,    // D8
-                this::EXX,    // D9
-                this::JP_C_nn,    // DA
-                this::IN_A_n,    // DB
-                this::CALL_C_nn,    // DC
+                Z80InstructionExecutorImpl::CALL_Z_nn,    // CC
+                Z80InstructionExecutorImpl::CALL_nn,    // CD
+                Z80InstructionExecutorImpl::ADC_A_n,    // CE
+                Z80InstructionExecutorImpl::RST_08,    // CF
+                Z80InstructionExecutorImpl::RET_NC,    // D0
+                Z80InstructionExecutorImpl::POP_DE,    // D1
+                Z80InstructionExecutorImpl::JP_NC_nn,    // D2
+                Z80InstructionExecutorImpl::OUT_n_A,    // D3
+                Z80InstructionExecutorImpl::CALL_NC_nn,    // D4
+                Z80InstructionExecutorImpl::PUSH_DE,    // D5
+                Z80InstructionExecutorImpl::SUB_n,    // D6
+                Z80InstructionExecutorImpl::RST_10,    // D7
+                Z80InstructionExecutorImpl::RET_C,    // D8
+                Z80InstructionExecutorImpl::EXX,    // D9
+                Z80InstructionExecutorImpl::JP_C_nn,    // DA
+                Z80InstructionExecutorImpl::IN_A_n,    // DB
+                Z80InstructionExecutorImpl::CALL_C_nn,    // DC
                 null,    // DD
-                this::SBC_A_n,    // DE
-                this::RST_18,    // DF
-                this::RET_PO,    // E0
-                this::POP_HL,    // E1
-                this::JP_PO_nn,    // E2
-                this::EX_aSP_HL,    // E3
-                this::CALL_PO_nn,    // E4
-                this::PUSH_HL,    // E5
-                this::AND_n,    // E6
-                this::RST_20,    // E7
-                this::RET_PE,    // E8
-                this::JP_aHL,    // E9
-                this::JP_PE_nn,    // EA
-                this::EX_DE_HL,    // EB
-                this::CALL_PE_nn,    // EC
+                Z80InstructionExecutorImpl::SBC_A_n,    // DE
+                Z80InstructionExecutorImpl::RST_18,    // DF
+                Z80InstructionExecutorImpl::RET_PO,    // E0
+                Z80InstructionExecutorImpl::POP_HL,    // E1
+                Z80InstructionExecutorImpl::JP_PO_nn,    // E2
+                Z80InstructionExecutorImpl::EX_aSP_HL,    // E3
+                Z80InstructionExecutorImpl::CALL_PO_nn,    // E4
+                Z80InstructionExecutorImpl::PUSH_HL,    // E5
+                Z80InstructionExecutorImpl::AND_n,    // E6
+                Z80InstructionExecutorImpl::RST_20,    // E7
+                Z80InstructionExecutorImpl::RET_PE,    // E8
+                Z80InstructionExecutorImpl::JP_aHL,    // E9
+                Z80InstructionExecutorImpl::JP_PE_nn,    // EA
+                Z80InstructionExecutorImpl::EX_DE_HL,    // EB
+                Z80InstructionExecutorImpl::CALL_PE_nn,    // EC
                 null,    // ED
-                this::XOR_n,    // EE
-                this::RST_28,    // EF
-                this::RET_P,    // F0
-                this::POP_AF,    // F1
-                this::JP_P_nn,    // F2
-                this::DI,    // F3
-                this::CALL_P_nn,    // F4
-                this::PUSH_AF,    // F5
-                this::OR_n,    // F6
-                this::RST_30,    // F7
-                this::RET_M,    // F8
-                this::LD_SP_HL,    // F9
-                this::JP_M_nn,    // FA
-                this::EI,    // FB
-                this::CALL_M_nn,    // FC
+                Z80InstructionExecutorImpl::XOR_n,    // EE
+                Z80InstructionExecutorImpl::RST_28,    // EF
+                Z80InstructionExecutorImpl::RET_P,    // F0
+                Z80InstructionExecutorImpl::POP_AF,    // F1
+                Z80InstructionExecutorImpl::JP_P_nn,    // F2
+                Z80InstructionExecutorImpl::DI,    // F3
+                Z80InstructionExecutorImpl::CALL_P_nn,    // F4
+                Z80InstructionExecutorImpl::PUSH_AF,    // F5
+                Z80InstructionExecutorImpl::OR_n,    // F6
+                Z80InstructionExecutorImpl::RST_30,    // F7
+                Z80InstructionExecutorImpl::RET_M,    // F8
+                Z80InstructionExecutorImpl::LD_SP_HL,    // F9
+                Z80InstructionExecutorImpl::JP_M_nn,    // FA
+                Z80InstructionExecutorImpl::EI,    // FB
+                Z80InstructionExecutorImpl::CALL_M_nn,    // FC
                 null,    // FD
-                this::CP_n,    // FE
-                this::RST_38    // FF
+                Z80InstructionExecutorImpl::CP_n,    // FE
+                Z80InstructionExecutorImpl::RST_38    // FF
         };
     }
 
@@ -1573,10 +1579,10 @@ public class Z80InstructionExecutorImpl implements Z80InstructionExecutor, Z80In
 
 //#region ParityTable
 
-    private static Bit[] parity;
+    private static final Bit[] parity = generateParityTable();
 
-    private static void generateParityTable() {
-        parity = new Bit[256];
+    private static Bit[] generateParityTable() {
+        var parity = new Bit[256];
 
         for(var result = 0; result <= 255; result++) {
             var ones = 0;
@@ -1587,6 +1593,7 @@ public class Z80InstructionExecutorImpl implements Z80InstructionExecutor, Z80In
             }
             parity[result & 0xff] = Bit.of((ones & 1) ^ 1);
         }
+        return parity;
     }
 
 //#endregion
@@ -0,0 +1,34 @@
+package konamiman.z80.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * The consecutive iterations of a repeating block instruction (LDIR, CPIR, INIR, OTIR and their decrementing variants).
+ */
+@Name(Z80FlightRecorder.EventNamePrefix + "BlockInstruction")
+@Label("Z80 Block Instruction")
+@Category(Z80FlightRecorder.Category)
+@Description("Consecutive iterations of a repeating block instruction")
+public class BlockInstructionEvent extends Event {
+
+    @Label("Instruction")
+    String instruction;
+
+    @Label("Address")
+    int address;
+
+    @Label("Iterations")
+    long iterations;
+
+    @Label("T States")
+    long tStates;
+
+    @Label("Completed")
+    @Description("False if the batch was cut by an interrupt or by the processor stopping")
+    boolean completed;
+}
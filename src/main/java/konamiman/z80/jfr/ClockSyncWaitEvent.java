@@ -0,0 +1,24 @@
+package konamiman.z80.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+
+/**
+ * A wait of the clock synchronizer, see {@link konamiman.z80.interfaces.ClockSynchronizer#tryWait(int)}.
+ */
+@Name(Z80FlightRecorder.EventNamePrefix + "ClockSyncWait")
+@Label("Z80 Clock Sync Wait")
+@Category(Z80FlightRecorder.Category)
+@Description("Time spent by the clock synchronizer keeping the emulation in pace with real time")
+@Threshold("1 ms")
+public class ClockSyncWaitEvent extends Event {
+
+    @Label("T States")
+    @Description("T states elapsed in the emulated system since the previous wait")
+    int tStates;
+}
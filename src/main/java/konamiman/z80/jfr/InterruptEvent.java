@@ -0,0 +1,31 @@
+package konamiman.z80.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * The acceptance of an interrupt.
+ */
+@Name(Z80FlightRecorder.EventNamePrefix + "Interrupt")
+@Label("Z80 Interrupt")
+@Category(Z80FlightRecorder.Category)
+@Description("Acceptance of a maskable or non-maskable interrupt")
+public class InterruptEvent extends Event {
+
+    @Label("Interrupt Type")
+    String interruptType;
+
+    @Label("Interrupt Mode")
+    int interruptMode;
+
+    @Label("Service Routine Address")
+    int serviceRoutineAddress;
+
+    @Label("Return Address")
+    @Description("Address of the instruction that was interrupted, -1 if the instruction executed in mode 0 is not a RST")
+    int returnAddress;
+}
@@ -0,0 +1,34 @@
+package konamiman.z80.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+
+/**
+ * A periodic sample of the program counter of a running processor.
+ */
+@Name(Z80FlightRecorder.EventNamePrefix + "PcSample")
+@Label("Z80 PC Sample")
+@Category(Z80FlightRecorder.Category)
+@Description("Periodic sample of the registers of a running Z80 processor")
+@Period("20 ms")
+public class PcSampleEvent extends Event {
+
+    @Label("Processor")
+    @Description("Identity hash code of the processor, to tell apart processors running at the same time")
+    int processor;
+
+    @Label("PC")
+    int pc;
+
+    @Label("SP")
+    int sp;
+
+    @Label("T States")
+    @Description("T states elapsed since the processor was started")
+    long tStates;
+}
@@ -0,0 +1,32 @@
+package konamiman.z80.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * An execution run of the processor, from {@link konamiman.z80.Z80Processor#start(Object)} or
+ * {@link konamiman.z80.Z80Processor#continue_()} until it stops.
+ */
+@Name(Z80FlightRecorder.EventNamePrefix + "Run")
+@Label("Z80 Run")
+@Category(Z80FlightRecorder.Category)
+@Description("Execution run of a Z80 processor until it stops")
+public class RunEvent extends Event {
+
+    @Label("Stop Reason")
+    String stopReason;
+
+    @Label("T States")
+    long tStates;
+
+    @Label("Instructions")
+    long instructions;
+
+    @Label("Effective MHz")
+    @Description("Emulated clock frequency achieved during the run")
+    double effectiveMHz;
+}
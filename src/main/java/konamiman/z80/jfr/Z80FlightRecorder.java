@@ -0,0 +1,264 @@
+package konamiman.z80.jfr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import konamiman.z80.Z80Processor;
+import konamiman.z80.enums.InterruptType;
+import konamiman.z80.enums.ProcessorState;
+import konamiman.z80.enums.StopReason;
+
+import static konamiman.z80.utils.NumberUtils.createShort;
+
+
+/**
+ * Emits the Java Flight Recorder events of the processor.
+ *
+ * <remarks>
+ * <para>
+ * The events are in the "Z80" category, with names starting with "konamiman.z80.":
+ * <list type="bullet">
+ * <item><description>{@link RunEvent}: every execution run, with its stop reason and T states.</description></item>
+ * <item><description>{@link InterruptEvent}: every interrupt accepted.</description></item>
+ * <item><description>{@link ClockSyncWaitEvent}: the clock synchronizer waits longer than 1 ms.</description></item>
+ * <item><description>{@link BlockInstructionEvent}: the iterations of a repeating block instruction.</description></item>
+ * <item><description>{@link PcSampleEvent}: the PC of every running processor, every 20 ms.</description></item>
+ * </list>
+ * </para>
+ * <para>
+ * Flight Recorder is global to the JVM, so this class has no instances: every processor opts in with
+ * {@link Z80Processor#setFlightRecorderEnabled(boolean)}, and emits no events and doesn't pay any cost otherwise.
+ * Every event is created only after checking that its type is enabled in a running recording,
+ * so when nothing is being recorded the cost is a boolean check at the points where events can be emitted.
+ * Start a recording as usual, for example with <c>-XX:StartFlightRecording:filename=z80.jfr</c>
+ * or from JDK Mission Control.
+ * </para>
+ */
+public final class Z80FlightRecorder {
+
+    static final String EventNamePrefix = "konamiman.z80.";
+    static final String Category = "Z80";
+
+    private static final byte ED_prefix = (byte) 0xED;
+
+    private static final EventType RunEventType = EventType.getEventType(RunEvent.class);
+    private static final EventType InterruptEventType = EventType.getEventType(InterruptEvent.class);
+    private static final EventType ClockSyncWaitEventType = EventType.getEventType(ClockSyncWaitEvent.class);
+    private static final EventType BlockInstructionEventType = EventType.getEventType(BlockInstructionEvent.class);
+
+    /** the processors sampled by {@link PcSampleEvent}, held weakly */
+    private static final Set<Z80Processor> processors = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static {
+        FlightRecorder.addPeriodicEvent(PcSampleEvent.class, Z80FlightRecorder::samplePcs);
+    }
+
+    private Z80FlightRecorder() {
+    }
+
+//#region Processors sampling
+
+    /**
+     * Includes the processor in the periodic {@link PcSampleEvent} samples while it is running,
+     * this is done by the processor when its events are enabled.
+     * The processor is held weakly, so it doesn't need to be unregistered.
+     */
+    public static void register(Z80Processor processor) {
+        processors.add(processor);
+    }
+
+    /**
+     * Excludes the processor from the periodic {@link PcSampleEvent} samples.
+     */
+    public static void unregister(Z80Processor processor) {
+        processors.remove(processor);
+    }
+
+    private static void samplePcs() {
+        List<Z80Processor> running;
+        synchronized (processors) {
+            running = new ArrayList<>(processors);
+        }
+
+        for (var processor : running) {
+            if (processor.getState() != ProcessorState.Running)
+                continue;
+
+            var snapshot = processor.getPcAndSpSnapshot();
+            var event = new PcSampleEvent();
+            event.processor = System.identityHashCode(processor);
+            event.pc = snapshot >>> 16;
+            event.sp = snapshot & 0xffff;
+            event.tStates = processor.getTStatesElapsedSinceStart();
+            event.commit();
+        }
+    }
+
+//#endregion
+
+//#region Events
+
+    /**
+     * Starts timing a run.
+     *
+     * @return The event, or null if it is not enabled
+     */
+    public static RunEvent beginRun() {
+        if (!RunEventType.isEnabled())
+            return null;
+
+        var event = new RunEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits an event returned by {@link #beginRun()}.
+     */
+    public static void endRun(RunEvent event, StopReason stopReason, long tStates, long instructions, long wallTimeNanos) {
+        event.end();
+        if (!event.shouldCommit())
+            return;
+
+        event.stopReason = stopReason.name();
+        event.tStates = tStates;
+        event.instructions = instructions;
+        event.effectiveMHz = wallTimeNanos == 0 ? 0 : tStates * 1000.0 / wallTimeNanos;
+        event.commit();
+    }
+
+    /**
+     * Commits an {@link InterruptEvent}, to be invoked once the service routine has been called.
+     *
+     * @param hasReturnAddress False if no return address has been pushed (mode 0 with an instruction other than RST
+     *                         on the data bus), the return address is then reported as -1
+     */
+    public static void interruptAccepted(Z80Processor processor, InterruptType interruptType, boolean hasReturnAddress) {
+        if (!InterruptEventType.isEnabled())
+            return;
+
+        var event = new InterruptEvent();
+        var registers = processor.getRegisters();
+        var memory = processor.getMemory();
+        var sp = registers.getSP() & 0xffff;
+        event.interruptType = interruptType.name();
+        event.interruptMode = processor.getInterruptMode();
+        event.serviceRoutineAddress = registers.getPC() & 0xffff;
+        event.returnAddress = hasReturnAddress ? createShort(memory.get(sp), memory.get((sp + 1) & 0xffff)) & 0xffff : -1;
+        event.commit();
+    }
+
+    /**
+     * Starts timing a clock synchronizer wait.
+     *
+     * @return The event, or null if it is not enabled
+     */
+    public static ClockSyncWaitEvent beginClockSyncWait() {
+        if (!ClockSyncWaitEventType.isEnabled())
+            return null;
+
+        var event = new ClockSyncWaitEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits an event returned by {@link #beginClockSyncWait()} if it lasted longer than the threshold.
+     */
+    public static void endClockSyncWait(ClockSyncWaitEvent event, int tStates) {
+        event.end();
+        if (!event.shouldCommit())
+            return;
+
+        event.tStates = tStates;
+        event.commit();
+    }
+
+    /**
+     * Tells whether the instruction may start or continue a {@link BlockInstructionEvent},
+     * so that {@link #blockInstructionExecuted} needs to be invoked.
+     *
+     * @param event The batch in progress, or null
+     * @param opcodeBytes The bytes fetched for the instruction
+     */
+    public static boolean isBlockInstructionRelevant(BlockInstructionEvent event, List<Byte> opcodeBytes) {
+        return event != null || opcodeBytes.get(0) == ED_prefix;
+    }
+
+    /**
+     * Accounts an executed instruction in the batch of block instruction iterations in progress.
+     *
+     * @param event The batch in progress, or null
+     * @param opcodeBytes The bytes fetched for the instruction
+     * @param address The address of the instruction
+     * @param nextAddress The value of PC after executing the instruction
+     * @param tStates The T states spent by the instruction
+     * @return The batch in progress after the instruction, or null if there is none
+     */
+    public static BlockInstructionEvent blockInstructionExecuted(BlockInstructionEvent event, List<Byte> opcodeBytes, short address, short nextAddress, int tStates) {
+        var isRepeatingBlockInstruction =
+                opcodeBytes.size() == 2 && opcodeBytes.get(0) == ED_prefix && (opcodeBytes.get(1) & 0xF4) == 0xB0;
+
+        if (event != null && (!isRepeatingBlockInstruction || event.address != (address & 0xffff))) {
+            endBlockInstruction(event, false);
+            event = null;
+        }
+
+        if (!isRepeatingBlockInstruction)
+            return null;
+
+        if (event == null) {
+            if (!BlockInstructionEventType.isEnabled())
+                return null;
+
+            event = new BlockInstructionEvent();
+            event.begin();
+            event.instruction = blockInstructionName(opcodeBytes.get(1));
+            event.address = address & 0xffff;
+        }
+
+        event.iterations++;
+        event.tStates += tStates;
+
+        if (nextAddress == address)
+            return event;
+
+        endBlockInstruction(event, true);
+        return null;
+    }
+
+    /**
+     * Commits a batch of block instruction iterations.
+     *
+     * @param completed False if the batch has been cut by an interrupt or by the processor stopping
+     */
+    public static void endBlockInstruction(BlockInstructionEvent event, boolean completed) {
+        event.end();
+        if (!event.shouldCommit())
+            return;
+
+        event.completed = completed;
+        event.commit();
+    }
+
+    private static String blockInstructionName(byte opcode) {
+        return switch (opcode & 0xff) {
+            case 0xB0 -> "LDIR";
+            case 0xB1 -> "CPIR";
+            case 0xB2 -> "INIR";
+            case 0xB3 -> "OTIR";
+            case 0xB8 -> "LDDR";
+            case 0xB9 -> "CPDR";
+            case 0xBA -> "INDR";
+            case 0xBB -> "OTDR";
+            default -> "%02X".formatted(opcode);
+        };
+    }
+
+//#endregion
+}
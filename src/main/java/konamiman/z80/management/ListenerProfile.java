@@ -0,0 +1,22 @@
+package konamiman.z80.management;
+
+/**
+ * The cost of an event listener of a processor, see {@link konamiman.z80.Z80Processor#getListenerProfiles()}.
+ *
+ * @param event The name of the event, for example "memoryAccess"
+ * @param index The position of the listener in the registration order of the event
+ * @param listener The class of the listener; for lambdas and method references,
+ *                 the class where they are declared followed by "::lambda"
+ * @param calls The number of times the listener has been invoked while profiled
+ * @param nanos The time spent in the listener while profiled, in nanoseconds
+ */
+public record ListenerProfile(String event, int index, String listener, long calls, long nanos) {
+
+    /**
+     * Gets the key used for this listener in {@link Z80ProcessorMetricsMXBean#getListenerNanosPerListener()},
+     * for example "memoryAccess[0] com.example.Vdp::lambda".
+     */
+    public String key() {
+        return event + "[" + index + "] " + listener;
+    }
+}
@@ -0,0 +1,130 @@
+package konamiman.z80.management;
+
+import java.util.ArrayList;
+import java.util.EventObject;
+import java.util.List;
+
+import dotnet4j.util.compat.EventHandler;
+
+
+/**
+ * Event handler that can measure the calls and the time spent in each one of its listeners.
+ *
+ * <remarks>
+ * <para>
+ * The processor uses this class for its events. {@link #fireEvent(EventObject)} works as usual,
+ * {@link #fireEventProfiled(EventObject)} invokes the same listeners in the same order
+ * but takes a clock reading around each one of them; the processor uses the latter
+ * while {@link Z80ProcessorMetrics#isListenerTimingEnabled()} is true.
+ * </para>
+ * <para>
+ * The listeners are kept in a list of this class only, used by both ways of firing the event;
+ * the list is copied on every addition and removal, so that a listener can remove itself
+ * (or add others) while the event is being fired without any other listener being skipped or invoked twice.
+ * The counters are written only by the thread that fires the events,
+ * values read from other threads may be slightly stale.
+ * </para>
+ */
+public class ProfiledEventHandler<T extends EventObject> extends EventHandler<T> {
+
+    private final String eventName;
+
+    /** replaced on every change, never modified */
+    private volatile List<Entry<T>> entries = List.of();
+
+    private static class Entry<T extends EventObject> {
+        final EventListener<T> listener;
+        final int index;
+        long calls;
+        long nanos;
+
+        Entry(EventListener<T> listener, int index) {
+            this.listener = listener;
+            this.index = index;
+        }
+    }
+
+    /**
+     * @param eventName The name of the event, used in the profiles
+     */
+    public ProfiledEventHandler(String eventName) {
+        this.eventName = eventName;
+    }
+
+    @Override
+    public synchronized void addListener(EventListener<T> listener) {
+        var newEntries = new ArrayList<>(entries);
+        var index = newEntries.isEmpty() ? 0 : newEntries.get(newEntries.size() - 1).index + 1;
+        newEntries.add(new Entry<>(listener, index));
+        entries = List.copyOf(newEntries);
+    }
+
+    @Override
+    public synchronized void removeListener(EventListener<T> listener) {
+        var newEntries = new ArrayList<>(entries);
+        for (int i = 0; i < newEntries.size(); i++) {
+            if (newEntries.get(i).listener.equals(listener)) {
+                newEntries.remove(i);
+                entries = List.copyOf(newEntries);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tells whether the event has any listener, so that the event object doesn't need to be created otherwise.
+     */
+    public boolean hasListeners() {
+        return !entries.isEmpty();
+    }
+
+    @Override
+    public void fireEvent(T eventArgs) {
+        var entries = this.entries;
+        for (int i = 0; i < entries.size(); i++)
+            entries.get(i).listener.exec(eventArgs);
+    }
+
+    /**
+     * Fires the event, measuring the time spent in every listener.
+     */
+    public void fireEventProfiled(T eventArgs) {
+        var entries = this.entries;
+        for (int i = 0; i < entries.size(); i++) {
+            var entry = entries.get(i);
+            var start = System.nanoTime();
+            try {
+                entry.listener.exec(eventArgs);
+            } finally {
+                entry.nanos += System.nanoTime() - start;
+                entry.calls++;
+            }
+        }
+    }
+
+    /**
+     * Gets the profiles of the listeners currently registered, in registration order.
+     */
+    public List<ListenerProfile> getListenerProfiles() {
+        var profiles = new ArrayList<ListenerProfile>(entries.size());
+        for (var entry : entries)
+            profiles.add(new ListenerProfile(eventName, entry.index, describe(entry.listener), entry.calls, entry.nanos));
+        return profiles;
+    }
+
+    /**
+     * Sets the counters of all the listeners to zero.
+     */
+    public void resetListenerProfiles() {
+        for (var entry : entries) {
+            entry.calls = 0;
+            entry.nanos = 0;
+        }
+    }
+
+    private static String describe(Object listener) {
+        var name = listener.getClass().getName();
+        var lambda = name.indexOf("$$Lambda");
+        return lambda < 0 ? name : name.substring(0, lambda) + "::lambda";
+    }
+}
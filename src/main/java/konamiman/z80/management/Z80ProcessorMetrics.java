@@ -0,0 +1,381 @@
+package konamiman.z80.management;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import konamiman.z80.Z80Processor;
+import konamiman.z80.enums.InterruptType;
+import konamiman.z80.impls.NanoClockSynchronizerImpl;
+
+
+/**
+ * Collects execution metrics of a processor and exposes them as a JMX MBean.
+ *
+ * <remarks>
+ * <para>
+ * Usage:
+ * <pre>
+ * var metrics = new Z80ProcessorMetrics();
+ * z80.setMetrics(metrics);
+ * metrics.register("main");    // konamiman.z80:type=Z80Processor,name="main"
+ * </pre>
+ * </para>
+ * <para>
+ * The counters are plain primitive fields written only by the thread running the processor,
+ * so keeping the metrics attached costs a few increments per instruction.
+ * The opcode histogram is a single array of counters striped by prefix group (see {@link #getOpcodeHistogram()}),
+ * so collecting it adds an array increment per instruction.
+ * Values read from other threads while the processor is running may be slightly stale.
+ * </para>
+ */
+public class Z80ProcessorMetrics implements Z80ProcessorMetricsMXBean {
+
+    private static final String ObjectNameFormat = "konamiman.z80:type=Z80Processor,name=%s";
+
+    private static final String[] Prefixes = {"", "CB ", "ED ", "DD ", "FD ", "DDCB ", "FDCB "};
+    private static final int CB = 1;
+    private static final int ED = 2;
+    private static final int DD = 3;
+    private static final int FD = 4;
+    private static final int DDCB = 5;
+    private static final int FDCB = 6;
+
+    /** the clock is checked for a new sample every 4096 instructions */
+    private static final int SampleCheckMask = 0xFFF;
+    private static final long SampleIntervalNanos = 1_000_000_000L;
+    /** one sample per second for the longest window, plus one */
+    private static final int SampleCount = 61;
+
+    private Z80Processor processor;
+
+    /**
+     * Gets the processor the metrics are attached to.
+     */
+    public Z80Processor getProcessor() {
+        return processor;
+    }
+
+    /**
+     * Sets the processor the metrics are attached to.
+     * This is invoked by {@link Z80Processor#setMetrics(Z80ProcessorMetrics)}.
+     */
+    public void setProcessor(Z80Processor value) {
+        processor = value;
+        overrunsAtReset = synchronizerOverruns();
+    }
+
+//#region Registration
+
+    private ObjectName objectName;
+
+    /**
+     * Registers this instance in the platform MBean server.
+     *
+     * @param name The value of the "name" key of the object name, to tell apart processors in the same JVM
+     * @return The object name used
+     * @throws JMException The name is not valid or is already registered
+     */
+    public ObjectName register(String name) throws JMException {
+        var objectName = new ObjectName(ObjectNameFormat.formatted(ObjectName.quote(name)));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        this.objectName = objectName;
+        return objectName;
+    }
+
+    /**
+     * Unregisters this instance from the platform MBean server, if it was registered.
+     *
+     * @throws JMException The MBean server refused to unregister it
+     */
+    public void unregister() throws JMException {
+        if (objectName == null)
+            return;
+
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        objectName = null;
+    }
+
+//#endregion
+
+//#region Recording, invoked by the processor
+
+    /**
+     * Records the execution of an instruction.
+     *
+     * @param opcodeBytes The bytes fetched for the instruction
+     * @param tStates The T states elapsed, including the ones of an interrupt accepted after the instruction
+     */
+    public void instructionExecuted(List<Byte> opcodeBytes, int tStates) {
+        instructionsExecuted++;
+        tStatesExecuted += tStates;
+
+        var histogram = this.histogram;
+        if (histogram != null)
+            histogram[histogramIndex(opcodeBytes)]++;
+
+        if ((instructionsExecuted & SampleCheckMask) == 0)
+            sample(System.nanoTime());
+    }
+
+    /**
+     * Records the acceptance of an interrupt.
+     */
+    public void interruptAccepted(InterruptType type) {
+        if (type == InterruptType.Maskable)
+            maskableInterruptsAccepted++;
+        else
+            nonMaskableInterruptsAccepted++;
+    }
+
+    /**
+     * Records the time spent firing an event.
+     */
+    public void listenersExecuted(long nanos) {
+        listenerNanos += nanos;
+    }
+
+    /**
+     * Records the time spent in {@link konamiman.z80.interfaces.ClockSynchronizer#tryWait(int)}.
+     */
+    public void clockSyncWaited(long nanos) {
+        clockSyncWaitNanos += nanos;
+    }
+
+    /**
+     * Records the start of an execution run, so that the effective clock windows
+     * don't need to wait for the next periodic sample.
+     */
+    public void runStarted() {
+        sample(System.nanoTime());
+    }
+
+    /**
+     * Records the end of an execution run.
+     */
+    public void runStopped() {
+        sample(System.nanoTime());
+    }
+
+    private static int histogramIndex(List<Byte> opcodeBytes) {
+        var first = opcodeBytes.get(0) & 0xff;
+        if (opcodeBytes.size() < 2)
+            return first;
+
+        var second = opcodeBytes.get(1) & 0xff;
+        return switch (first) {
+            case 0xCB -> CB << 8 | second;
+            case 0xED -> ED << 8 | second;
+            case 0xDD -> second == 0xCB && opcodeBytes.size() >= 4 ? DDCB << 8 | opcodeBytes.get(3) & 0xff : DD << 8 | second;
+            case 0xFD -> second == 0xCB && opcodeBytes.size() >= 4 ? FDCB << 8 | opcodeBytes.get(3) & 0xff : FD << 8 | second;
+            default -> first;
+        };
+    }
+
+//#endregion
+
+//#region Counters
+
+    private long instructionsExecuted;
+
+    @Override
+    public long getInstructionsExecuted() { return instructionsExecuted; }
+
+    private long tStatesExecuted;
+
+    @Override
+    public long getTStatesExecuted() { return tStatesExecuted; }
+
+    private long maskableInterruptsAccepted;
+
+    @Override
+    public long getMaskableInterruptsAccepted() { return maskableInterruptsAccepted; }
+
+    private long nonMaskableInterruptsAccepted;
+
+    @Override
+    public long getNonMaskableInterruptsAccepted() { return nonMaskableInterruptsAccepted; }
+
+    private volatile boolean listenerTimingEnabled;
+
+    @Override
+    public boolean isListenerTimingEnabled() { return listenerTimingEnabled; }
+
+    @Override
+    public void setListenerTimingEnabled(boolean value) { listenerTimingEnabled = value; }
+
+    private long listenerNanos;
+
+    @Override
+    public long getListenerNanos() { return listenerNanos; }
+
+    @Override
+    public Map<String, Long> getListenerNanosPerListener() {
+        var result = new TreeMap<String, Long>();
+        if (processor != null)
+            processor.getListenerProfiles().forEach(profile -> result.put(profile.key(), profile.nanos()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getListenerCallsPerListener() {
+        var result = new TreeMap<String, Long>();
+        if (processor != null)
+            processor.getListenerProfiles().forEach(profile -> result.put(profile.key(), profile.calls()));
+        return result;
+    }
+
+    private long clockSyncWaitNanos;
+
+    @Override
+    public long getClockSyncWaitNanos() { return clockSyncWaitNanos; }
+
+    private long overrunsAtReset;
+
+    @Override
+    public long getClockSyncOverruns() {
+        var overruns = synchronizerOverruns();
+        return overruns < 0 ? -1 : overruns - overrunsAtReset;
+    }
+
+    private long synchronizerOverruns() {
+        if (processor != null && processor.getClockSynchronizer() instanceof NanoClockSynchronizerImpl synchronizer)
+            return synchronizer.getOverrunCount();
+        return -1;
+    }
+
+    @Override
+    public void resetStatistics() {
+        instructionsExecuted = 0;
+        tStatesExecuted = 0;
+        maskableInterruptsAccepted = 0;
+        nonMaskableInterruptsAccepted = 0;
+        listenerNanos = 0;
+        if (processor != null)
+            processor.resetListenerProfiles();
+        clockSyncWaitNanos = 0;
+        overrunsAtReset = synchronizerOverruns();
+
+        synchronized (samples) {
+            sampleSize = 0;
+        }
+
+        if (histogram != null)
+            histogram = new long[Prefixes.length << 8];
+    }
+
+//#endregion
+
+//#region Effective clock
+
+    /** time and T states executed, one pair per sample, as a ring */
+    private final long[] samples = new long[SampleCount * 2];
+    private int sampleIndex;
+    private int sampleSize;
+
+    private void sample(long now) {
+        synchronized (samples) {
+            if (sampleSize > 0 && now - samples[sampleIndex * 2] < SampleIntervalNanos)
+                return;
+
+            sampleIndex = (sampleIndex + 1) % SampleCount;
+            samples[sampleIndex * 2] = now;
+            samples[sampleIndex * 2 + 1] = tStatesExecuted;
+            if (sampleSize < SampleCount)
+                sampleSize++;
+        }
+    }
+
+    @Override
+    public double getEffectiveMHzLastSecond() {
+        return effectiveMHz(SampleIntervalNanos);
+    }
+
+    @Override
+    public double getEffectiveMHzLast10Seconds() {
+        return effectiveMHz(10 * SampleIntervalNanos);
+    }
+
+    @Override
+    public double getEffectiveMHzLastMinute() {
+        return effectiveMHz(60 * SampleIntervalNanos);
+    }
+
+    /**
+     * The T states executed since the newest sample that is at least windowNanos old
+     * (or the oldest sample if there isn't any) divided by the time elapsed since then.
+     */
+    private double effectiveMHz(long windowNanos) {
+        var now = System.nanoTime();
+        var tStates = tStatesExecuted;
+
+        long baseNanos, baseTStates;
+        synchronized (samples) {
+            if (sampleSize == 0)
+                return 0;
+
+            var index = sampleIndex;
+            for (int i = 1; i < sampleSize && now - samples[index * 2] < windowNanos; i++)
+                index = (index + SampleCount - 1) % SampleCount;
+
+            baseNanos = samples[index * 2];
+            baseTStates = samples[index * 2 + 1];
+        }
+
+        var elapsed = now - baseNanos;
+        return elapsed <= 0 ? 0 : (tStates - baseTStates) * 1000.0 / elapsed;
+    }
+
+//#endregion
+
+//#region Opcode histogram
+
+    private volatile long[] histogram;
+
+    @Override
+    public boolean isOpcodeHistogramEnabled() { return histogram != null; }
+
+    @Override
+    public void setOpcodeHistogramEnabled(boolean value) {
+        if (value == (histogram != null))
+            return;
+
+        histogram = value ? new long[Prefixes.length << 8] : null;
+    }
+
+    @Override
+    public Map<String, Long> getOpcodeHistogram() {
+        var result = new TreeMap<String, Long>();
+
+        var histogram = this.histogram;
+        if (histogram == null)
+            return result;
+
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] != 0)
+                result.put("%s%02X".formatted(Prefixes[i >> 8], i & 0xff), histogram[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of executions of an instruction, 0 if the opcode histogram is not enabled.
+     *
+     * @param prefix The prefix as in the keys of {@link #getOpcodeHistogram()}, empty for unprefixed instructions
+     * @param opcode The opcode that follows the prefix (for DDCB and FDCB, the one after the offset)
+     * @throws IllegalArgumentException Unknown prefix
+     */
+    public long getOpcodeCount(String prefix, byte opcode) {
+        var histogram = this.histogram;
+        for (int i = 0; i < Prefixes.length; i++) {
+            if (Prefixes[i].trim().equals(prefix))
+                return histogram == null ? 0 : histogram[i << 8 | opcode & 0xff];
+        }
+        throw new IllegalArgumentException("Unknown prefix: " + prefix);
+    }
+
+//#endregion
+}
@@ -0,0 +1,113 @@
+package konamiman.z80.management;
+
+import java.util.Map;
+
+
+/**
+ * Management interface of {@link Z80ProcessorMetrics}.
+ *
+ * <remarks>
+ * All the counters are cumulative since the metrics were attached to the processor
+ * or since the last invocation of {@link #resetStatistics()}.
+ */
+public interface Z80ProcessorMetricsMXBean {
+
+    /**
+     * Gets the number of instructions executed.
+     */
+    long getInstructionsExecuted();
+
+    /**
+     * Gets the number of T states executed, including the ones spent accepting interrupts
+     * and the memory and port wait states.
+     */
+    long getTStatesExecuted();
+
+    /**
+     * Gets the emulated clock frequency, in MHz, averaged over (at least) the last second.
+     */
+    double getEffectiveMHzLastSecond();
+
+    /**
+     * Gets the emulated clock frequency, in MHz, averaged over (at least) the last 10 seconds.
+     */
+    double getEffectiveMHzLast10Seconds();
+
+    /**
+     * Gets the emulated clock frequency, in MHz, averaged over (at least) the last minute.
+     */
+    double getEffectiveMHzLastMinute();
+
+    /**
+     * Gets the number of maskable interrupts accepted.
+     */
+    long getMaskableInterruptsAccepted();
+
+    /**
+     * Gets the number of non-maskable interrupts accepted.
+     */
+    long getNonMaskableInterruptsAccepted();
+
+    /**
+     * Gets or sets a value indicating whether the time spent in the processor event listeners is measured.
+     *
+     * <remarks>
+     * This is false by default since it takes two clock readings for every event fired,
+     * including the memory access events, and two more for every listener invoked.
+     */
+    boolean isListenerTimingEnabled(); void setListenerTimingEnabled(boolean value);
+
+    /**
+     * Gets the time spent in the processor event listeners, in nanoseconds.
+     * Only counted while {@link #isListenerTimingEnabled()} is true.
+     */
+    long getListenerNanos();
+
+    /**
+     * Gets the time spent in every listener of the processor events, in nanoseconds.
+     * Only counted while {@link #isListenerTimingEnabled()} is true.
+     *
+     * <remarks>
+     * The keys are the event name, the registration index of the listener and its class,
+     * for example "memoryAccess[0] com.example.Vdp::lambda", see {@link ListenerProfile}.
+     */
+    Map<String, Long> getListenerNanosPerListener();
+
+    /**
+     * Gets the number of invocations of every listener of the processor events,
+     * with the same keys as {@link #getListenerNanosPerListener()}.
+     * Only counted while {@link #isListenerTimingEnabled()} is true.
+     */
+    Map<String, Long> getListenerCallsPerListener();
+
+    /**
+     * Gets the time spent in the clock synchronizer, in nanoseconds.
+     */
+    long getClockSyncWaitNanos();
+
+    /**
+     * Gets the number of times the clock synchronizer has dropped time because it was running late,
+     * or -1 if the clock synchronizer in use does not report it.
+     */
+    long getClockSyncOverruns();
+
+    /**
+     * Gets or sets a value indicating whether the opcode histogram is collected.
+     */
+    boolean isOpcodeHistogramEnabled(); void setOpcodeHistogramEnabled(boolean value);
+
+    /**
+     * Gets the number of executions of every instruction executed at least once while
+     * {@link #isOpcodeHistogramEnabled()} was true.
+     *
+     * <remarks>
+     * The keys are the prefix (none, "CB", "ED", "DD", "FD", "DDCB" or "FDCB") and the opcode
+     * in hexadecimal, for example "3E", "CB 46" or "DDCB 46".
+     */
+    Map<String, Long> getOpcodeHistogram();
+
+    /**
+     * Sets all the counters, the listener profiles and the opcode histogram to zero.
+     */
+    void resetStatistics();
+}
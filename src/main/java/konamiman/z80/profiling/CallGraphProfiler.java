@@ -0,0 +1,337 @@
+package konamiman.z80.profiling;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Exact call graph profile of a processor: the T states spent by every Z80 routine,
+ * with and without the routines it calls, and per call stack.
+ *
+ * <remarks>
+ * <para>
+ * Attach an instance with {@link konamiman.z80.Z80Processor#setCallGraphProfiler(CallGraphProfiler)}.
+ * The processor keeps a shadow call stack in this object: a routine is entered when a CALL, CALL cc or RST
+ * is taken, when an interrupt is accepted and when {@link konamiman.z80.Z80Processor#executeCall(short)} is invoked;
+ * it is left when a RET, RET cc, RETI or RETN is taken and when {@link konamiman.z80.Z80Processor#executeRet()} is invoked.
+ * The T states of every instruction are added to the routine on top of the shadow stack.
+ * No events are fired and nothing is allocated per instruction; memory is allocated only the first time
+ * a call stack is seen.
+ * </para>
+ * <para>
+ * Every frame remembers the stack pointer where its return address was pushed, so that routines that
+ * don't return with RET (because they discard the return address, or because the stack pointer is loaded)
+ * are left as soon as the Z80 stack pointer shows that their return address is gone.
+ * A routine is identified by its entry address; recursive calls are accounted only once in the inclusive T states.
+ * T states spent outside any routine are accounted to the top level.
+ * </para>
+ * <para>
+ * The profile is not synchronized, read it while the processor is stopped.
+ * </para>
+ */
+public class CallGraphProfiler {
+
+    /** name of the top level in the collapsed stacks */
+    public static final String TopLevelName = "(top)";
+
+    private static final int InitialCapacity = 256;
+
+    private SymbolTable symbols;
+
+    /**
+     * Gets or sets the symbols used to name the routines in the reports, can be null.
+     */
+    public SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    public void setSymbols(SymbolTable value) {
+        symbols = value;
+    }
+
+//#region Calling context tree
+
+    // node 0 is the top level, every other node is a routine called from its parent node
+
+    private int[] nodeAddress = new int[InitialCapacity];
+    private int[] nodeParent = new int[InitialCapacity];
+    private long[] nodeTStates = new long[InitialCapacity];
+    private long[] nodeCalls = new long[InitialCapacity];
+    private int nodeCount = 1;
+
+    // open addressing hash of (parent node, address) to child node, keys are stored plus one so that 0 is empty
+
+    private long[] childKeys = new long[InitialCapacity * 2];
+    private int[] childNodes = new int[InitialCapacity * 2];
+
+    private int childNode(int parent, int address) {
+        var key = ((long) parent << 16 | address) + 1;
+        var mask = childKeys.length - 1;
+        var slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (childKeys[slot] != 0) {
+            if (childKeys[slot] == key)
+                return childNodes[slot];
+            slot = (slot + 1) & mask;
+        }
+
+        if (nodeCount == nodeAddress.length) {
+            var capacity = nodeCount * 2;
+            nodeAddress = Arrays.copyOf(nodeAddress, capacity);
+            nodeParent = Arrays.copyOf(nodeParent, capacity);
+            nodeTStates = Arrays.copyOf(nodeTStates, capacity);
+            nodeCalls = Arrays.copyOf(nodeCalls, capacity);
+        }
+
+        var node = nodeCount++;
+        nodeAddress[node] = address;
+        nodeParent[node] = parent;
+        childKeys[slot] = key;
+        childNodes[slot] = node;
+        if (nodeCount * 2 > childKeys.length)
+            rehash();
+
+        return node;
+    }
+
+    private void rehash() {
+        var oldKeys = childKeys;
+        var oldNodes = childNodes;
+        childKeys = new long[oldKeys.length * 2];
+        childNodes = new int[oldKeys.length * 2];
+        var mask = childKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0)
+                continue;
+            var slot = Long.hashCode(oldKeys[i] * 0x9E3779B97F4A7C15L) & mask;
+            while (childKeys[slot] != 0)
+                slot = (slot + 1) & mask;
+            childKeys[slot] = oldKeys[i];
+            childNodes[slot] = oldNodes[i];
+        }
+    }
+
+//#endregion
+
+//#region Shadow call stack, updated by the processor
+
+    private int[] frameNodes = new int[InitialCapacity];
+    private int[] frameSps = new int[InitialCapacity];
+    private int depth;
+    private int currentNode;
+
+    /**
+     * Accounts T states to the routine that is currently executing.
+     */
+    public void instructionExecuted(int tStates) {
+        nodeTStates[currentNode] += tStates;
+    }
+
+    /**
+     * Records the entry to a routine.
+     *
+     * @param address The entry address of the routine
+     * @param sp The stack pointer after the return address has been pushed
+     */
+    public void routineCalled(short address, short sp) {
+        unwind(sp & 0xffff);
+
+        if (depth == frameNodes.length) {
+            frameNodes = Arrays.copyOf(frameNodes, depth * 2);
+            frameSps = Arrays.copyOf(frameSps, depth * 2);
+        }
+
+        currentNode = childNode(currentNode, address & 0xffff);
+        nodeCalls[currentNode]++;
+        frameNodes[depth] = currentNode;
+        frameSps[depth] = sp & 0xffff;
+        depth++;
+    }
+
+    /**
+     * Records the return from a routine.
+     *
+     * @param sp The stack pointer before the return address is popped
+     */
+    public void routineReturned(short sp) {
+        unwind(sp & 0xffff);
+    }
+
+    /**
+     * Records a load of the stack pointer, which discards the frames whose return address is below the new stack.
+     */
+    public void stackPointerLoaded(short sp) {
+        var top = sp & 0xffff;
+        unwind((top == 0 ? 0x10000 : top) - 1); // LD SP,0 puts the stack at the top of the memory
+    }
+
+    /**
+     * Discards the whole shadow call stack, invoked when the processor is reset.
+     */
+    public void processorReset() {
+        depth = 0;
+        currentNode = 0;
+    }
+
+    /** leaves all the frames whose return address is at or below the stack address */
+    private void unwind(int sp) {
+        while (depth > 0 && frameSps[depth - 1] <= sp)
+            depth--;
+        currentNode = depth == 0 ? 0 : frameNodes[depth - 1];
+    }
+
+    /**
+     * Gets the entry addresses of the routines in the shadow call stack, outermost first.
+     */
+    public int[] getCallStack() {
+        var stack = new int[depth];
+        for (int i = 0; i < depth; i++)
+            stack[i] = nodeAddress[frameNodes[i]];
+        return stack;
+    }
+
+//#endregion
+
+//#region Reports
+
+    /**
+     * The profile of a routine.
+     *
+     * @param address The entry address of the routine
+     * @param name The symbol of the routine, or the address in hexadecimal if there is no symbol
+     * @param calls The number of times the routine has been entered
+     * @param inclusiveTStates The T states spent in the routine and in the routines it called
+     * @param exclusiveTStates The T states spent in the routine itself
+     */
+    public record RoutineProfile(int address, String name, long calls, long inclusiveTStates, long exclusiveTStates) {
+    }
+
+    /**
+     * Gets the T states spent outside any routine.
+     */
+    public long getTopLevelTStates() {
+        return nodeTStates[0];
+    }
+
+    /**
+     * Gets the T states accounted in the whole profile.
+     */
+    public long getTotalTStates() {
+        var total = 0L;
+        for (int i = 0; i < nodeCount; i++)
+            total += nodeTStates[i];
+        return total;
+    }
+
+    /**
+     * Gets the profile of a routine, or null if it has never been called.
+     */
+    public RoutineProfile getRoutine(short address) {
+        return getRoutines().stream().filter(r -> r.address() == (address & 0xffff)).findFirst().orElse(null);
+    }
+
+    /**
+     * Gets the profile of all the routines called, the most expensive (by inclusive T states) first.
+     */
+    public List<RoutineProfile> getRoutines() {
+        // children are always created after their parents, so subtree totals can be computed backwards
+        var subtree = Arrays.copyOf(nodeTStates, nodeCount);
+        for (int i = nodeCount - 1; i > 0; i--)
+            subtree[nodeParent[i]] += subtree[i];
+
+        var calls = new long[65536];
+        var inclusive = new long[65536];
+        var exclusive = new long[65536];
+        var called = new boolean[65536];
+        for (int i = 1; i < nodeCount; i++) {
+            var address = nodeAddress[i];
+            called[address] = true;
+            calls[address] += nodeCalls[i];
+            exclusive[address] += nodeTStates[i];
+            if (!isRecursive(i))
+                inclusive[address] += subtree[i];
+        }
+
+        var result = new ArrayList<RoutineProfile>();
+        for (int address = 0; address < 65536; address++) {
+            if (called[address])
+                result.add(new RoutineProfile(address, nameOf(address), calls[address], inclusive[address], exclusive[address]));
+        }
+        result.sort(Comparator.comparingLong(RoutineProfile::inclusiveTStates).reversed().thenComparingInt(RoutineProfile::address));
+        return result;
+    }
+
+    /** true if the routine of the node is also in an ancestor node */
+    private boolean isRecursive(int node) {
+        var address = nodeAddress[node];
+        for (int parent = nodeParent[node]; parent != 0; parent = nodeParent[parent]) {
+            if (nodeAddress[parent] == address)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the exclusive T states per call stack in collapsed format: the key is the routine names
+     * from the outermost to the innermost separated by semicolons
+     * (or {@link #TopLevelName} for the code outside any routine) and the value is the T states.
+     */
+    public Map<String, Long> getCollapsedStacks() {
+        var result = new TreeMap<String, Long>();
+        for (int i = 0; i < nodeCount; i++) {
+            if (nodeTStates[i] != 0)
+                result.merge(stackOf(i), nodeTStates[i], Long::sum);
+        }
+        return result;
+    }
+
+    /**
+     * Writes the collapsed stacks (also known as folded stacks) used by flame graph tools,
+     * one "frames T-states" line per distinct call stack.
+     */
+    public void writeCollapsedStacks(Writer writer) throws IOException {
+        for (var entry : getCollapsedStacks().entrySet())
+            writer.write(entry.getKey() + " " + entry.getValue() + "\n");
+        writer.flush();
+    }
+
+    private String stackOf(int node) {
+        if (node == 0)
+            return TopLevelName;
+
+        var names = new ArrayList<String>();
+        for (; node != 0; node = nodeParent[node])
+            names.add(nameOf(nodeAddress[node]));
+
+        var sb = new StringBuilder();
+        for (int i = names.size() - 1; i >= 0; i--) {
+            sb.append(names.get(i));
+            if (i != 0)
+                sb.append(';');
+        }
+        return sb.toString();
+    }
+
+    private String nameOf(int address) {
+        return symbols != null ? symbols.format(address) : "%04X".formatted(address);
+    }
+
+    /**
+     * Discards the profile and the shadow call stack.
+     */
+    public void reset() {
+        Arrays.fill(nodeTStates, 0);
+        Arrays.fill(nodeCalls, 0);
+        Arrays.fill(childKeys, 0);
+        nodeCount = 1;
+        depth = 0;
+        currentNode = 0;
+    }
+
+//#endregion
+}
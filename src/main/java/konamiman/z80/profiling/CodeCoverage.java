@@ -0,0 +1,267 @@
+package konamiman.z80.profiling;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+
+/**
+ * Instruction and branch coverage of the Z80 code run by a processor.
+ *
+ * <remarks>
+ * <para>
+ * Attach an instance with {@link konamiman.z80.Z80Processor#setCodeCoverage(CodeCoverage)}.
+ * The processor sets a bit in a 64K bitset for the address of every instruction executed,
+ * and for the conditional branches (JP cc, JR cc, CALL cc, RET cc and DJNZ) it also sets a bit
+ * in the "taken" or in the "not taken" bitset, without firing any event.
+ * A DD or FD prefix in front of a conditional branch is executed by the processor as an instruction
+ * on its own (it has no effect on the branch), so the branch is recorded at the address of its opcode,
+ * one byte after the prefix.
+ * </para>
+ * <para>
+ * To collect the coverage of parallel runs, attach a separate instance to every processor
+ * and {@link #merge(CodeCoverage)} them when the runs finish; the coverage of runs made in
+ * other processes can be transferred with {@link #write(OutputStream)} and {@link #read(InputStream)}.
+ * With the assembler listing of the program, {@link #writeLcov(Reader, String, Writer)} generates
+ * a line and branch coverage report in LCOV format.
+ * </para>
+ * <para>
+ * The bitsets are not synchronized, read them while the processor is stopped.
+ * </para>
+ */
+public class CodeCoverage {
+
+    private static final int Words = 65536 / 64;
+
+    private static final int Signature = 0x5A38_4356; // "Z8CV"
+
+    private final long[] executed = new long[Words];
+    private final long[] taken = new long[Words];
+    private final long[] notTaken = new long[Words];
+
+//#region Recording, invoked by the processor
+
+    /**
+     * Records the execution of an instruction.
+     *
+     * @param address The address of the first opcode byte of the instruction
+     */
+    public void instructionExecuted(short address) {
+        executed[(address & 0xffff) >>> 6] |= 1L << address;
+    }
+
+    /**
+     * Records the outcome of a conditional branch instruction.
+     *
+     * @param address The address of the instruction
+     * @param branchTaken Whether the condition was met (the jump, call or return was performed)
+     */
+    public void branchExecuted(short address, boolean branchTaken) {
+        var bitset = branchTaken ? taken : notTaken;
+        bitset[(address & 0xffff) >>> 6] |= 1L << address;
+    }
+
+    /**
+     * Tells whether an opcode is a conditional branch: JP cc,nn; JR cc,d; CALL cc,nn; RET cc or DJNZ d.
+     */
+    public static boolean isConditionalBranch(byte opcode) {
+        var value = opcode & 0xff;
+        return (value & 0xC7) == 0xC2 || (value & 0xC7) == 0xC4 || (value & 0xC7) == 0xC0 ||
+                value == 0x10 || value == 0x20 || value == 0x28 || value == 0x30 || value == 0x38;
+    }
+
+//#endregion
+
+//#region Coverage
+
+    /**
+     * Tells whether an instruction starting at the address has been executed.
+     */
+    public boolean isExecuted(short address) {
+        return isSet(executed, address);
+    }
+
+    /**
+     * Tells whether the conditional branch at the address has been taken at least once.
+     */
+    public boolean isBranchTaken(short address) {
+        return isSet(taken, address);
+    }
+
+    /**
+     * Tells whether the conditional branch at the address has not been taken at least once.
+     */
+    public boolean isBranchNotTaken(short address) {
+        return isSet(notTaken, address);
+    }
+
+    /**
+     * Gets the number of distinct instruction addresses executed.
+     */
+    public int getExecutedCount() {
+        return count(executed);
+    }
+
+    /**
+     * Gets the number of conditional branches that have been both taken and not taken.
+     */
+    public int getFullyCoveredBranchCount() {
+        var count = 0;
+        for (int i = 0; i < Words; i++)
+            count += Long.bitCount(taken[i] & notTaken[i]);
+        return count;
+    }
+
+    /**
+     * Gets the number of distinct conditional branches executed.
+     */
+    public int getBranchCount() {
+        var count = 0;
+        for (int i = 0; i < Words; i++)
+            count += Long.bitCount(taken[i] | notTaken[i]);
+        return count;
+    }
+
+    /**
+     * Adds the coverage of another instance to this one.
+     */
+    public void merge(CodeCoverage other) {
+        for (int i = 0; i < Words; i++) {
+            executed[i] |= other.executed[i];
+            taken[i] |= other.taken[i];
+            notTaken[i] |= other.notTaken[i];
+        }
+    }
+
+    /**
+     * Clears the coverage.
+     */
+    public void reset() {
+        Arrays.fill(executed, 0);
+        Arrays.fill(taken, 0);
+        Arrays.fill(notTaken, 0);
+    }
+
+    private static boolean isSet(long[] bitset, short address) {
+        return (bitset[(address & 0xffff) >>> 6] & 1L << address) != 0;
+    }
+
+    private static int count(long[] bitset) {
+        var count = 0;
+        for (var word : bitset)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+//#endregion
+
+//#region Persistence and reports
+
+    /**
+     * Writes the bitsets in a compact binary format that can be read back with {@link #read(InputStream)}.
+     */
+    public void write(OutputStream stream) throws IOException {
+        var data = new DataOutputStream(stream);
+        data.writeInt(Signature);
+        for (var bitset : new long[][] {executed, taken, notTaken}) {
+            for (var word : bitset)
+                data.writeLong(word);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads bitsets written by {@link #write(OutputStream)} and merges them into this instance.
+     *
+     * @throws IOException The stream doesn't contain coverage data
+     */
+    public void read(InputStream stream) throws IOException {
+        var data = new DataInputStream(stream);
+        if (data.readInt() != Signature)
+            throw new IOException("Not a Z80 code coverage file");
+
+        for (var bitset : new long[][] {executed, taken, notTaken}) {
+            for (int i = 0; i < Words; i++)
+                bitset[i] |= data.readLong();
+        }
+    }
+
+    /**
+     * An assembler listing line: optional line number, four hexadecimal digits address,
+     * the bytes generated separated by single spaces, and the source after two or more spaces or a tab.
+     */
+    private static final Pattern ListingLine = Pattern.compile(
+            "^\\s*(?:\\d+\\+?\\s+)?([0-9A-Fa-f]{4}):?\\s+[0-9A-Fa-f]{2}(?: [0-9A-Fa-f]{2}(?=\\s|$))*(?:\\t|\\s{2,})(.*)$");
+
+    /** data directives, whose lines are not instructions */
+    private static final Pattern DataDirective = Pattern.compile(
+            "^(?:[A-Za-z_.@?][\\w.@?$]*:?\\s+)?\\.?(?i:db|dw|ds|dm|defb|defw|defs|defm|byte|word)\\b.*");
+
+    /**
+     * Writes an LCOV tracefile with the coverage of the lines of an assembler listing.
+     *
+     * <remarks>
+     * Every listing line that has an address, generated bytes and an instruction (not a data directive)
+     * is reported as a line with 1 hit if the instruction at the address has been executed and 0 hits otherwise;
+     * conditional branches are also reported as two branches, taken and not taken.
+     * Line numbers are the line numbers in the listing file.
+     *
+     * @param listing The assembler listing
+     * @param sourceName The file name written in the report (usually the path of the listing)
+     * @param writer Where the report is written
+     */
+    public void writeLcov(Reader listing, String sourceName, Writer writer) throws IOException {
+        var lines = new BufferedReader(listing);
+        var report = new StringBuilder();
+        var linesFound = 0;
+        var linesHit = 0;
+        var branchesFound = 0;
+        var branchesHit = 0;
+
+        String line;
+        for (int lineNumber = 1; (line = lines.readLine()) != null; lineNumber++) {
+            var matcher = ListingLine.matcher(line);
+            if (!matcher.matches() || matcher.group(2).isBlank() || DataDirective.matcher(matcher.group(2).trim()).matches())
+                continue;
+
+            var address = (short) Integer.parseInt(matcher.group(1), 16);
+            var isExecuted = isExecuted(address);
+            linesFound++;
+            if (isExecuted)
+                linesHit++;
+            report.append("DA:%d,%d\n".formatted(lineNumber, isExecuted ? 1 : 0));
+
+            if (isBranchTaken(address) || isBranchNotTaken(address) || isConditionalBranchSource(matcher.group(2))) {
+                branchesFound += 2;
+                branchesHit += (isBranchTaken(address) ? 1 : 0) + (isBranchNotTaken(address) ? 1 : 0);
+                report.append("BRDA:%d,0,0,%s\n".formatted(lineNumber, !isExecuted ? "-" : isBranchTaken(address) ? "1" : "0"));
+                report.append("BRDA:%d,0,1,%s\n".formatted(lineNumber, !isExecuted ? "-" : isBranchNotTaken(address) ? "1" : "0"));
+            }
+        }
+
+        writer.write("TN:\n");
+        writer.write("SF:" + sourceName + "\n");
+        writer.write(report.toString());
+        writer.write("BRF:%d\nBRH:%d\n".formatted(branchesFound, branchesHit));
+        writer.write("LF:%d\nLH:%d\n".formatted(linesFound, linesHit));
+        writer.write("end_of_record\n");
+        writer.flush();
+    }
+
+    private static final Pattern ConditionalBranchSource = Pattern.compile(
+            "^(?:[A-Za-z_.@?][\\w.@?$]*:?\\s+)?(?i:(?:jp|jr|call)\\s+(?:nz|z|nc|c|po|pe|p|m)\\s*,.*|ret\\s+(?:nz|z|nc|c|po|pe|p|m)\\b.*|djnz\\b.*)");
+
+    /** for branches never executed, which have no outcome recorded */
+    private static boolean isConditionalBranchSource(String source) {
+        return ConditionalBranchSource.matcher(source.trim()).matches();
+    }
+
+//#endregion
+}
@@ -0,0 +1,185 @@
+package konamiman.z80.profiling;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+
+
+/**
+ * Exact per-address execution profile of a processor: how many instructions started at each address
+ * and how many T states they took, and how many times each address was read and written.
+ *
+ * <remarks>
+ * <para>
+ * Attach an instance with {@link konamiman.z80.Z80Processor#setHeatmap(ExecutionHeatmap)}.
+ * The processor increments the counters directly, without firing any event,
+ * so the cost is a few array increments per instruction and per memory access.
+ * </para>
+ * <para>
+ * Reads and writes are the data accesses performed while executing instructions
+ * (including the stack accesses of CALL, RET and interrupts),
+ * the opcode and operand fetches are accounted in the executions of the instruction instead.
+ * Execution, read and write counters are ints and wrap around after 2^32 counts;
+ * T states are accumulated as longs.
+ * </para>
+ * <para>
+ * The counters are not synchronized, read them while the processor is stopped
+ * (or accept slightly inconsistent values if it is running).
+ * </para>
+ */
+public class ExecutionHeatmap {
+
+    private static final int Size = 65536;
+
+    private final int[] executions = new int[Size];
+    private final long[] tStates = new long[Size];
+    private final int[] reads = new int[Size];
+    private final int[] writes = new int[Size];
+
+//#region Recording, invoked by the processor
+
+    /**
+     * Records the execution of an instruction.
+     *
+     * @param address The address of the first opcode byte of the instruction
+     * @param tStates The T states spent by the instruction
+     */
+    public void instructionExecuted(short address, int tStates) {
+        executions[address & 0xffff]++;
+        this.tStates[address & 0xffff] += tStates;
+    }
+
+    /**
+     * Records a memory read performed by an instruction.
+     */
+    public void memoryRead(short address) {
+        reads[address & 0xffff]++;
+    }
+
+    /**
+     * Records a memory write performed by an instruction.
+     */
+    public void memoryWritten(short address) {
+        writes[address & 0xffff]++;
+    }
+
+//#endregion
+
+//#region Counters
+
+    /**
+     * Gets the number of instructions executed whose first opcode byte is at the address.
+     */
+    public int getExecutions(short address) { return executions[address & 0xffff]; }
+
+    /**
+     * Gets the T states spent by the instructions that start at the address.
+     */
+    public long getTStates(short address) { return tStates[address & 0xffff]; }
+
+    /**
+     * Gets the number of times the address has been read by an instruction.
+     */
+    public int getReads(short address) { return reads[address & 0xffff]; }
+
+    /**
+     * Gets the number of times the address has been written by an instruction.
+     */
+    public int getWrites(short address) { return writes[address & 0xffff]; }
+
+    /**
+     * Sets all the counters to zero.
+     */
+    public void reset() {
+        Arrays.fill(executions, 0);
+        Arrays.fill(tStates, 0);
+        Arrays.fill(reads, 0);
+        Arrays.fill(writes, 0);
+    }
+
+    /**
+     * Adds the counters of another heatmap to this one,
+     * for example to aggregate the profiles of several processors running the same program.
+     */
+    public void merge(ExecutionHeatmap other) {
+        for (int i = 0; i < Size; i++) {
+            executions[i] += other.executions[i];
+            tStates[i] += other.tStates[i];
+            reads[i] += other.reads[i];
+            writes[i] += other.writes[i];
+        }
+    }
+
+//#endregion
+
+//#region Export
+
+    /**
+     * Writes the counters as CSV, with a header line and then one line per address
+     * that has been executed, read or written: <c>address,executions,tStates,reads,writes</c>.
+     * The address is written as four hexadecimal digits.
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write("address,executions,tStates,reads,writes\n");
+        for (int i = 0; i < Size; i++) {
+            if (executions[i] == 0 && reads[i] == 0 && writes[i] == 0)
+                continue;
+
+            writer.write("%04X,%d,%d,%d,%d\n".formatted(
+                    i,
+                    Integer.toUnsignedLong(executions[i]),
+                    tStates[i],
+                    Integer.toUnsignedLong(reads[i]),
+                    Integer.toUnsignedLong(writes[i])));
+        }
+        writer.flush();
+    }
+
+    /**
+     * Renders the heatmap as a 256x256 image where every pixel is an address
+     * (the row is the high byte and the column the low byte).
+     * The green channel is the T states spent, the blue channel the reads and the red channel the writes,
+     * each in logarithmic scale relative to the maximum value of the map.
+     */
+    public BufferedImage toImage() {
+        var maxTStates = 0L;
+        var maxReads = 0L;
+        var maxWrites = 0L;
+        for (int i = 0; i < Size; i++) {
+            maxTStates = Math.max(maxTStates, tStates[i]);
+            maxReads = Math.max(maxReads, Integer.toUnsignedLong(reads[i]));
+            maxWrites = Math.max(maxWrites, Integer.toUnsignedLong(writes[i]));
+        }
+
+        var image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < Size; i++) {
+            var red = scale(Integer.toUnsignedLong(writes[i]), maxWrites);
+            var green = scale(tStates[i], maxTStates);
+            var blue = scale(Integer.toUnsignedLong(reads[i]), maxReads);
+            image.setRGB(i & 0xff, i >> 8, red << 16 | green << 8 | blue);
+        }
+        return image;
+    }
+
+    /**
+     * Writes the image returned by {@link #toImage()} in PNG format.
+     */
+    public void writePng(OutputStream stream) throws IOException {
+        ImageIO.write(toImage(), "png", stream);
+    }
+
+    /** 0 for no counts, otherwise 32 to 255 in logarithmic scale, so that any count is visible */
+    private static int scale(long value, long max) {
+        if (value == 0)
+            return 0;
+        if (max <= 1)
+            return 255;
+
+        return 32 + (int) Math.round(223 * Math.log(value) / Math.log(max));
+    }
+
+//#endregion
+}
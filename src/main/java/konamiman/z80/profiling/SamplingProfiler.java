@@ -0,0 +1,308 @@
+package konamiman.z80.profiling;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.LockSupport;
+
+import konamiman.z80.Z80Processor;
+import konamiman.z80.enums.ProcessorState;
+import konamiman.z80.interfaces.Memory;
+
+
+/**
+ * Statistical profiler that samples the PC and the stack of a running processor from a separate thread.
+ *
+ * <remarks>
+ * <para>
+ * The sampler reads {@link Z80Processor#getPcAndSpSnapshot()} at a fixed interval,
+ * so the only cost on the thread running the processor is the publication of that snapshot.
+ * No event listeners are added.
+ * </para>
+ * <para>
+ * The call stack of every sample is reconstructed from the return addresses found on the Z80 stack:
+ * a word on the stack is taken as a return address if it is preceded by a CALL or RST instruction,
+ * and the frame is then the target of that instruction (the entry point of the called routine).
+ * The stack is read while the processor is running, so the memory must tolerate concurrent reads;
+ * pushed data that happens to look like a return address, or routines entered by JP,
+ * may produce inaccurate frames, as usual in statistical profilers.
+ * </para>
+ * <para>
+ * Usage:
+ * <pre>
+ * try (var profiler = new SamplingProfiler(z80, Duration.ofMillis(1))) {
+ *     profiler.start();
+ *     z80.start(null);
+ * }
+ * profiler.getHotSpots(10);
+ * profiler.writeCollapsedStacks(writer);
+ * </pre>
+ * </para>
+ */
+public class SamplingProfiler implements AutoCloseable {
+
+    private static final int DefaultMaxStackDepth = 32;
+
+    /** limit of stack words examined per sample, return addresses may be interleaved with pushed data */
+    private static final int MaxScannedStackWords = 256;
+
+    private static final byte CALL_opcode = (byte) 0xCD;
+
+    private final Z80Processor processor;
+
+    private final long intervalNanos;
+
+    private int maxStackDepth = DefaultMaxStackDepth;
+
+    private volatile Thread thread;
+
+    /**
+     * @param processor The processor to sample
+     * @param interval The time between samples
+     * @throws IllegalArgumentException The interval is not positive
+     */
+    public SamplingProfiler(Z80Processor processor, Duration interval) {
+        if (interval.isNegative() || interval.isZero())
+            throw new IllegalArgumentException("Sampling interval must be positive");
+
+        this.processor = processor;
+        this.intervalNanos = interval.toNanos();
+    }
+
+//#region Sampling control
+
+    /**
+     * Starts sampling in a new daemon thread. Samples are taken only while the processor is running.
+     *
+     * @throws IllegalStateException The profiler is already sampling
+     */
+    public synchronized void start() {
+        if (thread != null)
+            throw new IllegalStateException("The profiler is already sampling");
+
+        thread = new Thread(this::run, "Z80 sampling profiler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops sampling and waits for the sampling thread to finish. The collected samples are kept.
+     */
+    public synchronized void stop() {
+        var thread = this.thread;
+        if (thread == null)
+            return;
+
+        this.thread = null;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Same as {@link #stop()}.
+     */
+    @Override
+    public void close() {
+        stop();
+    }
+
+    /**
+     * Gets or sets the maximum number of callers recorded per sample, 32 by default.
+     */
+    public int getMaxStackDepth() {
+        return maxStackDepth;
+    }
+
+    public void setMaxStackDepth(int value) {
+        if (value < 0)
+            throw new IllegalArgumentException("Maximum stack depth can't be negative");
+
+        maxStackDepth = value;
+    }
+
+    private void run() {
+        var next = System.nanoTime() + intervalNanos;
+        while (thread == Thread.currentThread()) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            if (thread != Thread.currentThread())
+                break;
+
+            next += intervalNanos;
+            var now = System.nanoTime();
+            if (now - next > intervalNanos)
+                next = now + intervalNanos; // don't try to make up for missed samples
+
+            if (processor.getState() == ProcessorState.Running)
+                sample(processor.getPcAndSpSnapshot());
+        }
+    }
+
+//#endregion
+
+//#region Samples
+
+    private final long[] pcSamples = new long[65536];
+
+    private long sampleCount;
+
+    /** collapsed stack (root first) to number of samples */
+    private final Map<String, long[]> stacks = new HashMap<>();
+
+    /**
+     * Takes a sample. This is invoked by the sampling thread, but it can also be invoked directly,
+     * for example by a frontend that prefers to sample at its own frame boundaries.
+     *
+     * @param pcAndSpSnapshot A value returned by {@link Z80Processor#getPcAndSpSnapshot()}
+     */
+    public void sample(int pcAndSpSnapshot) {
+        if (pcAndSpSnapshot == -1)
+            return;
+
+        var pc = pcAndSpSnapshot >>> 16;
+        var sp = pcAndSpSnapshot & 0xffff;
+        var stack = collapsedStack(pc, sp);
+
+        synchronized (stacks) {
+            pcSamples[pc]++;
+            sampleCount++;
+            stacks.computeIfAbsent(stack, k -> new long[1])[0]++;
+        }
+    }
+
+    private String collapsedStack(int pc, int sp) {
+        var memory = processor.getMemory();
+        var startOfStack = processor.getStartOfStack() & 0xffff;
+
+        // the stack is [sp, startOfStack), with wrap around for stacks set up with LD SP,0
+        var words = Math.min(((startOfStack - sp) & 0xffff) / 2, MaxScannedStackWords);
+
+        var frames = new ArrayList<Integer>();
+        for (int i = 0; i < words && frames.size() < maxStackDepth; i++) {
+            var address = (sp + i * 2) & 0xffff;
+            var returnAddress = (memory.get(address) & 0xff) | (memory.get((address + 1) & 0xffff) & 0xff) << 8;
+            var target = callTarget(memory, returnAddress);
+            if (target >= 0)
+                frames.add(target);
+        }
+
+        var sb = new StringBuilder();
+        for (int i = frames.size() - 1; i >= 0; i--)
+            sb.append("%04X;".formatted(frames.get(i)));
+        sb.append("%04X".formatted(pc));
+        return sb.toString();
+    }
+
+    /**
+     * @return The target of the CALL or RST instruction that precedes the return address, or -1 if there isn't any
+     */
+    private static int callTarget(Memory memory, int returnAddress) {
+        if (returnAddress < 3)
+            return -1;
+
+        var call = memory.get(returnAddress - 3);
+        if (call == CALL_opcode || (call & 0xC7) == 0xC4) // CALL nn, CALL cc,nn
+            return (memory.get(returnAddress - 2) & 0xff) | (memory.get(returnAddress - 1) & 0xff) << 8;
+
+        var rst = memory.get(returnAddress - 1) & 0xff;
+        if ((rst & 0xC7) == 0xC7)
+            return rst & 0x38;
+
+        return -1;
+    }
+
+    /**
+     * Gets the number of samples taken.
+     */
+    public long getSampleCount() {
+        synchronized (stacks) {
+            return sampleCount;
+        }
+    }
+
+    /**
+     * Gets the number of samples in which the processor was executing the instruction at the address.
+     */
+    public long getSamples(short address) {
+        synchronized (stacks) {
+            return pcSamples[address & 0xffff];
+        }
+    }
+
+    /**
+     * A sampled address and how many samples hit it.
+     *
+     * @param address The address of the instruction
+     * @param samples The number of samples
+     * @param fraction The fraction of all the samples
+     */
+    public record HotSpot(int address, long samples, double fraction) {
+        @Override
+        public String toString() {
+            return "%04X: %d (%.1f%%)".formatted(address, samples, fraction * 100);
+        }
+    }
+
+    /**
+     * Gets the most sampled addresses, most sampled first.
+     *
+     * @param count The maximum number of addresses to return
+     */
+    public List<HotSpot> getHotSpots(int count) {
+        var result = new ArrayList<HotSpot>();
+        synchronized (stacks) {
+            for (int i = 0; i < pcSamples.length; i++) {
+                if (pcSamples[i] != 0)
+                    result.add(new HotSpot(i, pcSamples[i], (double) pcSamples[i] / sampleCount));
+            }
+        }
+        result.sort(Comparator.comparingLong(HotSpot::samples).reversed().thenComparingInt(HotSpot::address));
+        return result.subList(0, Math.min(count, result.size()));
+    }
+
+    /**
+     * Gets the sampled call stacks in collapsed format: the key is the frames from the outermost caller
+     * to the sampled address, as hexadecimal addresses separated by semicolons,
+     * and the value is the number of samples.
+     */
+    public Map<String, Long> getCollapsedStacks() {
+        var result = new TreeMap<String, Long>();
+        synchronized (stacks) {
+            stacks.forEach((stack, samples) -> result.put(stack, samples[0]));
+        }
+        return result;
+    }
+
+    /**
+     * Writes the sampled call stacks in the collapsed format used by flame graph tools,
+     * one "frames samples" line per distinct stack.
+     */
+    public void writeCollapsedStacks(Writer writer) throws IOException {
+        for (var entry : getCollapsedStacks().entrySet())
+            writer.write(entry.getKey() + " " + entry.getValue() + "\n");
+        writer.flush();
+    }
+
+    /**
+     * Discards all the samples taken.
+     */
+    public void reset() {
+        synchronized (stacks) {
+            Arrays.fill(pcSamples, 0);
+            sampleCount = 0;
+            stacks.clear();
+        }
+    }
+
+//#endregion
+}
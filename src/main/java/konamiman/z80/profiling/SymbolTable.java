@@ -0,0 +1,101 @@
+package konamiman.z80.profiling;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+
+/**
+ * Names of Z80 addresses, used to make profiles readable.
+ *
+ * <remarks>
+ * <para>
+ * Symbol and map files produced by the usual Z80 assemblers can be loaded with {@link #load(Reader)}.
+ * Every line defines one symbol in any of these forms (values are hexadecimal):
+ * <pre>
+ * name: EQU 1234h
+ * name EQU 0x1234
+ * name = $1234
+ * 1234 name
+ * </pre>
+ * Other lines are ignored. When an address has several names the first one is kept.
+ * </para>
+ */
+public class SymbolTable {
+
+    private static final Pattern NameFirst = Pattern.compile(
+            "^\\s*([A-Za-z_.@?][\\w.@?$]*):?\\s+(?:(?i:equ)\\s+|=\\s*)?(?:0[xX]|\\$|#)?([0-9A-Fa-f]{1,4})[hH]?\\s*(?:;.*)?$");
+
+    private static final Pattern AddressFirst = Pattern.compile(
+            "^\\s*(?:[0-9A-Fa-f]{2}:)?([0-9A-Fa-f]{4})[hH]?\\s+([A-Za-z_.@?][\\w.@?$]*)\\s*$");
+
+    private final String[] names = new String[65536];
+
+    private final Map<String, Integer> addresses = new HashMap<>();
+
+    /**
+     * Reads a symbol file.
+     */
+    public static SymbolTable load(Path path) throws IOException {
+        try (var reader = Files.newBufferedReader(path)) {
+            var table = new SymbolTable();
+            table.load(reader);
+            return table;
+        }
+    }
+
+    /**
+     * Adds the symbols read from a symbol or map file.
+     */
+    public void load(Reader reader) throws IOException {
+        var lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            var matcher = NameFirst.matcher(line);
+            if (matcher.matches()) {
+                put(Integer.parseInt(matcher.group(2), 16), matcher.group(1));
+                continue;
+            }
+
+            matcher = AddressFirst.matcher(line);
+            if (matcher.matches())
+                put(Integer.parseInt(matcher.group(1), 16), matcher.group(2));
+        }
+    }
+
+    /**
+     * Adds a symbol. If the address has a name already, the existing name is kept.
+     */
+    public void put(int address, String name) {
+        if (names[address & 0xffff] == null)
+            names[address & 0xffff] = name;
+        addresses.putIfAbsent(name, address & 0xffff);
+    }
+
+    /**
+     * Gets the name of an address, or null if it has no name.
+     */
+    public String getName(int address) {
+        return names[address & 0xffff];
+    }
+
+    /**
+     * Gets the address of a symbol, or null if there is no symbol with that name.
+     */
+    public Integer getAddress(String name) {
+        return addresses.get(name);
+    }
+
+    /**
+     * Gets the name of an address, or the address as four hexadecimal digits if it has no name.
+     */
+    public String format(int address) {
+        var name = names[address & 0xffff];
+        return name != null ? name : "%04X".formatted(address & 0xffff);
+    }
+}
@@ -0,0 +1,160 @@
+package konamiman.z80.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+/**
+ * Records the inputs that a processor receives from the outside, so that the execution
+ * can be repeated exactly with {@link InputReplayer}.
+ *
+ * <remarks>
+ * <para>
+ * Attach an instance with {@link konamiman.z80.Z80Processor#setInputRecorder(InputRecorder)}.
+ * The inputs recorded are the values returned by port reads and by reads of memory mapped devices
+ * (see {@link konamiman.z80.devices.MemoryMap}), and the T states at which maskable interrupts
+ * (with the value on the data bus) and non-maskable interrupts are accepted.
+ * Everything else that happens in the processor follows from these values, the initial contents
+ * of the memory and registers and the configuration of the processor; reads of plain memory
+ * are not recorded, the memory is assumed to be deterministic.
+ * </para>
+ * <para>
+ * Times are the T states elapsed since the processor was started (see {@link konamiman.z80.Z80Processor#getTStatesElapsedSinceStart()})
+ * when the instruction that reads the port starts, or when the interrupt is accepted.
+ * Every entry of the log is written as a type byte, the difference with the time of the previous entry
+ * as a variable length integer, and the port number or memory address and value, or the value on the data bus.
+ * A port read is usually 4 or 5 bytes long, a memory mapped read 5 bytes long.
+ * </para>
+ */
+public class InputRecorder implements AutoCloseable {
+
+    static final int Signature = 0x5A38_494C; // "Z8IL"
+
+    static final int PortReadEntry = 0;
+    static final int InterruptEntry = 1;
+    static final int NmiEntry = 2;
+    static final int MemoryReadEntry = 3;
+    static final int TypeMask = 3;
+    static final int PortHighByteFlag = 4;
+
+    private final DataOutputStream output;
+
+    private long lastTStates;
+
+    private long entryCount;
+
+    /**
+     * @param stream Where the log is written, it's closed when the recorder is closed
+     */
+    public InputRecorder(OutputStream stream) throws IOException {
+        output = new DataOutputStream(new BufferedOutputStream(stream));
+        output.writeInt(Signature);
+    }
+
+    /**
+     * Creates a recorder that writes the log to a file.
+     *
+     * @param path The file to write, it's overwritten if it exists
+     */
+    public static InputRecorder create(Path path) throws IOException {
+        return new InputRecorder(Files.newOutputStream(path));
+    }
+
+//#region Recording, invoked by the processor
+
+    /**
+     * Records the value returned by a port read.
+     */
+    public void portRead(long tStates, short port, byte value) {
+        try {
+            var highByte = port >> 8 & 0xff;
+            writeHeader(PortReadEntry | (highByte != 0 ? PortHighByteFlag : 0), tStates);
+            output.writeByte(port);
+            if (highByte != 0)
+                output.writeByte(highByte);
+            output.writeByte(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records the value returned by a read of a memory mapped device.
+     */
+    public void memoryRead(long tStates, short address, byte value) {
+        try {
+            writeHeader(MemoryReadEntry, tStates);
+            output.writeShort(address);
+            output.writeByte(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records the acceptance of a maskable interrupt.
+     *
+     * @param dataBusValue The value on the data bus used by the processor (FFh if no device put any value on the bus)
+     */
+    public void interruptAccepted(long tStates, byte dataBusValue) {
+        try {
+            writeHeader(InterruptEntry, tStates);
+            output.writeByte(dataBusValue);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records the acceptance of a non-maskable interrupt.
+     */
+    public void nmiAccepted(long tStates) {
+        try {
+            writeHeader(NmiEntry, tStates);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeHeader(int type, long tStates) throws IOException {
+        output.writeByte(type);
+
+        // zigzag encoded, the time goes back if the processor is started again
+        var delta = tStates - lastTStates;
+        var value = (delta << 1) ^ (delta >> 63);
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+
+        lastTStates = tStates;
+        entryCount++;
+    }
+
+//#endregion
+
+    /**
+     * Gets the number of inputs recorded.
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Writes the buffered entries.
+     */
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
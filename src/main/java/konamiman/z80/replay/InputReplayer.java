@@ -0,0 +1,208 @@
+package konamiman.z80.replay;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import konamiman.z80.exceptions.InputReplayDivergedException;
+
+import static konamiman.z80.replay.InputRecorder.*;
+
+
+/**
+ * Feeds a processor with the inputs recorded by {@link InputRecorder}, to repeat an execution exactly.
+ *
+ * <remarks>
+ * <para>
+ * Attach an instance with {@link konamiman.z80.Z80Processor#setInputReplayer(InputReplayer)}
+ * and run the processor from the same initial state as the recorded execution.
+ * While replaying, port reads return the recorded values without accessing the ports space
+ * or firing port read events, reads of memory mapped devices return the recorded values without
+ * invoking the read handlers (so the same {@link konamiman.z80.devices.MemoryMap} regions must be mapped),
+ * port writes and writes to memory mapped devices are dropped without invoking the write handlers,
+ * accessing the ports space or firing port write events, interrupts are accepted at the recorded times without querying
+ * the interrupt sources, and the clock is not synchronized; so devices don't need to be emulated
+ * and the execution runs as fast as the host allows.
+ * </para>
+ * <para>
+ * If the execution requests an input that doesn't match the next recorded one (a port or memory mapped read
+ * from another port or address or at another time, or a recorded interrupt whose time is gone)
+ * an {@link InputReplayDivergedException} is thrown.
+ * </para>
+ */
+public class InputReplayer implements AutoCloseable {
+
+    private static final int NoEntry = -1;
+
+    private final DataInputStream input;
+
+    // next entry
+
+    private int type;
+    private long tStates;
+    private short port;
+    private short address;
+    private byte value;
+
+    private byte dataBusValue = (byte) 0xFF;
+
+    /**
+     * @param stream The log written by {@link InputRecorder}, it's closed when the replayer is closed
+     * @throws IOException The stream can't be read or doesn't contain an input log
+     */
+    public InputReplayer(InputStream stream) throws IOException {
+        input = new DataInputStream(new BufferedInputStream(stream));
+        if (input.readInt() != Signature)
+            throw new IOException("Not a Z80 input log");
+
+        readEntry();
+    }
+
+    /**
+     * Creates a replayer that reads the log from a file.
+     */
+    public static InputReplayer open(Path path) throws IOException {
+        return new InputReplayer(Files.newInputStream(path));
+    }
+
+//#region Replaying, invoked by the processor
+
+    /**
+     * Gets the recorded value of a port read.
+     *
+     * @param tStates The time when the instruction that reads the port started
+     * @throws InputReplayDivergedException The next recorded input is not a read of the port at that time
+     */
+    public byte portRead(long tStates, short port) {
+        if (type != PortReadEntry || this.tStates != tStates || this.port != port)
+            throw diverged(tStates, "read from port %04X".formatted(port));
+
+        var value = this.value;
+        readEntry();
+        return value;
+    }
+
+    /**
+     * Gets the recorded value of a read of a memory mapped device.
+     *
+     * @param tStates The time when the instruction that reads the memory started
+     * @throws InputReplayDivergedException The next recorded input is not a read of the address at that time
+     */
+    public byte memoryRead(long tStates, short address) {
+        if (type != MemoryReadEntry || this.tStates != tStates || this.address != address)
+            throw diverged(tStates, "read from memory address %04X".formatted(address));
+
+        var value = this.value;
+        readEntry();
+        return value;
+    }
+
+    /**
+     * Tells whether a non-maskable interrupt was accepted at a given time, if so the entry is consumed.
+     *
+     * @throws InputReplayDivergedException The time of the next recorded input is gone
+     */
+    public boolean takeNmi(long tStates) {
+        return take(NmiEntry, tStates);
+    }
+
+    /**
+     * Tells whether a maskable interrupt was accepted at a given time, if so the entry is consumed
+     * and the value on the data bus is available in {@link #getDataBusValue()}.
+     *
+     * @throws InputReplayDivergedException The time of the next recorded input is gone
+     */
+    public boolean takeInterrupt(long tStates) {
+        if (!take(InterruptEntry, tStates))
+            return false;
+
+        dataBusValue = value;
+        return true;
+    }
+
+    /**
+     * Gets the value on the data bus of the last maskable interrupt taken.
+     */
+    public byte getDataBusValue() {
+        return dataBusValue;
+    }
+
+    private boolean take(int entryType, long tStates) {
+        if (type == NoEntry || this.tStates > tStates)
+            return false;
+        if (this.tStates < tStates)
+            throw diverged(tStates, "end of instruction");
+        if (type != entryType)
+            return false;
+
+        readEntry();
+        return true;
+    }
+
+    private InputReplayDivergedException diverged(long tStates, String found) {
+        var expected = switch (type) {
+            case NoEntry -> "end of the input log";
+            case PortReadEntry -> "read from port %04X at T state %d".formatted(port, this.tStates);
+            case MemoryReadEntry -> "read from memory address %04X at T state %d".formatted(address, this.tStates);
+            case InterruptEntry -> "interrupt at T state %d".formatted(this.tStates);
+            default -> "NMI at T state %d".formatted(this.tStates);
+        };
+        return new InputReplayDivergedException(tStates,
+                "Replayed execution diverged at T state %d: %s found, %s expected".formatted(tStates, found, expected));
+    }
+
+//#endregion
+
+    /**
+     * Tells whether all the recorded inputs have been replayed.
+     */
+    public boolean isFinished() {
+        return type == NoEntry;
+    }
+
+    private void readEntry() {
+        try {
+            int header;
+            try {
+                header = input.readUnsignedByte();
+            } catch (EOFException e) {
+                type = NoEntry;
+                return;
+            }
+
+            type = header & TypeMask;
+            var encoded = 0L;
+            for (int shift = 0; ; shift += 7) {
+                var b = input.readUnsignedByte();
+                encoded |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    break;
+            }
+            tStates += (encoded >>> 1) ^ -(encoded & 1);
+
+            if (type == PortReadEntry) {
+                var low = input.readUnsignedByte();
+                var high = (header & PortHighByteFlag) != 0 ? input.readUnsignedByte() : 0;
+                port = (short) (high << 8 | low);
+                value = input.readByte();
+            } else if (type == MemoryReadEntry) {
+                address = input.readShort();
+                value = input.readByte();
+            } else if (type == InterruptEntry) {
+                value = input.readByte();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,294 @@
+package konamiman.z80.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static konamiman.z80.trace.TraceIndexer.*;
+
+
+/**
+ * Answers queries over a trace file using the index built by {@link TraceIndexer}.
+ *
+ * <remarks>
+ * <para>
+ * Records are identified by their number, which is their position in the trace file (starting at zero;
+ * unlike the sequence numbers, it has no gaps when records were dropped by the recorder).
+ * The index file is memory mapped: finding the records that executed an address, wrote a memory address
+ * or accessed a port is a binary search in the record numbers of that key, and the records in a range
+ * of T states are found with the checkpoints of the index, so queries don't read the trace file
+ * except for the records requested and at most {@link TraceIndexer#CheckpointInterval} records
+ * per T states boundary. Only the memory and port accesses recorded in the trace
+ * (see {@link TraceRecord#MaxAccesses}) are indexed.
+ * </para>
+ * <para>
+ * Example: the writes to F3AEh between T states 1e9 and 2e9, and the executions of address 0005h with C=15
+ * (remember that records have the registers after the instruction):
+ * <pre>
+ * try (var index = new TraceIndex(tracePath, indexPath)) {
+ *     var writes = index.findMemoryWrites((short) 0xF3AE, 1_000_000_000L, 2_000_000_000L);
+ *     var calls = index.read(index.findExecutions((short) 0x0005), r -> (r.getBC() &amp; 0xff) == 15);
+ * }
+ * </pre>
+ * </para>
+ * <para>
+ * Instances are not thread safe.
+ * </para>
+ */
+public class TraceIndex implements AutoCloseable {
+
+    private final TraceReader reader;
+    private final FileChannel indexChannel;
+    private final boolean deltaCompressed;
+    private final long recordCount;
+    private final int checkpointCount;
+    private final ByteBuffer checkpoints;
+    private final LongBuffer[] starts = new LongBuffer[PostingKinds];
+    private final IntBuffer[] postings = new IntBuffer[PostingKinds];
+
+    /** number of the record that the reader will read next, -1 if unknown */
+    private long nextRecord = -1;
+
+    /**
+     * @param trace The trace file
+     * @param index The index file built for the trace file
+     * @throws IOException A file can't be read, or the index file is not valid
+     */
+    public TraceIndex(Path trace, Path index) throws IOException {
+        reader = new TraceReader(trace);
+        try {
+            indexChannel = FileChannel.open(index, StandardOpenOption.READ);
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+        try {
+            var header = ByteBuffer.allocate(HeaderSize).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && indexChannel.read(header) >= 0)
+                ;
+            header.flip();
+
+            var magic = new byte[Magic.length];
+            if (header.remaining() == HeaderSize)
+                header.get(magic);
+            if (!Arrays.equals(magic, Magic))
+                throw new IOException("Not a Z80 trace index file");
+            if (header.getInt() != Version)
+                throw new IOException("Unsupported Z80 trace index file version");
+
+            deltaCompressed = (header.getInt() & TraceRecorder.DeltaCompressedFlag) != 0;
+            if (deltaCompressed != reader.isDeltaCompressed())
+                throw new IOException("The index file doesn't belong to the trace file");
+
+            recordCount = header.getLong();
+            checkpointCount = (int) header.getLong();
+            var checkpointsOffset = header.getLong();
+            checkpoints = map(checkpointsOffset, (long) checkpointCount * CheckpointSize);
+
+            for (int kind = 0; kind < PostingKinds; kind++) {
+                var offset = header.getLong();
+                starts[kind] = map(offset, (Keys + 1) * 8L).asLongBuffer();
+                var entries = starts[kind].get(Keys);
+                postings[kind] = map(offset + (Keys + 1) * 8L, entries * 4).asIntBuffer();
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e instanceof IOException io ? io : new IOException("Invalid Z80 trace index file", e);
+        }
+    }
+
+    private ByteBuffer map(long offset, long size) throws IOException {
+        return indexChannel.map(FileChannel.MapMode.READ_ONLY, offset, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Gets the number of records in the trace.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+//#region Queries
+
+    /**
+     * Gets the numbers of the records of the instructions at an address.
+     */
+    public long[] findExecutions(short address) {
+        return find(Executions, address, 0, recordCount);
+    }
+
+    /**
+     * Gets the numbers of the records of the instructions at an address that started in a range of T states.
+     *
+     * @param fromTStates Start of the range, inclusive
+     * @param toTStates End of the range, exclusive
+     */
+    public long[] findExecutions(short address, long fromTStates, long toTStates) throws IOException {
+        return find(Executions, address, findRecord(fromTStates), findRecord(toTStates));
+    }
+
+    /**
+     * Gets the numbers of the records of the instructions that wrote a memory address.
+     */
+    public long[] findMemoryWrites(short address) {
+        return find(MemoryWrites, address, 0, recordCount);
+    }
+
+    /**
+     * Gets the numbers of the records of the instructions that wrote a memory address and started in a range of T states.
+     *
+     * @param fromTStates Start of the range, inclusive
+     * @param toTStates End of the range, exclusive
+     */
+    public long[] findMemoryWrites(short address, long fromTStates, long toTStates) throws IOException {
+        return find(MemoryWrites, address, findRecord(fromTStates), findRecord(toTStates));
+    }
+
+    /**
+     * Gets the numbers of the records of the instructions that read or wrote a port.
+     */
+    public long[] findPortAccesses(short port) {
+        return find(PortAccesses, port, 0, recordCount);
+    }
+
+    /**
+     * Gets the numbers of the records of the instructions that read or wrote a port and started in a range of T states.
+     *
+     * @param fromTStates Start of the range, inclusive
+     * @param toTStates End of the range, exclusive
+     */
+    public long[] findPortAccesses(short port, long fromTStates, long toTStates) throws IOException {
+        return find(PortAccesses, port, findRecord(fromTStates), findRecord(toTStates));
+    }
+
+    private long[] find(int kind, short key, long fromRecord, long toRecord) {
+        var keyStart = (int) starts[kind].get(key & 0xffff);
+        var keyEnd = (int) starts[kind].get((key & 0xffff) + 1);
+        var first = lowerBound(postings[kind], keyStart, keyEnd, fromRecord);
+        var last = lowerBound(postings[kind], first, keyEnd, toRecord);
+
+        var result = new long[last - first];
+        for (int i = 0; i < result.length; i++)
+            result[i] = postings[kind].get(first + i);
+        return result;
+    }
+
+    private static int lowerBound(IntBuffer entries, int from, int to, long value) {
+        while (from < to) {
+            var middle = (from + to) >>> 1;
+            if (entries.get(middle) < value)
+                from = middle + 1;
+            else
+                to = middle;
+        }
+        return from;
+    }
+
+    /**
+     * Gets the number of the first record of an instruction that started at or after a given number of T states,
+     * or the number of records if there isn't any.
+     */
+    public long findRecord(long tStates) throws IOException {
+        // first checkpoint at or after the T states
+        int from = 0, to = checkpointCount;
+        while (from < to) {
+            var middle = (from + to) >>> 1;
+            if (checkpoints.getLong(middle * CheckpointSize) < tStates)
+                from = middle + 1;
+            else
+                to = middle;
+        }
+        if (from == 0)
+            return 0;
+
+        // the record is between the previous checkpoint (excluded) and this one
+        var end = Math.min((long) from * CheckpointInterval, recordCount);
+        var current = new TraceRecord();
+        for (var record = (long) (from - 1) * CheckpointInterval + 1; record < end; record++) {
+            readRecord(record, current);
+            if (current.getTStates() >= tStates)
+                return record;
+        }
+        return end;
+    }
+
+//#endregion
+
+//#region Reading records
+
+    /**
+     * Reads a record.
+     *
+     * @param number The number of the record
+     * @param record The instance where the record is read
+     * @throws IndexOutOfBoundsException There is no record with that number
+     */
+    public void read(long number, TraceRecord record) throws IOException {
+        if (number < 0 || number >= recordCount)
+            throw new IndexOutOfBoundsException("Record number out of range: " + number);
+
+        readRecord(number, record);
+    }
+
+    /**
+     * Reads records.
+     *
+     * @param numbers The numbers of the records, preferably in increasing order
+     * @param filter Selects the records returned, can be null to return all
+     */
+    public List<TraceRecord> read(long[] numbers, Predicate<TraceRecord> filter) throws IOException {
+        var result = new ArrayList<TraceRecord>();
+        for (var number : numbers) {
+            var record = new TraceRecord();
+            read(number, record);
+            if (filter == null || filter.test(record))
+                result.add(record);
+        }
+        return result;
+    }
+
+    /** reads a record, reading forward from the current position if it is close enough */
+    private void readRecord(long number, TraceRecord record) throws IOException {
+        if (nextRecord < 0 || number < nextRecord || number - nextRecord >= CheckpointInterval) {
+            if (!deltaCompressed) {
+                reader.seek(TraceRecorder.HeaderSize + number * TraceRecord.Size, record.bytes);
+                nextRecord = number;
+            } else {
+                // a delta compressed record can only be decoded from the record before it, start at the previous checkpoint
+                var offset = (int) (number / CheckpointInterval) * CheckpointSize;
+                checkpoints.get(offset + 16, record.bytes);
+                reader.seek(checkpoints.getLong(offset + 8), record.bytes);
+                nextRecord = number - number % CheckpointInterval + 1;
+            }
+        }
+
+        while (nextRecord <= number)
+            next(record);
+    }
+
+    private void next(TraceRecord record) throws IOException {
+        if (!reader.next(record))
+            throw new IOException("Truncated Z80 trace file");
+        nextRecord++;
+    }
+
+//#endregion
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } finally {
+            indexChannel.close();
+        }
+    }
+}
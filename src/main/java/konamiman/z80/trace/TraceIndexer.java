@@ -0,0 +1,246 @@
+package konamiman.z80.trace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static konamiman.z80.trace.TraceRecord.*;
+
+
+/**
+ * Builds the index of a trace file that {@link TraceIndex} uses to answer queries without reading the whole trace.
+ *
+ * <remarks>
+ * <para>
+ * An index can be built while the trace is recorded, by passing its path to the
+ * {@link TraceRecorder#TraceRecorder(Path, int, konamiman.z80.enums.BackpressurePolicy, boolean, Path)} constructor:
+ * the drain thread of the recorder feeds every record to the indexer after writing it, and the index file
+ * is completed when the recorder is closed. Traces already recorded can be indexed with {@link #index(Path, Path)}.
+ * </para>
+ * <para>
+ * While the trace is being recorded the (key, record number) pairs are appended to temporary spill files
+ * next to the index file and the number of records per key is counted; when the indexer is closed
+ * the spill files are read once to place every record number at its final position, and deleted.
+ * </para>
+ * <para>
+ * Index file format (all values little endian): a 64 bytes header with the characters "Z80TIDX1",
+ * the version and flags (32 bit, bit 0 set if the trace is delta compressed), the number of records,
+ * the number of checkpoints, and the file offsets of the checkpoints and of the three posting sections
+ * (64 bit). A checkpoint is written every {@link #CheckpointInterval} records, it holds the T states
+ * and the complete contents of the record, and the trace file offset of the next record, so that any record
+ * can be decoded reading at most {@link #CheckpointInterval} records. A posting section has the index of the
+ * first entry of every one of the 65536 keys plus one end mark (64 bit), followed by the entries: the numbers
+ * of the records for each key in increasing order (32 bit). The sections are, in order:
+ * instruction addresses, memory addresses written and port numbers read or written.
+ * </para>
+ */
+public class TraceIndexer implements AutoCloseable {
+
+    static final byte[] Magic = "Z80TIDX1".getBytes(StandardCharsets.US_ASCII);
+    static final int Version = 1;
+    static final int HeaderSize = 64;
+    static final int CheckpointInterval = 1024;
+    static final int CheckpointSize = 16 + TraceRecord.Size;
+    static final int Keys = 65536;
+
+    static final int Executions = 0;
+    static final int MemoryWrites = 1;
+    static final int PortAccesses = 2;
+    static final int PostingKinds = 3;
+
+    private final Path path;
+    private final boolean deltaCompressed;
+    private final Path[] spillPaths = new Path[PostingKinds];
+    private final DataOutputStream[] spills = new DataOutputStream[PostingKinds];
+    private final long[][] counts = new long[PostingKinds][Keys];
+    private final int[] lastKeys = new int[PostingKinds];
+    private final long[] lastRecords = {-1, -1, -1};
+    private final ByteArrayOutputStream checkpoints = new ByteArrayOutputStream();
+    private final ByteBuffer checkpoint = ByteBuffer.allocate(CheckpointSize).order(ByteOrder.LITTLE_ENDIAN);
+    private long recordCount;
+    private boolean closed;
+
+    /**
+     * @param path The index file to write, it's overwritten if it exists
+     * @param deltaCompressed Whether the records are delta compressed in the trace file
+     */
+    TraceIndexer(Path path, boolean deltaCompressed) throws IOException {
+        this.path = path;
+        this.deltaCompressed = deltaCompressed;
+
+        var directory = path.toAbsolutePath().getParent();
+        var prefix = path.getFileName() + ".";
+        try {
+            for (int i = 0; i < PostingKinds; i++) {
+                spillPaths[i] = Files.createTempFile(directory, prefix, ".spill");
+                spills[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillPaths[i]), 64 * 1024));
+            }
+        } catch (IOException e) {
+            deleteSpills();
+            throw e;
+        }
+    }
+
+    /**
+     * Builds the index of a trace file.
+     *
+     * @param trace The trace file
+     * @param index The index file to write, it's overwritten if it exists
+     */
+    public static void index(Path trace, Path index) throws IOException {
+        try (var reader = new TraceReader(trace);
+             var indexer = new TraceIndexer(index, reader.isDeltaCompressed())) {
+            var record = new TraceRecord();
+            var buffer = ByteBuffer.wrap(record.bytes).order(ByteOrder.LITTLE_ENDIAN);
+            while (reader.next(record))
+                indexer.recordWritten(buffer, 0, reader.getPosition());
+        }
+    }
+
+    /**
+     * Adds a record to the index, in the order of the trace file.
+     *
+     * @param buffer Little endian buffer with the record
+     * @param offset Offset of the record in the buffer
+     * @param nextRecordPosition Offset in the trace file where the next record will be written
+     */
+    void recordWritten(ByteBuffer buffer, int offset, long nextRecordPosition) throws IOException {
+        if (recordCount == Integer.MAX_VALUE)
+            throw new IOException("Too many records to index");
+
+        var record = recordCount++;
+        if (record % CheckpointInterval == 0) {
+            checkpoint.clear()
+                    .putLong(buffer.getLong(offset + TStatesOffset))
+                    .putLong(nextRecordPosition)
+                    .put(buffer.slice(offset, TraceRecord.Size));
+            checkpoints.write(checkpoint.array(), 0, CheckpointSize);
+        }
+
+        add(Executions, buffer.getShort(offset + AddressOffset), record);
+
+        var accessCount = (buffer.get(offset + LengthsOffset) >> 4) & 0x0F;
+        for (int i = 0; i < accessCount; i++) {
+            var access = offset + AccessesOffset + i * 4;
+            var type = buffer.get(access + 3);
+            if (type == MemoryWriteType)
+                add(MemoryWrites, buffer.getShort(access), record);
+            else if (type == PortReadType || type == PortWriteType)
+                add(PortAccesses, buffer.getShort(access), record);
+        }
+    }
+
+    private void add(int kind, short key, long record) throws IOException {
+        var index = key & 0xffff;
+        if (lastRecords[kind] == record && lastKeys[kind] == index)
+            return; // e.g. a port read and written by the same instruction
+
+        lastRecords[kind] = record;
+        lastKeys[kind] = index;
+        counts[kind][index]++;
+        spills[kind].writeInt(index);
+        spills[kind].writeInt((int) record);
+    }
+
+    /**
+     * Writes the index file and deletes the temporary files.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+        try {
+            for (var spill : spills)
+                spill.close();
+            writeIndex();
+        } finally {
+            deleteSpills();
+        }
+    }
+
+    private void writeIndex() throws IOException {
+        try (var channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var checkpointsOffset = (long) HeaderSize;
+            var postingsOffsets = new long[PostingKinds];
+            var position = checkpointsOffset + checkpoints.size();
+            for (int kind = 0; kind < PostingKinds; kind++) {
+                postingsOffsets[kind] = position;
+                position += (Keys + 1) * 8L + total(kind) * 4;
+            }
+
+            var header = ByteBuffer.allocate(HeaderSize).order(ByteOrder.LITTLE_ENDIAN)
+                    .put(Magic)
+                    .putInt(Version)
+                    .putInt(deltaCompressed ? TraceRecorder.DeltaCompressedFlag : 0)
+                    .putLong(recordCount)
+                    .putLong(checkpoints.size() / CheckpointSize)
+                    .putLong(checkpointsOffset);
+            for (var offset : postingsOffsets)
+                header.putLong(offset);
+            write(channel, header.flip(), 0);
+            write(channel, ByteBuffer.wrap(checkpoints.toByteArray()), checkpointsOffset);
+
+            for (int kind = 0; kind < PostingKinds; kind++)
+                writePostings(channel, kind, postingsOffsets[kind]);
+        }
+    }
+
+    private long total(int kind) {
+        var total = 0L;
+        for (var count : counts[kind])
+            total += count;
+        return total;
+    }
+
+    private void writePostings(FileChannel channel, int kind, long offset) throws IOException {
+        var starts = ByteBuffer.allocate((Keys + 1) * 8).order(ByteOrder.LITTLE_ENDIAN);
+        var cursors = new long[Keys];
+        var start = 0L;
+        for (int key = 0; key < Keys; key++) {
+            starts.putLong(start);
+            cursors[key] = start;
+            start += counts[kind][key];
+        }
+        starts.putLong(start);
+        write(channel, starts.flip(), offset);
+
+        if (start == 0)
+            return;
+        if (start * 4 > Integer.MAX_VALUE)
+            throw new IOException("Too many index entries");
+
+        var entries = channel.map(FileChannel.MapMode.READ_WRITE, offset + (Keys + 1) * 8L, start * 4)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        try (var spill = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillPaths[kind]), 64 * 1024))) {
+            for (long i = 0; i < start; i++) {
+                var key = spill.readInt();
+                entries.putInt((int) (cursors[key]++ * 4), spill.readInt());
+            }
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    private void deleteSpills() throws IOException {
+        for (var spillPath : spillPaths) {
+            if (spillPath != null)
+                Files.deleteIfExists(spillPath);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package konamiman.z80.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+
+/**
+ * Reads the trace files written by {@link TraceRecorder}, plain or delta compressed.
+ *
+ * <remarks>
+ * <para>
+ * Usage:
+ * <pre>
+ * try (var reader = new TraceReader(path)) {
+ *     var record = new TraceRecord();
+ *     while (reader.next(record)) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * A record can be replayed with {@link TraceRecord#applyTo(konamiman.z80.interfaces.Z80Registers)},
+ * which sets the registers to the state they had after the instruction.
+ * </para>
+ */
+public class TraceReader implements AutoCloseable {
+
+    private static final int BufferSize = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BufferSize).order(ByteOrder.LITTLE_ENDIAN).flip();
+    private final boolean deltaCompressed;
+
+    /** the previous record, base for the delta compressed records */
+    private final byte[] previous = new byte[TraceRecord.Size];
+
+    private long recordsRead;
+    private long missingRecords;
+    private int lastSequence;
+
+    /**
+     * @throws IOException The file can't be read or it's not a trace file
+     */
+    public TraceReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (!fill(TraceRecorder.HeaderSize))
+                throw new IOException("Not a Z80 trace file");
+
+            var magic = new byte[TraceRecorder.Magic.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, TraceRecorder.Magic))
+                throw new IOException("Not a Z80 trace file");
+
+            var version = buffer.getShort();
+            var recordSize = buffer.getShort();
+            if (version != TraceRecorder.Version || recordSize != TraceRecord.Size)
+                throw new IOException("Unsupported Z80 trace file version: " + version);
+
+            deltaCompressed = (buffer.getInt() & TraceRecorder.DeltaCompressedFlag) != 0;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public boolean isDeltaCompressed() {
+        return deltaCompressed;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @param record The instance where the record is read
+     * @return true if a record has been read, false if the end of the file has been reached
+     * @throws IOException The file can't be read or the last record is incomplete
+     */
+    public boolean next(TraceRecord record) throws IOException {
+        if (!deltaCompressed) {
+            if (!fill(TraceRecord.Size))
+                return false;
+            buffer.get(record.bytes);
+        } else {
+            if (!fill(8))
+                return false;
+            var changed = buffer.getLong();
+            if (!fill(Long.bitCount(changed)))
+                throw new IOException("Truncated Z80 trace file");
+            for (int i = 0; changed != 0; i++, changed >>>= 1) {
+                if ((changed & 1) != 0)
+                    previous[i] = buffer.get();
+            }
+            System.arraycopy(previous, 0, record.bytes, 0, TraceRecord.Size);
+        }
+
+        var sequence = record.getSequence();
+        if (recordsRead != 0 && sequence != lastSequence + 1)
+            missingRecords += (sequence - lastSequence - 1) & 0xffffffffL;
+        lastSequence = sequence;
+        recordsRead++;
+        return true;
+    }
+
+    /**
+     * @return true if the buffer has the bytes, false if the file ended right before them
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes)
+            return true;
+
+        buffer.compact();
+        while (buffer.position() < bytes && channel.read(buffer) >= 0)
+            ;
+        buffer.flip();
+
+        if (buffer.remaining() >= bytes)
+            return true;
+        if (buffer.hasRemaining())
+            throw new IOException("Truncated Z80 trace file");
+        return false;
+    }
+
+    /**
+     * Gets the offset in the file of the next record.
+     */
+    long getPosition() throws IOException {
+        return channel.position() - buffer.remaining();
+    }
+
+    /**
+     * Moves to a record in the file.
+     *
+     * @param position The offset of the record in the file
+     * @param previousRecord The contents of the record before it, needed if the file is delta compressed
+     */
+    void seek(long position, byte[] previousRecord) throws IOException {
+        channel.position(position);
+        buffer.clear().flip();
+        System.arraycopy(previousRecord, 0, previous, 0, TraceRecord.Size);
+        recordsRead = 0;
+    }
+
+    /**
+     * Gets the number of records read so far.
+     */
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    /**
+     * Gets the number of records missing between the records read so far,
+     * because they were dropped by the recorder (see {@link konamiman.z80.enums.BackpressurePolicy#DropNewest}).
+     */
+    public long getMissingRecords() {
+        return missingRecords;
+    }
+
+    /**
+     * Writes the remaining records as text, one line per record (see {@link TraceRecord#toString()}).
+     */
+    public void writeText(Writer writer) throws IOException {
+        var record = new TraceRecord();
+        while (next(record))
+            writer.write(record + "\n");
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
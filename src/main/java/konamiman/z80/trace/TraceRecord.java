@@ -0,0 +1,251 @@
+package konamiman.z80.trace;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import konamiman.z80.enums.MemoryAccessEventType;
+import konamiman.z80.interfaces.Z80Registers;
+import konamiman.z80.utils.Bit;
+
+
+/**
+ * One instruction of an execution trace, as read by {@link TraceReader}.
+ *
+ * <remarks>
+ * <para>
+ * A record holds the state of the processor after the instruction has been executed
+ * (including the acceptance of an interrupt right after it, if any): the registers,
+ * the interrupt flip-flops and mode and the halted state; plus the address, opcode bytes,
+ * start time and duration of the instruction, and the first {@link #MaxAccesses} memory and port accesses
+ * that it performed (opcode fetches are not included, the opcode bytes are recorded instead).
+ * </para>
+ * <para>
+ * Instances are reused by {@link TraceReader#next(TraceRecord)}, copy the values needed before reading the next record.
+ * </para>
+ */
+public class TraceRecord {
+
+    /** size in bytes of every record */
+    public static final int Size = 64;
+
+    /** maximum number of memory and port accesses recorded per instruction */
+    public static final int MaxAccesses = 4;
+
+    // record layout, all multibyte values are little endian
+
+    static final int TStatesOffset = 0;          // long, T states elapsed since start when the instruction started
+    static final int AddressOffset = 8;          // short
+    static final int LengthsOffset = 10;         // byte, opcode length in the low nibble and accesses count in the high nibble
+    static final int FlagsOffset = 11;           // byte
+    static final int OpcodeOffset = 12;          // 4 bytes
+    static final int RegistersOffset = 16;       // 12 shorts: AF, BC, DE, HL, AF', BC', DE', HL', IX, IY, SP, PC
+    static final int IOffset = 40;
+    static final int ROffset = 41;
+    static final int InstructionTStatesOffset = 42; // short
+    static final int AccessesOffset = 44;        // 4 times: short address, byte value, byte type
+    static final int SequenceOffset = 60;        // int
+
+    static final int IFF1Flag = 1;
+    static final int IFF2Flag = 2;
+    static final int InterruptModeShift = 2;     // 2 bits
+    static final int HaltedFlag = 16;
+    static final int InterruptAcceptedFlag = 32;
+    static final int AccessesOverflowFlag = 64;
+
+    static final byte MemoryReadType = 0;
+    static final byte MemoryWriteType = 1;
+    static final byte PortReadType = 2;
+    static final byte PortWriteType = 3;
+
+    private static final MemoryAccessEventType[] AccessTypes = {
+            MemoryAccessEventType.AfterMemoryRead,
+            MemoryAccessEventType.AfterMemoryWrite,
+            MemoryAccessEventType.AfterPortRead,
+            MemoryAccessEventType.AfterPortWrite
+    };
+
+    final byte[] bytes = new byte[Size];
+
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+
+//#region Instruction
+
+    /**
+     * Gets the sequence number of the record, consecutive records have consecutive numbers
+     * unless records were dropped by the recorder.
+     */
+    public int getSequence() {
+        return buffer.getInt(SequenceOffset);
+    }
+
+    /**
+     * Gets the T states elapsed since the processor was started when the instruction started.
+     */
+    public long getTStates() {
+        return buffer.getLong(TStatesOffset);
+    }
+
+    /**
+     * Gets the T states spent by the instruction, including wait states and the acceptance of an interrupt.
+     */
+    public int getInstructionTStates() {
+        return buffer.getShort(InstructionTStatesOffset) & 0xffff;
+    }
+
+    /**
+     * Gets the address of the first opcode byte of the instruction.
+     */
+    public short getAddress() {
+        return buffer.getShort(AddressOffset);
+    }
+
+    /**
+     * Gets the opcode bytes of the instruction, including prefixes and operands.
+     */
+    public byte[] getOpcodeBytes() {
+        var opcode = new byte[bytes[LengthsOffset] & 0x0F];
+        System.arraycopy(bytes, OpcodeOffset, opcode, 0, opcode.length);
+        return opcode;
+    }
+
+    /**
+     * Tells whether an interrupt was accepted right after the instruction.
+     */
+    public boolean isInterruptAccepted() {
+        return (bytes[FlagsOffset] & InterruptAcceptedFlag) != 0;
+    }
+
+//#endregion
+
+//#region Processor state after the instruction
+
+    public short getAF() { return register(0); }
+    public short getBC() { return register(1); }
+    public short getDE() { return register(2); }
+    public short getHL() { return register(3); }
+    public short getAlternateAF() { return register(4); }
+    public short getAlternateBC() { return register(5); }
+    public short getAlternateDE() { return register(6); }
+    public short getAlternateHL() { return register(7); }
+    public short getIX() { return register(8); }
+    public short getIY() { return register(9); }
+    public short getSP() { return register(10); }
+    public short getPC() { return register(11); }
+    public byte getI() { return bytes[IOffset]; }
+    public byte getR() { return bytes[ROffset]; }
+
+    private short register(int index) {
+        return buffer.getShort(RegistersOffset + index * 2);
+    }
+
+    public boolean getIFF1() {
+        return (bytes[FlagsOffset] & IFF1Flag) != 0;
+    }
+
+    public boolean getIFF2() {
+        return (bytes[FlagsOffset] & IFF2Flag) != 0;
+    }
+
+    public byte getInterruptMode() {
+        return (byte) ((bytes[FlagsOffset] >> InterruptModeShift) & 3);
+    }
+
+    public boolean isHalted() {
+        return (bytes[FlagsOffset] & HaltedFlag) != 0;
+    }
+
+    /**
+     * Sets the registers to the state recorded, so that execution can be resumed
+     * from the point where the record was taken.
+     */
+    public void applyTo(Z80Registers registers) {
+        registers.setAF(getAF());
+        registers.setBC(getBC());
+        registers.setDE(getDE());
+        registers.setHL(getHL());
+        registers.getAlternate().setAF(getAlternateAF());
+        registers.getAlternate().setBC(getAlternateBC());
+        registers.getAlternate().setDE(getAlternateDE());
+        registers.getAlternate().setHL(getAlternateHL());
+        registers.setIX(getIX());
+        registers.setIY(getIY());
+        registers.setSP(getSP());
+        registers.setPC(getPC());
+        registers.setI(getI());
+        registers.setR(getR());
+        registers.setIFF1(Bit.of(getIFF1()));
+        registers.setIFF2(Bit.of(getIFF2()));
+    }
+
+//#endregion
+
+//#region Memory and port accesses
+
+    /**
+     * Gets the number of memory and port accesses recorded, at most {@link #MaxAccesses}.
+     */
+    public int getAccessCount() {
+        return (bytes[LengthsOffset] >> 4) & 0x0F;
+    }
+
+    /**
+     * Tells whether the instruction performed more accesses than the ones recorded.
+     */
+    public boolean isAccessesOverflow() {
+        return (bytes[FlagsOffset] & AccessesOverflowFlag) != 0;
+    }
+
+    /**
+     * Gets the memory address or port number of an access.
+     */
+    public short getAccessAddress(int index) {
+        return buffer.getShort(accessOffset(index));
+    }
+
+    /**
+     * Gets the value read or written by an access.
+     */
+    public byte getAccessValue(int index) {
+        return bytes[accessOffset(index) + 2];
+    }
+
+    /**
+     * Gets the kind of an access: {@link MemoryAccessEventType#AfterMemoryRead}, {@link MemoryAccessEventType#AfterMemoryWrite},
+     * {@link MemoryAccessEventType#AfterPortRead} or {@link MemoryAccessEventType#AfterPortWrite}.
+     */
+    public MemoryAccessEventType getAccessType(int index) {
+        return AccessTypes[bytes[accessOffset(index) + 3] & 3];
+    }
+
+    private int accessOffset(int index) {
+        if (index < 0 || index >= getAccessCount())
+            throw new IndexOutOfBoundsException(index);
+
+        return AccessesOffset + index * 4;
+    }
+
+//#endregion
+
+    @Override
+    public String toString() {
+        var sb = new StringBuilder();
+        sb.append("#%d T=%d %04X:".formatted(getSequence(), getTStates(), getAddress()));
+        for (var b : getOpcodeBytes())
+            sb.append(" %02X".formatted(b));
+        sb.append(" (%d) AF=%04X BC=%04X DE=%04X HL=%04X IX=%04X IY=%04X SP=%04X PC=%04X".formatted(
+                getInstructionTStates(), getAF(), getBC(), getDE(), getHL(), getIX(), getIY(), getSP(), getPC()));
+        for (int i = 0; i < getAccessCount(); i++) {
+            var type = getAccessType(i);
+            var isPort = type == MemoryAccessEventType.AfterPortRead || type == MemoryAccessEventType.AfterPortWrite;
+            var isWrite = type == MemoryAccessEventType.AfterMemoryWrite || type == MemoryAccessEventType.AfterPortWrite;
+            sb.append(" %s%04X%s%02X".formatted(isPort ? "port " : "", getAccessAddress(i), isWrite ? "<-" : "->", getAccessValue(i)));
+        }
+        if (isAccessesOverflow())
+            sb.append(" ...");
+        if (isInterruptAccepted())
+            sb.append(" INT");
+        if (isHalted())
+            sb.append(" HALT");
+        return sb.toString();
+    }
+}
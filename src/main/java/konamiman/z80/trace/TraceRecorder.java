@@ -0,0 +1,433 @@
+package konamiman.z80.trace;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import konamiman.z80.Z80Processor;
+import konamiman.z80.enums.BackpressurePolicy;
+
+import static konamiman.z80.trace.TraceRecord.*;
+
+
+/**
+ * Records every instruction executed by a processor in a binary trace file.
+ *
+ * <remarks>
+ * <para>
+ * Attach an instance with {@link Z80Processor#setTraceRecorder(TraceRecorder)}.
+ * For every instruction the processor writes a fixed size {@link TraceRecord} into a ring buffer
+ * preallocated outside the Java heap, without firing events or allocating memory;
+ * a background thread drains the buffer to the file through a {@link FileChannel}.
+ * When the buffer is full the {@link BackpressurePolicy} decides whether the processor waits
+ * or the record is dropped; if the drain thread has failed the processor gets an exception instead,
+ * and {@link #close()} throws it too. Use {@link TraceReader} to read the file.
+ * </para>
+ * <para>
+ * The file can optionally be delta compressed: every record is then written as a 64 bit mask
+ * of the bytes that changed since the previous record, followed by the new values of those bytes.
+ * Consecutive instructions share most of the registers and the high bytes of the T states,
+ * so this usually makes the file about three times smaller, at the cost of some time in the drain thread.
+ * </para>
+ * <para>
+ * An index for fast queries (see {@link TraceIndex}) can be built while the trace is recorded,
+ * by passing the path of the index file to the constructor; the drain thread then feeds a {@link TraceIndexer}.
+ * </para>
+ * <para>
+ * File format: the 8 ASCII characters "Z80TRACE", then the format version, the record size (both 16 bit)
+ * and the flags (32 bit, bit 0 set if the file is delta compressed), then the records.
+ * All multibyte values are little endian.
+ * </para>
+ * <para>
+ * Usage:
+ * <pre>
+ * try (var recorder = new TraceRecorder(path)) {
+ *     z80.setTraceRecorder(recorder);
+ *     z80.start(null);
+ *     z80.setTraceRecorder(null);
+ * }
+ * </pre>
+ * </para>
+ */
+public class TraceRecorder implements AutoCloseable {
+
+    static final byte[] Magic = "Z80TRACE".getBytes(StandardCharsets.US_ASCII);
+    static final short Version = 1;
+    static final int HeaderSize = 16;
+    static final int DeltaCompressedFlag = 1;
+
+    private static final int DefaultCapacity = 64 * 1024;
+
+    /** the drain thread waits for this many records before writing, unless the recorder is closing */
+    private static final int MinDrainBatch = 256;
+
+    private static final long DrainIntervalNanos = 1_000_000;
+
+    private static final long BlockedParkNanos = 50_000;
+
+    private static final VarHandle WRITE_INDEX;
+    private static final VarHandle DROPPED_RECORDS;
+
+    static {
+        try {
+            WRITE_INDEX = MethodHandles.lookup().findVarHandle(TraceRecorder.class, "writeIndex", long.class);
+            DROPPED_RECORDS = MethodHandles.lookup().findVarHandle(TraceRecorder.class, "droppedRecords", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer ring;
+    private final int capacity;
+    private final int mask;
+    private final BackpressurePolicy backpressurePolicy;
+    private final boolean deltaCompressed;
+    private final Thread drainThread;
+    private final TraceIndexer indexer;
+
+    /**
+     * Creates a recorder with room for 65536 records (4 MB), {@link BackpressurePolicy#Block} and no compression.
+     *
+     * @param path The file to write, it's overwritten if it exists
+     */
+    public TraceRecorder(Path path) throws IOException {
+        this(path, DefaultCapacity, BackpressurePolicy.Block, false);
+    }
+
+    /**
+     * @param path The file to write, it's overwritten if it exists
+     * @param capacity The number of records that fit in the ring buffer, rounded up to a power of two
+     * @param backpressurePolicy What to do when the ring buffer is full
+     * @param deltaCompressed Whether the records are written delta compressed
+     * @throws IllegalArgumentException The capacity is not positive or too big
+     */
+    public TraceRecorder(Path path, int capacity, BackpressurePolicy backpressurePolicy, boolean deltaCompressed) throws IOException {
+        this(path, capacity, backpressurePolicy, deltaCompressed, null);
+    }
+
+    /**
+     * @param path The file to write, it's overwritten if it exists
+     * @param capacity The number of records that fit in the ring buffer, rounded up to a power of two
+     * @param backpressurePolicy What to do when the ring buffer is full
+     * @param deltaCompressed Whether the records are written delta compressed
+     * @param indexPath The index file to build while recording, null to build no index
+     * @throws IllegalArgumentException The capacity is not positive or too big
+     */
+    public TraceRecorder(Path path, int capacity, BackpressurePolicy backpressurePolicy, boolean deltaCompressed, Path indexPath) throws IOException {
+        if (capacity <= 0 || capacity > Integer.MAX_VALUE / TraceRecord.Size / 2)
+            throw new IllegalArgumentException("Invalid trace buffer capacity: " + capacity);
+
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.backpressurePolicy = backpressurePolicy;
+        this.deltaCompressed = deltaCompressed;
+        this.ring = ByteBuffer.allocateDirect(this.capacity * TraceRecord.Size).order(ByteOrder.LITTLE_ENDIAN);
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            var header = ByteBuffer.allocate(HeaderSize).order(ByteOrder.LITTLE_ENDIAN)
+                    .put(Magic)
+                    .putShort(Version)
+                    .putShort((short) TraceRecord.Size)
+                    .putInt(deltaCompressed ? DeltaCompressedFlag : 0)
+                    .flip();
+            writeFully(header);
+            indexer = indexPath == null ? null : new TraceIndexer(indexPath, deltaCompressed);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        drainThread = new Thread(this::drain, "Z80 trace recorder");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    /**
+     * Gets the number of records that fit in the ring buffer.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public BackpressurePolicy getBackpressurePolicy() {
+        return backpressurePolicy;
+    }
+
+    public boolean isDeltaCompressed() {
+        return deltaCompressed;
+    }
+
+//#region Recording, invoked by the processor
+
+    // written only by the processor thread
+
+    private long writeIndex;
+    private long knownReadIndex;
+    private int sequence;
+    private long droppedRecords;
+    private final int[] accesses = new int[MaxAccesses];
+    private int accessCount;
+
+    public void memoryRead(short address, byte value) {
+        accessed(address, value, MemoryReadType);
+    }
+
+    public void memoryWritten(short address, byte value) {
+        accessed(address, value, MemoryWriteType);
+    }
+
+    public void portRead(short port, byte value) {
+        accessed(port, value, PortReadType);
+    }
+
+    public void portWritten(short port, byte value) {
+        accessed(port, value, PortWriteType);
+    }
+
+    private void accessed(short address, byte value, byte type) {
+        if (accessCount < MaxAccesses)
+            accesses[accessCount] = (address & 0xffff) << 16 | (value & 0xff) << 8 | type;
+        accessCount++;
+    }
+
+    /**
+     * Records an instruction, with the memory and port accesses notified since the previous one.
+     *
+     * @param processor The processor, whose state after the instruction is recorded
+     * @param address The address of the first opcode byte of the instruction
+     * @param opcodeBytes The opcode bytes of the instruction
+     * @param startTStates The T states elapsed since start when the instruction started
+     * @param tStates The T states spent by the instruction, including the acceptance of an interrupt
+     * @param interruptAccepted Whether an interrupt was accepted after the instruction
+     */
+    public void instructionExecuted(
+            Z80Processor processor,
+            short address,
+            List<Byte> opcodeBytes,
+            long startTStates,
+            int tStates,
+            boolean interruptAccepted) {
+        var sequence = this.sequence++;
+        var index = writeIndex;
+        if (index - knownReadIndex >= capacity) {
+            knownReadIndex = readIndex;
+            if (index - knownReadIndex >= capacity && !waitForRoom(index)) {
+                DROPPED_RECORDS.setOpaque(this, droppedRecords + 1);
+                accessCount = 0;
+                return;
+            }
+        }
+
+        var offset = (int) (index & mask) * TraceRecord.Size;
+        var registers = processor.getRegisters();
+        var alternate = registers.getAlternate();
+        var opcodeLength = Math.min(opcodeBytes.size(), 4);
+        var recordedAccesses = Math.min(accessCount, MaxAccesses);
+
+        ring.putLong(offset + TStatesOffset, startTStates);
+        ring.putShort(offset + AddressOffset, address);
+        ring.put(offset + LengthsOffset, (byte) (recordedAccesses << 4 | opcodeLength));
+        ring.put(offset + FlagsOffset, (byte) (
+                registers.getIFF1().intValue() * IFF1Flag |
+                registers.getIFF2().intValue() * IFF2Flag |
+                (processor.getInterruptMode() & 3) << InterruptModeShift |
+                (processor.isHalted() ? HaltedFlag : 0) |
+                (interruptAccepted ? InterruptAcceptedFlag : 0) |
+                (accessCount > MaxAccesses ? AccessesOverflowFlag : 0)));
+        for (int i = 0; i < 4; i++)
+            ring.put(offset + OpcodeOffset + i, i < opcodeLength ? opcodeBytes.get(i) : 0);
+
+        var registersOffset = offset + RegistersOffset;
+        ring.putShort(registersOffset, registers.getAF());
+        ring.putShort(registersOffset + 2, registers.getBC());
+        ring.putShort(registersOffset + 4, registers.getDE());
+        ring.putShort(registersOffset + 6, registers.getHL());
+        ring.putShort(registersOffset + 8, alternate.getAF());
+        ring.putShort(registersOffset + 10, alternate.getBC());
+        ring.putShort(registersOffset + 12, alternate.getDE());
+        ring.putShort(registersOffset + 14, alternate.getHL());
+        ring.putShort(registersOffset + 16, registers.getIX());
+        ring.putShort(registersOffset + 18, registers.getIY());
+        ring.putShort(registersOffset + 20, registers.getSP());
+        ring.putShort(registersOffset + 22, registers.getPC());
+        ring.put(offset + IOffset, registers.getI());
+        ring.put(offset + ROffset, registers.getR());
+        ring.putShort(offset + InstructionTStatesOffset, (short) Math.min(tStates, 0xffff));
+
+        for (int i = 0; i < MaxAccesses; i++) {
+            var access = i < recordedAccesses ? accesses[i] : 0;
+            ring.putShort(offset + AccessesOffset + i * 4, (short) (access >>> 16));
+            ring.put(offset + AccessesOffset + i * 4 + 2, (byte) (access >>> 8));
+            ring.put(offset + AccessesOffset + i * 4 + 3, (byte) access);
+        }
+        ring.putInt(offset + SequenceOffset, sequence);
+
+        WRITE_INDEX.setRelease(this, index + 1);
+        accessCount = 0;
+    }
+
+    /**
+     * @return true if there is room for the record, false if it must be dropped
+     * @throws UncheckedIOException The drain thread failed writing the file
+     * @throws IllegalStateException The drain thread failed for another reason
+     */
+    private boolean waitForRoom(long index) {
+        if (failure != null)
+            throw failedDrain();
+        if (backpressurePolicy == BackpressurePolicy.DropNewest)
+            return false;
+
+        while (!closed && failure == null) {
+            LockSupport.unpark(drainThread);
+            LockSupport.parkNanos(BlockedParkNanos);
+            knownReadIndex = readIndex;
+            if (index - knownReadIndex < capacity)
+                return true;
+        }
+        if (failure != null)
+            throw failedDrain();
+        return false;
+    }
+
+    private RuntimeException failedDrain() {
+        return failure instanceof IOException e
+                ? new UncheckedIOException("Writing the trace file failed", e)
+                : new IllegalStateException("The trace recorder drain thread failed", failure);
+    }
+
+    /**
+     * Gets the number of records dropped because the buffer was full
+     * (only with {@link BackpressurePolicy#DropNewest}, or after the recorder has been closed).
+     */
+    public long getDroppedRecords() {
+        return (long) DROPPED_RECORDS.getOpaque(this);
+    }
+
+//#endregion
+
+//#region Draining
+
+    // written only by the drain thread
+
+    private volatile long readIndex;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    private void drain() {
+        var previous = new byte[TraceRecord.Size];
+        var current = new byte[TraceRecord.Size];
+        var compressed = deltaCompressed
+                ? ByteBuffer.allocate(MinDrainBatch * (TraceRecord.Size + 8)).order(ByteOrder.LITTLE_ENDIAN)
+                : null;
+        var position = (long) HeaderSize; // in the file, of the first record not written yet
+
+        try {
+            while (true) {
+                var isClosing = closed;
+                var read = readIndex;
+                var available = (long) WRITE_INDEX.getAcquire(this) - read;
+                if (available == 0 && isClosing)
+                    break;
+                if (available < MinDrainBatch && !isClosing) {
+                    LockSupport.parkNanos(DrainIntervalNanos);
+                    available = (long) WRITE_INDEX.getAcquire(this) - read;
+                    if (available == 0)
+                        continue;
+                }
+
+                var first = (int) (read & mask);
+                var count = (int) Math.min(available, capacity - first);
+                if (compressed == null) {
+                    writeFully(ring.slice(first * TraceRecord.Size, count * TraceRecord.Size));
+                    for (int i = 0; i < count && indexer != null; i++)
+                        indexer.recordWritten(ring, (first + i) * TraceRecord.Size, position + (i + 1) * TraceRecord.Size);
+                    position += count * TraceRecord.Size;
+                } else {
+                    for (int i = 0; i < count; i++) {
+                        ring.get((first + i) * TraceRecord.Size, current);
+                        if (compressed.remaining() < TraceRecord.Size + 8) {
+                            position += compressed.position();
+                            writeFully(compressed.flip());
+                            compressed.clear();
+                        }
+                        encodeDelta(previous, current, compressed);
+                        if (indexer != null)
+                            indexer.recordWritten(ring, (first + i) * TraceRecord.Size, position + compressed.position());
+                        var swap = previous;
+                        previous = current;
+                        current = swap;
+                    }
+                    position += compressed.position();
+                    writeFully(compressed.flip());
+                    compressed.clear();
+                }
+
+                readIndex = read + count;
+            }
+        } catch (Throwable e) {
+            // whatever the cause, the producer must not keep waiting for a thread that is gone
+            failure = e;
+        }
+    }
+
+    private static void encodeDelta(byte[] previous, byte[] current, ByteBuffer output) {
+        var maskPosition = output.position();
+        output.position(maskPosition + 8);
+        var changed = 0L;
+        for (int i = 0; i < TraceRecord.Size; i++) {
+            if (current[i] != previous[i]) {
+                changed |= 1L << i;
+                output.put(current[i]);
+            }
+        }
+        output.putLong(maskPosition, changed);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Writes the records still in the buffer, stops the drain thread and closes the file,
+     * and completes the index if one is being built.
+     * Instructions executed after this are not written to the file.
+     *
+     * @throws IOException Writing the file, or the drain thread, failed at some point, the trace is incomplete
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+        LockSupport.unpark(drainThread);
+        try {
+            drainThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+            if (indexer != null)
+                indexer.close();
+        }
+
+        if (failure instanceof IOException e)
+            throw e;
+        if (failure != null)
+            throw new IOException("The trace recorder drain thread failed", failure);
+    }
+
+//#endregion
+}
@@ -0,0 +1,21 @@
+package konamiman.z80.traps;
+
+import konamiman.z80.Z80Processor;
+import konamiman.z80.enums.TrapAction;
+
+
+/**
+ * Java code that runs when the execution reaches the address of a trap, see {@link Traps}.
+ */
+@FunctionalInterface
+public interface TrapHandler {
+
+    /**
+     * Invoked before the instruction at the address of the trap is fetched, from the thread that runs the processor.
+     * The handler can read and change the registers and the memory of the processor.
+     *
+     * @param processor The processor
+     * @return What the processor must do next
+     */
+    TrapAction trap(Z80Processor processor);
+}
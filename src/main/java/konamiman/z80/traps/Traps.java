@@ -0,0 +1,79 @@
+package konamiman.z80.traps;
+
+import java.util.Arrays;
+
+import konamiman.z80.enums.TrapAction;
+
+
+/**
+ * Java handlers for routines at fixed addresses, for example to emulate the calls to an operating system or a ROM.
+ *
+ * <remarks>
+ * <para>
+ * Attach an instance with {@link konamiman.z80.Z80Processor#setTraps(Traps)}. Before fetching every instruction
+ * the processor looks up the address in a 64K table of handlers; when there's a handler it's invoked,
+ * and the value it returns tells whether the instruction is executed, a RET is simulated
+ * or the processor stops (see {@link TrapAction}). Other addresses pay only the lookup,
+ * unlike a listener of {@link konamiman.z80.Z80Processor#beforeInstructionFetch()} that runs for every instruction.
+ * </para>
+ * <para>
+ * Traps are checked after breakpoints (so a breakpoint at the address of a trap stops the processor
+ * before the handler runs) and also by {@link konamiman.z80.Z80Processor#executeNextInstruction()}.
+ * The handler doesn't consume T states, and the events of the instruction at the trap address are not fired
+ * when the handler returns or changes the PC register.
+ * </para>
+ */
+public class Traps {
+
+    private final TrapHandler[] handlers = new TrapHandler[65536];
+
+    private int count;
+
+    /**
+     * Sets the handler of an address, replacing the existing one if any.
+     */
+    public synchronized void set(short address, TrapHandler handler) {
+        if (handler == null)
+            throw new IllegalArgumentException("A trap needs a handler");
+
+        if (handlers[address & 0xffff] == null)
+            count++;
+        handlers[address & 0xffff] = handler;
+    }
+
+    /**
+     * Removes the handler of an address.
+     *
+     * @return true if there was a handler for the address
+     */
+    public synchronized boolean remove(short address) {
+        if (handlers[address & 0xffff] == null)
+            return false;
+
+        handlers[address & 0xffff] = null;
+        count--;
+        return true;
+    }
+
+    /**
+     * Removes all the handlers.
+     */
+    public synchronized void clear() {
+        Arrays.fill(handlers, null);
+        count = 0;
+    }
+
+    /**
+     * Gets the handler of an address, or null if there isn't any. This is the lookup done for every instruction.
+     */
+    public TrapHandler get(short address) {
+        return handlers[address & 0xffff];
+    }
+
+    /**
+     * Gets the number of addresses with a handler.
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,60 @@
+package konamiman.z80.utils;
+
+import konamiman.z80.enums.StopReason;
+
+
+/**
+ * Summary of one execution run of a {@link konamiman.z80.Z80Processor}, that is, of one invocation
+ * of {@link konamiman.z80.Z80Processor#start(Object)} or {@link konamiman.z80.Z80Processor#continue_()}
+ * (or of their asynchronous counterparts).
+ */
+public class RunResult {
+
+    public RunResult(StopReason stopReason, long tStates, long instructions, long wallTimeNanos) {
+        this.stopReason = stopReason;
+        this.tStates = tStates;
+        this.instructions = instructions;
+        this.wallTimeNanos = wallTimeNanos;
+    }
+
+    /**
+     * The reason why the run finished.
+     */
+    private final StopReason stopReason;
+
+    public StopReason getStopReason() { return stopReason; }
+
+    /**
+     * The T states executed during the run, including wait states and interrupt servicing.
+     */
+    private final long tStates;
+
+    public long getTStates() { return tStates; }
+
+    /**
+     * The count of instructions executed during the run.
+     */
+    private final long instructions;
+
+    public long getInstructions() { return instructions; }
+
+    /**
+     * The host time elapsed during the run, in nanoseconds.
+     */
+    private final long wallTimeNanos;
+
+    public long getWallTimeNanos() { return wallTimeNanos; }
+
+    /**
+     * The clock frequency that has been effectively achieved during the run, in MHz.
+     */
+    public double getEffectiveClockFrequencyInMHz() {
+        return wallTimeNanos == 0 ? 0 : tStates * 1000.0 / wallTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "RunResult{stopReason=%s, tStates=%d, instructions=%d, wallTimeNanos=%d, effectiveMHz=%.3f}"
+                .formatted(stopReason, tStates, instructions, wallTimeNanos, getEffectiveClockFrequencyInMHz());
+    }
+}
@@ -0,0 +1,161 @@
+package konamiman.z80;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import konamiman.z80.debugging.Breakpoints;
+import konamiman.z80.enums.ProcessorState;
+import konamiman.z80.enums.StopReason;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class BreakpointsTests {
+
+    private static final byte[] Program = {
+            0x06, 0x05,                     // 0000: LD B,5
+            0x3C,                           // 0002: INC A
+            0x10, (byte) 0xFD,              // 0003: DJNZ 0002h
+            0x76                            // 0005: HALT
+    };
+
+    private Z80ProcessorImpl sut;
+    private Breakpoints breakpoints;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnDiPlusHalt(true);
+        sut.getMemory().setContents(0, Program, 0, null);
+        breakpoints = new Breakpoints();
+        sut.setBreakpoints(breakpoints);
+    }
+
+    @Test
+    public void Execution_stops_before_instruction_at_breakpoint() {
+        breakpoints.add((short) 2);
+
+        sut.start(null);
+
+        assertEquals(StopReason.BreakpointHit, sut.getStopReason());
+        assertEquals(ProcessorState.Stopped, sut.getState());
+        assertEquals(2, sut.getRegisters().getPC());
+        assertEquals(5, sut.getRegisters().getB());
+        assertEquals((byte) 0xFF, sut.getRegisters().getA());
+        assertEquals(1, breakpoints.get((short) 2).getHitCount());
+        assertEquals(breakpoints.get((short) 2), breakpoints.getLastHit());
+    }
+
+    @Test
+    public void Continue_executes_instruction_at_breakpoint_and_stops_on_next_hit() {
+        var breakpoint = breakpoints.add((short) 2);
+
+        sut.start(null);
+        for (int i = 1; i <= 4; i++) {
+            sut.continue_();
+            assertEquals(StopReason.BreakpointHit, sut.getStopReason());
+            assertEquals(2, sut.getRegisters().getPC());
+            assertEquals(5 - i, sut.getRegisters().getB());
+        }
+        sut.continue_();
+
+        assertEquals(StopReason.DiPlusHalt, sut.getStopReason());
+        assertEquals(4, sut.getRegisters().getA());
+        assertEquals(5, breakpoint.getHitCount());
+    }
+
+    @Test
+    public void Temporary_breakpoint_is_removed_when_hit() {
+        var breakpoint = breakpoints.addTemporary((short) 3);
+
+        sut.start(null);
+        assertEquals(StopReason.BreakpointHit, sut.getStopReason());
+        assertEquals(3, sut.getRegisters().getPC());
+        assertFalse(breakpoints.isSet((short) 3));
+        assertNull(breakpoints.get((short) 3));
+        assertEquals(breakpoint, breakpoints.getLastHit());
+        assertEquals(1, breakpoint.getHitCount());
+
+        sut.continue_();
+        assertEquals(StopReason.DiPlusHalt, sut.getStopReason());
+    }
+
+    @Test
+    public void Execute_next_instruction_ignores_breakpoints() {
+        breakpoints.add((short) 0);
+        breakpoints.add((short) 2);
+
+        sut.executeNextInstruction();
+        sut.executeNextInstruction();
+
+        assertEquals(3, sut.getRegisters().getPC());
+        assertEquals(0, breakpoints.get((short) 2).getHitCount());
+    }
+
+    @Test
+    public void Removed_and_cleared_breakpoints_are_not_hit() {
+        breakpoints.add((short) 0xFFFF);
+        breakpoints.add((short) 0x8000);
+        breakpoints.add((short) 2);
+        breakpoints.add((short) 3);
+        assertTrue(breakpoints.isSet((short) 0xFFFF));
+        assertTrue(breakpoints.isSet((short) 0x8000));
+        assertEquals(4, breakpoints.getAll().size());
+
+        assertTrue(breakpoints.remove((short) 2));
+        assertFalse(breakpoints.remove((short) 2));
+        sut.start(null);
+        assertEquals(3, sut.getRegisters().getPC());
+
+        breakpoints.clear();
+        assertFalse(breakpoints.isSet((short) 0xFFFF));
+        assertFalse(breakpoints.isSet((short) 0x8000));
+        assertEquals(0, breakpoints.getAll().size());
+        sut.start(null);
+        assertEquals(StopReason.DiPlusHalt, sut.getStopReason());
+    }
+
+    @Test
+    public void Breakpoint_at_address_FFFF_stops_execution() {
+        sut.getMemory().set(0xFFFF, (byte) 0x76);
+        sut.getRegisters().setPC((short) 0xFFFF);
+        breakpoints.add((short) 0xFFFF);
+
+        sut.continue_();
+        assertEquals(StopReason.BreakpointHit, sut.getStopReason());
+        assertEquals((short) 0xFFFF, sut.getRegisters().getPC());
+    }
+
+    @Test
+    public void Conditional_breakpoint_is_hit_only_when_condition_holds() {
+        var breakpoint = breakpoints.add((short) 2, "B == 3 && A == 0x01");
+
+        sut.start(null);
+
+        assertEquals(StopReason.BreakpointHit, sut.getStopReason());
+        assertEquals(3, sut.getRegisters().getB());
+        assertEquals(1, breakpoint.getHitCount());
+
+        sut.continue_();
+        assertEquals(StopReason.DiPlusHalt, sut.getStopReason());
+    }
+
+    @Test
+    public void Logpoint_invokes_handler_without_stopping() {
+        var values = new ArrayList<Integer>();
+        var logpoint = breakpoints.addLogpoint((short) 3, "A < 3", (breakpoint, z80) -> values.add((int) z80.getRegisters().getA()));
+
+        sut.start(null);
+
+        assertEquals(StopReason.DiPlusHalt, sut.getStopReason());
+        assertEquals(List.of(0, 1, 2), values);
+        assertEquals(3, logpoint.getHitCount());
+        assertNull(breakpoints.getLastHit());
+    }
+}
@@ -0,0 +1,177 @@
+package konamiman.z80;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Map;
+
+import konamiman.z80.profiling.CallGraphProfiler;
+import konamiman.z80.profiling.SymbolTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+public class CallGraphProfilerTests {
+
+    private static final byte[] Program = {
+            (byte) 0xCD, 0x10, 0x00,    // 0000: CALL 0010h
+            (byte) 0xCD, 0x20, 0x00,    // 0003: CALL 0020h
+            (byte) 0xC9,                // 0006: RET
+            0, 0, 0, 0, 0, 0, 0, 0, 0,
+            (byte) 0xCD, 0x20, 0x00,    // 0010: CALL 0020h
+            (byte) 0xC9,                // 0013: RET
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            0x00,                       // 0020: NOP
+            (byte) 0xC9                 // 0021: RET
+    };
+
+    private Z80ProcessorImpl sut;
+    private CallGraphProfiler profiler;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnRetWithStackEmpty(true);
+        sut.getMemory().setContents(0, new byte[0x10000], 0, null);
+        sut.getMemory().setContents(0, Program, 0, null);
+
+        profiler = new CallGraphProfiler();
+        sut.setCallGraphProfiler(profiler);
+    }
+
+    @Test
+    public void Profiler_is_null_by_default() {
+        assertNull(new Z80ProcessorImpl().getCallGraphProfiler());
+    }
+
+    @Test
+    public void Inclusive_and_exclusive_TStates_per_routine() {
+        sut.start(null);
+
+        assertEquals(2 * 17 + 10, profiler.getTopLevelTStates()); // CALL, CALL, RET
+        assertEquals(new CallGraphProfiler.RoutineProfile(0x10, "0010", 1, 17 + 10 + 14, 17 + 10), profiler.getRoutine((short) 0x10));
+        assertEquals(new CallGraphProfiler.RoutineProfile(0x20, "0020", 2, 2 * 14, 2 * 14), profiler.getRoutine((short) 0x20));
+        assertEquals(sut.getTStatesElapsedSinceStart(), profiler.getTotalTStates());
+        assertEquals(0x10, profiler.getRoutines().get(0).address());
+        assertNull(profiler.getRoutine((short) 0x03));
+    }
+
+    @Test
+    public void Collapsed_stacks_have_exclusive_TStates() throws Exception {
+        sut.start(null);
+
+        assertEquals(Map.of(
+                "(top)", 44L,
+                "0010", 27L,
+                "0010;0020", 14L,
+                "0020", 14L), profiler.getCollapsedStacks());
+
+        var writer = new StringWriter();
+        profiler.writeCollapsedStacks(writer);
+        assertEquals("(top) 44\n0010 27\n0010;0020 14\n0020 14\n", writer.toString());
+    }
+
+    @Test
+    public void Routines_are_named_with_symbols() throws Exception {
+        var symbols = new SymbolTable();
+        symbols.load(new StringReader("""
+                ; symbols
+                START:  EQU 0000h
+                first: equ 0x0010
+                second = $0020
+                """));
+        profiler.setSymbols(symbols);
+
+        sut.start(null);
+
+        assertEquals("first", profiler.getRoutine((short) 0x10).name());
+        assertEquals(Long.valueOf(14), profiler.getCollapsedStacks().get("first;second"));
+    }
+
+    @Test
+    public void Recursion_is_accounted_once_in_inclusive_TStates() {
+        sut.getMemory().setContents(0, new byte[] {
+                0x06, 0x03,                 // 0000: LD B,3
+                (byte) 0xCD, 0x30, 0x00,    // 0002: CALL 0030h
+                (byte) 0xC9                 // 0005: RET
+        }, 0, null);
+        sut.getMemory().setContents(0x30, new byte[] {
+                0x05,                       // 0030: DEC B
+                (byte) 0xC8,                // 0031: RET Z
+                (byte) 0xCD, 0x30, 0x00,    // 0032: CALL 0030h
+                (byte) 0xC9                 // 0035: RET
+        }, 0, null);
+
+        sut.start(null);
+
+        var routine = profiler.getRoutine((short) 0x30);
+        assertEquals(3, routine.calls());
+        assertEquals(routine.exclusiveTStates(), routine.inclusiveTStates());
+        assertEquals(sut.getTStatesElapsedSinceStart() - profiler.getTopLevelTStates(), routine.inclusiveTStates());
+    }
+
+    @Test
+    public void Interrupts_enter_routines() {
+        sut.getMemory().setContents(0, new byte[] {(byte) 0xFB, 0x00, 0x00}, 0, null); // EI, NOP, NOP
+        sut.getMemory().setContents(0x38, new byte[] {(byte) 0xED, 0x4D}, 0, null); // RETI
+        var source = new InterruptSourceForTests();
+        sut.registerInterruptSource(source);
+        source.setIntLineIsActive(true);
+
+        sut.executeNextInstruction();
+        sut.executeNextInstruction(); // IM 0 with FFh on the bus (RST 38h)
+        source.setIntLineIsActive(false);
+
+        assertArrayEquals(new int[] {0x38}, profiler.getCallStack());
+
+        sut.executeNextInstruction();
+
+        assertArrayEquals(new int[0], profiler.getCallStack());
+        assertEquals(13 + 14, profiler.getRoutine((short) 0x38).exclusiveTStates());
+    }
+
+    @Test
+    public void Untaken_conditional_calls_are_ignored() {
+        sut.getMemory().setContents(0, new byte[] {(byte) 0xAF, (byte) 0xC4, 0x20, 0x00}, 0, null); // XOR A, CALL NZ,0020h
+
+        sut.executeNextInstruction();
+        sut.executeNextInstruction();
+
+        assertArrayEquals(new int[0], profiler.getCallStack());
+        assertEquals(4 + 10, profiler.getTopLevelTStates());
+    }
+
+    @Test
+    public void ExecuteCall_and_ExecuteRet_update_the_call_stack() {
+        sut.executeCall((short) 0x40);
+        assertArrayEquals(new int[] {0x40}, profiler.getCallStack());
+
+        sut.executeRet();
+        assertArrayEquals(new int[0], profiler.getCallStack());
+    }
+
+    @Test
+    public void Frames_are_left_when_the_stack_pointer_is_loaded() {
+        sut.getMemory().setContents(0x40, new byte[] {0x31, 0x00, 0x00}, 0, null); // 0040: LD SP,0
+        sut.executeCall((short) 0x40);
+
+        sut.executeNextInstruction();
+
+        assertArrayEquals(new int[0], profiler.getCallStack());
+    }
+
+    @Test
+    public void Reset_discards_the_profile() {
+        sut.start(null);
+
+        profiler.reset();
+
+        assertEquals(0, profiler.getTotalTStates());
+        assertEquals(Map.of(), profiler.getCollapsedStacks());
+        assertEquals(0, profiler.getRoutines().size());
+    }
+}
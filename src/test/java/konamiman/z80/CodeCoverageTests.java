@@ -0,0 +1,222 @@
+package konamiman.z80;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import konamiman.z80.profiling.CodeCoverage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class CodeCoverageTests {
+
+    private static final byte[] Program = {
+            0x06, 0x02,                     // 0000: LD B,2
+            0x05,                           // 0002: DEC B
+            (byte) 0xC4, 0x20, 0x00,        // 0003: CALL NZ,0020h
+            0x20, (byte) 0xFA,              // 0006: JR NZ,0002h
+            (byte) 0xC9                     // 0008: RET
+    };
+
+    private static final byte[] Subroutine = {
+            (byte) 0xC8,                    // 0020: RET Z
+            (byte) 0xC9                     // 0021: RET
+    };
+
+    private static final String Listing = """
+               1  0000  06 02        ld b,2
+               2  0002  05     loop: dec b
+               3  0003  C4 20 00     call nz,sub
+               4  0006  20 FA        jr nz,loop
+               5  0008  C9           ret
+               6  0009  00 00        db 0,0
+               7  0020  C8     sub:  ret z
+               8  0021  C9           ret
+               9  0022  3E 01        ld a,1
+              10  0024  28 01        jr z,$+3
+            """;
+
+    private Z80ProcessorImpl sut;
+    private CodeCoverage coverage;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnRetWithStackEmpty(true);
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.getMemory().setContents(0x20, Subroutine, 0, null);
+
+        coverage = new CodeCoverage();
+        sut.setCodeCoverage(coverage);
+    }
+
+    @Test
+    public void Coverage_is_null_by_default() {
+        assertNull(new Z80ProcessorImpl().getCodeCoverage());
+    }
+
+    @Test
+    public void Executed_instructions_are_recorded() {
+        sut.start(null);
+
+        for (var address : new int[] {0x00, 0x02, 0x03, 0x06, 0x08, 0x20, 0x21})
+            assertTrue(coverage.isExecuted((short) address), "%04X".formatted(address));
+        assertFalse(coverage.isExecuted((short) 0x01));
+        assertFalse(coverage.isExecuted((short) 0x22));
+        assertEquals(7, coverage.getExecutedCount());
+    }
+
+    @Test
+    public void Branch_outcomes_are_recorded() {
+        sut.start(null);
+
+        assertTrue(coverage.isBranchTaken((short) 0x03));
+        assertTrue(coverage.isBranchNotTaken((short) 0x03));
+        assertTrue(coverage.isBranchTaken((short) 0x06));
+        assertTrue(coverage.isBranchNotTaken((short) 0x06));
+        assertFalse(coverage.isBranchTaken((short) 0x20));
+        assertTrue(coverage.isBranchNotTaken((short) 0x20));
+        assertFalse(coverage.isBranchTaken((short) 0x08)); // unconditional
+        assertEquals(3, coverage.getBranchCount());
+        assertEquals(2, coverage.getFullyCoveredBranchCount());
+    }
+
+    @Test
+    public void Prefixed_branch_outcomes_are_recorded() {
+        sut.getMemory().setContents(0x100, new byte[] {
+                0x06, 0x02,                             // 0100: LD B,2
+                (byte) 0xDD, 0x10, 0x01,                // 0102: DJNZ 0106h (DD prefixed)
+                0x00,                                   // 0105: NOP
+                (byte) 0xFD, 0x28, 0x01,                // 0106: JR Z,010Ah (FD prefixed)
+                0x00,                                   // 0109: NOP
+                (byte) 0xDD, (byte) 0xCA, 0x10, 0x01,   // 010A: JP Z,0110h (DD prefixed)
+                0x00, 0x00,                             // 010E: NOP, NOP
+                (byte) 0xFD, (byte) 0xC4, 0x20, 0x00,   // 0110: CALL NZ,0020h (FD prefixed)
+                (byte) 0xDD, (byte) 0xC8                // 0114: RET Z (DD prefixed)
+        }, 0, null);
+        sut.reset(); // Z flag set
+        sut.getRegisters().setPC((short) 0x100);
+
+        sut.continue_();
+
+        // the prefix is executed as an instruction on its own and the branch is recorded at the next address
+        assertTrue(coverage.isExecuted((short) 0x102));
+        assertTrue(coverage.isExecuted((short) 0x103));
+        assertFalse(coverage.isExecuted((short) 0x105));
+        for (var address : new int[] {0x103, 0x107, 0x10B, 0x115}) {
+            assertTrue(coverage.isBranchTaken((short) address), "%04X".formatted(address));
+            assertFalse(coverage.isBranchNotTaken((short) address), "%04X".formatted(address));
+        }
+        assertFalse(coverage.isBranchTaken((short) 0x111));
+        assertTrue(coverage.isBranchNotTaken((short) 0x111));
+        assertEquals(5, coverage.getBranchCount());
+    }
+
+    @Test
+    public void Branches_to_the_next_instruction_are_recorded_by_condition() {
+        sut.getMemory().setContents(0x100, new byte[] {
+                0x06, 0x02,                             // 0100: LD B,2
+                0x10, 0x00,                             // 0102: DJNZ 0104h
+                0x28, 0x00,                             // 0104: JR Z,0106h
+                (byte) 0xCA, 0x09, 0x01,                // 0106: JP Z,0109h
+                (byte) 0xCC, 0x0C, 0x01,                // 0109: CALL Z,010Ch
+                (byte) 0xE1,                            // 010C: POP HL
+                0x20, 0x00,                             // 010D: JR NZ,010Fh
+                (byte) 0xC8                             // 010F: RET Z
+        }, 0, null);
+        sut.reset(); // Z flag set
+        sut.getRegisters().setPC((short) 0x100);
+
+        sut.continue_();
+
+        for (var address : new int[] {0x102, 0x104, 0x106, 0x109, 0x10F}) {
+            assertTrue(coverage.isBranchTaken((short) address), "%04X".formatted(address));
+            assertFalse(coverage.isBranchNotTaken((short) address), "%04X".formatted(address));
+        }
+        assertFalse(coverage.isBranchTaken((short) 0x10D));
+        assertTrue(coverage.isBranchNotTaken((short) 0x10D));
+    }
+
+    @Test
+    public void Merge_combines_coverage() {
+        var other = new CodeCoverage();
+        other.instructionExecuted((short) 0x1234);
+        other.branchExecuted((short) 0x20, true);
+        sut.start(null);
+
+        coverage.merge(other);
+
+        assertTrue(coverage.isExecuted((short) 0x1234));
+        assertTrue(coverage.isBranchTaken((short) 0x20));
+        assertEquals(3, coverage.getFullyCoveredBranchCount());
+    }
+
+    @Test
+    public void Coverage_can_be_written_and_read() throws Exception {
+        sut.start(null);
+        var stream = new ByteArrayOutputStream();
+        coverage.write(stream);
+
+        var read = new CodeCoverage();
+        read.read(new ByteArrayInputStream(stream.toByteArray()));
+
+        assertEquals(7, read.getExecutedCount());
+        assertTrue(read.isBranchNotTaken((short) 0x20));
+        assertThrows(IOException.class, () -> read.read(new ByteArrayInputStream(new byte[16])));
+    }
+
+    @Test
+    public void Reset_clears_coverage() {
+        sut.start(null);
+
+        coverage.reset();
+
+        assertEquals(0, coverage.getExecutedCount());
+        assertEquals(0, coverage.getBranchCount());
+    }
+
+    @Test
+    public void Lcov_report_covers_listing_lines() throws Exception {
+        sut.start(null);
+
+        var writer = new StringWriter();
+        coverage.writeLcov(new StringReader(Listing), "test.lst", writer);
+
+        assertEquals("""
+                TN:
+                SF:test.lst
+                DA:1,1
+                DA:2,1
+                DA:3,1
+                BRDA:3,0,0,1
+                BRDA:3,0,1,1
+                DA:4,1
+                BRDA:4,0,0,1
+                BRDA:4,0,1,1
+                DA:5,1
+                DA:7,1
+                BRDA:7,0,0,0
+                BRDA:7,0,1,1
+                DA:8,1
+                DA:9,0
+                DA:10,0
+                BRDA:10,0,0,-
+                BRDA:10,0,1,-
+                BRF:8
+                BRH:5
+                LF:9
+                LH:7
+                end_of_record
+                """, writer.toString());
+    }
+}
@@ -0,0 +1,104 @@
+package konamiman.z80;
+
+import konamiman.z80.debugging.Condition;
+import konamiman.z80.exceptions.ConditionSyntaxException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class ConditionTests {
+
+    private Z80ProcessorImpl sut;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        var registers = sut.getRegisters();
+        registers.setPC((short) 0x0005);
+        registers.setBC((short) 0x120F);
+        registers.setDE((short) 0x8000);
+        registers.setHL((short) 0xFFFE);
+        registers.setAF((short) 0x3C41);
+        registers.getAlternate().setHL((short) 0x1234);
+        sut.getMemory().set(0x8000, (byte) 0x5C);
+        sut.getMemory().set(0x8001, (byte) 0xC5);
+    }
+
+    private long evaluate(String expression) {
+        return Condition.compile(expression).evaluate(sut);
+    }
+
+    @Test
+    public void Registers_are_unsigned() {
+        assertEquals(0x0F, evaluate("c"));
+        assertEquals(0x12, evaluate("B"));
+        assertEquals(0x8000, evaluate("DE"));
+        assertEquals(0xFFFE, evaluate("HL"));
+        assertEquals(0x1234, evaluate("HL'"));
+        assertEquals(1, evaluate("ZF"));
+        assertEquals(1, evaluate("CF"));
+        assertEquals(0, evaluate("SF"));
+    }
+
+    @Test
+    public void Parentheses_read_memory() {
+        assertTrue(Condition.compile("PC==0x0005 && C==15 && (DE)==0x5C").test(sut));
+        assertEquals(0xC5, evaluate("(DE+1)"));
+        assertEquals(0xC55C, evaluate("(DE) | (DE+1) << 8"));
+        assertEquals(0x5C, evaluate("(8000h)"));
+    }
+
+    @Test
+    public void Operators_have_precedence_and_brackets_group() {
+        assertEquals(14, evaluate("2 + 3 * 4"));
+        assertEquals(20, evaluate("[2 + 3] * 4"));
+        assertEquals(1, evaluate("1 | 2 == 3"));
+        assertEquals(3, evaluate("[1 | 2] & 0b111"));
+        assertEquals(0x5C, evaluate("101b + 57h"));
+        assertEquals(1, evaluate("!0"));
+        assertEquals(0, evaluate("!C"));
+        assertEquals(1, evaluate("HL >= 0xFFFE && HL <= 65534"));
+        assertEquals(1, evaluate("A != 0x3D || B < C"));
+        assertEquals(0xFF, evaluate("~0 & 0xFF"));
+    }
+
+    @Test
+    public void Hexadecimal_numbers_with_h_suffix_can_start_with_0B() {
+        assertEquals(0xBE, evaluate("0BEh"));
+        assertEquals(0xB000, evaluate("0B000h"));
+        assertEquals(0x0B, evaluate("0Bh"));
+        assertEquals(5, evaluate("0b101"));
+        assertEquals(0x1B, evaluate("0x1B"));
+    }
+
+    @Test
+    public void Logical_operators_short_circuit() {
+        assertFalse(Condition.compile("0 && (HL)").test(sut));
+        assertTrue(Condition.compile("1 || (HL)").test(sut));
+    }
+
+    @Test
+    public void T_states_can_be_compared() {
+        sut.getMemory().set(0, (byte) 0x00);
+        sut.getRegisters().setPC((short) 0);
+        sut.executeNextInstruction();
+        assertEquals(4, evaluate("T"));
+        assertTrue(Condition.compile("T > 3").test(sut));
+    }
+
+    @Test
+    public void Invalid_expressions_are_rejected() {
+        var exception = assertThrows(ConditionSyntaxException.class, () -> Condition.compile("PC == XY"));
+        assertEquals(6, exception.getPosition());
+        assertThrows(ConditionSyntaxException.class, () -> Condition.compile("(DE"));
+        assertThrows(ConditionSyntaxException.class, () -> Condition.compile("A =="));
+        assertThrows(ConditionSyntaxException.class, () -> Condition.compile("A = 1"));
+        assertThrows(ConditionSyntaxException.class, () -> Condition.compile("12G"));
+        assertThrows(ConditionSyntaxException.class, () -> Condition.compile(""));
+    }
+}
@@ -0,0 +1,135 @@
+package konamiman.z80;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import javax.imageio.ImageIO;
+
+import konamiman.z80.profiling.ExecutionHeatmap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+
+public class ExecutionHeatmapTests {
+
+    private static final byte[] Program = {
+            0x06, 0x03,                 // 0000: LD B,3
+            0x21, 0x00, 0x10,           // 0002: LD HL,1000h
+            0x7E,                       // 0005: LD A,(HL)
+            0x34,                       // 0006: INC (HL)
+            0x10, (byte) 0xFC,          // 0007: DJNZ 0005h
+            (byte) 0xC9                 // 0009: RET
+    };
+
+    private Z80ProcessorImpl sut;
+    private ExecutionHeatmap heatmap;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnRetWithStackEmpty(true);
+        sut.getMemory().setContents(0, Program, 0, null);
+
+        heatmap = new ExecutionHeatmap();
+        sut.setHeatmap(heatmap);
+    }
+
+    @Test
+    public void Heatmap_is_null_by_default() {
+        assertEquals(null, new Z80ProcessorImpl().getHeatmap());
+    }
+
+    @Test
+    public void Counts_executions_and_TStates_per_address() {
+        sut.start(null);
+
+        assertEquals(1, heatmap.getExecutions((short) 0x0000));
+        assertEquals(0, heatmap.getExecutions((short) 0x0001));
+        assertEquals(3, heatmap.getExecutions((short) 0x0005));
+        assertEquals(3, heatmap.getExecutions((short) 0x0007));
+        assertEquals(1, heatmap.getExecutions((short) 0x0009));
+
+        assertEquals(3 * 11, heatmap.getTStates((short) 0x0006));
+        assertEquals(2 * 13 + 8, heatmap.getTStates((short) 0x0007));
+        assertEquals(sut.getTStatesElapsedSinceStart(), sumOfTStates(heatmap));
+    }
+
+    @Test
+    public void Counts_reads_and_writes_per_address() {
+        sut.start(null);
+
+        assertEquals(6, heatmap.getReads((short) 0x1000));
+        assertEquals(3, heatmap.getWrites((short) 0x1000));
+        assertEquals(1, heatmap.getReads((short) 0xFFFF)); // RET
+        assertEquals(0, heatmap.getReads((short) 0x0005)); // fetches are not counted as reads
+    }
+
+    @Test
+    public void Reset_sets_counters_to_zero() {
+        sut.start(null);
+
+        heatmap.reset();
+
+        assertEquals(0, heatmap.getExecutions((short) 0x0005));
+        assertEquals(0, heatmap.getTStates((short) 0x0005));
+        assertEquals(0, heatmap.getReads((short) 0x1000));
+        assertEquals(0, heatmap.getWrites((short) 0x1000));
+    }
+
+    @Test
+    public void Merge_adds_counters() {
+        sut.start(null);
+        var other = new ExecutionHeatmap();
+        sut.setHeatmap(other);
+        sut.start(null);
+
+        heatmap.merge(other);
+
+        assertEquals(6, heatmap.getExecutions((short) 0x0005));
+        assertEquals(6 * 11, heatmap.getTStates((short) 0x0006));
+        assertEquals(12, heatmap.getReads((short) 0x1000));
+        assertEquals(6, heatmap.getWrites((short) 0x1000));
+    }
+
+    @Test
+    public void Csv_has_one_line_per_used_address() throws Exception {
+        sut.start(null);
+
+        var writer = new StringWriter();
+        heatmap.writeCsv(writer);
+
+        var lines = writer.toString().split("\n");
+        assertEquals("address,executions,tStates,reads,writes", lines[0]);
+        assertEquals("0000,1,7,1,0", lines[1]); // the RET reads 0000h as the high byte of the return address
+        assertEquals("0005,3,21,0,0", lines[3]);
+        assertEquals("1000,0,0,6,3", lines[7]);
+        assertEquals("FFFF,0,0,1,0", lines[8]);
+        assertEquals(9, lines.length);
+    }
+
+    @Test
+    public void Png_is_one_pixel_per_address() throws Exception {
+        sut.start(null);
+
+        var stream = new ByteArrayOutputStream();
+        heatmap.writePng(stream);
+
+        var image = ImageIO.read(new ByteArrayInputStream(stream.toByteArray()));
+        assertEquals(256, image.getWidth());
+        assertEquals(256, image.getHeight());
+        assertNotEquals(0, image.getRGB(0x06, 0x00) & 0x00FF00);
+        assertNotEquals(0, image.getRGB(0x00, 0x10) & 0xFF0000);
+        assertEquals(0, image.getRGB(0x01, 0x00) & 0xFFFFFF);
+    }
+
+    private static long sumOfTStates(ExecutionHeatmap heatmap) {
+        var sum = 0L;
+        for (int i = 0; i < 65536; i++)
+            sum += heatmap.getTStates((short) i);
+        return sum;
+    }
+}
@@ -0,0 +1,229 @@
+package konamiman.z80;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import konamiman.z80.devices.MemoryMap;
+import konamiman.z80.devices.PortHandlers;
+import konamiman.z80.enums.MemoryAccessEventType;
+import konamiman.z80.exceptions.InputReplayDivergedException;
+import konamiman.z80.impls.PlainMemory;
+import konamiman.z80.replay.InputRecorder;
+import konamiman.z80.replay.InputReplayer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class InputReplayTests {
+
+    private static final byte[] Program = {
+            (byte) 0xED, 0x56,              // 0000: IM 1
+            (byte) 0xFB,                    // 0002: EI
+            0x21, 0x00, 0x40,               // 0003: LD HL,4000h
+            0x01, 0x00, 0x08,               // 0006: LD BC,0800h
+            (byte) 0xDB, 0x10,              // 0009: IN A,(10h)
+            0x77,                           // 000B: LD (HL),A
+            0x23,                           // 000C: INC HL
+            0x0B,                           // 000D: DEC BC
+            0x78,                           // 000E: LD A,B
+            (byte) 0xB1,                    // 000F: OR C
+            0x20, (byte) 0xF7,              // 0010: JR NZ,0009h
+            (byte) 0xF3,                    // 0012: DI
+            0x76                            // 0013: HALT
+    };
+
+    private static final byte[] InterruptServiceRoutine = {
+            (byte) 0xF5,                    // 0038: PUSH AF
+            (byte) 0xDB, 0x11,              // 0039: IN A,(11h)
+            0x32, 0x00, 0x30,               // 003B: LD (3000h),A
+            0x3A, 0x01, 0x30,               // 003E: LD A,(3001h)
+            0x3C,                           // 0041: INC A
+            0x32, 0x01, 0x30,               // 0042: LD (3001h),A
+            (byte) 0xF1,                    // 0045: POP AF
+            (byte) 0xFB,                    // 0046: EI
+            (byte) 0xED, 0x4D               // 0047: RETI
+    };
+
+    private static final byte[] NmiServiceRoutine = {
+            0x3A, 0x02, 0x30,               // 0066: LD A,(3002h)
+            0x3C,                           // 0069: INC A
+            0x32, 0x02, 0x30,               // 006A: LD (3002h),A
+            (byte) 0xED, 0x45               // 006D: RETN
+    };
+
+    private Z80ProcessorImpl sut;
+
+    @BeforeEach
+    public void setup() {
+        sut = createProcessor();
+    }
+
+    private static Z80ProcessorImpl createProcessor() {
+        var z80 = new Z80ProcessorImpl();
+        z80.setClockSynchronizer(null);
+        z80.getMemory().setContents(0, Program, 0, null);
+        z80.getMemory().setContents(0x38, InterruptServiceRoutine, 0, null);
+        z80.getMemory().setContents(0x66, NmiServiceRoutine, 0, null);
+        return z80;
+    }
+
+    /** records a run with random port values, periodic interrupts and one NMI, returns the input log */
+    private byte[] recordRun() throws IOException {
+        var random = new Random();
+        sut.setPortsSpace(new PlainMemory(256) {
+            @Override
+            public byte get(int address) {
+                return (byte) random.nextInt(256);
+            }
+        });
+
+        var source = new InterruptSourceForTests();
+        sut.registerInterruptSource(source);
+        var instructions = new int[1];
+        var period = 50 + random.nextInt(50);
+        sut.afterInstructionExecution().addListener(e -> {
+            instructions[0]++;
+            source.setIntLineIsActive(instructions[0] % period == 0);
+            if (instructions[0] == 5000)
+                source.fireNmi();
+        });
+
+        var log = new ByteArrayOutputStream();
+        try (var recorder = new InputRecorder(log)) {
+            sut.setInputRecorder(recorder);
+            sut.start(null);
+            sut.setInputRecorder(null);
+        }
+        return log.toByteArray();
+    }
+
+    @Test
+    public void Replayed_run_is_identical_to_recorded_run() throws IOException {
+        var log = recordRun();
+        assertTrue(sut.getMemory().get(0x3001) != 0);
+        assertEquals(1, sut.getMemory().get(0x3002));
+
+        var replayed = createProcessor();
+        try (var replayer = new InputReplayer(new ByteArrayInputStream(log))) {
+            replayed.setInputReplayer(replayer);
+            replayed.start(null);
+            assertTrue(replayer.isFinished());
+        }
+
+        assertEquals(sut.getTStatesElapsedSinceStart(), replayed.getTStatesElapsedSinceStart());
+        assertEquals(sut.getRegisters().getAF(), replayed.getRegisters().getAF());
+        assertEquals(sut.getRegisters().getPC(), replayed.getRegisters().getPC());
+        assertArrayEquals(sut.getMemory().getContents(0x3000, 0x1800), replayed.getMemory().getContents(0x3000, 0x1800));
+    }
+
+    @Test
+    public void Log_is_compact() throws IOException {
+        var log = recordRun();
+
+        // 2048 port reads in the main loop and one per interrupt
+        var portReads = 2048 + (sut.getMemory().get(0x3001) & 0xff);
+        assertTrue(log.length < portReads * 6, "Log size: " + log.length);
+    }
+
+    @Test
+    public void Replay_of_different_program_fails() throws IOException {
+        var log = recordRun();
+
+        var replayed = createProcessor();
+        replayed.getMemory().set(0x000A, (byte) 0x12); // IN A,(12h)
+        try (var replayer = new InputReplayer(new ByteArrayInputStream(log))) {
+            replayed.setInputReplayer(replayer);
+            var exception = assertThrows(InputReplayDivergedException.class, () -> replayed.start(null));
+            assertTrue(exception.getMessage().contains("port 0012"), exception.getMessage());
+        }
+    }
+
+    @Test
+    public void Reads_of_memory_mapped_devices_are_recorded_and_replayed() throws IOException {
+        var program = new byte[] {
+                0x21, 0x00, 0x40,           // 0000: LD HL,4000h
+                0x06, 0x10,                 // 0003: LD B,10h
+                0x3A, 0x00, (byte) 0x80,    // 0005: LD A,(8000h)
+                0x77,                       // 0008: LD (HL),A
+                0x23,                       // 0009: INC HL
+                0x10, (byte) 0xF9,          // 000A: DJNZ 0005h
+                (byte) 0xF3,                // 000C: DI
+                0x76                        // 000D: HALT
+        };
+        var random = new Random();
+        sut.getMemory().setContents(0, program, 0, null);
+        var memoryMap = new MemoryMap();
+        memoryMap.map((short) 0x8000, (short) 0x8000, address -> (byte) random.nextInt(256), null);
+        sut.setMemoryMap(memoryMap);
+
+        var log = new ByteArrayOutputStream();
+        try (var recorder = new InputRecorder(log)) {
+            sut.setInputRecorder(recorder);
+            sut.start(null);
+            assertEquals(16, recorder.getEntryCount());
+        }
+
+        var replayed = createProcessor();
+        replayed.getMemory().setContents(0, program, 0, null);
+        var replayedMemoryMap = new MemoryMap();
+        replayedMemoryMap.map((short) 0x8000, (short) 0x8000, address -> { throw new IllegalStateException(); }, null);
+        replayed.setMemoryMap(replayedMemoryMap);
+        try (var replayer = new InputReplayer(new ByteArrayInputStream(log.toByteArray()))) {
+            replayed.setInputReplayer(replayer);
+            replayed.start(null);
+            assertTrue(replayer.isFinished());
+        }
+
+        assertArrayEquals(sut.getMemory().getContents(0x4000, 16), replayed.getMemory().getContents(0x4000, 16));
+    }
+
+    @Test
+    public void Writes_to_devices_are_not_performed_while_replaying() throws IOException {
+        var program = new byte[] {
+                0x3E, 0x55,                 // 0000: LD A,55h
+                (byte) 0xD3, 0x20,          // 0002: OUT (20h),A
+                (byte) 0xD3, 0x21,          // 0004: OUT (21h),A
+                0x32, 0x00, (byte) 0x80,    // 0006: LD (8000h),A
+                (byte) 0xF3,                // 0009: DI
+                0x76                        // 000A: HALT
+        };
+        sut.getMemory().setContents(0, program, 0, null);
+        var log = new ByteArrayOutputStream();
+        try (var recorder = new InputRecorder(log)) {
+            sut.setInputRecorder(recorder);
+            sut.start(null);
+            assertEquals(0, recorder.getEntryCount());
+        }
+
+        var replayed = createProcessor();
+        replayed.getMemory().setContents(0, program, 0, null);
+        var portHandlers = new PortHandlers();
+        portHandlers.setWriteHandler((short) 0x20, (port, value) -> { throw new IllegalStateException(); });
+        replayed.setPortHandlers(portHandlers);
+        var memoryMap = new MemoryMap();
+        memoryMap.map((short) 0x8000, (short) 0x8000, null, (address, value) -> { throw new IllegalStateException(); });
+        replayed.setMemoryMap(memoryMap);
+        replayed.memoryAccess(MemoryAccessEventType.BeforePortWrite).addListener(e -> { throw new IllegalStateException(); });
+        try (var replayer = new InputReplayer(new ByteArrayInputStream(log.toByteArray()))) {
+            replayed.setInputReplayer(replayer);
+            replayed.start(null);
+            assertTrue(replayer.isFinished());
+        }
+
+        assertEquals(0, replayed.getPortsSpace().get(0x21));
+        assertEquals(0, replayed.getMemory().get(0x8000));
+        assertEquals(sut.getTStatesElapsedSinceStart(), replayed.getTStatesElapsedSinceStart());
+    }
+
+    @Test
+    public void Replayer_rejects_other_data() {
+        assertThrows(IOException.class, () -> new InputReplayer(new ByteArrayInputStream(new byte[] {1, 2, 3, 4})));
+    }
+}
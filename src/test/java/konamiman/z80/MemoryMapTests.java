@@ -0,0 +1,112 @@
+package konamiman.z80;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import konamiman.z80.devices.MemoryMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class MemoryMapTests {
+
+    private static final byte[] Program = {
+            0x3A, 0x00, (byte) 0x80,        // 0000: LD A,(8000h)
+            0x32, 0x01, (byte) 0x80,        // 0003: LD (8001h),A
+            0x32, (byte) 0xFF, 0x7F,        // 0006: LD (7FFFh),A
+            (byte) 0xC3, 0x00, (byte) 0x90  // 0009: JP 9000h
+    };
+
+    private static final byte[] Rom = {
+            0x3C,                           // 9000: INC A
+            0x76                            // 9001: HALT
+    };
+
+    private Z80ProcessorImpl sut;
+    private MemoryMap memoryMap;
+    private List<String> accesses;
+    private List<Integer> eventAddresses;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnDiPlusHalt(true);
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.getMemory().set(0x8000, (byte) 0x11);
+        memoryMap = new MemoryMap();
+        sut.setMemoryMap(memoryMap);
+        accesses = new ArrayList<>();
+        eventAddresses = new ArrayList<>();
+        sut.memoryAccess().addListener(e -> eventAddresses.add(e.getAddress() & 0xffff));
+    }
+
+    @Test
+    public void Mapped_accesses_bypass_memory_and_events() {
+        memoryMap.map((short) 0x8000, (short) 0x8001,
+                address -> {
+                    accesses.add("read %04X".formatted(address));
+                    return 0x42;
+                },
+                (address, value) -> accesses.add("write %04X %02X".formatted(address, value)));
+        memoryMap.map((short) 0x9000, (short) 0x9FFF, address -> Rom[(address & 0xffff) - 0x9000], null);
+
+        sut.start(null);
+
+        assertEquals(List.of("read 8000", "write 8001 42"), accesses);
+        assertEquals(0x43, sut.getRegisters().getA());
+        assertEquals(0, sut.getMemory().get(0x8001));
+        assertEquals(0x42, sut.getMemory().get(0x7FFF));
+        assertEquals(0x9002, sut.getRegisters().getPC() & 0xffff);
+        assertTrue(eventAddresses.contains(0x7FFF));
+        assertTrue(eventAddresses.stream().noneMatch(address -> address >= 0x8000));
+    }
+
+    @Test
+    public void Accesses_without_handler_go_to_memory() {
+        memoryMap.map((short) 0x8000, (short) 0x80FF, address -> 0x42, null);
+        memoryMap.map((short) 0x9000, (short) 0x9000, null, (address, value) -> accesses.add("write"));
+        sut.getMemory().setContents(0x9000, Rom, 0, null);
+
+        sut.start(null);
+
+        assertEquals(0x42, sut.getMemory().get(0x8001));
+        assertEquals(0x43, sut.getRegisters().getA());
+        assertEquals(0, accesses.size());
+    }
+
+    @Test
+    public void Regions_in_same_page_are_told_apart() {
+        var low = memoryMap.map((short) 0x8000, (short) 0x800F, address -> 1, null);
+        memoryMap.map((short) 0x8010, (short) 0x81FF, address -> 2, null);
+
+        assertEquals(1, memoryMap.getReadHandler((short) 0x800F).read((short) 0x800F));
+        assertEquals(2, memoryMap.getReadHandler((short) 0x8010).read((short) 0x8010));
+        assertEquals(2, memoryMap.getReadHandler((short) 0x81FF).read((short) 0x81FF));
+        assertNull(memoryMap.getReadHandler((short) 0x8200));
+        assertNull(memoryMap.getWriteHandler((short) 0x8000));
+
+        assertTrue(memoryMap.unmap(low));
+        assertFalse(memoryMap.unmap(low));
+        assertNull(memoryMap.getReadHandler((short) 0x8000));
+        assertEquals(1, memoryMap.getAll().size());
+
+        memoryMap.clear();
+        assertNull(memoryMap.getReadHandler((short) 0x8010));
+    }
+
+    @Test
+    public void Invalid_regions_are_rejected() {
+        memoryMap.map((short) 0x8000, (short) 0x80FF, address -> 0, null);
+
+        assertThrows(IllegalArgumentException.class, () -> memoryMap.map((short) 0x80FF, (short) 0x8100, address -> 0, null));
+        assertThrows(IllegalArgumentException.class, () -> memoryMap.map((short) 0x9001, (short) 0x9000, address -> 0, null));
+        assertThrows(IllegalArgumentException.class, () -> memoryMap.map((short) 0x9000, (short) 0x9000, null, null));
+    }
+}
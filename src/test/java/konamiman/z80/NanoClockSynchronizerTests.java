@@ -0,0 +1,208 @@
+package konamiman.z80;
+
+import konamiman.z80.enums.LagPolicy;
+import konamiman.z80.impls.NanoClockSynchronizerImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class NanoClockSynchronizerTests {
+
+    private NanoClockSynchronizerImpl sut;
+
+    static final int delta = 15;
+
+    static final int times = 10;
+
+    @BeforeEach
+    public void setup() {
+        sut = new NanoClockSynchronizerImpl();
+        sut.setEffectiveClockFrequencyInMHz(1);
+    }
+
+    @RepeatedTest(times)
+    public void TryWait_works_with_repeated_short_intervals() {
+        sut.start();
+
+        var sw = System.nanoTime();
+
+        var totalCyclesToWait = 50000;
+
+        for (int i = 0; i < (totalCyclesToWait / 5); i++)
+            sut.tryWait(5);
+
+        var expected = 50;
+        var actual = (System.nanoTime() - sw) / 1_000_000;
+        assertTrue(actual >= expected - delta && actual <= expected + delta, "Actual value: " + actual);
+    }
+
+    @RepeatedTest(times)
+    public void TryWait_works_with_one_long_interval() {
+        sut.start();
+
+        var sw = System.nanoTime();
+
+        sut.tryWait(50000);
+
+        var expected = 50;
+        var actual = (System.nanoTime() - sw) / 1_000_000;
+        assertTrue(actual >= expected && actual <= expected + delta, "Actual value: " + actual);
+    }
+
+    @Test
+    public void TryWait_does_not_drift_across_periods() {
+        sut.start();
+
+        var sw = System.nanoTime();
+
+        for (int i = 0; i < 200; i++)
+            sut.tryWait(1001); // 1.001 ms each, the odd microsecond must not be lost
+
+        var actual = (System.nanoTime() - sw) / 1_000;
+        assertTrue(actual >= 200_200 && actual <= 200_200 + delta * 1000, "Actual value: " + actual);
+        assertTrue(sut.getWaitCount() > 0);
+        assertTrue(sut.getParkedNanos() > 0);
+    }
+
+    @Test
+    public void Falling_behind_more_than_max_lag_resynchronizes_and_counts_overrun() throws Exception {
+        sut.setMaxLagNanos(10_000_000);
+        sut.start();
+
+        Thread.sleep(50);
+        sut.tryWait(1000);
+
+        var sw = System.nanoTime();
+        sut.tryWait(20000);
+        var actual = (System.nanoTime() - sw) / 1_000_000;
+
+        assertEquals(1, sut.getOverrunCount());
+        assertTrue(sut.getLostNanos() >= 40_000_000, "Lost: " + sut.getLostNanos());
+        assertTrue(sut.getMaxObservedLagNanos() >= 40_000_000);
+        assertTrue(actual >= 20 - delta && actual <= 20 + delta, "Actual value: " + actual);
+    }
+
+    @Test
+    public void Falling_behind_less_than_max_lag_is_caught_up() throws Exception {
+        sut.start();
+
+        Thread.sleep(30);
+        sut.tryWait(1000);
+        var lag = sut.getCurrentLagNanos();
+
+        var sw = System.nanoTime();
+        sut.tryWait(40000);
+        var actual = (System.nanoTime() - sw) / 1_000_000;
+
+        // the 40 ms of the period minus the lag that is caught up
+        var expected = 40 - lag / 1_000_000;
+        assertEquals(0, sut.getOverrunCount());
+        assertTrue(lag > 0);
+        assertTrue(actual >= expected - delta && actual <= expected + delta, "Actual value: " + actual + ", expected: " + expected);
+    }
+
+    @Test
+    public void Drop_policy_resynchronizes_on_every_late_period() throws Exception {
+        sut.setLagPolicy(LagPolicy.Drop);
+        sut.start();
+
+        Thread.sleep(20);
+        sut.tryWait(1000);
+
+        var sw = System.nanoTime();
+        sut.tryWait(10000);
+        var actual = (System.nanoTime() - sw) / 1_000_000;
+
+        assertEquals(1, sut.getOverrunCount());
+        assertTrue(actual >= 10 - delta && actual <= 10 + delta, "Actual value: " + actual);
+    }
+
+    @Test
+    public void SkipFrames_policy_recommends_skipping_while_behind() throws Exception {
+        sut.setLagPolicy(LagPolicy.SkipFrames);
+        sut.setMaxConsecutiveFrameSkips(2);
+        sut.start();
+
+        assertFalse(sut.shouldSkipFrame());
+
+        Thread.sleep(30);
+        sut.tryWait(1000);
+
+        assertTrue(sut.shouldSkipFrame());
+        assertTrue(sut.shouldSkipFrame());
+        assertFalse(sut.shouldSkipFrame());
+        assertTrue(sut.shouldSkipFrame());
+        assertEquals(3, sut.getSkippedFrames());
+
+        sut.tryWait(40000);
+
+        assertFalse(sut.shouldSkipFrame());
+    }
+
+    @Test
+    public void CatchUp_policy_never_recommends_skipping() throws Exception {
+        sut.start();
+
+        Thread.sleep(30);
+        sut.tryWait(1000);
+
+        assertFalse(sut.shouldSkipFrame());
+    }
+
+    @Test
+    public void Fast_forward_factor_shortens_waits() {
+        sut.setFastForwardFactor(2);
+        sut.start();
+
+        var sw = System.nanoTime();
+        sut.tryWait(50000);
+        var actual = (System.nanoTime() - sw) / 1_000_000;
+
+        assertTrue(actual >= 25 && actual <= 25 + delta, "Actual value: " + actual);
+    }
+
+    @Test
+    public void Infinite_fast_forward_factor_disables_waits() {
+        sut.setFastForwardFactor(Double.POSITIVE_INFINITY);
+        sut.start();
+
+        var sw = System.nanoTime();
+        sut.tryWait(50000);
+        var actual = (System.nanoTime() - sw) / 1_000_000;
+
+        assertTrue(actual < delta, "Actual value: " + actual);
+        assertEquals(0, sut.getWaitCount());
+        assertEquals(0, sut.getCurrentLagNanos());
+    }
+
+    @Test
+    public void Fast_forward_factor_set_from_another_thread_is_applied_by_next_wait() throws Exception {
+        sut.start();
+        sut.tryWait(1000);
+
+        var thread = new Thread(() -> sut.setFastForwardFactor(Double.POSITIVE_INFINITY));
+        thread.start();
+        thread.join();
+        sut.resetStatistics();
+
+        var sw = System.nanoTime();
+        sut.tryWait(50000);
+        var actual = (System.nanoTime() - sw) / 1_000_000;
+
+        assertEquals(Double.POSITIVE_INFINITY, sut.getFastForwardFactor());
+        assertTrue(actual < delta, "Actual value: " + actual);
+        assertEquals(0, sut.getWaitCount());
+    }
+
+    @Test
+    public void Fast_forward_factor_must_be_positive() {
+        assertThrows(IllegalArgumentException.class, () -> sut.setFastForwardFactor(0));
+        assertThrows(IllegalArgumentException.class, () -> sut.setFastForwardFactor(Double.NaN));
+    }
+}
@@ -0,0 +1,122 @@
+package konamiman.z80;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import konamiman.z80.devices.PortHandlers;
+import konamiman.z80.enums.MemoryAccessEventType;
+import konamiman.z80.impls.PlainMemory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class PortHandlersTests {
+
+    private static final byte[] Program = {
+            (byte) 0xDB, 0x10,              // 0000: IN A,(10h)
+            (byte) 0xD3, 0x11,              // 0002: OUT (11h),A
+            (byte) 0xDB, 0x12,              // 0004: IN A,(12h)
+            0x01, 0x10, 0x20,               // 0006: LD BC,2010h
+            (byte) 0xED, 0x78,              // 0009: IN A,(C)
+            0x76                            // 000B: HALT
+    };
+
+    private Z80ProcessorImpl sut;
+    private List<String> accesses;
+    private List<MemoryAccessEventType> portEvents;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnDiPlusHalt(true);
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.getPortsSpace().set(0x10, (byte) 0x66);
+        sut.getPortsSpace().set(0x12, (byte) 0x77);
+        accesses = new ArrayList<>();
+        portEvents = new ArrayList<>();
+        sut.memoryAccess().addListener(e -> {
+            if (e.getEventType().name().contains("Port"))
+                portEvents.add(e.getEventType());
+        });
+    }
+
+    @Test
+    public void Handled_ports_bypass_ports_space_and_events() {
+        var handlers = new PortHandlers();
+        handlers.setReadHandler((short) 0x10, port -> {
+            accesses.add("read %04X".formatted(port));
+            return 0x5A;
+        });
+        handlers.setWriteHandler((short) 0x11, (port, value) -> accesses.add("write %04X %02X".formatted(port, value)));
+        sut.setPortHandlers(handlers);
+
+        sut.start(null);
+
+        assertEquals(List.of("read 0010", "write 0011 5A", "read 0010"), accesses);
+        assertEquals(0x5A, sut.getRegisters().getA());
+        assertEquals(0, sut.getPortsSpace().get(0x11));
+        assertEquals(List.of(MemoryAccessEventType.BeforePortRead, MemoryAccessEventType.AfterPortRead), portEvents);
+    }
+
+    @Test
+    public void Table_of_256_ports_decodes_low_byte_of_extended_port() {
+        sut.setPortsSpace(new PlainMemory(65536));
+        sut.setUseExtendedPortsSpace(true);
+        var handlers = new PortHandlers();
+        handlers.setReadHandler((short) 0x10, port -> {
+            accesses.add("read %04X".formatted(port));
+            return 0x5A;
+        });
+        sut.setPortHandlers(handlers);
+
+        sut.start(null);
+
+        assertEquals(List.of("read FF10", "read 2010"), accesses);
+    }
+
+    @Test
+    public void Table_of_65536_ports_decodes_whole_port() {
+        sut.setPortsSpace(new PlainMemory(65536));
+        sut.setUseExtendedPortsSpace(true);
+        var handlers = new PortHandlers(true);
+        handlers.set((short) 0x2010, (short) 0x2011, port -> {
+            accesses.add("read %04X".formatted(port));
+            return 0x5A;
+        }, null);
+        sut.setPortHandlers(handlers);
+
+        sut.start(null);
+
+        assertEquals(65536, handlers.getSize());
+        assertEquals(List.of("read 2010"), accesses);
+        assertNull(handlers.getWriteHandler((short) 0x2010));
+    }
+
+    @Test
+    public void Wait_states_apply_to_handled_ports() {
+        sut.getMemory().setContents(0, new byte[] {(byte) 0xDB, 0x10, 0x76}, 0, null);
+        var handlers = new PortHandlers();
+        handlers.setReadHandler((short) 0x10, port -> 0);
+        sut.setPortHandlers(handlers);
+        sut.setPortWaitStates((short) 0x10, 1, (byte) 3);
+
+        sut.start(null);
+
+        assertEquals(11 + 3 + 4, sut.getTStatesElapsedSinceStart());
+    }
+
+    @Test
+    public void Invalid_ranges_are_rejected() {
+        var handlers = new PortHandlers();
+        assertThrows(IllegalArgumentException.class, () -> handlers.set((short) 0x11, (short) 0x10, null, null));
+
+        handlers.set((short) 0, (short) 0xFF, port -> 0, (port, value) -> {});
+        handlers.clear();
+        assertNull(handlers.getReadHandler((short) 0x80));
+    }
+}
@@ -0,0 +1,159 @@
+package konamiman.z80;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import konamiman.z80.profiling.SamplingProfiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class SamplingProfilerTests {
+
+    private Z80ProcessorImpl sut;
+    private SamplingProfiler profiler;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.getMemory().setContents(0, new byte[0x10000], 0, null);
+        sut.getRegisters().setSP(sut.getStartOfStack());
+
+        profiler = new SamplingProfiler(sut, Duration.ofMillis(1));
+    }
+
+    @Test
+    public void Snapshot_is_PC_and_SP_of_last_instruction() {
+        assertEquals(-1, sut.getPcAndSpSnapshot());
+
+        sut.getRegisters().setSP((short) 0x8000);
+        sut.getRegisters().setPC((short) 0x0100);
+        sut.executeNextInstruction();
+
+        assertEquals(0x0100_8000, sut.getPcAndSpSnapshot());
+    }
+
+    @Test
+    public void Empty_snapshot_is_not_sampled() {
+        profiler.sample(-1);
+
+        assertEquals(0, profiler.getSampleCount());
+    }
+
+    @Test
+    public void Call_stack_is_built_from_return_addresses() {
+        sut.getMemory().setContents(0x0100, new byte[] {(byte) 0xCD, 0x00, 0x02}, 0, null); // 0100: CALL 0200h
+        sut.getMemory().setContents(0x0200, new byte[] {0x00, 0x00, 0x00, (byte) 0xD7}, 0, null); // 0203: RST 10h
+        pushWord(0x0103);
+        pushWord(0x0204);
+        pushWord(0x1234); // pushed data, not a return address
+
+        profiler.sample(0x0012 << 16 | sut.getRegisters().getSP() & 0xffff);
+
+        assertEquals(Map.of("0200;0010;0012", 1L), profiler.getCollapsedStacks());
+    }
+
+    @Test
+    public void Conditional_calls_are_frames() {
+        sut.getMemory().setContents(0x0300, new byte[] {(byte) 0xCC, 0x00, 0x05}, 0, null); // 0300: CALL Z,0500h
+        pushWord(0x0303);
+
+        profiler.sample(0x0510 << 16 | sut.getRegisters().getSP() & 0xffff);
+
+        assertEquals(Map.of("0500;0510", 1L), profiler.getCollapsedStacks());
+    }
+
+    @Test
+    public void Stack_depth_is_limited() {
+        sut.getMemory().setContents(0x0100, new byte[] {(byte) 0xCD, 0x00, 0x02}, 0, null);
+        sut.getMemory().setContents(0x0200, new byte[] {(byte) 0xCD, 0x00, 0x03}, 0, null);
+        pushWord(0x0103);
+        pushWord(0x0203);
+        profiler.setMaxStackDepth(1);
+
+        profiler.sample(0x0300 << 16 | sut.getRegisters().getSP() & 0xffff);
+
+        assertEquals(Map.of("0300;0300", 1L), profiler.getCollapsedStacks());
+    }
+
+    @Test
+    public void Hot_spots_are_sorted_by_samples() {
+        var sp = sut.getRegisters().getSP() & 0xffff;
+        profiler.sample(0x0100 << 16 | sp);
+        profiler.sample(0x0200 << 16 | sp);
+        profiler.sample(0x0200 << 16 | sp);
+        profiler.sample(0x0200 << 16 | sp);
+
+        var hotSpots = profiler.getHotSpots(10);
+
+        assertEquals(4, profiler.getSampleCount());
+        assertEquals(3, profiler.getSamples((short) 0x0200));
+        assertEquals(2, hotSpots.size());
+        assertEquals(new SamplingProfiler.HotSpot(0x0200, 3, 0.75), hotSpots.get(0));
+        assertEquals(new SamplingProfiler.HotSpot(0x0100, 1, 0.25), hotSpots.get(1));
+        assertEquals(1, profiler.getHotSpots(1).size());
+    }
+
+    @Test
+    public void Collapsed_stacks_are_written_one_per_line() throws Exception {
+        var sp = sut.getRegisters().getSP() & 0xffff;
+        profiler.sample(0x0100 << 16 | sp);
+        profiler.sample(0x0200 << 16 | sp);
+        profiler.sample(0x0200 << 16 | sp);
+
+        var writer = new StringWriter();
+        profiler.writeCollapsedStacks(writer);
+
+        assertEquals("0100 1\n0200 2\n", writer.toString());
+    }
+
+    @Test
+    public void Reset_discards_samples() {
+        profiler.sample(0x0100 << 16 | sut.getRegisters().getSP() & 0xffff);
+
+        profiler.reset();
+
+        assertEquals(0, profiler.getSampleCount());
+        assertEquals(0, profiler.getSamples((short) 0x0100));
+        assertEquals(Map.of(), profiler.getCollapsedStacks());
+    }
+
+    @Test
+    public void Interval_must_be_positive() {
+        assertThrows(IllegalArgumentException.class, () -> new SamplingProfiler(sut, Duration.ZERO));
+    }
+
+    @Test
+    public void Running_processor_is_sampled_from_another_thread() throws Exception {
+        sut.getMemory().setContents(0x0200, new byte[] {0x18, (byte) 0xFE}, 0, null); // JR $
+        sut.getRegisters().setPC((short) 0x0200);
+
+        var executor = Executors.newSingleThreadExecutor();
+        try (var profiler = this.profiler) {
+            profiler.start();
+            var run = sut.continueAsync(executor);
+            Thread.sleep(200);
+            sut.requestStop();
+            run.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(profiler.getSampleCount() > 0);
+        assertEquals(profiler.getSampleCount(), profiler.getSamples((short) 0x0200));
+    }
+
+    private void pushWord(int value) {
+        var sp = (sut.getRegisters().getSP() - 2) & 0xffff;
+        sut.getMemory().set(sp, (byte) value);
+        sut.getMemory().set(sp + 1, (byte) (value >> 8));
+        sut.getRegisters().setSP((short) sp);
+    }
+}
@@ -0,0 +1,175 @@
+package konamiman.z80;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import konamiman.z80.enums.BackpressurePolicy;
+import konamiman.z80.trace.TraceIndex;
+import konamiman.z80.trace.TraceIndexer;
+import konamiman.z80.trace.TraceReader;
+import konamiman.z80.trace.TraceRecord;
+import konamiman.z80.trace.TraceRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class TraceIndexTests {
+
+    /** fills 2000h-23FFh and writes port 10h 1024 times, 4111 instructions */
+    private static final byte[] Program = {
+            0x21, 0x00, 0x20,               // 0000: LD HL,2000h
+            0x0E, 0x04,                     // 0003: LD C,4
+            0x06, 0x00,                     // 0005: LD B,0
+            0x70,                           // 0007: LD (HL),B
+            0x23,                           // 0008: INC HL
+            (byte) 0xD3, 0x10,              // 0009: OUT (10h),A
+            0x10, (byte) 0xFA,              // 000B: DJNZ 0007h
+            0x0D,                           // 000D: DEC C
+            0x20, (byte) 0xF5,              // 000E: JR NZ,0005h
+            (byte) 0xC9                     // 0010: RET
+    };
+
+    private Z80ProcessorImpl sut;
+    private Path traceFile;
+    private Path indexFile;
+    private List<TraceRecord> records;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnRetWithStackEmpty(true);
+        sut.getMemory().setContents(0, Program, 0, null);
+        traceFile = Files.createTempFile("z80", ".trace");
+        indexFile = Files.createTempFile("z80", ".index");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(traceFile);
+        Files.deleteIfExists(indexFile);
+    }
+
+    @Test
+    public void Executions_are_found_by_address_and_time() throws IOException {
+        for (var deltaCompressed : new boolean[] {false, true}) {
+            record(deltaCompressed);
+            try (var index = new TraceIndex(traceFile, indexFile)) {
+                assertEquals(4111, index.getRecordCount());
+                assertArrayEquals(scan(r -> r.getAddress() == 7, 0, Long.MAX_VALUE), index.findExecutions((short) 7));
+                assertArrayEquals(scan(r -> r.getAddress() == 7, 5000, 30000), index.findExecutions((short) 7, 5000, 30000));
+                assertArrayEquals(scan(r -> r.getAddress() == 0x10, 0, 10), index.findExecutions((short) 0x10, 0, 10));
+                assertEquals(0, index.findExecutions((short) 0x1234).length);
+            }
+        }
+    }
+
+    @Test
+    public void Memory_writes_and_port_accesses_are_found() throws IOException {
+        for (var deltaCompressed : new boolean[] {false, true}) {
+            record(deltaCompressed);
+            try (var index = new TraceIndex(traceFile, indexFile)) {
+                var writes = index.findMemoryWrites((short) 0x2100);
+                assertArrayEquals(scan(r -> r.getAddress() == 7 && r.getHL() == 0x2100, 0, Long.MAX_VALUE), writes);
+                assertEquals(1, writes.length);
+
+                assertEquals(1024, index.findPortAccesses((short) 0x10).length);
+                assertArrayEquals(scan(r -> r.getAddress() == 9, 20000, 40000), index.findPortAccesses((short) 0x10, 20000, 40000));
+                assertEquals(0, index.findPortAccesses((short) 0x11).length);
+            }
+        }
+    }
+
+    @Test
+    public void Records_are_read_in_any_order() throws IOException {
+        for (var deltaCompressed : new boolean[] {false, true}) {
+            record(deltaCompressed);
+            try (var index = new TraceIndex(traceFile, indexFile)) {
+                var record = new TraceRecord();
+                for (var number : new long[] {4110, 0, 1023, 1024, 1025, 3000, 2047, 1, 2048, 4110}) {
+                    index.read(number, record);
+                    assertEquals(records.get((int) number).toString(), record.toString());
+                }
+                assertThrows(IndexOutOfBoundsException.class, () -> index.read(4111, record));
+            }
+        }
+    }
+
+    @Test
+    public void First_record_at_time_is_found() throws IOException {
+        record(true);
+        try (var index = new TraceIndex(traceFile, indexFile)) {
+            for (var tStates : new long[] {0, 1, 10, 17, 12345, 24000, 40000, 50000, 10_000_000}) {
+                var expected = 0;
+                while (expected < records.size() && records.get(expected).getTStates() < tStates)
+                    expected++;
+                assertEquals(expected, index.findRecord(tStates));
+            }
+        }
+    }
+
+    @Test
+    public void Index_of_recorded_trace_is_the_same_as_index_built_while_recording() throws IOException {
+        for (var deltaCompressed : new boolean[] {false, true}) {
+            record(deltaCompressed);
+            var rebuiltIndexFile = Files.createTempFile("z80", ".index");
+            try {
+                TraceIndexer.index(traceFile, rebuiltIndexFile);
+                assertEquals(-1, Files.mismatch(indexFile, rebuiltIndexFile));
+            } finally {
+                Files.delete(rebuiltIndexFile);
+            }
+        }
+    }
+
+    @Test
+    public void Index_of_other_trace_is_rejected() throws IOException {
+        record(true);
+        var otherTraceFile = Files.createTempFile("z80", ".trace");
+        try {
+            new TraceRecorder(otherTraceFile, 16, BackpressurePolicy.Block, false).close();
+            assertThrows(IOException.class, () -> new TraceIndex(otherTraceFile, indexFile));
+            assertThrows(IOException.class, () -> new TraceIndex(traceFile, otherTraceFile));
+        } finally {
+            Files.delete(otherTraceFile);
+        }
+    }
+
+    private void record(boolean deltaCompressed) throws IOException {
+        sut.getRegisters().setPC((short) 0);
+        try (var recorder = new TraceRecorder(traceFile, 1024, BackpressurePolicy.Block, deltaCompressed, indexFile)) {
+            sut.setTraceRecorder(recorder);
+            sut.start(null);
+            sut.setTraceRecorder(null);
+        }
+
+        records = new ArrayList<>();
+        try (var reader = new TraceReader(traceFile)) {
+            var record = new TraceRecord();
+            while (reader.next(record)) {
+                records.add(record);
+                record = new TraceRecord();
+            }
+        }
+    }
+
+    /** the record numbers found by a linear scan, with the start T states in [from, to) */
+    private long[] scan(Predicate<TraceRecord> filter, long fromTStates, long toTStates) {
+        var result = new ArrayList<Long>();
+        for (int i = 0; i < records.size(); i++) {
+            var record = records.get(i);
+            if (record.getTStates() >= fromTStates && record.getTStates() < toTStates && filter.test(record))
+                result.add((long) i);
+        }
+        return result.stream().mapToLong(Long::longValue).toArray();
+    }
+}
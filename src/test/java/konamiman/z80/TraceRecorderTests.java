@@ -0,0 +1,201 @@
+package konamiman.z80;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import konamiman.z80.enums.BackpressurePolicy;
+import konamiman.z80.enums.MemoryAccessEventType;
+import konamiman.z80.impls.Z80RegistersImpl;
+import konamiman.z80.trace.TraceReader;
+import konamiman.z80.trace.TraceRecord;
+import konamiman.z80.trace.TraceRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TraceRecorderTests {
+
+    private static final byte[] Program = {
+            0x21, 0x00, 0x20,               // 0000: LD HL,2000h
+            0x36, 0x55,                     // 0003: LD (HL),55h
+            0x7E,                           // 0005: LD A,(HL)
+            (byte) 0xD3, 0x10,              // 0006: OUT (10h),A
+            (byte) 0xDB, 0x11,              // 0008: IN A,(11h)
+            (byte) 0xC9                     // 000A: RET
+    };
+
+    /** 16 * 256 iterations of DJNZ, about 4000 instructions */
+    private static final byte[] Loop = {
+            0x0E, 0x10,                     // 0000: LD C,16
+            0x06, 0x00,                     // 0002: LD B,0
+            0x10, (byte) 0xFE,              // 0004: DJNZ $
+            0x0D,                           // 0006: DEC C
+            0x20, (byte) 0xF9,              // 0007: JR NZ,0002h
+            (byte) 0xC9                     // 0009: RET
+    };
+
+    private Z80ProcessorImpl sut;
+    private Path file;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnRetWithStackEmpty(true);
+        file = Files.createTempFile("z80", ".trace");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void Instructions_are_recorded_with_state_and_accesses() throws IOException {
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.getPortsSpace().set(0x11, (byte) 0x77);
+
+        record(new TraceRecorder(file));
+        var records = readAll();
+
+        assertEquals(6, records.size());
+        assertEquals(0, records.get(0).getSequence());
+        assertEquals(0, records.get(0).getAddress());
+        assertArrayEquals(new byte[] {0x21, 0x00, 0x20}, records.get(0).getOpcodeBytes());
+        assertEquals(0x2000, records.get(0).getHL());
+        assertEquals(3, records.get(0).getPC());
+        assertEquals(0, records.get(0).getTStates());
+        assertEquals(10, records.get(0).getInstructionTStates());
+        assertEquals(10, records.get(1).getTStates());
+
+        var store = records.get(1);
+        assertEquals(1, store.getAccessCount());
+        assertEquals(MemoryAccessEventType.AfterMemoryWrite, store.getAccessType(0));
+        assertEquals(0x2000, store.getAccessAddress(0));
+        assertEquals(0x55, store.getAccessValue(0));
+
+        assertEquals(MemoryAccessEventType.AfterMemoryRead, records.get(2).getAccessType(0));
+        assertEquals(0x55, records.get(2).getAccessValue(0));
+        assertEquals(MemoryAccessEventType.AfterPortWrite, records.get(3).getAccessType(0));
+        assertEquals(0x10, records.get(3).getAccessAddress(0));
+        assertEquals(MemoryAccessEventType.AfterPortRead, records.get(4).getAccessType(0));
+        assertEquals(0x77, records.get(4).getAccessValue(0));
+        assertEquals(0x77, records.get(4).getAF() >> 8);
+
+        var ret = records.get(5);
+        assertEquals(2, ret.getAccessCount());
+        assertEquals((short) 0xFFFF, ret.getAccessAddress(0));
+        assertEquals(0, ret.getAccessAddress(1));
+        assertFalse(ret.isAccessesOverflow());
+    }
+
+    @Test
+    public void Delta_compressed_trace_reads_back_the_same_records() throws IOException {
+        sut.getMemory().setContents(0, Loop, 0, null);
+        record(new TraceRecorder(file));
+        var plain = readAllAsText();
+        var plainSize = Files.size(file);
+
+        record(new TraceRecorder(file, 1024, BackpressurePolicy.Block, true));
+        var compressed = readAllAsText();
+
+        assertEquals(plain, compressed);
+        assertEquals(sut.getInstructionsExecutedSinceStart(), plain.lines().count());
+        assertTrue(Files.size(file) * 2 < plainSize, "Compressed size: " + Files.size(file) + ", plain size: " + plainSize);
+    }
+
+    @Test
+    public void Blocking_policy_records_all_instructions() throws IOException {
+        sut.getMemory().setContents(0, Loop, 0, null);
+
+        var recorder = new TraceRecorder(file, 16, BackpressurePolicy.Block, false);
+        record(recorder);
+
+        assertEquals(0, recorder.getDroppedRecords());
+        try (var reader = new TraceReader(file)) {
+            var record = new TraceRecord();
+            while (reader.next(record))
+                ;
+            assertEquals(sut.getInstructionsExecutedSinceStart(), reader.getRecordsRead());
+            assertEquals(0, reader.getMissingRecords());
+        }
+    }
+
+    @Test
+    public void DropNewest_policy_counts_dropped_records() throws IOException {
+        sut.getMemory().setContents(0, Loop, 0, null);
+
+        var recorder = new TraceRecorder(file, 1, BackpressurePolicy.DropNewest, false);
+        record(recorder);
+
+        assertTrue(recorder.getDroppedRecords() > 0);
+        try (var reader = new TraceReader(file)) {
+            var record = new TraceRecord();
+            while (reader.next(record))
+                ;
+            assertEquals(sut.getInstructionsExecutedSinceStart(), reader.getRecordsRead() + recorder.getDroppedRecords());
+            assertTrue(reader.getMissingRecords() <= recorder.getDroppedRecords());
+        }
+    }
+
+    @Test
+    public void Record_can_be_applied_to_registers() throws IOException {
+        sut.getMemory().setContents(0, Program, 0, null);
+        record(new TraceRecorder(file));
+        var records = readAll();
+
+        var registers = new Z80RegistersImpl();
+        records.get(2).applyTo(registers);
+
+        assertEquals(0x2000, registers.getHL());
+        assertEquals(0x55, registers.getA());
+        assertEquals(6, registers.getPC());
+        assertEquals((short) 0xFFFF, registers.getSP());
+    }
+
+    @Test
+    public void Reader_rejects_other_files() throws IOException {
+        Files.writeString(file, "This is not a trace");
+
+        assertThrows(IOException.class, () -> new TraceReader(file));
+    }
+
+    private void record(TraceRecorder recorder) throws IOException {
+        try (recorder) {
+            sut.setTraceRecorder(recorder);
+            sut.start(null);
+            sut.setTraceRecorder(null);
+        }
+    }
+
+    private List<TraceRecord> readAll() throws IOException {
+        var result = new ArrayList<TraceRecord>();
+        try (var reader = new TraceReader(file)) {
+            var record = new TraceRecord();
+            while (reader.next(record)) {
+                result.add(record);
+                record = new TraceRecord();
+            }
+        }
+        return result;
+    }
+
+    private String readAllAsText() throws IOException {
+        try (var reader = new TraceReader(file)) {
+            var writer = new StringWriter();
+            reader.writeText(writer);
+            return writer.toString();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package konamiman.z80;
+
+import konamiman.z80.debugging.Breakpoints;
+import konamiman.z80.enums.StopReason;
+import konamiman.z80.enums.TrapAction;
+import konamiman.z80.traps.Traps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TrapsTests {
+
+    private static final byte[] Program = {
+            0x3E, 0x01,                     // 0000: LD A,1
+            (byte) 0xCD, 0x00, 0x10,        // 0002: CALL 1000h
+            0x47,                           // 0005: LD B,A
+            0x76                            // 0006: HALT
+    };
+
+    private static final byte[] Routine = {
+            0x3C,                           // 1000: INC A
+            (byte) 0xC9                     // 1001: RET
+    };
+
+    private Z80ProcessorImpl sut;
+    private Traps traps;
+    private int calls;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnDiPlusHalt(true);
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.getMemory().setContents(0x1000, Routine, 0, null);
+        sut.getMemory().setContents(0x2000, new byte[] {0x3E, 0x07, (byte) 0xC9}, 0, null); // LD A,7; RET
+        traps = new Traps();
+        sut.setTraps(traps);
+    }
+
+    @Test
+    public void Handler_can_replace_routine() {
+        traps.set((short) 0x1000, z80 -> {
+            calls++;
+            z80.getRegisters().setA((byte) 42);
+            return TrapAction.Return;
+        });
+
+        sut.start(null);
+
+        assertEquals(StopReason.DiPlusHalt, sut.getStopReason());
+        assertEquals(1, calls);
+        assertEquals(42, sut.getRegisters().getB());
+        assertEquals((short) 0xFFFF, sut.getRegisters().getSP());
+    }
+
+    @Test
+    public void Handler_can_let_routine_execute() {
+        traps.set((short) 0x1000, z80 -> {
+            calls++;
+            return TrapAction.Execute;
+        });
+
+        sut.start(null);
+
+        assertEquals(1, calls);
+        assertEquals(2, sut.getRegisters().getB());
+    }
+
+    @Test
+    public void Handler_can_jump_elsewhere() {
+        traps.set((short) 0x1000, z80 -> {
+            z80.getRegisters().setPC((short) 0x2000);
+            return TrapAction.Execute;
+        });
+
+        sut.start(null);
+
+        assertEquals(StopReason.DiPlusHalt, sut.getStopReason());
+        assertEquals(7, sut.getRegisters().getB());
+    }
+
+    @Test
+    public void Handler_can_stop_execution() {
+        traps.set((short) 0x1000, z80 -> TrapAction.Stop);
+
+        sut.start(null);
+
+        assertEquals(StopReason.StopInvoked, sut.getStopReason());
+        assertEquals(0x1000, sut.getRegisters().getPC());
+        assertEquals(1, sut.getRegisters().getA());
+    }
+
+    @Test
+    public void Continuing_after_stop_executes_trapped_instruction() {
+        traps.set((short) 0x1000, z80 -> {
+            calls++;
+            return TrapAction.Stop;
+        });
+
+        sut.start(null);
+        assertEquals(StopReason.StopInvoked, sut.getStopReason());
+
+        sut.continue_();
+
+        assertEquals(StopReason.DiPlusHalt, sut.getStopReason());
+        assertEquals(1, calls);
+        assertEquals(2, sut.getRegisters().getB());
+    }
+
+    @Test
+    public void Trap_stopping_again_is_honored_on_next_visit() {
+        sut.getMemory().setContents(0x0006, new byte[] {(byte) 0xCD, 0x00, 0x10, 0x76}, 0, null); // CALL 1000h; HALT
+        traps.set((short) 0x1000, z80 -> {
+            calls++;
+            return TrapAction.Stop;
+        });
+
+        sut.start(null);
+        sut.continue_();
+
+        assertEquals(StopReason.StopInvoked, sut.getStopReason());
+        assertEquals(2, calls);
+        assertEquals(0x1000, sut.getRegisters().getPC());
+    }
+
+    @Test
+    public void Return_with_stack_empty_stops_execution() {
+        sut.setAutoStopOnRetWithStackEmpty(true);
+        sut.getMemory().setContents(0xFFFF, new byte[] {0x00}, 0, null);
+        traps.set((short) 0x0000, z80 -> TrapAction.Return);
+
+        sut.start(null);
+
+        assertEquals(StopReason.RetWithStackEmpty, sut.getStopReason());
+    }
+
+    @Test
+    public void Breakpoint_stops_before_trap_runs() {
+        var breakpoints = new Breakpoints();
+        breakpoints.add((short) 0x1000);
+        sut.setBreakpoints(breakpoints);
+        traps.set((short) 0x1000, z80 -> {
+            calls++;
+            return TrapAction.Return;
+        });
+
+        sut.start(null);
+        assertEquals(StopReason.BreakpointHit, sut.getStopReason());
+        assertEquals(0, calls);
+
+        sut.continue_();
+        assertEquals(StopReason.DiPlusHalt, sut.getStopReason());
+        assertEquals(1, calls);
+        assertEquals(1, sut.getRegisters().getB());
+    }
+
+    @Test
+    public void Traps_can_be_removed() {
+        traps.set((short) 0x1000, z80 -> TrapAction.Stop);
+        traps.set((short) 0x1000, z80 -> TrapAction.Stop);
+        traps.set((short) 0x2000, z80 -> TrapAction.Stop);
+        assertEquals(2, traps.getCount());
+
+        assertTrue(traps.remove((short) 0x1000));
+        assertFalse(traps.remove((short) 0x1000));
+        assertNull(traps.get((short) 0x1000));
+        assertEquals(1, traps.getCount());
+        sut.start(null);
+        assertEquals(StopReason.DiPlusHalt, sut.getStopReason());
+
+        traps.clear();
+        assertEquals(0, traps.getCount());
+        assertThrows(IllegalArgumentException.class, () -> traps.set((short) 0, null));
+    }
+}
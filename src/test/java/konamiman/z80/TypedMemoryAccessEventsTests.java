@@ -0,0 +1,105 @@
+package konamiman.z80;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import konamiman.z80.enums.MemoryAccessMode;
+import konamiman.z80.management.ListenerProfile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static konamiman.z80.enums.MemoryAccessEventType.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class TypedMemoryAccessEventsTests {
+
+    private static final byte[] Program = {
+            0x3A, 0x00, 0x40,               // 0000: LD A,(4000h)
+            0x32, 0x01, 0x40,               // 0003: LD (4001h),A
+            (byte) 0xD3, 0x10,              // 0006: OUT (10h),A
+            (byte) 0xDB, 0x11,              // 0008: IN A,(11h)
+            0x76                            // 000A: HALT
+    };
+
+    private Z80ProcessorImpl sut;
+    private List<String> events;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnDiPlusHalt(true);
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.getMemory().set(0x4000, (byte) 0x12);
+        events = new ArrayList<>();
+    }
+
+    @Test
+    public void Listener_receives_only_events_of_its_type() {
+        sut.memoryAccess(BeforePortWrite).addListener(e -> events.add("%s %04X %02X".formatted(e.getEventType(), e.getAddress(), e.getValue())));
+
+        sut.start(null);
+
+        assertEquals(List.of("BeforePortWrite 0010 12"), events);
+        assertEquals(0x12, sut.getPortsSpace().get(0x10));
+    }
+
+    @Test
+    public void Listener_can_change_and_cancel_access() {
+        sut.memoryAccess(BeforeMemoryWrite).addListener(e -> {
+            if (e.getAddress() == 0x4001) {
+                e.setValue((byte) 0x34);
+                e.setLocalUserState("state");
+            }
+        });
+        sut.memoryAccess(AfterMemoryWrite).addListener(e -> events.add("%s %02X".formatted(e.getLocalUserState(), e.getValue())));
+        sut.memoryAccess(BeforePortRead).addListener(e -> {
+            e.setCancelMemoryAccess(true);
+            e.setValue((byte) 0x56);
+        });
+
+        sut.start(null);
+
+        assertEquals(0x34, sut.getMemory().get(0x4001));
+        assertEquals(List.of("state 34"), events);
+        assertEquals(0x56, sut.getRegisters().getA());
+    }
+
+    @Test
+    public void Typed_listeners_run_after_general_listeners() {
+        sut.memoryAccess(AfterPortRead).addListener(e -> events.add("typed " + e.getValue()));
+        sut.memoryAccess().addListener(e -> {
+            if (e.getEventType() == AfterPortRead) {
+                events.add("general " + e.getValue());
+                e.setValue((byte) 1);
+            }
+        });
+
+        sut.start(null);
+
+        assertEquals(List.of("general 0", "typed 1"), events);
+        assertEquals(1, sut.getRegisters().getA());
+    }
+
+    @Test
+    public void Accesses_without_listeners_behave_as_before() {
+        sut.setMemoryAccessMode((short) 0x4000, 1, MemoryAccessMode.WriteOnly);
+        sut.memoryAccess(AfterPortWrite).addListener(e -> events.add("port"));
+
+        sut.start(null);
+
+        assertEquals((byte) 0xFF, sut.getMemory().get(0x4001));
+        assertEquals(List.of("port"), events);
+    }
+
+    @Test
+    public void Typed_listeners_are_profiled() {
+        sut.memoryAccess(AfterMemoryRead).addListener(e -> {});
+
+        var profiles = sut.getListenerProfiles();
+
+        assertTrue(profiles.stream().map(ListenerProfile::event).anyMatch("memoryAccess(AfterMemoryRead)"::equals));
+    }
+}
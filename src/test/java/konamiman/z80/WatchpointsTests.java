@@ -0,0 +1,132 @@
+package konamiman.z80;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import konamiman.z80.debugging.WatchpointHandler;
+import konamiman.z80.debugging.Watchpoints;
+import konamiman.z80.enums.StopReason;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static konamiman.z80.enums.WatchpointAccess.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class WatchpointsTests {
+
+    private static final byte[] Program = {
+            0x21, 0x00, 0x40,               // 0000: LD HL,4000h
+            0x06, 0x04,                     // 0003: LD B,4
+            0x70,                           // 0005: LD (HL),B
+            0x23,                           // 0006: INC HL
+            (byte) 0xD3, 0x10,              // 0007: OUT (10h),A
+            (byte) 0xDB, 0x11,              // 0009: IN A,(11h)
+            0x10, (byte) 0xF8,              // 000B: DJNZ 0005h
+            0x3A, 0x01, 0x40,               // 000D: LD A,(4001h)
+            0x76                            // 0010: HALT
+    };
+
+    private Z80ProcessorImpl sut;
+    private Watchpoints watchpoints;
+    private List<String> accesses;
+    private WatchpointHandler logger;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnDiPlusHalt(true);
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.getPortsSpace().set(0x11, (byte) 0x55);
+        watchpoints = new Watchpoints();
+        sut.setWatchpoints(watchpoints);
+        accesses = new ArrayList<>();
+        logger = (watchpoint, access, address, value) -> accesses.add("%s %04X %02X".formatted(access, address, value));
+    }
+
+    @Test
+    public void Only_matching_memory_accesses_are_reported() {
+        watchpoints.add((short) 0x4000, (short) 0x4001, logger, MemoryWrite);
+        watchpoints.add((short) 0x4001, logger, MemoryRead);
+
+        sut.start(null);
+
+        assertEquals(List.of("MemoryWrite 4000 04", "MemoryWrite 4001 03", "MemoryRead 4001 03"), accesses);
+    }
+
+    @Test
+    public void Fetches_and_port_accesses_are_reported() {
+        var fetch = watchpoints.add((short) 0x0005, logger, Fetch);
+        watchpoints.add((short) 0x10, (short) 0x11, logger, PortRead, PortWrite);
+
+        sut.start(null);
+
+        assertEquals(4, fetch.getHitCount());
+        assertEquals(List.of(
+                "Fetch 0005 70", "PortWrite 0010 FF", "PortRead 0011 55",
+                "Fetch 0005 70", "PortWrite 0010 55", "PortRead 0011 55"), accesses.subList(0, 6));
+        assertEquals(12, accesses.size());
+    }
+
+    @Test
+    public void Instruction_operands_are_reported_as_fetches() {
+        watchpoints.add((short) 0x000D, (short) 0x000F, logger, Fetch, MemoryRead);
+
+        sut.start(null);
+
+        assertEquals(List.of("Fetch 000D 3A", "Fetch 000E 01", "Fetch 000F 40"), accesses);
+    }
+
+    @Test
+    public void Handler_can_stop_execution_after_instruction() {
+        watchpoints.add((short) 0x4002, (watchpoint, access, address, value) -> sut.requestPause(), MemoryWrite);
+
+        sut.start(null);
+
+        assertEquals(StopReason.PauseInvoked, sut.getStopReason());
+        assertEquals(6, sut.getRegisters().getPC());
+        assertEquals(2, sut.getMemory().get(0x4002));
+    }
+
+    @Test
+    public void Removed_watchpoints_are_not_reported() {
+        var removed = watchpoints.add((short) 0x4000, (short) 0x4003, logger, MemoryWrite);
+        var kept = watchpoints.add((short) 0x4003, (short) 0x40FF, logger, MemoryWrite);
+        assertTrue(watchpoints.remove(removed));
+        assertFalse(watchpoints.remove(removed));
+        assertEquals(List.of(kept), watchpoints.getAll());
+        assertFalse(watchpoints.isWatched(MemoryWrite, (short) 0x4002));
+        assertFalse(watchpoints.isWatched(MemoryRead, (short) 0x4003));
+        assertTrue(watchpoints.isWatched(MemoryWrite, (short) 0x4003));
+
+        sut.start(null);
+        assertEquals(List.of("MemoryWrite 4003 01"), accesses);
+        assertEquals(0, removed.getHitCount());
+        assertEquals(1, kept.getHitCount());
+
+        watchpoints.clear();
+        assertFalse(watchpoints.isWatched(MemoryWrite, (short) 0x4003));
+        sut.start(null);
+        assertEquals(1, accesses.size());
+    }
+
+    @Test
+    public void Watchpoint_at_end_of_address_space_is_reported() {
+        watchpoints.add((short) 0xFF00, (short) 0xFFFF, logger, MemoryWrite);
+        sut.getMemory().setContents(0x0000, new byte[] {0x31, 0x00, 0x00, (byte) 0xC5, 0x76}, 0, null); // LD SP,0; PUSH BC; HALT
+        sut.start(null);
+
+        assertEquals(List.of("MemoryWrite FFFF 00", "MemoryWrite FFFE 00"), accesses);
+    }
+
+    @Test
+    public void Invalid_watchpoints_are_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> watchpoints.add((short) 0x4001, (short) 0x4000, logger, MemoryWrite));
+        assertThrows(IllegalArgumentException.class, () -> watchpoints.add((short) 0x4000, logger));
+        assertThrows(IllegalArgumentException.class, () -> watchpoints.add((short) 0x4000, null, MemoryWrite));
+    }
+}
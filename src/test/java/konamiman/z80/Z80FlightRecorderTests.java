@@ -0,0 +1,187 @@
+package konamiman.z80;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class Z80FlightRecorderTests {
+
+    private Z80ProcessorImpl sut;
+    private Recording recording;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnRetWithStackEmpty(true);
+        sut.setFlightRecorderEnabled(true);
+
+        recording = new Recording();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    public void Run_event_has_stop_reason_and_TStates() throws Exception {
+        sut.getMemory().setContents(0, new byte[] {0x00, 0x00, (byte) 0xC9}, 0, null); // NOP, NOP, RET
+        recording.enable("konamiman.z80.Run");
+        recording.start();
+
+        sut.start(null);
+
+        var events = stopAndRead("konamiman.z80.Run");
+        assertEquals(1, events.size());
+        assertEquals("RetWithStackEmpty", events.get(0).getString("stopReason"));
+        assertEquals(18, events.get(0).getLong("tStates"));
+        assertEquals(3, events.get(0).getLong("instructions"));
+    }
+
+    @Test
+    public void Single_instructions_are_not_runs() throws Exception {
+        recording.enable("konamiman.z80.Run");
+        recording.start();
+
+        sut.executeNextInstruction();
+
+        assertEquals(List.of(), stopAndRead("konamiman.z80.Run"));
+    }
+
+    @Test
+    public void Interrupt_event_has_addresses() throws Exception {
+        sut.getMemory().setContents(0, new byte[] {(byte) 0xFB, 0x00}, 0, null); // EI, NOP
+        var source = new InterruptSourceForTests();
+        sut.registerInterruptSource(source);
+        source.setIntLineIsActive(true);
+        recording.enable("konamiman.z80.Interrupt");
+        recording.start();
+
+        sut.executeNextInstruction();
+        sut.executeNextInstruction(); // IM 0 with FFh on the bus (RST 38h)
+
+        var events = stopAndRead("konamiman.z80.Interrupt");
+        assertEquals(1, events.size());
+        assertEquals("Maskable", events.get(0).getString("interruptType"));
+        assertEquals(0x38, events.get(0).getInt("serviceRoutineAddress"));
+        assertEquals(2, events.get(0).getInt("returnAddress"));
+    }
+
+    @Test
+    public void Interrupt_event_has_no_return_address_for_IM_0_with_other_than_RST() throws Exception {
+        sut.getMemory().setContents(0, new byte[] {(byte) 0xFB, 0x00}, 0, null); // EI, NOP
+        var source = new InterruptSourceForTests();
+        sut.registerInterruptSource(source);
+        source.setIntLineIsActive(true);
+        source.setValueOnDataBus((byte) 0x00); // NOP
+        recording.enable("konamiman.z80.Interrupt");
+        recording.start();
+
+        sut.executeNextInstruction();
+        sut.executeNextInstruction();
+
+        var events = stopAndRead("konamiman.z80.Interrupt");
+        assertEquals(1, events.size());
+        assertEquals(-1, events.get(0).getInt("returnAddress"));
+    }
+
+    @Test
+    public void Block_instruction_iterations_are_batched() throws Exception {
+        sut.getMemory().setContents(0x100, new byte[] {
+                0x21, 0x00, 0x20,       // LD HL,2000h
+                0x11, 0x00, 0x30,       // LD DE,3000h
+                0x01, 0x0A, 0x00,       // LD BC,10
+                (byte) 0xED, (byte) 0xB0, // LDIR
+                (byte) 0xC9             // RET
+        }, 0, null);
+        recording.enable("konamiman.z80.BlockInstruction");
+        recording.start();
+
+        sut.reset();
+        sut.getRegisters().setPC((short) 0x100);
+        sut.continue_();
+
+        var events = stopAndRead("konamiman.z80.BlockInstruction");
+        assertEquals(1, events.size());
+        assertEquals("LDIR", events.get(0).getString("instruction"));
+        assertEquals(0x109, events.get(0).getInt("address"));
+        assertEquals(10, events.get(0).getLong("iterations"));
+        assertEquals(9 * 21 + 16, events.get(0).getLong("tStates"));
+        assertTrue(events.get(0).getBoolean("completed"));
+    }
+
+    @Test
+    public void Running_processor_PC_is_sampled() throws Exception {
+        sut.getMemory().setContents(0x200, new byte[] {0x18, (byte) 0xFE}, 0, null); // JR $
+        sut.getRegisters().setPC((short) 0x200);
+        recording.enable("konamiman.z80.PcSample").withPeriod(Duration.ofMillis(10));
+        recording.start();
+
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var run = sut.continueAsync(executor);
+            Thread.sleep(200);
+            sut.requestStop();
+            run.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        var events = stopAndRead("konamiman.z80.PcSample");
+        assertFalse(events.isEmpty());
+        for (var event : events) {
+            assertEquals(System.identityHashCode(sut), event.getInt("processor"));
+            assertEquals(0x200, event.getInt("pc"));
+        }
+    }
+
+    @Test
+    public void Nothing_is_recorded_when_disabled() throws Exception {
+        sut.getMemory().setContents(0, new byte[] {0x00, (byte) 0xC9}, 0, null);
+        recording.disable("konamiman.z80.Run");
+        recording.start();
+
+        sut.start(null);
+
+        assertEquals(List.of(), stopAndRead("konamiman.z80.Run"));
+    }
+
+    @Test
+    public void Nothing_is_recorded_when_not_enabled_in_the_processor() throws Exception {
+        sut.setFlightRecorderEnabled(false);
+        sut.getMemory().setContents(0, new byte[] {0x00, (byte) 0xC9}, 0, null);
+        recording.enable("konamiman.z80.Run");
+        recording.start();
+
+        sut.start(null);
+
+        assertEquals(List.of(), stopAndRead("konamiman.z80.Run"));
+    }
+
+    private List<RecordedEvent> stopAndRead(String eventName) throws Exception {
+        recording.stop();
+        var file = Files.createTempFile("z80", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().equals(eventName))
+                    .toList();
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
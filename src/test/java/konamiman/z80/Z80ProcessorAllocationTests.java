@@ -0,0 +1,239 @@
+package konamiman.z80;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EventObject;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import konamiman.z80.events.MemoryAccessEvent;
+import konamiman.z80.impls.PlainMemory;
+import konamiman.z80.interfaces.Z80InterruptSource;
+import dotnet4j.util.compat.EventHandler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+
+/**
+ * Guards the allocation rate of the instruction execution loop: a representative instruction mix
+ * is run on a warmed up processor in several configurations, and the bytes allocated by the thread
+ * per executed instruction must stay within the budget of each configuration.
+ *
+ * <remarks>
+ * <para>
+ * Every configuration is measured in a JVM of its own, started with fixed flags, so that the JIT profile
+ * (and therefore how much escape analysis manages to remove) doesn't depend on the tests that ran before.
+ * </para>
+ * <para>
+ * The budgets are upper bounds of the current allocation rate, lower them when the hot path gets cheaper.
+ * When the test fails, the message lists all the configurations with their measured rate,
+ * so that it is visible which one regressed.
+ * </para>
+ */
+public class Z80ProcessorAllocationTests {
+
+    private static final byte[] Program = {
+            (byte) 0xC3, 0x00, 0x01                 // 0000: JP 0100h
+    };
+
+    private static final byte[] InterruptServiceRoutine = {
+            (byte) 0xFB,                            // 0038: EI
+            (byte) 0xED, 0x4D                       // 0039: RETI
+    };
+
+    private static final byte[] MainLoop = {
+            (byte) 0xFB,                            // 0100: EI
+            (byte) 0xED, 0x56,                      // 0101: IM 1
+            (byte) 0xDD, 0x21, 0x00, 0x20,          // 0103: LD IX,2000h
+            0x16, 0x40,                             // 0107: LD D,40h
+            0x21, 0x00, 0x10,                       // 0109: LD HL,1000h
+            0x06, 0x00,                             // 010C: LD B,0
+            0x0E, 0x10,                             // 010E: LD C,10h
+            0x7E,                                   // 0110: LD A,(HL)
+            (byte) 0x80,                            // 0111: ADD A,B
+            0x77,                                   // 0112: LD (HL),A
+            0x23,                                   // 0113: INC HL
+            (byte) 0xE5,                            // 0114: PUSH HL
+            (byte) 0xCD, 0x30, 0x01,                // 0115: CALL 0130h
+            (byte) 0xE1,                            // 0118: POP HL
+            (byte) 0xED, 0x79,                      // 0119: OUT (C),A
+            (byte) 0xED, 0x78,                      // 011B: IN A,(C)
+            (byte) 0xCB, 0x06,                      // 011D: RLC (HL)
+            (byte) 0xDD, 0x77, 0x01,                // 011F: LD (IX+1),A
+            0x10, (byte) 0xEC,                      // 0122: DJNZ 0110h
+            0x15,                                   // 0124: DEC D
+            0x20, (byte) 0xE5,                      // 0125: JR NZ,010Ch
+            (byte) 0xC9                             // 0127: RET
+    };
+
+    private static final byte[] Subroutine = {
+            0x5F,                                   // 0130: LD E,A
+            (byte) 0xC9                             // 0131: RET
+    };
+
+    private static final int WarmupRuns = 30;
+
+    private static final int MeasuredRuns = 5;
+
+    /** flags of the JVMs that run the measurements */
+    private static final List<String> JvmFlags = List.of("-Xmx256m", "-XX:+UseSerialGC", "-XX:-BackgroundCompilation");
+
+    /** configuration name to setup of the processor */
+    private static final Map<String, Consumer<Z80ProcessorImpl>> Configurations = new LinkedHashMap<>();
+
+    /** configuration name to maximum bytes allocated per instruction */
+    private static final Map<String, Double> Budgets = new LinkedHashMap<>();
+
+    // Without listeners nothing is allocated per instruction, the measured rate is about 0.023 bytes
+    // (0.34 with interrupts, from the interrupt servicing events). A memoryAccess listener gets a new event
+    // for every memory and port access, which with the flags of the forked JVMs the JIT scalar replaces,
+    // so the measured rate is the same 0.023 bytes; if the events escape again it jumps to about 370 bytes.
+    static {
+        Configurations.put("no listeners", z80 -> {});
+        Configurations.put("memoryAccess listeners", z80 -> z80.memoryAccess().addListener(Z80ProcessorAllocationTests::onMemoryAccess));
+        Configurations.put("interrupts active", z80 -> z80.registerInterruptSource(new PeriodicInterruptSource(100)));
+        Configurations.put("extended ports space", z80 -> {
+            z80.setPortsSpace(new PlainMemory(65536));
+            z80.setUseExtendedPortsSpace(true);
+        });
+
+        Budgets.put("no listeners", 0.05);
+        Budgets.put("memoryAccess listeners", 0.05);
+        Budgets.put("interrupts active", 0.5);
+        Budgets.put("extended ports space", 0.05);
+    }
+
+    @Test
+    public void Allocation_per_instruction_is_within_budget() throws Exception {
+        var threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean allocationBean && allocationBean.isThreadAllocatedMemorySupported(),
+                "Thread allocation counters are not supported by this JVM");
+
+        var results = new LinkedHashMap<String, Double>();
+        for (var configuration : Configurations.keySet())
+            results.put(configuration, measureInForkedJvm(configuration));
+
+        var report = new StringBuilder("Bytes allocated per instruction:\n");
+        var regressions = new ArrayList<String>();
+        results.forEach((configuration, bytesPerInstruction) -> {
+            var budget = Budgets.get(configuration);
+            var regressed = bytesPerInstruction > budget;
+            if (regressed)
+                regressions.add(configuration);
+            report.append("  %-24s %8.3f (budget %.3f)%s%n".formatted(configuration, bytesPerInstruction, budget, regressed ? " REGRESSED" : ""));
+        });
+
+        assertTrue(regressions.isEmpty(), () -> "Allocation budget exceeded for " + regressions + "\n" + report);
+    }
+
+    /**
+     * Entry point of the forked JVMs: measures the configuration passed as argument
+     * and prints the bytes allocated per instruction.
+     */
+    public static void main(String[] args) {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        System.out.println(measure(threadBean, Configurations.get(args[0])));
+    }
+
+    private static double measureInForkedJvm(String configuration) throws IOException, InterruptedException {
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(JvmFlags);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Z80ProcessorAllocationTests.class.getName());
+        command.add(configuration);
+
+        // the output goes to a file so that a hung child can't block the wait with a timeout
+        var outputFile = Files.createTempFile("z80-allocation", ".txt");
+        try {
+            var process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(outputFile.toFile()).start();
+            var finished = process.waitFor(1, TimeUnit.MINUTES);
+            if (!finished)
+                process.destroyForcibly().waitFor();
+            var output = Files.readString(outputFile, StandardCharsets.UTF_8).trim();
+            if (!finished)
+                fail("Measurement of " + configuration + " timed out:\n" + output);
+            if (process.exitValue() != 0)
+                fail("Measurement of " + configuration + " failed:\n" + output);
+
+            var lines = output.lines().toList();
+            return Double.parseDouble(lines.get(lines.size() - 1));
+        } finally {
+            Files.deleteIfExists(outputFile);
+        }
+    }
+
+    private static double measure(com.sun.management.ThreadMXBean threadBean, Consumer<Z80ProcessorImpl> configuration) {
+        var z80 = new Z80ProcessorImpl();
+        z80.setClockSynchronizer(null);
+        z80.setAutoStopOnRetWithStackEmpty(true);
+        z80.getMemory().setContents(0x0000, Program, 0, null);
+        z80.getMemory().setContents(0x0038, InterruptServiceRoutine, 0, null);
+        z80.getMemory().setContents(0x0100, MainLoop, 0, null);
+        z80.getMemory().setContents(0x0130, Subroutine, 0, null);
+        configuration.accept(z80);
+
+        for (int i = 0; i < WarmupRuns; i++)
+            z80.start(null);
+
+        var threadId = Thread.currentThread().getId();
+        var instructions = 0L;
+        var before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MeasuredRuns; i++) {
+            z80.start(null);
+            instructions += z80.getLastRunResult().getInstructions();
+        }
+        var allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        return (double) allocated / instructions;
+    }
+
+    private static int memoryAccessChecksum;
+
+    private static void onMemoryAccess(MemoryAccessEvent e) {
+        memoryAccessChecksum += e.getValue();
+    }
+
+    /**
+     * Interrupt source whose INT line is active once every some polls.
+     */
+    private static class PeriodicInterruptSource implements Z80InterruptSource {
+
+        private final int period;
+        private int polls;
+
+        PeriodicInterruptSource(int period) {
+            this.period = period;
+        }
+
+        @Override
+        public boolean isIntLineIsActive() {
+            return ++polls % period == 0;
+        }
+
+        @Override
+        public Optional<Byte> getValueOnDataBus() {
+            return Optional.empty();
+        }
+
+        private final EventHandler<EventObject> nmiInterruptPulse = new EventHandler<>();
+
+        @Override
+        public EventHandler<EventObject> nmiInterruptPulse() {
+            return nmiInterruptPulse;
+        }
+    }
+}
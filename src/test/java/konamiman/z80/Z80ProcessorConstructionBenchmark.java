@@ -0,0 +1,77 @@
+package konamiman.z80;
+
+import java.lang.management.ManagementFactory;
+
+import konamiman.z80.enums.MemoryAccessMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Measures the cost of creating processor instances: constructions per second,
+ * and bytes retained per instance.
+ * <p>
+ * Usage:
+ * <pre>
+ * mvn test -Dtest=Z80ProcessorConstructionBenchmark -Dvavi.test=bench
+ * </pre>
+ */
+class Z80ProcessorConstructionBenchmark {
+
+    private static final long MeasurementNanos = 3_000_000_000L;
+
+    private static final int RetainedInstances = 500;
+
+    @Test
+    @EnabledIfSystemProperty(named = "vavi.test", matches = "bench")
+    void constructionsPerSecond() {
+        // warm up, the first instance also pays for the static opcode tables
+        for (int i = 0; i < 1000; i++)
+            new Z80ProcessorImpl();
+
+        var count = 0L;
+        var start = System.nanoTime();
+        var elapsed = 0L;
+        Z80ProcessorImpl last = null;
+        while (elapsed < MeasurementNanos) {
+            for (int i = 0; i < 100; i++)
+                last = new Z80ProcessorImpl();
+            count += 100;
+            elapsed = System.nanoTime() - start;
+        }
+
+        var perSecond = count * 1_000_000_000.0 / elapsed;
+        System.out.printf("constructions: %d in %d ms, %.0f/s, %.2f us each%n",
+                count, elapsed / 1_000_000, perSecond, elapsed / 1000.0 / count);
+        assertEquals(MemoryAccessMode.ReadAndWrite, last.getMemoryAccessMode((short) 0));
+        assertTrue(perSecond > 0);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "vavi.test", matches = "bench")
+    void retainedBytesPerInstance() throws Exception {
+        new Z80ProcessorImpl();
+
+        var before = usedHeap();
+        var instances = new Z80ProcessorImpl[RetainedInstances];
+        for (int i = 0; i < instances.length; i++)
+            instances[i] = new Z80ProcessorImpl();
+        var after = usedHeap();
+
+        var perInstance = (after - before) / RetainedInstances;
+        System.out.printf("retained: %d bytes per instance (%d instances)%n", perInstance, instances.length);
+        assertTrue(perInstance > 0);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        var memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,266 @@
+package konamiman.z80;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.openmbean.TabularData;
+
+import konamiman.z80.events.BeforeInstructionFetchEvent;
+import konamiman.z80.events.MemoryAccessEvent;
+import konamiman.z80.interfaces.ClockSynchronizer;
+import konamiman.z80.management.Z80ProcessorMetrics;
+import dotnet4j.util.compat.EventHandler.EventListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class Z80ProcessorMetricsTests {
+
+    private static final byte[] Program = {
+            0x3E, 0x01,                     // LD A,1       7
+            0x00,                           // NOP          4
+            (byte) 0xCB, 0x00,              // RLC B        8
+            (byte) 0xDD, (byte) 0xCB, 0x00, 0x06, // RLC (IX+0) 23
+            (byte) 0xED, 0x44,              // NEG          8
+            (byte) 0xC9                     // RET          10
+    };
+    private static final int ProgramTStates = 60;
+
+    private Z80ProcessorImpl sut;
+    private Z80ProcessorMetrics metrics;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnRetWithStackEmpty(true);
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.getRegisters().setIX((short) 0x1000);
+
+        metrics = new Z80ProcessorMetrics();
+        sut.setMetrics(metrics);
+    }
+
+    @Test
+    public void Metrics_are_null_by_default() {
+        assertEquals(null, new Z80ProcessorImpl().getMetrics());
+    }
+
+    @Test
+    public void Setting_metrics_attaches_processor() {
+        assertSame(sut, metrics.getProcessor());
+    }
+
+    @Test
+    public void Counts_instructions_and_TStates() {
+        sut.start(null);
+        sut.start(null);
+
+        assertEquals(12, metrics.getInstructionsExecuted());
+        assertEquals(2 * ProgramTStates, metrics.getTStatesExecuted());
+    }
+
+    @Test
+    public void Histogram_is_empty_when_disabled() {
+        sut.start(null);
+
+        assertFalse(metrics.isOpcodeHistogramEnabled());
+        assertEquals(Map.of(), metrics.getOpcodeHistogram());
+    }
+
+    @Test
+    public void Histogram_counts_every_prefix_group() {
+        metrics.setOpcodeHistogramEnabled(true);
+
+        sut.start(null);
+        sut.start(null);
+
+        assertEquals(Map.of(
+                "3E", 2L,
+                "00", 2L,
+                "CB 00", 2L,
+                "DDCB 06", 2L,
+                "ED 44", 2L,
+                "C9", 2L), metrics.getOpcodeHistogram());
+        assertEquals(2, metrics.getOpcodeCount("DDCB", (byte) 0x06));
+        assertEquals(0, metrics.getOpcodeCount("FDCB", (byte) 0x06));
+    }
+
+    @Test
+    public void Counts_interrupts_and_their_TStates() {
+        sut.getMemory().setContents(0, new byte[] {(byte) 0xFB, 0x00}, 0, null); // EI, NOP
+        var source = new InterruptSourceForTests();
+        sut.registerInterruptSource(source);
+        source.setIntLineIsActive(true);
+
+        sut.executeNextInstruction();
+        sut.executeNextInstruction(); // accepts the interrupt, IM 0 with FFh on the bus (RST 38h)
+        source.setIntLineIsActive(false);
+        source.fireNmi();
+        sut.executeNextInstruction(); // NOP at 38h, then the NMI
+
+        assertEquals(1, metrics.getMaskableInterruptsAccepted());
+        assertEquals(1, metrics.getNonMaskableInterruptsAccepted());
+        assertEquals(4 + 4 + 13 + 4 + 11, metrics.getTStatesExecuted());
+    }
+
+    @Test
+    public void Listener_time_is_measured_only_when_enabled() {
+        sut.beforeInstructionFetch().addListener(e -> {
+            try { Thread.sleep(1); } catch (InterruptedException ignored) {}
+        });
+
+        sut.start(null);
+        assertEquals(0, metrics.getListenerNanos());
+
+        metrics.setListenerTimingEnabled(true);
+        sut.start(null);
+        assertTrue(metrics.getListenerNanos() >= 6 * 1_000_000L);
+    }
+
+    @Test
+    public void Listeners_are_profiled_only_when_enabled() {
+        sut.beforeInstructionFetch().addListener(e -> {
+            try { Thread.sleep(1); } catch (InterruptedException ignored) {}
+        });
+        sut.memoryAccess().addListener(e -> {});
+
+        sut.start(null);
+        assertEquals(0, sut.getListenerProfiles().get(0).calls());
+
+        metrics.setListenerTimingEnabled(true);
+        sut.start(null);
+
+        var profiles = sut.getListenerProfiles();
+        assertEquals(2, profiles.size());
+        assertEquals("beforeInstructionFetch", profiles.get(0).event());
+        assertEquals(0, profiles.get(0).index());
+        assertEquals(Z80ProcessorMetricsTests.class.getName() + "::lambda", profiles.get(0).listener());
+        assertEquals(6, profiles.get(0).calls());
+        assertTrue(profiles.get(0).nanos() >= 6 * 1_000_000L);
+        assertEquals("memoryAccess", profiles.get(1).event());
+        assertTrue(profiles.get(1).calls() > 0);
+        assertTrue(metrics.getListenerNanos() >= profiles.get(0).nanos() + profiles.get(1).nanos());
+    }
+
+    @Test
+    public void Listener_profiles_are_exposed_in_metrics() {
+        sut.beforeInstructionFetch().addListener(e -> {});
+        metrics.setListenerTimingEnabled(true);
+        sut.start(null);
+
+        var key = "beforeInstructionFetch[0] " + Z80ProcessorMetricsTests.class.getName() + "::lambda";
+        assertEquals(Map.of(key, 6L), metrics.getListenerCallsPerListener());
+        assertEquals(Map.of(key, sut.getListenerProfiles().get(0).nanos()), metrics.getListenerNanosPerListener());
+
+        metrics.resetStatistics();
+
+        assertEquals(Map.of(key, 0L), metrics.getListenerCallsPerListener());
+    }
+
+    @Test
+    public void Removed_listeners_are_not_profiled() {
+        EventListener<MemoryAccessEvent> listener = e -> {};
+        sut.memoryAccess().addListener(listener);
+
+        sut.memoryAccess().removeListener(listener);
+
+        assertEquals(0, sut.getListenerProfiles().size());
+    }
+
+    @Test
+    public void Listener_removing_itself_does_not_skip_the_next_one() {
+        metrics.setListenerTimingEnabled(true);
+        assertListenerRemovingItselfDoesNotSkipTheNextOne();
+    }
+
+    @Test
+    public void Listener_removing_itself_does_not_skip_the_next_one_without_timing() {
+        metrics.setListenerTimingEnabled(false);
+        assertListenerRemovingItselfDoesNotSkipTheNextOne();
+    }
+
+    private void assertListenerRemovingItselfDoesNotSkipTheNextOne() {
+        var calls = new int[2];
+        var first = new EventListener<BeforeInstructionFetchEvent>() {
+            @Override
+            public void exec(BeforeInstructionFetchEvent e) {
+                calls[0]++;
+                sut.beforeInstructionFetch().removeListener(this);
+            }
+        };
+        sut.beforeInstructionFetch().addListener(first);
+        sut.beforeInstructionFetch().addListener(e -> calls[1]++);
+
+        sut.start(null);
+
+        assertEquals(1, calls[0]);
+        assertEquals(6, calls[1]);
+    }
+
+    @Test
+    public void Clock_synchronizer_time_is_measured() {
+        sut.setClockSynchronizer(new SleepingClockSynchronizer());
+
+        sut.start(null);
+
+        assertTrue(metrics.getClockSyncWaitNanos() >= 6 * 1_000_000L);
+        assertEquals(-1, metrics.getClockSyncOverruns());
+    }
+
+    @Test
+    public void Effective_clock_is_available_after_a_run() {
+        sut.start(null);
+
+        assertTrue(metrics.getEffectiveMHzLastSecond() > 0);
+        assertTrue(metrics.getEffectiveMHzLast10Seconds() > 0);
+        assertTrue(metrics.getEffectiveMHzLastMinute() > 0);
+    }
+
+    @Test
+    public void Reset_sets_counters_to_zero() {
+        metrics.setOpcodeHistogramEnabled(true);
+        sut.start(null);
+
+        metrics.resetStatistics();
+
+        assertEquals(0, metrics.getInstructionsExecuted());
+        assertEquals(0, metrics.getTStatesExecuted());
+        assertEquals(0.0, metrics.getEffectiveMHzLastSecond());
+        assertEquals(Map.of(), metrics.getOpcodeHistogram());
+        assertTrue(metrics.isOpcodeHistogramEnabled());
+    }
+
+    @Test
+    public void Can_be_registered_as_MXBean() throws Exception {
+        metrics.setOpcodeHistogramEnabled(true);
+        sut.start(null);
+
+        var name = metrics.register("Z80ProcessorMetricsTests");
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals((long) ProgramTStates, server.getAttribute(name, "TStatesExecuted"));
+            assertEquals(6, ((TabularData) server.getAttribute(name, "OpcodeHistogram")).size());
+        } finally {
+            metrics.unregister();
+        }
+
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    static class SleepingClockSynchronizer implements ClockSynchronizer {
+        double effectiveClockFrequencyInMHz;
+
+        @Override public double getEffectiveClockFrequencyInMHz() { return effectiveClockFrequencyInMHz; }
+        @Override public void setEffectiveClockFrequencyInMHz(double value) { effectiveClockFrequencyInMHz = value; }
+        @Override public void start() { }
+        @Override public void stop() { }
+        @Override public void tryWait(int periodLengthInCycles) {
+            try { Thread.sleep(1); } catch (InterruptedException ignored) {}
+        }
+    }
+}
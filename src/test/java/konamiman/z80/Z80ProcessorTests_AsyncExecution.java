@@ -0,0 +1,151 @@
+package konamiman.z80;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import konamiman.z80.enums.StopReason;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class Z80ProcessorTests_AsyncExecution {
+
+    private static final byte[] Program = {
+            0x3E, 0x07,        // LD A,7
+            (byte) 0xC6, 0x04, // ADD A,4
+            0x3C,              // INC A
+            (byte) 0xC9        // RET
+    };
+
+    private Z80ProcessorImpl sut;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnRetWithStackEmpty(true);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void StartAsync_completes_with_stop_reason_and_run_result() throws Exception {
+        sut.getMemory().setContents(0, Program, 0, null);
+
+        var reason = sut.startAsync(null, executor).get(10, TimeUnit.SECONDS);
+
+        assertEquals(StopReason.RetWithStackEmpty, reason);
+        assertEquals(12, sut.getRegisters().getA());
+        var result = sut.getLastRunResult();
+        assertEquals(StopReason.RetWithStackEmpty, result.getStopReason());
+        assertEquals(28, result.getTStates());
+        assertEquals(4, result.getInstructions());
+        assertTrue(result.getWallTimeNanos() > 0);
+    }
+
+    @Test
+    public void LastRunResult_is_null_if_never_ran() {
+        assertNull(sut.getLastRunResult());
+    }
+
+    @Test
+    public void Cancelling_the_future_stops_the_processor() throws Exception {
+        sut.getMemory().setContents(0, new byte[] {0x18, (byte) 0xFE}, 0, null); // JR $
+
+        var running = new CountDownLatch(1);
+        sut.beforeInstructionFetch().addListener(e -> running.countDown());
+        var future = sut.startAsync(null, executor);
+        running.await();
+
+        future.cancel(true);
+
+        assertThrows(CancellationException.class, future::get);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(StopReason.StopInvoked, sut.getStopReason());
+    }
+
+    @Test
+    public void Cancelled_before_starting_does_not_run() throws Exception {
+        sut.getMemory().setContents(0, Program, 0, null);
+        var gate = new CountDownLatch(1);
+        executor.execute(() -> {
+            try { gate.await(); } catch (InterruptedException ignored) {}
+        });
+
+        var future = sut.startAsync(null, executor);
+        future.cancel(false);
+        gate.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(StopReason.NeverRan, sut.getStopReason());
+
+        sut.start(null);
+        assertEquals(StopReason.RetWithStackEmpty, sut.getStopReason());
+    }
+
+    @Test
+    public void Cancelling_around_run_completion_does_not_stop_the_next_run() throws Exception {
+        sut.getMemory().setContents(0, Program, 0, null);
+
+        for (int i = 0; i < 1000; i++) {
+            var future = sut.startAsync(null, executor);
+            for (int spin = 0; spin < i % 50; spin++)
+                Thread.onSpinWait();
+            future.cancel(true);
+            executor.submit(() -> {}).get(10, TimeUnit.SECONDS);
+
+            sut.start(null);
+
+            assertEquals(StopReason.RetWithStackEmpty, sut.getStopReason());
+            assertEquals(12, sut.getRegisters().getA());
+        }
+    }
+
+    @Test
+    public void Cancelling_a_pending_run_keeps_other_stop_requests() throws Exception {
+        sut.getMemory().setContents(0, Program, 0, null);
+        var gate = new CountDownLatch(1);
+        executor.execute(() -> {
+            try { gate.await(); } catch (InterruptedException ignored) {}
+        });
+
+        var future = sut.startAsync(null, executor);
+        sut.requestStop();
+        future.cancel(false);
+        gate.countDown();
+        executor.submit(() -> {}).get(10, TimeUnit.SECONDS);
+
+        sut.start(null);
+
+        assertEquals(StopReason.StopInvoked, sut.getStopReason());
+    }
+
+    @Test
+    public void ContinueAsync_accumulates_instruction_count() throws Exception {
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.start(null);
+        sut.getRegisters().setPC((short) 0);
+        sut.getRegisters().setSP((short) 0xffff);
+
+        sut.continueAsync(executor).get(10, TimeUnit.SECONDS);
+
+        assertEquals(8, sut.getInstructionsExecutedSinceStart());
+        assertEquals(4, sut.getLastRunResult().getInstructions());
+    }
+}
@@ -0,0 +1,81 @@
+package konamiman.z80;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import konamiman.z80.interfaces.ClockSynchronizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+public class Z80ProcessorTests_ClockSynchronizationQuantum {
+
+    private static final byte RET_opcode = (byte) 0xC9;
+
+    private Z80ProcessorImpl sut;
+    private FakeClockSynchronizer clockSynchronizer;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setAutoStopOnRetWithStackEmpty(true);
+        clockSynchronizer = new FakeClockSynchronizer();
+        sut.setClockSynchronizer(clockSynchronizer);
+
+        // 10 NOPs (4 T states each) and a RET (10 T states)
+        sut.getMemory().set(10, RET_opcode);
+    }
+
+    @Test
+    public void Default_quantum_is_zero() {
+        assertEquals(0, sut.getClockSynchronizationQuantum());
+    }
+
+    @Test
+    public void Negative_quantum_is_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> sut.setClockSynchronizationQuantum(-1));
+    }
+
+    @Test
+    public void With_zero_quantum_synchronizer_is_invoked_after_every_instruction() {
+        sut.start(null);
+
+        assertEquals(List.of(4, 4, 4, 4, 4, 4, 4, 4, 4, 4, 10), clockSynchronizer.waits);
+    }
+
+    @Test
+    public void With_quantum_synchronizer_is_invoked_with_accumulated_states() {
+        sut.setClockSynchronizationQuantum(12);
+
+        sut.start(null);
+
+        assertEquals(List.of(12, 12, 12, 14), clockSynchronizer.waits);
+    }
+
+    @Test
+    public void Pending_states_are_discarded_on_stop() {
+        sut.setClockSynchronizationQuantum(1000);
+
+        sut.start(null);
+
+        assertEquals(List.of(), clockSynchronizer.waits);
+        assertEquals(1, clockSynchronizer.starts);
+        assertEquals(1, clockSynchronizer.stops);
+    }
+
+    static class FakeClockSynchronizer implements ClockSynchronizer {
+        final List<Integer> waits = new ArrayList<>();
+        int starts;
+        int stops;
+        double effectiveClockFrequencyInMHz;
+
+        @Override public double getEffectiveClockFrequencyInMHz() { return effectiveClockFrequencyInMHz; }
+        @Override public void setEffectiveClockFrequencyInMHz(double value) { effectiveClockFrequencyInMHz = value; }
+        @Override public void start() { starts++; }
+        @Override public void stop() { stops++; }
+        @Override public void tryWait(int periodLengthInCycles) { waits.add(periodLengthInCycles); }
+    }
+}
@@ -0,0 +1,118 @@
+package konamiman.z80;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import konamiman.z80.enums.ProcessorState;
+import konamiman.z80.enums.StopReason;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class Z80ProcessorTests_StopRequests {
+
+    private static final byte[] InfiniteLoop = {
+            0x18, (byte) 0xFE // JR $
+    };
+
+    private static final byte[] Program = {
+            0x3E, 0x07,        // LD A,7
+            (byte) 0xC6, 0x04, // ADD A,4
+            0x3C,              // INC A
+            (byte) 0xC9        // RET
+    };
+
+    private Z80ProcessorImpl sut;
+
+    @BeforeEach
+    public void setup() {
+        sut = new Z80ProcessorImpl();
+        sut.setClockSynchronizer(null);
+        sut.setAutoStopOnRetWithStackEmpty(true);
+    }
+
+    @Test
+    public void RequestStop_from_another_thread_stops_a_runaway_program() throws Exception {
+        sut.getMemory().setContents(0, InfiniteLoop, 0, null);
+
+        var running = new CountDownLatch(1);
+        sut.beforeInstructionFetch().addListener(e -> running.countDown());
+        var thread = new Thread(() -> sut.start(null));
+        thread.start();
+        running.await();
+
+        sut.requestStop();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertTrue(!thread.isAlive());
+        assertEquals(StopReason.StopInvoked, sut.getStopReason());
+        assertEquals(ProcessorState.Stopped, sut.getState());
+        assertEquals(0, sut.getRegisters().getPC());
+    }
+
+    @Test
+    public void RequestPause_sets_state_to_paused() {
+        sut.getMemory().setContents(0, InfiniteLoop, 0, null);
+        sut.requestPause();
+
+        sut.start(null);
+
+        assertEquals(StopReason.PauseInvoked, sut.getStopReason());
+        assertEquals(ProcessorState.Paused, sut.getState());
+    }
+
+    @Test
+    public void Request_issued_while_not_running_is_honored_before_first_instruction() {
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.requestStop();
+
+        sut.start(null);
+
+        assertEquals(StopReason.StopInvoked, sut.getStopReason());
+        assertEquals(0, sut.getTStatesElapsedSinceStart());
+    }
+
+    @Test
+    public void Stop_wins_over_pause() {
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.requestPause();
+        sut.requestStop();
+
+        sut.start(null);
+
+        assertEquals(StopReason.StopInvoked, sut.getStopReason());
+    }
+
+    @Test
+    public void Request_is_kept_pending_by_single_instruction_execution() {
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.reset();
+        sut.requestStop();
+
+        var tStates = sut.executeNextInstruction();
+
+        assertEquals(7, tStates);
+        assertEquals(7, sut.getRegisters().getA());
+        assertEquals(StopReason.ExecuteNextInstructionInvoked, sut.getStopReason());
+
+        sut.continue_();
+
+        assertEquals(StopReason.StopInvoked, sut.getStopReason());
+        assertEquals(2, sut.getRegisters().getPC());
+    }
+
+    @Test
+    public void Request_is_consumed_when_processor_stops() {
+        sut.getMemory().setContents(0, Program, 0, null);
+        sut.requestStop();
+        sut.start(null);
+
+        sut.start(null);
+
+        assertEquals(StopReason.RetWithStackEmpty, sut.getStopReason());
+        assertEquals(12, sut.getRegisters().getA());
+    }
+}
@@ -2,8 +2,9 @@ package zexalltest;
 
 import konamiman.z80.Z80Processor;
 import konamiman.z80.Z80ProcessorImpl;
-import konamiman.z80.events.BeforeInstructionFetchEvent;
+import konamiman.z80.enums.TrapAction;
 import konamiman.z80.interfaces.Memory;
+import konamiman.z80.traps.Traps;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -45,7 +46,10 @@ class CPMLoadTest {
         z80.getMemory().set(0x0001, (byte) 0x07); // low byte
         z80.getMemory().set(0x0002, (byte) 0xD0); // high byte
 
-        z80.beforeInstructionFetch().addListener(CPMLoadTest::handleBdosCall);
+        var traps = new Traps();
+        for (var address : new short[] {0x0000, 0x0005, 0x0006, 0x0009})
+            traps.set(address, CPMLoadTest::handleBdosCall);
+        z80.setTraps(traps);
 
         System.err.println("Running CP/M program... Press Ctrl+C to quit.\n");
         z80.reset();
@@ -53,13 +57,12 @@ class CPMLoadTest {
         z80.continue_();
     }
 
-    private static void handleBdosCall(BeforeInstructionFetchEvent args) {
-        var z80 = (Z80Processor) args.getSource();
+    private static TrapAction handleBdosCall(Z80Processor z80) {
         int pc = z80.getRegisters().getPC() & 0xFFFF;
 
         if (pc == 0x0000) {
             z80.getRegisters().setPC((short) 0xD007); // WBOOT vector
-            return;
+            return TrapAction.Execute;
         }
 
         // System.out.println("BDOS Address: " + String.format("0b%8s", Integer.toBinaryString(pc & 0xFF)).replace(' ', '0'));
@@ -72,14 +75,14 @@ class CPMLoadTest {
                 } catch (IOException e) {
                     z80.getRegisters().setA((byte) 0);
                 }
-                z80.executeRet();
+                return TrapAction.Return;
             }
 
             case 0x0009 -> { // BIOS CONOUT
                 int c = z80.getRegisters().getC() & 0xFF;
                 System.out.print((char) c);
                 System.out.flush(); // <== ADD THIS
-                z80.executeRet();
+                return TrapAction.Return;
             }
 
             case 0x0005 -> { // BDOS entry
@@ -165,7 +168,7 @@ class CPMLoadTest {
                         /* Attempt to load COM file */
                         if (tryLoadComProgram(name, z80.getMemory())) {
                             z80.getRegisters().setPC((short) 0x0100);
-                            return;
+                            return TrapAction.Execute;
                         }
 
                         if (!formatFcb(z80.getMemory(), fcbAddr).equals(".")) {
@@ -251,9 +254,10 @@ class CPMLoadTest {
                     default ->
                         System.err.printf("Unhandled BDOS function: C=0x%02X at PC=0x%04X\n", c, pc);
                 }
-                z80.executeRet();
+                return TrapAction.Return;
             }
         }
+        return TrapAction.Execute;
     }
 
     private static boolean tryLoadComProgram(String name, Memory mem) {
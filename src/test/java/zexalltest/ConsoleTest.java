@@ -2,7 +2,8 @@ package zexalltest;
 
 import konamiman.z80.Z80Processor;
 import konamiman.z80.Z80ProcessorImpl;
-import konamiman.z80.events.BeforeInstructionFetchEvent;
+import konamiman.z80.enums.TrapAction;
+import konamiman.z80.traps.Traps;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -30,7 +31,10 @@ class ConsoleTest {
         // Load COM program into memory starting at 0x100
         z80.getMemory().setContents(0x100, program, 0, null);
 
-        z80.beforeInstructionFetch().addListener(ConsoleTest::handleBdosCall);
+        var traps = new Traps();
+        traps.set((short) 0x0000, processor -> TrapAction.Stop);
+        traps.set((short) 0x0005, ConsoleTest::handleBdosCall);
+        z80.setTraps(traps);
 
         System.err.println("Running COM program... Press Ctrl+C to quit.\n");
 
@@ -39,17 +43,8 @@ class ConsoleTest {
         z80.continue_();
     }
 
-    private static void handleBdosCall(BeforeInstructionFetchEvent args) {
-        var z80 = (Z80Processor) args.getSource();
+    private static TrapAction handleBdosCall(Z80Processor z80) {
         int pc = z80.getRegisters().getPC() & 0xFFFF;
-
-        if (pc == 0x0000) {
-            args.getExecutionStopper().stop(false);
-            return;
-        }
-
-        if (pc != 0x0005) return;
-
         int c = z80.getRegisters().getC() & 0xFF;
 
         switch (c) {
@@ -80,7 +75,7 @@ class ConsoleTest {
             }
         }
 
-        z80.executeRet();
+        return TrapAction.Return;
     }
 }
 
@@ -0,0 +1,277 @@
+package zexalltest;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import dotnet4j.util.compat.EventHandler;
+import konamiman.z80.Z80Processor;
+import konamiman.z80.Z80ProcessorImpl;
+import konamiman.z80.enums.TrapAction;
+import konamiman.z80.interfaces.ClockSynchronizer;
+import konamiman.z80.interfaces.Z80InterruptSource;
+import konamiman.z80.traps.Traps;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+
+/**
+ * Macro benchmark runner for the programs in src/test/resources/bench
+ * (see the .asm files there for the sources).
+ * <p>
+ * Each program runs forever under a minimal CP/M console, so it is executed for a fixed budget
+ * of T states, after a warm up run of a quarter of that budget. The results are reported as JSON
+ * so that runs can be compared over time.
+ * <p>
+ * Usage:
+ * <pre>
+ * MacroBenchmark [tStateBudget [output.json]]
+ * mvn -P zexall test -Dtarget=bench -Dtest=MacroBenchmark - writes target/macro-benchmark.json
+ * </pre>
+ */
+class MacroBenchmark {
+
+    private static final byte DOLLAR = '$';
+
+    private static final String[] Programs = {"sieve", "crc32", "memcopy", "timer", "console"};
+
+    /** 50 seconds at 4 MHz */
+    private static final long DefaultTStateBudget = 200_000_000L;
+
+    /** period of the timer interrupt used by the "timer" program, in T states */
+    private static final int TimerPeriod = 1000;
+
+    /** how often the T state budget is checked, in T states */
+    private static final int BudgetCheckPeriod = 10_000;
+
+    public static void main(String[] args) throws IOException {
+        var budget = args.length >= 1 ? Long.parseLong(args[0]) : DefaultTStateBudget;
+
+        var json = run(budget);
+
+        if (args.length >= 2)
+            Files.writeString(Path.of(args[1]), json);
+        System.out.println(json);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "vavi.test", matches = "bench")
+    void testMacroBenchmark() throws Exception {
+        var json = run(DefaultTStateBudget);
+
+        Files.writeString(Path.of("target", "macro-benchmark.json"), json);
+        System.out.println(json);
+    }
+
+    /** the measurements of one program */
+    record Result(String program, long tStates, long instructions, long wallNanos,
+                  long gcCount, long gcMillis, long allocatedBytes, long consoleBytes) {
+
+        double nanosPerTState() {
+            return (double) wallNanos / tStates;
+        }
+
+        double effectiveMHz() {
+            return tStates * 1000.0 / wallNanos;
+        }
+    }
+
+    static String run(long tStateBudget) throws IOException {
+        var results = new ArrayList<Result>();
+        for (var program : Programs) {
+            var code = Files.readAllBytes(Path.of("src/test/resources/bench", program + ".com"));
+            exec(program, code, tStateBudget / 4);
+            results.add(exec(program, code, tStateBudget));
+        }
+        return toJson(tStateBudget, results);
+    }
+
+    static Result exec(String name, byte[] program, long tStateBudget) {
+        var z80 = new Z80ProcessorImpl();
+        z80.setClockSynchronizer(new BudgetClock(z80, tStateBudget));
+        z80.setClockSynchronizationQuantum(BudgetCheckPeriod);
+        z80.getMemory().setContents(0x100, program, 0, null);
+
+        if (name.equals("timer"))
+            z80.registerInterruptSource(new TimerInterruptSource(z80, TimerPeriod));
+
+        var console = new long[1];
+        var traps = new Traps();
+        traps.set((short) 0x0000, processor -> TrapAction.Stop);
+        traps.set((short) 0x0005, processor -> handleBdosCall(processor, console));
+        z80.setTraps(traps);
+
+        var gcCount = gcCount();
+        var gcMillis = gcMillis();
+        var allocated = allocatedBytes();
+        var start = System.nanoTime();
+
+        z80.reset();
+        z80.getRegisters().setPC((short) 0x100);
+        z80.continue_();
+
+        var wallNanos = System.nanoTime() - start;
+        return new Result(name,
+                z80.getTStatesElapsedSinceStart(),
+                z80.getInstructionsExecutedSinceStart(),
+                wallNanos,
+                gcCount() - gcCount,
+                gcMillis() - gcMillis,
+                allocatedBytes() - allocated,
+                console[0]);
+    }
+
+    /**
+     * Minimal CP/M console as in {@link ConsoleTest}, the output is counted and discarded
+     * so that the terminal speed does not affect the measurement.
+     */
+    private static TrapAction handleBdosCall(Z80Processor z80, long[] console) {
+        int pc = z80.getRegisters().getPC() & 0xFFFF;
+        int c = z80.getRegisters().getC() & 0xFF;
+
+        switch (c) {
+            case 2 -> console[0]++; // CONOUT
+            case 9 -> { // PRINT $
+                int addr = z80.getRegisters().getDE() & 0xFFFF;
+                while (z80.getMemory().get(addr) != DOLLAR) {
+                    console[0]++;
+                    addr++;
+                }
+            }
+            default -> System.err.printf("Unhandled BDOS function: C=0x%02X at PC=0x%04X\n", c, pc);
+        }
+
+        return TrapAction.Return;
+    }
+
+    /**
+     * Clock synchronizer that doesn't wait, but stops the processor once the T state budget is exhausted.
+     * It's invoked once every {@link #BudgetCheckPeriod} T states, so the budget can be exceeded by at most that.
+     */
+    private static class BudgetClock implements ClockSynchronizer {
+
+        private final Z80Processor z80;
+
+        private final long tStateBudget;
+
+        BudgetClock(Z80Processor z80, long tStateBudget) {
+            this.z80 = z80;
+            this.tStateBudget = tStateBudget;
+        }
+
+        private double effectiveClockFrequencyInMHz;
+
+        @Override
+        public double getEffectiveClockFrequencyInMHz() {
+            return effectiveClockFrequencyInMHz;
+        }
+
+        @Override
+        public void setEffectiveClockFrequencyInMHz(double value) {
+            effectiveClockFrequencyInMHz = value;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void tryWait(int periodLengthInCycles) {
+            if (z80.getTStatesElapsedSinceStart() >= tStateBudget)
+                z80.requestStop();
+        }
+    }
+
+    /**
+     * Requests a mode 2 interrupt every period T states, with FFh on the data bus.
+     */
+    private static class TimerInterruptSource implements Z80InterruptSource {
+
+        private static final Optional<Byte> DataBus = Optional.of((byte) 0xFF);
+
+        private final EventHandler<?> nmiInterruptPulse = new EventHandler<>();
+
+        private final Z80Processor z80;
+
+        private final int period;
+
+        private long next;
+
+        TimerInterruptSource(Z80Processor z80, int period) {
+            this.z80 = z80;
+            this.period = period;
+            this.next = period;
+        }
+
+        @Override
+        public EventHandler<?> nmiInterruptPulse() {
+            return nmiInterruptPulse;
+        }
+
+        @Override
+        public boolean isIntLineIsActive() {
+            return z80.getTStatesElapsedSinceStart() >= next;
+        }
+
+        @Override
+        public Optional<Byte> getValueOnDataBus() {
+            next += period;
+            return DataBus;
+        }
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(c -> c > 0).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(c -> c > 0).sum();
+    }
+
+    /** @return -1 if not supported by the VM */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean)
+            return bean.getCurrentThreadAllocatedBytes();
+        return -1;
+    }
+
+    private static String toJson(long tStateBudget, List<Result> results) {
+        var sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"timestamp\": \"").append(Instant.now()).append("\",\n");
+        sb.append("  \"javaVersion\": \"").append(System.getProperty("java.version")).append("\",\n");
+        sb.append("  \"vmName\": \"").append(System.getProperty("java.vm.name")).append("\",\n");
+        sb.append("  \"tStateBudget\": ").append(tStateBudget).append(",\n");
+        sb.append("  \"results\": [\n");
+        for (int i = 0; i < results.size(); i++) {
+            var r = results.get(i);
+            sb.append("    {");
+            sb.append("\"program\": \"").append(r.program()).append("\", ");
+            sb.append("\"tStates\": ").append(r.tStates()).append(", ");
+            sb.append("\"instructions\": ").append(r.instructions()).append(", ");
+            sb.append("\"wallNanos\": ").append(r.wallNanos()).append(", ");
+            sb.append("\"nanosPerTState\": ").append(String.format("%.3f", r.nanosPerTState())).append(", ");
+            sb.append("\"effectiveMHz\": ").append(String.format("%.3f", r.effectiveMHz())).append(", ");
+            sb.append("\"gcCount\": ").append(r.gcCount()).append(", ");
+            sb.append("\"gcMillis\": ").append(r.gcMillis()).append(", ");
+            sb.append("\"allocatedBytes\": ").append(r.allocatedBytes()).append(", ");
+            sb.append("\"consoleBytes\": ").append(r.consoleBytes());
+            sb.append(i < results.size() - 1 ? "},\n" : "}\n");
+        }
+        sb.append("  ]\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
@@ -9,7 +9,8 @@ import java.util.ArrayList;
 
 import konamiman.z80.Z80Processor;
 import konamiman.z80.Z80ProcessorImpl;
-import konamiman.z80.events.BeforeInstructionFetchEvent;
+import konamiman.z80.enums.TrapAction;
+import konamiman.z80.traps.Traps;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
@@ -65,7 +66,10 @@ class ZexallTest {
         z80.getMemory().set(6, (byte) 0xff);
         z80.getMemory().set(7, (byte) 0xff);
 
-        z80.beforeInstructionFetch().addListener(ZexallTest::z80OnBeforeInstructionFetch);
+        var traps = new Traps();
+        traps.set((short) 0, processor -> TrapAction.Stop);
+        traps.set((short) 5, ZexallTest::bdosCall);
+        z80.setTraps(traps);
 
         skipTests(z80, testsToSkip);
 
@@ -86,18 +90,10 @@ class ZexallTest {
         z80.getMemory().set(loadTestsAddress + 1, getHighByte(newTestAddress));
     }
 
-    private static void z80OnBeforeInstructionFetch(BeforeInstructionFetchEvent args) {
+    private static TrapAction bdosCall(Z80Processor z80) {
 
         // Absolutely minimum implementation of CP/M for ZEXALL and ZEXDOC to work
 
-        var z80 = (Z80Processor) args.getSource();
-
-        if (z80.getRegisters().getPC() == 0) {
-            args.getExecutionStopper().stop(false);
-            return;
-        } else if (z80.getRegisters().getPC() != 5)
-            return;
-
         var function = z80.getRegisters().getC();
 
         if (function == 9) {
@@ -117,7 +113,7 @@ class ZexallTest {
             System.err.print(charToPrint);
         }
 
-        z80.executeRet();
+        return TrapAction.Return;
     }
 }
 
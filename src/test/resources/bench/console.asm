@@ -0,0 +1,28 @@
+; BDOS console heavy program: prints strings with function 9
+; and single characters with function 2, forever.
+
+        org     100h
+
+start:  ld      sp,0F000h
+loop:   ld      de,msg
+        ld      c,9
+        call    5
+        ld      b,26
+        ld      e,'A'
+chars:  push    bc
+        push    de
+        ld      c,2
+        call    5
+        pop     de
+        pop     bc
+        inc     e
+        djnz    chars
+        ld      e,13
+        ld      c,2
+        call    5
+        ld      e,10
+        ld      c,2
+        call    5
+        jp      loop
+
+msg:    db      'The quick brown fox jumps over the lazy dog',13,10,'$'
@@ -0,0 +1,48 @@
+; Bitwise CRC-32 (polynomial EDB88320h) of the first 1 KB of the program area.
+; The CRC is kept in DEHL, D being the most significant byte.
+; Runs forever, printing a dot after each pass.
+
+        org     100h
+
+LENGTH  equ     1024
+
+start:  ld      sp,0F000h
+pass:   ld      de,0FFFFh
+        ld      hl,0FFFFh
+        ld      ix,100h
+        ld      bc,LENGTH
+byte:   ld      a,(ix+0)
+        xor     l
+        ld      l,a
+        rept    8
+        srl     d               ; crc >>= 1
+        rr      e
+        rr      h
+        rr      l
+        jr      nc,$+18
+        ld      a,d             ; crc ^= EDB88320h
+        xor     0EDh
+        ld      d,a
+        ld      a,e
+        xor     0B8h
+        ld      e,a
+        ld      a,h
+        xor     083h
+        ld      h,a
+        ld      a,l
+        xor     020h
+        ld      l,a
+        endm
+        inc     ix
+        dec     bc
+        ld      a,b
+        or      c
+        jp      nz,byte
+        ld      (crc),hl
+        ld      (crc+2),de
+        ld      e,'.'
+        ld      c,2
+        call    5
+        jp      pass
+
+crc:    dw      0,0
@@ -0,0 +1,32 @@
+; Memory copy heavy program: 4 KB blocks copied with LDIR, LDDR
+; and with a plain byte loop.
+; Runs forever, printing a dot after each pass.
+
+        org     100h
+
+BLOCK   equ     4096
+
+start:  ld      sp,0F000h
+pass:   ld      hl,2000h
+        ld      de,4000h
+        ld      bc,BLOCK
+        ldir
+        ld      hl,4000h+BLOCK-1
+        ld      de,6000h+BLOCK-1
+        ld      bc,BLOCK
+        lddr
+        ld      hl,6000h
+        ld      de,2000h
+        ld      bc,BLOCK
+copy:   ld      a,(hl)
+        ld      (de),a
+        inc     hl
+        inc     de
+        dec     bc
+        ld      a,b
+        or      c
+        jr      nz,copy
+        ld      e,'.'
+        ld      c,2
+        call    5
+        jp      pass
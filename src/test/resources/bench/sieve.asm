@@ -0,0 +1,56 @@
+; Sieve of Eratosthenes, the classic BYTE benchmark (8190 flags).
+; Runs forever, printing a dot after each pass.
+
+        org     100h
+
+SIZE    equ     8190
+FLAGS   equ     1000h
+LIMIT   equ     FLAGS+SIZE
+
+start:  ld      sp,0F000h
+pass:   ld      hl,FLAGS        ; set all the flags
+        ld      de,FLAGS+1
+        ld      bc,SIZE-1
+        ld      (hl),1
+        ldir
+        ld      hl,0
+        ld      (count),hl
+        ld      bc,0            ; i
+loop:   ld      hl,FLAGS
+        add     hl,bc
+        ld      a,(hl)
+        or      a
+        jr      z,next
+        ld      h,b             ; prime = i+i+3
+        ld      l,c
+        add     hl,hl
+        inc     hl
+        inc     hl
+        inc     hl
+        ex      de,hl
+        ld      hl,FLAGS        ; k = i+prime
+        add     hl,bc
+        add     hl,de
+clear:  ld      a,l             ; while k < SIZE
+        sub     LIMIT AND 0FFh
+        ld      a,h
+        sbc     a,LIMIT SHR 8
+        jr      nc,cdone
+        ld      (hl),0
+        add     hl,de
+        jr      clear
+cdone:  ld      hl,(count)
+        inc     hl
+        ld      (count),hl
+next:   inc     bc
+        ld      a,c
+        sub     SIZE AND 0FFh
+        ld      a,b
+        sbc     a,SIZE SHR 8
+        jr      c,loop
+        ld      e,'.'
+        ld      c,2
+        call    5
+        jp      pass
+
+count:  dw      0
@@ -0,0 +1,37 @@
+; Interrupt heavy program: a mode 2 timer interrupt (provided by the runner)
+; increments a tick counter, the main loop does a little work and waits for the next tick.
+; Prints a dot every 64 ticks.
+
+        org     100h
+
+start:  ld      sp,0F000h
+        ld      a,VECTOR SHR 8
+        ld      i,a
+        im      2
+        ei
+main:   ld      b,20
+work:   djnz    work
+        halt
+        ld      a,(ticks)
+        and     3Fh
+        jr      nz,main
+        ld      e,'.'
+        ld      c,2
+        call    5
+        jr      main
+
+ticks:  dw      0
+
+        org     2FFh            ; the runner puts FFh on the data bus
+VECTOR: dw      tick
+
+        org     400h
+tick:   push    af
+        push    hl
+        ld      hl,(ticks)
+        inc     hl
+        ld      (ticks),hl
+        pop     hl
+        pop     af
+        ei
+        reti